@@ -18,7 +18,16 @@ package org.jclouds.abiquo;
 
 import static org.jclouds.Constants.PROPERTY_MAX_REDIRECTS;
 import static org.jclouds.abiquo.config.AbiquoProperties.ASYNC_TASK_MONITOR_DELAY;
+import static org.jclouds.abiquo.config.AbiquoProperties.BATCH_DEPLOY;
 import static org.jclouds.abiquo.config.AbiquoProperties.CREDENTIAL_TYPE;
+import static org.jclouds.abiquo.config.AbiquoProperties.EVENT_TAIL_INTERVAL;
+import static org.jclouds.abiquo.config.AbiquoProperties.FAN_OUT_MAX_CONCURRENCY;
+import static org.jclouds.abiquo.config.AbiquoProperties.FAN_OUT_MAX_RATE;
+import static org.jclouds.abiquo.config.AbiquoProperties.FAN_OUT_TIMEOUT;
+import static org.jclouds.abiquo.config.AbiquoProperties.PAGINATION_PREFETCH_DEPTH;
+import static org.jclouds.abiquo.config.AbiquoProperties.TEMPLATE_CACHE_MAX_SIZE;
+import static org.jclouds.abiquo.config.AbiquoProperties.TEMPLATE_CACHE_TTL;
+import static org.jclouds.abiquo.config.AbiquoProperties.VIRTUAL_MACHINE_INDEX_MAX_SIZE;
 
 import java.net.URI;
 import java.util.Properties;
@@ -59,6 +68,23 @@ public class AbiquoApiMetadata extends BaseHttpApiMetadata<AbiquoApi> {
       properties.setProperty(ASYNC_TASK_MONITOR_DELAY, "5000");
       // By default the provided credential is not a token
       properties.setProperty(CREDENTIAL_TYPE, "password");
+      // Fetch the next page of large collections while the current one is
+      // being consumed
+      properties.setProperty(PAGINATION_PREFETCH_DEPTH, "1");
+      // Remember the links of the last 10000 listed virtual machines
+      properties.setProperty(VIRTUAL_MACHINE_INDEX_MAX_SIZE, "10000");
+      // Bound the concurrent requests of the list strategies, without rate
+      // limit or timeout
+      properties.setProperty(FAN_OUT_MAX_CONCURRENCY, "10");
+      properties.setProperty(FAN_OUT_MAX_RATE, "0");
+      properties.setProperty(FAN_OUT_TIMEOUT, "0");
+      // Poll for new events every 10 seconds when tailing events
+      properties.setProperty(EVENT_TAIL_INTERVAL, "10000");
+      // Cache the templates of the datacenter repositories for 5 minutes
+      properties.setProperty(TEMPLATE_CACHE_TTL, "300000");
+      properties.setProperty(TEMPLATE_CACHE_MAX_SIZE, "1000");
+      // Deploy each node of a group on its own by default
+      properties.setProperty(BATCH_DEPLOY, "false");
       return properties;
    }
 
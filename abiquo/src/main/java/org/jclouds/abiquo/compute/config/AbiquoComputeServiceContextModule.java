@@ -16,6 +16,14 @@
  */
 package org.jclouds.abiquo.compute.config;
 
+import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
 import org.jclouds.abiquo.compute.functions.DatacenterToLocation;
 import org.jclouds.abiquo.compute.functions.VirtualDatacenterToLocation;
 import org.jclouds.abiquo.compute.functions.VirtualMachineTemplateInVirtualDatacenterToHardware;
@@ -29,6 +37,9 @@ import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplateInVirtualDatacenter;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.jclouds.collect.Memoized;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.config.ComputeServiceAdapterContextModule;
 import org.jclouds.compute.domain.Hardware;
@@ -39,8 +50,15 @@ import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
 import org.jclouds.domain.Location;
 import org.jclouds.location.suppliers.ImplicitLocationSupplier;
 import org.jclouds.location.suppliers.implicit.OnlyLocationOrFirstZone;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 
@@ -74,4 +92,42 @@ public class AbiquoComputeServiceContextModule
       });
    }
 
+   /**
+    * Provides a snapshot of all the virtual datacenters indexed by the id of
+    * the datacenter where they are, to avoid listing all virtual datacenters
+    * for each image when building the hardware profiles.
+    */
+   @Provides
+   @Singleton
+   @Memoized
+   protected Supplier<Multimap<Integer, VirtualDatacenter>> getVirtualDatacentersIndexedByDatacenterId(
+         final AtomicReference<AuthorizationException> authException,
+         @Named(PROPERTY_SESSION_INTERVAL) final long seconds, final CloudService cloudService) {
+      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException,
+            new Supplier<Multimap<Integer, VirtualDatacenter>>() {
+               @Override
+               public Multimap<Integer, VirtualDatacenter> get() {
+                  return indexByDatacenterId(cloudService.listVirtualDatacenters());
+               }
+            }, seconds, TimeUnit.SECONDS);
+   }
+
+   /**
+    * Indexes the given virtual datacenters by the id of the datacenter where
+    * they are. Virtual datacenters without a datacenter link can not be
+    * matched to any location, so they are left out of the index instead of
+    * failing the whole snapshot.
+    */
+   @VisibleForTesting
+   static Multimap<Integer, VirtualDatacenter> indexByDatacenterId(final Iterable<VirtualDatacenter> vdcs) {
+      ImmutableListMultimap.Builder<Integer, VirtualDatacenter> index = ImmutableListMultimap.builder();
+      for (VirtualDatacenter vdc : vdcs) {
+         Integer datacenterId = vdc.unwrap().getIdFromLink(ParentLinkName.DATACENTER);
+         if (datacenterId != null) {
+            index.put(datacenterId, vdc);
+         }
+      }
+      return index.build();
+   }
+
 }
@@ -18,8 +18,8 @@ package org.jclouds.abiquo.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.concat;
-import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
 import static com.google.common.collect.Iterables.get;
@@ -27,6 +27,7 @@ import static com.google.common.collect.Iterables.isEmpty;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -49,6 +50,7 @@ import org.jclouds.abiquo.domain.network.PublicIp;
 import org.jclouds.abiquo.features.services.AdministrationService;
 import org.jclouds.abiquo.features.services.CloudService;
 import org.jclouds.abiquo.features.services.MonitoringService;
+import org.jclouds.abiquo.internal.VirtualMachineTemplateCache;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
 import org.jclouds.abiquo.predicates.IpPredicates;
 import org.jclouds.collect.Memoized;
@@ -68,6 +70,7 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
 import com.google.inject.Inject;
 
@@ -100,11 +103,14 @@ public class AbiquoComputeServiceAdapter
 
    private final Timeouts timeouts;
 
+   private final VirtualMachineTemplateCache templateCache;
+
    @Inject
    public AbiquoComputeServiceAdapter(final ApiContext<AbiquoApi> context, final AdministrationService adminService,
          final CloudService cloudService, final MonitoringService monitoringService,
          final FindCompatibleVirtualDatacenters compatibleVirtualDatacenters,
-         @Memoized final Supplier<Map<Integer, Datacenter>> regionMap, Timeouts timeouts) {
+         @Memoized final Supplier<Map<Integer, Datacenter>> regionMap, Timeouts timeouts,
+         final VirtualMachineTemplateCache templateCache) {
       this.context = checkNotNull(context, "context");
       this.adminService = checkNotNull(adminService, "adminService");
       this.cloudService = checkNotNull(cloudService, "cloudService");
@@ -112,6 +118,7 @@ public class AbiquoComputeServiceAdapter
       this.compatibleVirtualDatacenters = checkNotNull(compatibleVirtualDatacenters, "compatibleVirtualDatacenters");
       this.regionMap = checkNotNull(regionMap, "regionMap");
       this.timeouts = checkNotNull(timeouts, "timeouts");
+      this.templateCache = checkNotNull(templateCache, "templateCache");
    }
 
    @Override
@@ -124,6 +131,20 @@ public class AbiquoComputeServiceAdapter
 
    protected NodeAndInitialCredentials<VirtualMachine> createNodeWithGroupEncodedIntoName(final String name,
          final VirtualApplianceCachingTemplate template) {
+      VirtualMachine vm = saveAndConfigureNetworking(name, template);
+
+      // In batch mode all the nodes in the group are deployed at once, when
+      // all of them have been saved
+      if (!template.getBatchDeploy().isPresent()) {
+         // This is an async operation, but jclouds already waits until the
+         // node is RUNNING, so there is no need to block here
+         vm.deploy();
+      }
+
+      return new NodeAndInitialCredentials<VirtualMachine>(vm, vm.getId().toString(), null);
+   }
+
+   private VirtualMachine saveAndConfigureNetworking(final String name, final VirtualApplianceCachingTemplate template) {
       AbiquoTemplateOptions options = template.getOptions().as(AbiquoTemplateOptions.class);
       Enterprise enterprise = adminService.getCurrentEnterprise();
 
@@ -131,7 +152,7 @@ public class AbiquoComputeServiceAdapter
       Datacenter datacenter = regionMap.get().get(Integer.valueOf(template.getImage().getLocation().getId()));
 
       // Load the template
-      VirtualMachineTemplate virtualMachineTemplate = enterprise.getTemplateInRepository(datacenter,
+      VirtualMachineTemplate virtualMachineTemplate = templateCache.get(enterprise, datacenter,
             Integer.valueOf(template.getImage().getId()));
 
       Integer overrideCores = options.getOverrideCores();
@@ -148,11 +169,7 @@ public class AbiquoComputeServiceAdapter
 
       configureNetworking(vm, template, datacenter, options);
 
-      // This is an async operation, but jclouds already waits until the node is
-      // RUNNING, so there is no need to block here
-      vm.deploy();
-
-      return new NodeAndInitialCredentials<VirtualMachine>(vm, vm.getId().toString(), null);
+      return vm;
    }
 
    @Override
@@ -181,17 +198,30 @@ public class AbiquoComputeServiceAdapter
    @Override
    public Iterable<VirtualMachineTemplate> listImages() {
       Enterprise enterprise = adminService.getCurrentEnterprise();
-      return enterprise.listTemplates();
+      // Keep the listed templates at hand for the node creation
+      List<VirtualMachineTemplate> templates = ImmutableList.copyOf(enterprise.listTemplates());
+      templateCache.putAll(templates);
+      return templates;
    }
 
    @Override
    public VirtualMachineTemplate getImage(final String id) {
-      return find(listImages(), new Predicate<VirtualMachineTemplate>() {
-         @Override
-         public boolean apply(VirtualMachineTemplate input) {
-            return input.getId().toString().equals(id);
-         }
-      }, null);
+      Integer templateId = Ints.tryParse(id);
+      if (templateId == null) {
+         return null;
+      }
+
+      VirtualMachineTemplate template = templateCache.getIfPresent(templateId);
+      if (template == null) {
+         // Refresh all the templates at once so subsequent lookups are cached
+         template = find(listImages(), new Predicate<VirtualMachineTemplate>() {
+            @Override
+            public boolean apply(VirtualMachineTemplate input) {
+               return input.getId().toString().equals(id);
+            }
+         }, null);
+      }
+      return template;
    }
 
    @Override
@@ -201,7 +231,7 @@ public class AbiquoComputeServiceAdapter
 
    @Override
    public VirtualMachine getNode(final String id) {
-      return find(cloudService.listVirtualMachines(), vmId(id), null);
+      return cloudService.getVirtualMachine(Integer.valueOf(id));
    }
 
    @Override
@@ -244,13 +274,14 @@ public class AbiquoComputeServiceAdapter
 
    @Override
    public Iterable<VirtualMachine> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<VirtualMachine>() {
-
+      // Ids that are not numeric can not match any virtual machine
+      Iterable<Integer> vmIds = filter(transform(ids, new Function<String, Integer>() {
          @Override
-         public boolean apply(VirtualMachine machine) {
-            return contains(ids, Integer.toString(machine.getId()));
+         public Integer apply(final String input) {
+            return Ints.tryParse(input);
          }
-      });
+      }), notNull());
+      return cloudService.getVirtualMachines(ImmutableSet.copyOf(vmIds));
    }
 
    /**
@@ -292,11 +323,18 @@ public class AbiquoComputeServiceAdapter
 
             checkArgument(network != null, "No network was found with id: %s", networkId);
 
-            Iterable<? extends Ip<?, ?>> unusedIps = network.listUnusedIps();
-            checkArgument(!isEmpty(unusedIps), "There are no available ips in network: %s", networkId);
-
-            // Get the first available ip
-            Ip<?, ?> availableIp = get(unusedIps, 0);
+            Ip<?, ?> availableIp = null;
+            if (template.getBatchDeploy().isPresent()) {
+               // Take the ip from the ones listed for the whole group
+               availableIp = template.getBatchDeploy().get().takeUnusedIp(network);
+               checkArgument(availableIp != null, "There are no available ips in network: %s", networkId);
+            } else {
+               Iterable<? extends Ip<?, ?>> unusedIps = network.listUnusedIps();
+               checkArgument(!isEmpty(unusedIps), "There are no available ips in network: %s", networkId);
+
+               // Get the first available ip
+               availableIp = get(unusedIps, 0);
+            }
             logger.debug(">> Found available ip: %s", availableIp);
             ips.add(availableIp);
          }
@@ -304,8 +342,9 @@ public class AbiquoComputeServiceAdapter
          // Assign all ips to the virtual machine
          vm.setNics(ips.build());
       } else {
-         Optional<PublicIp> publicIp = tryFind(template.getVirtualDatacenter().listPurchasedPublicIps(),
-               IpPredicates.<PublicIp> notUsed());
+         Optional<PublicIp> publicIp = template.getBatchDeploy().isPresent() ? Optional.fromNullable(template
+               .getBatchDeploy().get().takeUnusedPublicIp()) : tryFind(template.getVirtualDatacenter()
+               .listPurchasedPublicIps(), IpPredicates.<PublicIp> notUsed());
          if (publicIp.isPresent()) {
             logger.debug(">> Found available public ip %s", publicIp.get().getIp());
             vm.setNics(ImmutableList.<Ip<?, ?>> of(publicIp.get()));
@@ -315,15 +354,6 @@ public class AbiquoComputeServiceAdapter
       }
    }
 
-   private static Predicate<VirtualMachine> vmId(final String id) {
-      return new Predicate<VirtualMachine>() {
-         @Override
-         public boolean apply(final VirtualMachine input) {
-            return Integer.valueOf(id).equals(input.getId());
-         }
-      };
-   }
-
    private static int totalCores(final Hardware hardware) {
       double cores = 0;
       for (Processor processor : hardware.getProcessors()) {
@@ -21,6 +21,7 @@ import static com.google.common.collect.Iterables.tryFind;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,28 +29,40 @@ import javax.inject.Singleton;
 
 import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.config.AbiquoProperties;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.features.services.MonitoringService;
 import org.jclouds.compute.config.CustomizationResponse;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
 import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
 import org.jclouds.rest.ApiContext;
 
+import com.abiquo.server.core.cloud.VirtualApplianceState;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Creates the group before concurrently creating the nodes, to avoid creating
  * more than one group with the same name.
+ * <p>
+ * When {@link AbiquoProperties#BATCH_DEPLOY} is enabled, the virtual machines
+ * of the nodes are saved concurrently sharing a single listing of the free IP
+ * addresses, and once all of them have been saved they are deployed with a
+ * single deploy of the group, that must finish within
+ * {@link Timeouts#nodeRunning}. The nodes are customized after the deploy.
  */
 @Singleton
 public class CreateGroupBeforeCreatingNodes extends CreateNodesWithGroupEncodedIntoNameThenAddToSet {
@@ -58,6 +71,12 @@ public class CreateGroupBeforeCreatingNodes extends CreateNodesWithGroupEncodedI
 
    protected final CloudService cloudService;
 
+   protected final MonitoringService monitoringService;
+
+   protected final Timeouts timeouts;
+
+   protected final boolean batchDeploy;
+
    @Inject
    protected CreateGroupBeforeCreatingNodes(
          CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
@@ -65,11 +84,15 @@ public class CreateGroupBeforeCreatingNodes extends CreateNodesWithGroupEncodedI
          GroupNamingConvention.Factory namingConvention,
          @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
          CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
-         ApiContext<AbiquoApi> context, CloudService cloudService) {
+         ApiContext<AbiquoApi> context, CloudService cloudService, MonitoringService monitoringService,
+         Timeouts timeouts, @Named(AbiquoProperties.BATCH_DEPLOY) boolean batchDeploy) {
       super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, userExecutor,
             customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
       this.context = checkNotNull(context, "context must not be null");
       this.cloudService = checkNotNull(cloudService, "cloudService must not be null");
+      this.monitoringService = checkNotNull(monitoringService, "monitoringService must not be null");
+      this.timeouts = checkNotNull(timeouts, "timeouts must not be null");
+      this.batchDeploy = batchDeploy;
    }
 
    @Override
@@ -100,13 +123,49 @@ public class CreateGroupBeforeCreatingNodes extends CreateNodesWithGroupEncodedI
          logger.debug(">> Using existing group(%s)", vapp.get().getId());
       }
 
+      // Deploy all nodes at once if the deploy of the group will not deploy
+      // other pending virtual machines
+      if (!batchDeploy || count < 2
+            || (newVapp == null && vapp.get().getState() != VirtualApplianceState.DEPLOYED)) {
+         VirtualApplianceCachingTemplate abiquoTemplate = VirtualApplianceCachingTemplate //
+               .from(template) //
+               .withVirtualDatacenter(vdc) //
+               .withVirtualAppliance(vapp.or(newVapp)) //
+               .build();
+
+         return super.execute(group, count, abiquoTemplate, goodNodes, badNodes, customizationResponses);
+      }
+
+      // The whole group shares a single deadline, regardless of how long each
+      // virtual machine took to be saved
+      long deadline = System.currentTimeMillis() + timeouts.nodeRunning;
+      logger.debug(">> Creating %s nodes in batch mode", count);
+
+      VirtualApplianceBatchDeploy batch = new VirtualApplianceBatchDeploy(vapp.or(newVapp), vdc,
+            monitoringService.getVirtualApplianceMonitor(), logger);
       VirtualApplianceCachingTemplate abiquoTemplate = VirtualApplianceCachingTemplate //
             .from(template) //
             .withVirtualDatacenter(vdc) //
             .withVirtualAppliance(vapp.or(newVapp)) //
+            .withBatchDeploy(batch) //
             .build();
 
-      return super.execute(group, count, abiquoTemplate, goodNodes, badNodes, customizationResponses);
+      // Save all the virtual machines without deploying them
+      Map<String, ListenableFuture<AtomicReference<NodeMetadata>>> saves = Maps.newLinkedHashMap();
+      for (String name : getNextNames(group, template, count)) {
+         saves.put(name, createNodeInGroupWithNameAndTemplate(group, name, abiquoTemplate));
+      }
+
+      // Deploy them at once, and only then wait for the nodes to be running
+      // and customize them
+      Map<String, ListenableFuture<Void>> responses = Maps.newLinkedHashMap();
+      for (Map.Entry<String, ListenableFuture<AtomicReference<NodeMetadata>>> node : batch.deployWhenSaved(saves,
+            userExecutor, deadline).entrySet()) {
+         responses.put(node.getKey(), Futures.transform(node.getValue(),
+               customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
+                     badNodes, customizationResponses)));
+      }
+      return responses;
    }
 
 }
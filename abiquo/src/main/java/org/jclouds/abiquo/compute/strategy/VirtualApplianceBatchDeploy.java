@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.notNull;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.size;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.network.Ip;
+import org.jclouds.abiquo.domain.network.Network;
+import org.jclouds.abiquo.domain.network.PublicIp;
+import org.jclouds.abiquo.monitor.VirtualApplianceMonitor;
+import org.jclouds.abiquo.predicates.IpPredicates;
+import org.jclouds.logging.Logger;
+
+import com.abiquo.server.core.cloud.VirtualApplianceState;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Coordinates the creation of all the nodes of a group so they are deployed
+ * with a single {@link VirtualAppliance#deploy()} call.
+ * <p>
+ * Each node creation saves its virtual machine and configures its networking
+ * using the free IP addresses listed once for the whole group, and returns
+ * without deploying it. When all the node creations have finished, the
+ * virtual appliance is deployed once and monitored until the deadline of the
+ * group. No thread waits for the other node creations, and the nodes are
+ * only handed over once the deploy has finished.
+ * <p>
+ * This class is not public as it is intended to be used internally.
+ * 
+ * @see CreateGroupBeforeCreatingNodes
+ * @see AbiquoComputeServiceAdapter
+ */
+class VirtualApplianceBatchDeploy {
+   private final VirtualAppliance virtualAppliance;
+
+   private final VirtualDatacenter virtualDatacenter;
+
+   private final VirtualApplianceMonitor monitor;
+
+   private final Logger logger;
+
+   /** The free IP addresses of each network. Guarded by this. */
+   private final Map<Integer, Queue<Ip<?, ?>>> unusedIps = Maps.newHashMap();
+
+   /** The free public IP addresses of the virtual datacenter. Guarded by this. */
+   private Queue<PublicIp> unusedPublicIps;
+
+   VirtualApplianceBatchDeploy(final VirtualAppliance virtualAppliance, final VirtualDatacenter virtualDatacenter,
+         final VirtualApplianceMonitor monitor, final Logger logger) {
+      this.virtualAppliance = checkNotNull(virtualAppliance, "virtualAppliance");
+      this.virtualDatacenter = checkNotNull(virtualDatacenter, "virtualDatacenter");
+      this.monitor = checkNotNull(monitor, "monitor");
+      this.logger = checkNotNull(logger, "logger");
+   }
+
+   /**
+    * Takes a free IP address of the given network, listing the free addresses
+    * of the network only the first time.
+    * 
+    * @return The IP address or <code>null</code> if there are no free
+    *         addresses left.
+    */
+   synchronized Ip<?, ?> takeUnusedIp(final Network<? extends Ip<?, ?>> network) {
+      Queue<Ip<?, ?>> ips = unusedIps.get(network.getId());
+      if (ips == null) {
+         ips = Queues.<Ip<?, ?>> newArrayDeque(network.listUnusedIps());
+         unusedIps.put(network.getId(), ips);
+      }
+      return ips.poll();
+   }
+
+   /**
+    * Takes a free public IP address of the virtual datacenter, listing the
+    * purchased addresses only the first time.
+    * 
+    * @return The IP address or <code>null</code> if there are no free
+    *         addresses left.
+    */
+   synchronized PublicIp takeUnusedPublicIp() {
+      if (unusedPublicIps == null) {
+         unusedPublicIps = Queues.newArrayDeque(filter(virtualDatacenter.listPurchasedPublicIps(),
+               IpPredicates.<PublicIp> notUsed()));
+      }
+      return unusedPublicIps.poll();
+   }
+
+   /**
+    * Deploys the virtual appliance once all the given node creations have
+    * finished.
+    * <p>
+    * The returned futures complete with the result of each node creation once
+    * the virtual appliance has been deployed. The nodes that could not be
+    * saved keep their own failure, and if the deploy fails or does not finish
+    * before the deadline, all the returned futures fail.
+    * 
+    * @param saves The node creations, by node name.
+    * @param executor The executor used to deploy the virtual appliance.
+    * @param deadline The time (in ms since the epoch) by which the deploy of
+    *           the whole group must have finished.
+    * @return The node creations, by node name, gated by the deploy.
+    */
+   <T> Map<String, ListenableFuture<T>> deployWhenSaved(final Map<String, ListenableFuture<T>> saves,
+         final ListeningExecutorService executor, final long deadline) {
+      ListenableFuture<List<T>> all = Futures.successfulAsList(saves.values());
+      final ListenableFuture<Void> deployed = Futures.transform(all, new Function<List<T>, Void>() {
+         @Override
+         public Void apply(final List<T> results) {
+            // Failed node creations have a null result
+            deploy(size(filter(results, notNull())), deadline);
+            return null;
+         }
+      }, executor);
+
+      Map<String, ListenableFuture<T>> gated = Maps.newLinkedHashMap();
+      for (final Map.Entry<String, ListenableFuture<T>> save : saves.entrySet()) {
+         gated.put(save.getKey(), Futures.transform(deployed, new AsyncFunction<Void, T>() {
+            @Override
+            public ListenableFuture<T> apply(final Void input) {
+               return save.getValue();
+            }
+         }));
+      }
+      return gated;
+   }
+
+   /**
+    * Deploys the virtual appliance and waits until the deploy finishes or the
+    * deadline expires.
+    * 
+    * @throws IllegalStateException If the deploy fails or times out.
+    */
+   @VisibleForTesting
+   void deploy(final int saved, final long deadline) {
+      if (saved == 0) {
+         logger.debug(">> No nodes of group %s were saved, skipping deploy", virtualAppliance.getName());
+         return;
+      }
+
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+         throw new IllegalStateException("Timed out before deploying group " + virtualAppliance.getName());
+      }
+
+      logger.debug(">> Deploying group %s with %s nodes", virtualAppliance.getName(), saved);
+      virtualAppliance.deploy();
+      monitor.awaitCompletionDeploy(remaining, TimeUnit.MILLISECONDS, virtualAppliance);
+
+      VirtualApplianceState state = virtualAppliance.getState();
+      if (state == VirtualApplianceState.LOCKED) {
+         throw new IllegalStateException("Timed out waiting for the deploy of group " + virtualAppliance.getName());
+      }
+      if (state != VirtualApplianceState.DEPLOYED) {
+         throw new IllegalStateException("Deploy of group " + virtualAppliance.getName() + " failed with state "
+               + state);
+      }
+      logger.debug("<< group %s deployed", virtualAppliance.getName());
+   }
+}
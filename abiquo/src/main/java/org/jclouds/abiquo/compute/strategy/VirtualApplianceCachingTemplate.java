@@ -27,6 +27,7 @@ import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.domain.Location;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 
 /**
  * A {@link Template} implementation that caches the {@link VirtualAppliance}
@@ -47,12 +48,14 @@ class VirtualApplianceCachingTemplate implements Template {
    private final Template delegate;
    private final VirtualDatacenter virtualDatacenter;
    private final VirtualAppliance virtualAppliance;
+   private final Optional<VirtualApplianceBatchDeploy> batchDeploy;
 
    private VirtualApplianceCachingTemplate(Template delegate, VirtualDatacenter virtualDatacenter,
-         VirtualAppliance virtualAppliance) {
+         VirtualAppliance virtualAppliance, Optional<VirtualApplianceBatchDeploy> batchDeploy) {
       this.delegate = checkNotNull(delegate, "delegate");
       this.virtualDatacenter = checkNotNull(virtualDatacenter, "virtualDatacenter");
       this.virtualAppliance = checkNotNull(virtualAppliance, "virtualAppliance");
+      this.batchDeploy = checkNotNull(batchDeploy, "batchDeploy");
    }
 
    public VirtualDatacenter getVirtualDatacenter() {
@@ -63,6 +66,14 @@ class VirtualApplianceCachingTemplate implements Template {
       return virtualAppliance;
    }
 
+   /**
+    * The batch used to deploy all the nodes of the group at once, if the
+    * nodes are being created in batch mode.
+    */
+   public Optional<VirtualApplianceBatchDeploy> getBatchDeploy() {
+      return batchDeploy;
+   }
+
    // Delegate methods
 
    @Override
@@ -87,7 +98,7 @@ class VirtualApplianceCachingTemplate implements Template {
 
    @Override
    public VirtualApplianceCachingTemplate clone() {
-      return new VirtualApplianceCachingTemplate(delegate.clone(), virtualDatacenter, virtualAppliance);
+      return new VirtualApplianceCachingTemplate(delegate.clone(), virtualDatacenter, virtualAppliance, batchDeploy);
    }
 
    @Override
@@ -122,6 +133,7 @@ class VirtualApplianceCachingTemplate implements Template {
       private Template template;
       private VirtualDatacenter virtualDatacenter;
       private VirtualAppliance virtualAppliance;
+      private VirtualApplianceBatchDeploy batchDeploy;
 
       public Builder(Template template) {
          this.template = template;
@@ -137,8 +149,14 @@ class VirtualApplianceCachingTemplate implements Template {
          return this;
       }
 
+      public Builder withBatchDeploy(VirtualApplianceBatchDeploy batchDeploy) {
+         this.batchDeploy = batchDeploy;
+         return this;
+      }
+
       public VirtualApplianceCachingTemplate build() {
-         return new VirtualApplianceCachingTemplate(template, virtualDatacenter, virtualAppliance);
+         return new VirtualApplianceCachingTemplate(template, virtualDatacenter, virtualAppliance,
+               Optional.fromNullable(batchDeploy));
       }
    }
 
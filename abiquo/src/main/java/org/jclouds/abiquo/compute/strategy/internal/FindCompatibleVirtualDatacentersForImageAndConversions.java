@@ -18,23 +18,19 @@ package org.jclouds.abiquo.compute.strategy.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
-import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 import static org.jclouds.abiquo.predicates.VirtualDatacenterPredicates.compatibleWithTemplateOrConversions;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.compute.strategy.FindCompatibleVirtualDatacenters;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
-import org.jclouds.abiquo.domain.infrastructure.Datacenter;
-import org.jclouds.abiquo.features.services.CloudService;
-import org.jclouds.abiquo.predicates.VirtualDatacenterPredicates;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
-import org.jclouds.rest.ApiContext;
+import org.jclouds.collect.Memoized;
 
-import com.abiquo.server.core.infrastructure.DatacenterDto;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Multimap;
 
 /**
  * Default implementation for the {@link FindCompatibleVirtualDatacenters}
@@ -45,28 +41,22 @@ import com.abiquo.server.core.infrastructure.DatacenterDto;
  */
 @Singleton
 public class FindCompatibleVirtualDatacentersForImageAndConversions implements FindCompatibleVirtualDatacenters {
-   private final ApiContext<AbiquoApi> context;
-
-   private final CloudService cloudService;
+   private final Supplier<Multimap<Integer, VirtualDatacenter>> virtualDatacentersByDatacenter;
 
    @Inject
-   public FindCompatibleVirtualDatacentersForImageAndConversions(final ApiContext<AbiquoApi> context,
-         final CloudService cloudService) {
-      this.context = checkNotNull(context, "context");
-      this.cloudService = checkNotNull(cloudService, "cloudService");
+   public FindCompatibleVirtualDatacentersForImageAndConversions(
+         @Memoized final Supplier<Multimap<Integer, VirtualDatacenter>> virtualDatacentersByDatacenter) {
+      this.virtualDatacentersByDatacenter = checkNotNull(virtualDatacentersByDatacenter,
+            "virtualDatacentersByDatacenter");
    }
 
    @Override
    public Iterable<VirtualDatacenter> execute(final VirtualMachineTemplate template) {
-      // Build the transport object with the available information to avoid
-      // making an unnecessary call to the target API (we only need the id of
-      // the datacenter, and it is present in the link).
-      DatacenterDto datacenterDto = new DatacenterDto();
-      datacenterDto.setId(template.unwrap().getIdFromLink(ParentLinkName.DATACENTER_REPOSITORY));
-      Datacenter datacenter = wrap(context, Datacenter.class, datacenterDto);
-
-      Iterable<VirtualDatacenter> vdcs = filter(cloudService.listVirtualDatacenters(),
-            VirtualDatacenterPredicates.datacenter(datacenter));
+      // The id of the datacenter is present in the link, and the virtual
+      // datacenters are already indexed by it, so there is no need to make
+      // any call to the target API to find the candidates.
+      Integer datacenterId = template.unwrap().getIdFromLink(ParentLinkName.DATACENTER_REPOSITORY);
+      Iterable<VirtualDatacenter> vdcs = virtualDatacentersByDatacenter.get().get(datacenterId);
 
       return filter(vdcs, compatibleWithTemplateOrConversions(template));
    }
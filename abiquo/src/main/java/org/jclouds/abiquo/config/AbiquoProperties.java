@@ -36,6 +36,89 @@ public final class AbiquoProperties {
     */
    public static final String ASYNC_TASK_MONITOR_DELAY = "abiquo.monitor-delay";
 
+   /**
+    * The number of pages to fetch in the background while iterating large
+    * collections, such as the virtual machine and event listings.
+    * <p>
+    * A value of zero disables the prefetching of pages.
+    * <p>
+    * Default value: 1
+    */
+   public static final String PAGINATION_PREFETCH_DEPTH = "abiquo.pagination.prefetch-depth";
+
+   /**
+    * The maximum number of virtual machine links remembered to get the
+    * virtual machines that have already been listed with a single request.
+    * The least recently used links are evicted first.
+    * <p>
+    * Default value: 10000
+    */
+   public static final String VIRTUAL_MACHINE_INDEX_MAX_SIZE = "abiquo.virtual-machine-index.max-size";
+
+   /**
+    * The maximum number of concurrent requests issued by the list strategies
+    * when they fan out over the children of several parents (racks in each
+    * datacenter, virtual appliances in each virtual datacenter, etc).
+    * <p>
+    * Default value: 10
+    */
+   public static final String FAN_OUT_MAX_CONCURRENCY = "abiquo.fan-out.max-concurrency";
+
+   /**
+    * The maximum number of requests per second issued by the list strategies
+    * when they fan out over the children of several parents.
+    * <p>
+    * A value of zero disables the rate limit.
+    * <p>
+    * Default value: 0
+    */
+   public static final String FAN_OUT_MAX_RATE = "abiquo.fan-out.max-rate";
+
+   /**
+    * The time (in ms) to wait for the children of each parent when the list
+    * strategies fan out. Parents that fail or time out are skipped and the
+    * rest of the results are still returned.
+    * <p>
+    * A value of zero waits indefinitely.
+    * <p>
+    * Default value: 0
+    */
+   public static final String FAN_OUT_TIMEOUT = "abiquo.fan-out.timeout";
+
+   /**
+    * The delay (in ms) between the requests used to fetch new events when
+    * tailing events with the <code>EventService</code>.
+    * <p>
+    * Default value: 10000 ms
+    */
+   public static final String EVENT_TAIL_INTERVAL = "abiquo.event-tail.interval";
+
+   /**
+    * The time (in ms) the virtual machine templates of the datacenter
+    * repositories are cached.
+    * <p>
+    * Default value: 300000 ms
+    */
+   public static final String TEMPLATE_CACHE_TTL = "abiquo.template-cache.ttl";
+
+   /**
+    * The maximum number of cached virtual machine templates.
+    * <p>
+    * Default value: 1000
+    */
+   public static final String TEMPLATE_CACHE_MAX_SIZE = "abiquo.template-cache.max-size";
+
+   /**
+    * Whether the nodes of a group are created in batch mode.
+    * <p>
+    * In batch mode the virtual machines of all nodes are saved concurrently,
+    * the free IP addresses are listed once for the whole group, and all nodes
+    * are deployed at once by deploying the virtual appliance.
+    * <p>
+    * Default value: false
+    */
+   public static final String BATCH_DEPLOY = "abiquo.compute.batch-deploy";
+
    /**
     * The name of the Abiquo logger.
     */
@@ -18,9 +18,15 @@ package org.jclouds.abiquo.domain;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
 import static org.jclouds.collect.PagedIterables.advance;
 import static org.jclouds.collect.PagedIterables.onlyPage;
 
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 
@@ -33,6 +39,11 @@ import com.abiquo.model.rest.RESTLink;
 import com.abiquo.model.transport.WrapperDto;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * This class represents a collection that is paginated.
@@ -74,6 +85,181 @@ public class PaginatedCollection<T, W extends WrapperDto<T>> extends IterableWit
       return new ToPagedIterable<T, W>(api, parser).apply(this);
    }
 
+   /**
+    * Fetches the page that follows this one.
+    * 
+    * @return The next page, or <code>null</code> if this is the last page.
+    */
+   public PaginatedCollection<T, W> nextPage() {
+      RESTLink next = delegate.searchLink("next");
+      if (next == null) {
+         return null;
+      }
+
+      // The Abiquo API does not provide the media types in the pagination
+      // links, but it will be the same type than the current page, so just set
+      // it.
+      next.setType(delegate.getMediaType());
+
+      W nextPage = parser.apply(api.get(next));
+      return new PaginatedCollection<T, W>(api, nextPage, parser);
+   }
+
+   /**
+    * Returns an iterable with the elements of this page and all the following
+    * ones, that fetches the next pages in the given executor while the
+    * current one is being consumed.
+    * <p>
+    * At most <code>depth</code> pages are fetched ahead of the page being
+    * consumed, so the memory used is bounded regardless of the size of the
+    * collection.
+    * 
+    * @param executor
+    *           The executor used to fetch the next pages.
+    * @param depth
+    *           The maximum number of pages to fetch ahead.
+    * @return An iterable with all the elements of the collection.
+    */
+   public FluentIterable<T> prefetch(final ListeningExecutorService executor, final int depth) {
+      checkNotNull(executor, "executor must not be null");
+      checkArgument(depth > 0, "depth must be greater than zero");
+
+      return new FluentIterable<T>() {
+         @Override
+         public Iterator<T> iterator() {
+            return new PrefetchingIterator<T, W>(PaginatedCollection.this, executor, depth);
+         }
+      };
+   }
+
+   /**
+    * Returns an iterator with the elements of this page and all the following
+    * ones, that fetches the next pages in the given executor while the
+    * current one is being consumed.
+    * <p>
+    * Callers that stop iterating before the end should close the iterator, so
+    * the pages that are being fetched ahead are cancelled.
+    * 
+    * @param executor
+    *           The executor used to fetch the next pages.
+    * @param depth
+    *           The maximum number of pages to fetch ahead.
+    * @return An iterator with all the elements of the collection.
+    * @see #prefetch(ListeningExecutorService, int)
+    */
+   public PrefetchingIterator<T, W> prefetchingIterator(final ListeningExecutorService executor, final int depth) {
+      checkNotNull(executor, "executor must not be null");
+      checkArgument(depth > 0, "depth must be greater than zero");
+      return new PrefetchingIterator<T, W>(this, executor, depth);
+   }
+
+   /**
+    * Iterates all the pages of a collection, keeping up to a given number of
+    * next pages being fetched in the background.
+    * <p>
+    * The pages being fetched are cancelled when the iterator is closed, when
+    * the last page is reached or when a page can not be fetched. If the
+    * iterator is abandoned without closing it, the pending fetches do not
+    * request any further page once it has been garbage collected.
+    */
+   public static class PrefetchingIterator<T, W extends WrapperDto<T>> extends AbstractIterator<T> implements
+         Closeable {
+      private final ListeningExecutorService executor;
+      private final int depth;
+
+      /** The pages being fetched, in order. */
+      private final Deque<ListenableFuture<PaginatedCollection<T, W>>> ahead = Queues.newArrayDeque();
+
+      /** The function used to fetch the next pages. */
+      private final FetchNextPage<T, W> fetchNextPage = new FetchNextPage<T, W>(this);
+
+      /** The last page that has been requested. */
+      private ListenableFuture<PaginatedCollection<T, W>> last;
+
+      /** The elements of the page being consumed. */
+      private Iterator<T> current;
+
+      private volatile boolean closed;
+
+      PrefetchingIterator(final PaginatedCollection<T, W> first, final ListeningExecutorService executor,
+            final int depth) {
+         this.executor = executor;
+         this.depth = depth;
+         this.current = first.iterator();
+         this.last = immediateFuture(first);
+         fetchAhead();
+      }
+
+      @Override
+      protected T computeNext() {
+         while (!current.hasNext()) {
+            PaginatedCollection<T, W> page;
+            try {
+               page = closed || ahead.isEmpty() ? null : getUnchecked(ahead.poll());
+            } catch (RuntimeException ex) {
+               close();
+               throw ex;
+            }
+            if (page == null) {
+               // There are no more pages. Do not fetch pages that are not
+               // going to be consumed
+               close();
+               return endOfData();
+            }
+            current = page.iterator();
+            fetchAhead();
+         }
+         return current.next();
+      }
+
+      /**
+       * Cancels the pages that are being fetched ahead. The iterator does not
+       * return any element of the following pages once it has been closed.
+       */
+      @Override
+      public void close() {
+         closed = true;
+         for (ListenableFuture<PaginatedCollection<T, W>> future : ahead) {
+            future.cancel(false);
+         }
+         ahead.clear();
+      }
+
+      private void fetchAhead() {
+         while (!closed && ahead.size() < depth) {
+            // Each page can only be requested once the previous one has been
+            // parsed, since the link to the next page is in the previous one
+            last = transform(last, fetchNextPage, executor);
+            ahead.add(last);
+         }
+      }
+   }
+
+   /**
+    * Fetches the page that follows the given one, unless the iterator that
+    * requested it has been closed or is no longer reachable.
+    * <p>
+    * Only a weak reference to the iterator is kept, so the pending fetches do
+    * not prevent an abandoned iterator from being garbage collected.
+    */
+   private static class FetchNextPage<T, W extends WrapperDto<T>> implements
+         Function<PaginatedCollection<T, W>, PaginatedCollection<T, W>> {
+      private final WeakReference<PrefetchingIterator<T, W>> owner;
+
+      FetchNextPage(final PrefetchingIterator<T, W> owner) {
+         this.owner = new WeakReference<PrefetchingIterator<T, W>>(owner);
+      }
+
+      @Override
+      public PaginatedCollection<T, W> apply(final PaginatedCollection<T, W> input) {
+         PrefetchingIterator<T, W> iterator = owner.get();
+         if (input == null || iterator == null || iterator.closed) {
+            return null;
+         }
+         return input.nextPage();
+      }
+   }
+
    /**
     * Returns a function that transforms the PaginatedCollection into a
     * {@link PagedIterable}.
@@ -106,15 +292,7 @@ public class PaginatedCollection<T, W extends WrapperDto<T>> extends IterableWit
             @Override
             public IterableWithMarker<T> apply(Object marker) {
                checkArgument(marker instanceof RESTLink, "Marker must be a RESTLink");
-               RESTLink next = RESTLink.class.cast(marker);
-
-               // The Abiquo API does not provide the media types in the
-               // pagination links, but it will be the same type than the
-               // current page, so just set it.
-               next.setType(input.delegate.getMediaType());
-
-               W nextPage = parser.apply(api.get(next));
-               return new PaginatedCollection<T, W>(api, nextPage, parser);
+               return input.nextPage();
             }
          };
       }
@@ -31,6 +31,7 @@ import org.jclouds.abiquo.domain.infrastructure.Datacenter;
 import org.jclouds.abiquo.domain.infrastructure.Tier;
 import org.jclouds.abiquo.domain.task.ConversionTask;
 import org.jclouds.abiquo.domain.task.VirtualMachineTemplateTask;
+import org.jclouds.abiquo.internal.VirtualMachineTemplateCache;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.ParseXMLWithJAXB;
@@ -68,13 +69,28 @@ public class VirtualMachineTemplate extends DomainWrapper<VirtualMachineTemplate
 
    // Domain operations
 
+   /**
+    * Deletes the template, and discards the copy cached by the compute
+    * service.
+    */
    public void delete() {
+      Integer templateId = target.getId();
       context.getApi().getVirtualMachineTemplateApi().deleteVirtualMachineTemplate(target);
       target = null;
+      templateCache().invalidate(templateId);
    }
 
+   /**
+    * Updates the template, and discards the copy cached by the compute service
+    * so the changes are used right away.
+    */
    public void update() {
       target = context.getApi().getVirtualMachineTemplateApi().updateVirtualMachineTemplate(target);
+      templateCache().invalidate(target.getId());
+   }
+
+   private VirtualMachineTemplateCache templateCache() {
+      return context.utils().injector().getInstance(VirtualMachineTemplateCache.class);
    }
 
    public VirtualMachineTemplateTask makePersistent(final VirtualDatacenter vdc, final Volume volume,
@@ -26,6 +26,7 @@ import org.jclouds.http.options.BaseHttpRequestOptions;
 import com.abiquo.model.enumerator.ComponentType;
 import com.abiquo.model.enumerator.EventType;
 import com.abiquo.model.enumerator.SeverityType;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 
 /**
@@ -36,6 +37,17 @@ public class EventOptions extends BaseHttpRequestOptions {
       return new Builder();
    }
 
+   /**
+    * Returns a copy of these options that only matches the events performed
+    * from the given date.
+    */
+   public EventOptions since(final Date date) {
+      EventOptions options = new EventOptions();
+      options.queryParameters.putAll(queryParameters);
+      options.queryParameters.replaceValues("datefrom", ImmutableList.of(String.valueOf(date.getTime())));
+      return options;
+   }
+
    @Override
    protected Object clone() throws CloneNotSupportedException {
       EventOptions options = new EventOptions();
@@ -78,4 +78,24 @@ public interface CloudService {
     */
    Iterable<VirtualMachine> listVirtualMachines(VirtualMachineOptions options);
 
+   /**
+    * Get the virtual machine with the given id.
+    * <p>
+    * Virtual machines that have already been seen in a listing are fetched
+    * directly from their own link. Otherwise the virtual machine listing is
+    * scanned until the virtual machine is found.
+    * 
+    * @return The virtual machine or <code>null</code> if it does not exist.
+    */
+   VirtualMachine getVirtualMachine(Integer virtualMachineId);
+
+   /**
+    * Get the list of virtual machines with the given ids.
+    * <p>
+    * Virtual machines that have already been seen in a listing are fetched
+    * directly from their own link, and the remaining ones are looked up in a
+    * single scan of the virtual machine listing.
+    */
+   Iterable<VirtualMachine> getVirtualMachines(Iterable<Integer> virtualMachineIds);
+
 }
@@ -16,6 +16,12 @@
  */
 package org.jclouds.abiquo.features.services;
 
+import java.io.Closeable;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+import org.jclouds.abiquo.config.AbiquoProperties;
 import org.jclouds.abiquo.domain.event.Event;
 import org.jclouds.abiquo.domain.event.options.EventOptions;
 import org.jclouds.abiquo.internal.BaseEventService;
@@ -36,4 +42,58 @@ public interface EventService {
     * Get the list of all events using filters as query params.
     */
    Iterable<Event> listEvents(EventOptions options);
+
+   /**
+    * Starts tailing the events matching the given options.
+    * <p>
+    * A single background poller fetches the events performed since the last
+    * delivered one every {@link AbiquoProperties#EVENT_TAIL_INTERVAL} ms, and
+    * delivers the new ones to the listener in batches sorted by date.
+    * 
+    * @param options The filters of the events to tail.
+    * @param since The date of the first event to deliver.
+    * @param listener The listener that will receive the new events.
+    * @return The handle used to stop tailing the events.
+    */
+   EventTail tailEvents(EventOptions options, Date since, EventBatchListener listener);
+
+   /**
+    * Starts tailing the events matching the given options, putting the new
+    * events in the given queue.
+    * 
+    * @see #tailEvents(EventOptions, Date, EventBatchListener)
+    */
+   EventTail tailEvents(EventOptions options, Date since, BlockingQueue<? super Event> queue);
+
+   /**
+    * Receives the batches of new events found while tailing.
+    */
+   interface EventBatchListener {
+      /**
+       * Called from the poller thread with the new events, sorted by date.
+       */
+      void onEvents(List<Event> events);
+   }
+
+   /**
+    * Handle of a running event tail.
+    */
+   interface EventTail extends Closeable {
+      /**
+       * Get the date of the last delivered event.
+       */
+      Date getCursor();
+
+      /**
+       * Get the id of the last delivered event, or <code>null</code> if no
+       * event has been delivered yet.
+       */
+      Integer getLastEventId();
+
+      /**
+       * Stops polling for new events.
+       */
+      @Override
+      void close();
+   }
 }
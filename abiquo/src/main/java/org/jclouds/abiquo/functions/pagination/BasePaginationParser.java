@@ -16,21 +16,62 @@
  */
 package org.jclouds.abiquo.functions.pagination;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.PaginatedCollection;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.io.Payload;
 
+import com.abiquo.model.rest.RESTLink;
 import com.abiquo.model.transport.WrapperDto;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Queues;
+import com.google.common.io.Closeables;
+import com.google.common.net.MediaType;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Base class for all pagination response parsers.
  * <p>
  * Parses the response with the given parser, and wraps the results in a
  * {@link PaginatedCollection} so it can be properly iterated.
+ * <p>
+ * The pages that follow a parsed one can also be read in streaming mode with
+ * the {@link #stream(PaginatedCollection, ListeningExecutorService, int)}
+ * method. Those pages are requested ahead while the current one is being
+ * consumed, and their elements are decoded as they are consumed instead of
+ * parsing each page upfront.
  * 
  * 
  * @see PaginatedCollection
@@ -38,9 +79,33 @@ import com.google.common.base.Function;
  */
 public abstract class BasePaginationParser<T, W extends WrapperDto<T>> implements
       Function<HttpResponse, PaginatedCollection<T, W>> {
+
+   /**
+    * The factory used to read the pages in streaming mode. It is configured
+    * once and never resolves DTDs or external entities.
+    */
+   private static final XMLInputFactory XML_INPUT_FACTORY = newXMLInputFactory();
+
    protected final AbiquoApi api;
    protected final ParseXMLWithJAXB<W> parser;
 
+   /** The type of the elements in the collection. */
+   @SuppressWarnings("unchecked")
+   private final Class<T> elementType = (Class<T>) TypeToken.of(getClass())
+         .resolveType(BasePaginationParser.class.getTypeParameters()[0]).getRawType();
+
+   /** The context used to decode the individual elements of the collection. */
+   private final Supplier<JAXBContext> jaxbContext = Suppliers.memoize(new Supplier<JAXBContext>() {
+      @Override
+      public JAXBContext get() {
+         try {
+            return JAXBContext.newInstance(elementType, RESTLink.class);
+         } catch (JAXBException ex) {
+            throw Throwables.propagate(ex);
+         }
+      }
+   });
+
    public BasePaginationParser(AbiquoApi api, ParseXMLWithJAXB<W> parser) {
       this.api = checkNotNull(api, "api must not be null");
       this.parser = checkNotNull(parser, "parser must not be null");
@@ -51,4 +116,355 @@ public abstract class BasePaginationParser<T, W extends WrapperDto<T>> implement
       return new PaginatedCollection<T, W>(api, parser.apply(input), parser);
    }
 
+   /**
+    * Returns an iterable with the elements of the given page and all the
+    * following ones, that reads the following pages in streaming mode.
+    * <p>
+    * Up to <code>depth</code> pages are requested ahead in the given executor
+    * while the current one is being consumed. Each of them keeps its response
+    * open until it is consumed, so the depth also bounds the number of
+    * connections in use.
+    * 
+    * @param first
+    *           The first page of the collection.
+    * @param executor
+    *           The executor used to request the following pages.
+    * @param depth
+    *           The maximum number of pages to request ahead.
+    * @return An iterable with all the elements of the collection.
+    */
+   public FluentIterable<T> stream(final PaginatedCollection<T, W> first, final ListeningExecutorService executor,
+         final int depth) {
+      checkNotNull(first, "first must not be null");
+      checkNotNull(executor, "executor must not be null");
+      checkArgument(depth > 0, "depth must be greater than zero");
+
+      return new FluentIterable<T>() {
+         @Override
+         public Iterator<T> iterator() {
+            return new StreamingIterator(first, executor, depth);
+         }
+      };
+   }
+
+   /**
+    * Returns an iterator with the elements of the given page and all the
+    * following ones, that reads the following pages in streaming mode.
+    * <p>
+    * Callers that stop iterating before the end should close the iterator, so
+    * the pages that have been requested ahead are cancelled and their
+    * responses are closed.
+    * 
+    * @see #stream(PaginatedCollection, ListeningExecutorService, int)
+    */
+   public StreamingIterator streamingIterator(final PaginatedCollection<T, W> first,
+         final ListeningExecutorService executor, final int depth) {
+      checkNotNull(first, "first must not be null");
+      checkNotNull(executor, "executor must not be null");
+      checkArgument(depth > 0, "depth must be greater than zero");
+      return new StreamingIterator(first, executor, depth);
+   }
+
+   /**
+    * Iterates the elements of a parsed page and then the ones of the
+    * following pages, keeping up to a given number of pages requested ahead.
+    * <p>
+    * The pages requested ahead are cancelled and closed when the iterator is
+    * closed, when the last page is reached or when a page can not be read. If
+    * the iterator is abandoned without closing it, no further page is
+    * requested once it has been garbage collected.
+    */
+   public class StreamingIterator extends AbstractIterator<T> implements Closeable {
+      private final ListeningExecutorService executor;
+      private final int depth;
+
+      /** The pages requested ahead, in order. */
+      private final Deque<ListenableFuture<StreamingPage>> ahead = Queues.newArrayDeque();
+
+      /** The function used to request the following pages. */
+      private final FetchNextPage fetchNextPage = new FetchNextPage(this);
+
+      /** The last page that has been requested. */
+      private ListenableFuture<StreamingPage> last;
+
+      /** The elements being consumed. */
+      private Iterator<T> current;
+
+      /** The page being consumed, if it is not the first one. */
+      private StreamingPage currentPage;
+
+      private volatile boolean closed;
+
+      StreamingIterator(final PaginatedCollection<T, W> first, final ListeningExecutorService executor,
+            final int depth) {
+         this.executor = executor;
+         this.depth = depth;
+         this.current = first.iterator();
+
+         final RESTLink next = first.searchLink("next");
+         if (next != null) {
+            // The Abiquo API does not provide the media types in the
+            // pagination links, but it will be the same type than the current
+            // page, so just set it.
+            next.setType(first.getMediaType());
+            last = executor.submit(new Callable<StreamingPage>() {
+               @Override
+               public StreamingPage call() {
+                  return open(next);
+               }
+            });
+            ahead.add(last);
+            fetchAhead();
+         }
+      }
+
+      @Override
+      protected T computeNext() {
+         try {
+            while (!current.hasNext()) {
+               StreamingPage page = closed || ahead.isEmpty() ? null : getUnchecked(ahead.poll());
+               if (page == null && !closed && currentPage != null && currentPage.next != null
+                     && !currentPage.nextRequested) {
+                  // The link to the following page came after the elements of
+                  // the current one, so it could not be requested ahead
+                  page = open(currentPage.next);
+                  ahead.clear();
+                  last = immediateFuture(page);
+               }
+               if (page == null) {
+                  // There are no more pages. Do not read pages that are not
+                  // going to be consumed
+                  close();
+                  return endOfData();
+               }
+               current = currentPage = page;
+               fetchAhead();
+            }
+            return current.next();
+         } catch (RuntimeException ex) {
+            close();
+            throw ex;
+         }
+      }
+
+      /**
+       * Cancels the pages requested ahead and closes the responses of the
+       * pages that have already been opened. The iterator does not return any
+       * other element once it has been closed.
+       */
+      @Override
+      public void close() {
+         closed = true;
+         for (ListenableFuture<StreamingPage> future : ahead) {
+            closeWhenDone(future);
+         }
+         ahead.clear();
+         if (currentPage != null) {
+            currentPage.close();
+         }
+      }
+
+      private void fetchAhead() {
+         while (!closed && last != null && ahead.size() < depth) {
+            // Each page can only be requested once the previous one has been
+            // opened, since the link to the next page is in the previous one
+            last = transform(last, fetchNextPage, executor);
+            ahead.add(last);
+         }
+      }
+   }
+
+   /**
+    * Requests the page that follows the given one, unless the iterator that
+    * requested it has been closed or is no longer reachable.
+    * <p>
+    * Only a weak reference to the iterator is kept, so the pending requests
+    * do not prevent an abandoned iterator from being garbage collected.
+    */
+   private class FetchNextPage implements Function<StreamingPage, StreamingPage> {
+      private final WeakReference<StreamingIterator> owner;
+
+      FetchNextPage(final StreamingIterator owner) {
+         this.owner = new WeakReference<StreamingIterator>(owner);
+      }
+
+      @Override
+      public StreamingPage apply(final StreamingPage input) {
+         StreamingIterator iterator = owner.get();
+         if (input == null || iterator == null || iterator.closed) {
+            return null;
+         }
+         RESTLink next = input.next;
+         input.nextRequested = next != null;
+         if (next == null) {
+            return null;
+         }
+         StreamingPage page = open(next);
+         if (page != null && iterator.closed) {
+            page.close();
+            return null;
+         }
+         return page;
+      }
+   }
+
+   /**
+    * Requests the given page and reads the links that precede its elements.
+    * 
+    * @return The page, or <code>null</code> if it does not exist.
+    */
+   private StreamingPage open(final RESTLink link) {
+      HttpResponse response = api.get(link);
+      return response == null ? null : new StreamingPage(response, link.getType());
+   }
+
+   /**
+    * A page whose elements are decoded as they are consumed.
+    * <p>
+    * The links of a page precede its elements, so the link to the following
+    * page is known as soon as the page is opened.
+    */
+   private class StreamingPage extends AbstractIterator<T> implements Closeable {
+      private final String mediaType;
+
+      private Unmarshaller unmarshaller;
+
+      private InputStream stream;
+
+      private XMLStreamReader reader;
+
+      /** The link to the following page, if it has been read. */
+      private volatile RESTLink next;
+
+      /** Whether the link to the following page has been requested ahead. */
+      private volatile boolean nextRequested;
+
+      StreamingPage(final HttpResponse response, final String defaultMediaType) {
+         Payload payload = response.getPayload();
+         if (payload == null) {
+            throw new HttpResponseException("no payload in paginated response", null, response);
+         }
+
+         String contentType = payload.getContentMetadata().getContentType();
+         this.mediaType = contentType == null ? defaultMediaType : MediaType.parse(contentType).withoutParameters()
+               .toString();
+
+         try {
+            unmarshaller = jaxbContext.get().createUnmarshaller();
+            stream = payload.openStream();
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(stream);
+            // Move to the first child of the root element of the page, and
+            // read the links that precede the elements
+            reader.nextTag();
+            reader.next();
+            seekElement();
+         } catch (IOException ex) {
+            close();
+            throw Throwables.propagate(ex);
+         } catch (XMLStreamException ex) {
+            close();
+            throw Throwables.propagate(ex);
+         } catch (JAXBException ex) {
+            close();
+            throw Throwables.propagate(ex);
+         }
+      }
+
+      @Override
+      protected T computeNext() {
+         try {
+            if (!seekElement()) {
+               close();
+               return endOfData();
+            }
+            // The unmarshaller leaves the reader in the event that follows the
+            // element
+            return unmarshaller.unmarshal(reader, elementType).getValue();
+         } catch (XMLStreamException ex) {
+            close();
+            throw Throwables.propagate(ex);
+         } catch (JAXBException ex) {
+            close();
+            throw Throwables.propagate(ex);
+         }
+      }
+
+      /**
+       * Moves the reader to the start of the next element of the collection,
+       * reading the links found on the way.
+       * 
+       * @return <code>false</code> if there are no more elements in the page.
+       */
+      private boolean seekElement() throws XMLStreamException, JAXBException {
+         while (true) {
+            switch (reader.getEventType()) {
+               case XMLStreamConstants.START_ELEMENT:
+                  String name = reader.getLocalName();
+                  if ("link".equals(name)) {
+                     RESTLink link = unmarshaller.unmarshal(reader, RESTLink.class).getValue();
+                     if ("next".equals(link.getRel())) {
+                        link.setType(mediaType);
+                        next = link;
+                     }
+                  } else if ("totalSize".equals(name)) {
+                     reader.getElementText();
+                     reader.next();
+                  } else {
+                     return true;
+                  }
+                  break;
+               case XMLStreamConstants.END_ELEMENT:
+               case XMLStreamConstants.END_DOCUMENT:
+                  // All the children of the root element have been consumed
+                  return false;
+               default:
+                  reader.next();
+                  break;
+            }
+         }
+      }
+
+      @Override
+      public void close() {
+         if (reader != null) {
+            try {
+               reader.close();
+            } catch (XMLStreamException ex) {
+               // Ignore, the underlying stream is closed below
+            }
+         }
+         Closeables.closeQuietly(stream);
+      }
+   }
+
+   /**
+    * Cancels the given page request, and closes the page if it has already
+    * been opened.
+    */
+   private void closeWhenDone(final ListenableFuture<StreamingPage> future) {
+      future.cancel(false);
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (!future.isCancelled()) {
+               try {
+                  StreamingPage page = getUnchecked(future);
+                  if (page != null) {
+                     page.close();
+                  }
+               } catch (RuntimeException ex) {
+                  // The page could not be opened, so there is nothing to close
+               }
+            }
+         }
+      }, directExecutor());
+   }
+
+   private static XMLInputFactory newXMLInputFactory() {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      return factory;
+   }
+
 }
@@ -17,13 +17,21 @@
 package org.jclouds.abiquo.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.transform;
+import static org.jclouds.abiquo.config.AbiquoProperties.PAGINATION_PREFETCH_DEPTH;
+import static org.jclouds.abiquo.config.AbiquoProperties.VIRTUAL_MACHINE_INDEX_MAX_SIZE;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.PaginatedCollection;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
@@ -32,17 +40,29 @@ import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.cloud.options.VirtualDatacenterOptions;
 import org.jclouds.abiquo.domain.cloud.options.VirtualMachineOptions;
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
+import org.jclouds.abiquo.domain.util.LinkUtils;
 import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.functions.pagination.BasePaginationParser;
+import org.jclouds.abiquo.functions.pagination.ParseVirtualMachines;
 import org.jclouds.abiquo.reference.ValidationErrors;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualAppliances;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualDatacenters;
 import org.jclouds.collect.PagedIterable;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.rest.ApiContext;
 
+import com.abiquo.model.rest.RESTLink;
 import com.abiquo.server.core.cloud.VirtualDatacenterDto;
 import com.abiquo.server.core.cloud.VirtualMachineWithNodeExtendedDto;
 import com.abiquo.server.core.cloud.VirtualMachinesWithNodeExtendedDto;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.TypeLiteral;
 
 /**
  * Provides high level Abiquo cloud operations.
@@ -58,12 +78,35 @@ public class BaseCloudService implements CloudService {
    @VisibleForTesting
    protected final ListVirtualAppliances listVirtualAppliances;
 
+   /**
+    * Index of the links to the virtual machines that have been seen in a
+    * listing, used to get them without scanning all virtual machines. It is
+    * bounded, and the links of deleted virtual machines are removed as soon
+    * as a request to them returns 404.
+    */
+   @VisibleForTesting
+   protected final ConcurrentMap<Integer, RESTLink> virtualMachineLinks;
+
+   @VisibleForTesting
+   protected final ListeningExecutorService userExecutor;
+
+   @VisibleForTesting
+   protected final Integer prefetchDepth;
+
    @Inject
    protected BaseCloudService(final ApiContext<AbiquoApi> context, final ListVirtualDatacenters listVirtualDatacenters,
-         final ListVirtualAppliances listVirtualAppliances) {
+         final ListVirtualAppliances listVirtualAppliances,
+         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor,
+         @Named(PAGINATION_PREFETCH_DEPTH) final Integer prefetchDepth,
+         @Named(VIRTUAL_MACHINE_INDEX_MAX_SIZE) final Long virtualMachineIndexMaxSize) {
       this.context = checkNotNull(context, "context");
       this.listVirtualDatacenters = checkNotNull(listVirtualDatacenters, "listVirtualDatacenters");
       this.listVirtualAppliances = checkNotNull(listVirtualAppliances, "listVirtualAppliances");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.prefetchDepth = checkNotNull(prefetchDepth, "prefetchDepth");
+      this.virtualMachineLinks = CacheBuilder.newBuilder()
+            .maximumSize(checkNotNull(virtualMachineIndexMaxSize, "virtualMachineIndexMaxSize"))
+            .<Integer, RESTLink> build().asMap();
    }
 
    /*********************** Virtual Datacenter ********************** */
@@ -105,14 +148,147 @@ public class BaseCloudService implements CloudService {
 
    @Override
    public Iterable<VirtualMachine> listVirtualMachines() {
+      if (prefetchDepth > 0) {
+         // Use the paginated method to be able to prefetch the next pages
+         return listVirtualMachines(VirtualMachineOptions.builder().build());
+      }
       PagedIterable<VirtualMachineWithNodeExtendedDto> vms = context.getApi().getCloudApi().listAllVirtualMachines();
-      return wrap(context, VirtualMachine.class, vms.concat());
+      return wrap(context, VirtualMachine.class, transform(vms.concat(), indexVirtualMachineLink()));
    }
 
    @Override
    public Iterable<VirtualMachine> listVirtualMachines(VirtualMachineOptions options) {
       PaginatedCollection<VirtualMachineWithNodeExtendedDto, VirtualMachinesWithNodeExtendedDto> vms = context.getApi()
             .getCloudApi().listAllVirtualMachines(options);
-      return wrap(context, VirtualMachine.class, vms.toPagedIterable().concat());
+      Iterable<VirtualMachineWithNodeExtendedDto> all = prefetchDepth > 0 ? parseVirtualMachines().stream(vms,
+            userExecutor, prefetchDepth) : vms.toPagedIterable().concat();
+      return wrap(context, VirtualMachine.class, transform(all, indexVirtualMachineLink()));
+   }
+
+   @Override
+   public VirtualMachine getVirtualMachine(final Integer virtualMachineId) {
+      checkNotNull(virtualMachineId, "virtualMachineId");
+
+      RESTLink link = virtualMachineLinks.get(virtualMachineId);
+      if (link != null) {
+         VirtualMachineWithNodeExtendedDto vm = getVirtualMachine(link);
+         if (vm == null) {
+            // The virtual machine has been deleted since it was indexed
+            virtualMachineLinks.remove(virtualMachineId, link);
+         }
+         return wrap(context, VirtualMachine.class, vm);
+      }
+
+      Iterator<VirtualMachineWithNodeExtendedDto> vms = scanVirtualMachines();
+      try {
+         while (vms.hasNext()) {
+            VirtualMachineWithNodeExtendedDto vm = indexVirtualMachineLink().apply(vms.next());
+            if (virtualMachineId.equals(vm.getId())) {
+               return wrap(context, VirtualMachine.class, vm);
+            }
+         }
+      } finally {
+         stopScan(vms);
+      }
+
+      return null;
+   }
+
+   @Override
+   public Iterable<VirtualMachine> getVirtualMachines(final Iterable<Integer> virtualMachineIds) {
+      checkNotNull(virtualMachineIds, "virtualMachineIds");
+
+      ImmutableList.Builder<VirtualMachine> vms = ImmutableList.builder();
+      Set<Integer> pending = Sets.newHashSet();
+
+      for (Integer id : virtualMachineIds) {
+         RESTLink link = virtualMachineLinks.get(id);
+         if (link == null) {
+            pending.add(id);
+         } else {
+            VirtualMachineWithNodeExtendedDto vm = getVirtualMachine(link);
+            if (vm == null) {
+               virtualMachineLinks.remove(id, link);
+            } else {
+               vms.add(wrap(context, VirtualMachine.class, vm));
+            }
+         }
+      }
+
+      // Look up all the non indexed virtual machines in a single scan, and
+      // stop as soon as all of them have been found
+      if (!pending.isEmpty()) {
+         Iterator<VirtualMachineWithNodeExtendedDto> all = scanVirtualMachines();
+         try {
+            while (all.hasNext() && !pending.isEmpty()) {
+               VirtualMachineWithNodeExtendedDto vm = indexVirtualMachineLink().apply(all.next());
+               if (pending.remove(vm.getId())) {
+                  vms.add(wrap(context, VirtualMachine.class, vm));
+               }
+            }
+         } finally {
+            stopScan(all);
+         }
+      }
+
+      return vms.build();
+   }
+
+   /**
+    * Iterates all the virtual machines. The scan must be stopped with
+    * {@link #stopScan(Iterator)} so the pages that are being prefetched are
+    * cancelled if the caller does not reach the end.
+    */
+   private Iterator<VirtualMachineWithNodeExtendedDto> scanVirtualMachines() {
+      Iterator<VirtualMachineWithNodeExtendedDto> vms;
+      if (prefetchDepth > 0) {
+         vms = parseVirtualMachines().streamingIterator(
+               context.getApi().getCloudApi().listAllVirtualMachines(VirtualMachineOptions.builder().build()),
+               userExecutor, prefetchDepth);
+      } else {
+         vms = context.getApi().getCloudApi().listAllVirtualMachines().concat().iterator();
+      }
+      return vms;
+   }
+
+   private static void stopScan(final Iterator<?> scan) {
+      if (scan instanceof BasePaginationParser.StreamingIterator) {
+         ((BasePaginationParser<?, ?>.StreamingIterator) scan).close();
+      }
+   }
+
+   /**
+    * The parser used to read the virtual machine pages that follow the first
+    * one in streaming mode.
+    */
+   private ParseVirtualMachines parseVirtualMachines() {
+      return context.utils().injector().getInstance(ParseVirtualMachines.class);
+   }
+
+   private VirtualMachineWithNodeExtendedDto getVirtualMachine(final RESTLink link) {
+      HttpResponse response = context.getApi().get(link);
+      if (response == null) {
+         return null;
+      }
+
+      ParseXMLWithJAXB<VirtualMachineWithNodeExtendedDto> parser = new ParseXMLWithJAXB<VirtualMachineWithNodeExtendedDto>(
+            context.utils().xml(), TypeLiteral.get(VirtualMachineWithNodeExtendedDto.class));
+
+      return parser.apply(response);
+   }
+
+   private Function<VirtualMachineWithNodeExtendedDto, VirtualMachineWithNodeExtendedDto> indexVirtualMachineLink() {
+      return new Function<VirtualMachineWithNodeExtendedDto, VirtualMachineWithNodeExtendedDto>() {
+         @Override
+         public VirtualMachineWithNodeExtendedDto apply(final VirtualMachineWithNodeExtendedDto input) {
+            RESTLink selfLink = LinkUtils.getSelfLink(input);
+            if (input.getId() != null && selfLink != null) {
+               RESTLink link = new RESTLink(selfLink.getRel(), selfLink.getHref());
+               link.setType(VirtualMachineWithNodeExtendedDto.BASE_MEDIA_TYPE);
+               virtualMachineLinks.put(input.getId(), link);
+            }
+            return input;
+         }
+      };
    }
 }
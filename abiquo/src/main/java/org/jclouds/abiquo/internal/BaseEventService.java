@@ -17,22 +17,34 @@
 package org.jclouds.abiquo.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.config.AbiquoProperties.EVENT_TAIL_INTERVAL;
+import static org.jclouds.abiquo.config.AbiquoProperties.PAGINATION_PREFETCH_DEPTH;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.PaginatedCollection;
 import org.jclouds.abiquo.domain.event.Event;
 import org.jclouds.abiquo.domain.event.options.EventOptions;
 import org.jclouds.abiquo.features.services.EventService;
+import org.jclouds.abiquo.functions.pagination.ParseEvents;
 import org.jclouds.collect.PagedIterable;
+import org.jclouds.logging.Logger;
 import org.jclouds.rest.ApiContext;
 
 import com.abiquo.server.core.event.EventDto;
 import com.abiquo.server.core.event.EventsDto;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Provides high level Abiquo event operations.
@@ -42,9 +54,32 @@ public class BaseEventService implements EventService {
    @VisibleForTesting
    protected ApiContext<AbiquoApi> context;
 
+   @VisibleForTesting
+   protected ListeningExecutorService userExecutor;
+
+   @VisibleForTesting
+   protected Integer prefetchDepth;
+
+   @VisibleForTesting
+   protected ScheduledExecutorService scheduler;
+
+   @VisibleForTesting
+   protected Long tailInterval;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
    @Inject
-   protected BaseEventService(final ApiContext<AbiquoApi> context) {
+   protected BaseEventService(final ApiContext<AbiquoApi> context,
+         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor,
+         @Named(PAGINATION_PREFETCH_DEPTH) final Integer prefetchDepth,
+         @Named(Constants.PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
+         @Named(EVENT_TAIL_INTERVAL) final Long tailInterval) {
       this.context = checkNotNull(context, "context");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.prefetchDepth = checkNotNull(prefetchDepth, "prefetchDepth");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.tailInterval = checkNotNull(tailInterval, "tailInterval");
    }
 
    @Override
@@ -56,6 +91,22 @@ public class BaseEventService implements EventService {
    @Override
    public Iterable<Event> listEvents(final EventOptions options) {
       PaginatedCollection<EventDto, EventsDto> result = context.getApi().getEventApi().listEvents(options);
-      return wrap(context, Event.class, result.toPagedIterable().concat());
+      Iterable<EventDto> all = prefetchDepth > 0 ? context.utils().injector().getInstance(ParseEvents.class)
+            .stream(result, userExecutor, prefetchDepth) : result.toPagedIterable().concat();
+      return wrap(context, Event.class, all);
+   }
+
+   @Override
+   public EventTail tailEvents(final EventOptions options, final Date since, final EventBatchListener listener) {
+      EventTailer tailer = new EventTailer(this, options, since, listener, logger);
+      tailer.start(scheduler, tailInterval);
+      return tailer;
+   }
+
+   @Override
+   public EventTail tailEvents(final EventOptions options, final Date since, final BlockingQueue<? super Event> queue) {
+      EventTailer tailer = new EventTailer(this, options, since, queue, logger);
+      tailer.start(scheduler, tailInterval);
+      return tailer;
    }
 }
@@ -20,6 +20,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
 import static org.jclouds.abiquo.config.AbiquoProperties.ASYNC_TASK_MONITOR_DELAY;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +48,8 @@ import org.jclouds.rest.ApiContext;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
 import com.google.inject.Inject;
 
@@ -53,6 +58,13 @@ import com.google.inject.Inject;
  */
 @Singleton
 public class BaseMonitoringService implements MonitoringService {
+   /**
+    * The maximum factor applied to the polling delay when none of the
+    * monitored objects change their status between two checks.
+    */
+   @VisibleForTesting
+   static final int MAX_BACKOFF_FACTOR = 4;
+
    @VisibleForTesting
    protected ApiContext<AbiquoApi> context;
 
@@ -95,13 +107,28 @@ public class BaseMonitoringService implements MonitoringService {
    @Override
    public <T> void awaitCompletion(final Long maxWait, final TimeUnit timeUnit,
          final Function<T, MonitorStatus> completeCondition, final T... objects) {
+      awaitCompletion(maxWait, timeUnit, completeCondition, BaseMonitoringService.<T> noRefresh(), objects);
+   }
+
+   /**
+    * Monitor the given objects using the given complete condition, refreshing
+    * all of them at once in each check.
+    * 
+    * @param refresher
+    *           The function used to refresh all the pending objects in each
+    *           check.
+    * @see #monitor(Long, TimeUnit, Function, Function, Object...)
+    */
+   protected <T> void awaitCompletion(final Long maxWait, final TimeUnit timeUnit,
+         final Function<T, MonitorStatus> completeCondition, final Function<Iterable<T>, Map<T, T>> refresher,
+         final T... objects) {
       checkNotNull(completeCondition, "completeCondition");
 
       if (objects != null && objects.length > 0) {
          BlockingEventHandler<T> blockingHandler = new BlockingEventHandler<T>(logger, objects);
          register(blockingHandler);
 
-         monitor(maxWait, timeUnit, completeCondition, objects);
+         monitor(maxWait, timeUnit, completeCondition, refresher, objects);
          blockingHandler.lock();
 
          unregister(blockingHandler);
@@ -116,16 +143,36 @@ public class BaseMonitoringService implements MonitoringService {
    @Override
    public <T> void monitor(final Long maxWait, final TimeUnit timeUnit,
          final Function<T, MonitorStatus> completeCondition, final T... objects) {
+      monitor(maxWait, timeUnit, completeCondition, BaseMonitoringService.<T> noRefresh(), objects);
+   }
+
+   /**
+    * Monitor the given objects using the given complete condition, refreshing
+    * all of them at once in each check.
+    * <p>
+    * All the objects are monitored by a single job, instead of scheduling one
+    * job per object. In each check the refresher is given all the objects that
+    * are still being monitored, and returns a refreshed copy of the ones it
+    * could refresh. The complete condition is evaluated against the refreshed
+    * copies (or the original objects if they could not be refreshed), and the
+    * monitor events are always published with the original objects.
+    * 
+    * @param refresher
+    *           The function used to refresh all the pending objects in each
+    *           check.
+    */
+   protected <T> void monitor(final Long maxWait, final TimeUnit timeUnit,
+         final Function<T, MonitorStatus> completeCondition, final Function<Iterable<T>, Map<T, T>> refresher,
+         final T... objects) {
       checkNotNull(completeCondition, "completeCondition");
+      checkNotNull(refresher, "refresher");
       if (maxWait != null) {
          checkNotNull(timeUnit, "timeUnit");
       }
 
       if (objects != null && objects.length > 0) {
-         for (T object : objects) {
-            AsyncMonitor<T> monitor = new AsyncMonitor<T>(object, completeCondition);
-            monitor.startMonitoring(maxWait, timeUnit);
-         }
+         AsyncGroupMonitor<T> monitor = new AsyncGroupMonitor<T>(completeCondition, refresher, objects);
+         monitor.startMonitoring(maxWait, timeUnit);
       }
    }
 
@@ -164,6 +211,15 @@ public class BaseMonitoringService implements MonitoringService {
       return checkNotNull(context.utils().injector().getInstance(ConversionMonitor.class), "conversionMonitor");
    }
 
+   private static <T> Function<Iterable<T>, Map<T, T>> noRefresh() {
+      return new Function<Iterable<T>, Map<T, T>>() {
+         @Override
+         public Map<T, T> apply(final Iterable<T> input) {
+            return ImmutableMap.of();
+         }
+      };
+   }
+
    /**
     * Performs the periodical monitoring tasks.
     * 
@@ -206,6 +262,14 @@ public class BaseMonitoringService implements MonitoringService {
             checkNotNull(timeUnit, "timeUnit must not be null when using timeouts");
          }
          future = scheduler.scheduleWithFixedDelay(this, 0L, pollingDelay, TimeUnit.MILLISECONDS);
+         startTimer(maxWait, timeUnit);
+      }
+
+      /**
+       * Starts the timer for the given timeout, without scheduling any job.
+       * Used when the object is monitored by an {@link AsyncGroupMonitor}.
+       */
+      void startTimer(final Long maxWait, TimeUnit timeUnit) {
          timeout = maxWait == null ? null : System.currentTimeMillis() + timeUnit.toMillis(maxWait);
          logger.debug("started monitor job for %s with %s timeout", monitoredObject,
                timeout == null ? "no" : String.valueOf(timeout));
@@ -248,7 +312,20 @@ public class BaseMonitoringService implements MonitoringService {
             return;
          }
 
-         MonitorStatus status = completeCondition.apply(monitoredObject);
+         checkStatus(monitoredObject);
+      }
+
+      /**
+       * Evaluates the complete condition and publishes the corresponding
+       * event if the monitored object has finished or timed out.
+       * 
+       * @param refreshed
+       *           The object to evaluate the complete condition with. It may
+       *           be a refreshed copy of the monitored object.
+       * @return Boolean indicating if the monitor has finished.
+       */
+      boolean checkStatus(final T refreshed) {
+         MonitorStatus status = completeCondition.apply(refreshed);
          logger.debug("monitored object %s status %s", monitoredObject, status.name());
 
          switch (status) {
@@ -256,12 +333,12 @@ public class BaseMonitoringService implements MonitoringService {
                stopMonitoring();
                logger.debug("publishing COMPLETED event");
                eventBus.post(new CompletedEvent<T>(monitoredObject));
-               break;
+               return true;
             case FAILED:
                stopMonitoring();
                logger.debug("publishing FAILED event");
                eventBus.post(new FailedEvent<T>(monitoredObject));
-               break;
+               return true;
             case CONTINUE:
             default:
                if (isTimeout()) {
@@ -269,8 +346,9 @@ public class BaseMonitoringService implements MonitoringService {
                   stopMonitoring();
                   logger.debug("publishing TIMEOUT event");
                   eventBus.post(new TimeoutEvent<T>(monitoredObject));
+                  return true;
                }
-               break;
+               return false;
          }
       }
 
@@ -291,4 +369,133 @@ public class BaseMonitoringService implements MonitoringService {
       }
    }
 
+   /**
+    * Performs the periodical monitoring tasks for a group of objects using a
+    * single job.
+    * <p>
+    * The delay between checks grows while none of the objects change their
+    * status, up to {@link #MAX_BACKOFF_FACTOR} times the configured polling
+    * delay, and is reset as soon as one of them finishes.
+    * 
+    * @param <T>
+    *           The type of the objects being monitored.
+    */
+   @VisibleForTesting
+   class AsyncGroupMonitor<T> implements Runnable {
+      /** The monitors for the objects that have not finished yet. */
+      private final List<AsyncMonitor<T>> pending;
+
+      /** The function used to refresh all the pending objects at once. */
+      private final Function<Iterable<T>, Map<T, T>> refresher;
+
+      /** The future representing the next check. */
+      private volatile Future<?> future;
+
+      /** The current delay between checks. */
+      private long delay;
+
+      public AsyncGroupMonitor(final Function<T, MonitorStatus> completeCondition,
+            final Function<Iterable<T>, Map<T, T>> refresher, final T... monitoredObjects) {
+         super();
+         checkNotNull(completeCondition, "completeCondition");
+         this.refresher = checkNotNull(refresher, "refresher");
+         this.pending = Lists.newArrayListWithCapacity(monitoredObjects.length);
+         for (T monitoredObject : monitoredObjects) {
+            pending.add(new AsyncMonitor<T>(monitoredObject, completeCondition));
+         }
+      }
+
+      /**
+       * Starts the monitoring job with the given timeout.
+       * 
+       * @param maxWait
+       *           The timeout.
+       * @param timeUnit
+       *           The timeunit used in the maxWait parameter.
+       */
+      public void startMonitoring(final Long maxWait, TimeUnit timeUnit) {
+         if (maxWait != null) {
+            checkNotNull(timeUnit, "timeUnit must not be null when using timeouts");
+         }
+         for (AsyncMonitor<T> monitor : pending) {
+            monitor.startTimer(maxWait, timeUnit);
+         }
+         delay = pollingDelay;
+         future = scheduler.schedule(this, 0L, TimeUnit.MILLISECONDS);
+      }
+
+      /**
+       * Stops the monitoring job, if running.
+       */
+      public void stopMonitoring() {
+         logger.debug("stopping group monitor job for %s objects", pending.size());
+
+         try {
+            if (future != null && !future.isCancelled() && !future.isDone()) {
+               // Do not force future cancel. Let it finish gracefully
+               future.cancel(false);
+            }
+         } catch (Exception ex) {
+            logger.warn(ex, "failed to stop group monitor job");
+         }
+      }
+
+      @Override
+      public void run() {
+         // Do not use Thread.interrupted() since it will clear the interrupted
+         // flag and subsequent calls to it may not return the appropriate
+         // value
+         if (Thread.currentThread().isInterrupted()) {
+            return;
+         }
+
+         Map<T, T> refreshed = refresh();
+
+         boolean changed = false;
+         Iterator<AsyncMonitor<T>> it = pending.iterator();
+         while (it.hasNext()) {
+            AsyncMonitor<T> monitor = it.next();
+            T object = monitor.getMonitoredObject();
+            T current = refreshed.containsKey(object) ? refreshed.get(object) : object;
+            if (monitor.checkStatus(current)) {
+               it.remove();
+               changed = true;
+            }
+         }
+
+         if (!pending.isEmpty()) {
+            delay = changed ? pollingDelay : Math.min(delay * 2, pollingDelay * MAX_BACKOFF_FACTOR);
+            future = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+         }
+      }
+
+      private Map<T, T> refresh() {
+         try {
+            return refresher.apply(Lists.transform(pending, new Function<AsyncMonitor<T>, T>() {
+               @Override
+               public T apply(final AsyncMonitor<T> input) {
+                  return input.getMonitoredObject();
+               }
+            }));
+         } catch (Exception ex) {
+            // Evaluate each object on its own if the group could not be
+            // refreshed
+            logger.warn(ex, "failed to refresh the monitored objects, checking them one by one");
+            return ImmutableMap.of();
+         }
+      }
+
+      public List<AsyncMonitor<T>> getPending() {
+         return pending;
+      }
+
+      public Future<?> getFuture() {
+         return future;
+      }
+
+      public long getDelay() {
+         return delay;
+      }
+   }
+
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.abiquo.domain.event.Event;
+import org.jclouds.abiquo.domain.event.options.EventOptions;
+import org.jclouds.abiquo.features.services.EventService;
+import org.jclouds.abiquo.features.services.EventService.EventBatchListener;
+import org.jclouds.abiquo.features.services.EventService.EventTail;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+
+/**
+ * Polls the events performed after a cursor and delivers the new ones in
+ * batches.
+ * <p>
+ * The cursor is the date of the last delivered event and acts as a high-water
+ * mark: each request only returns the events performed at or after it, and
+ * the ones performed before it are discarded. The events sharing the date of
+ * the cursor are deduplicated by their (timestamp, id) key, so only the keys
+ * of the events at the cursor have to be remembered, however many events are
+ * delivered in between. Events without an id are keyed by their contents.
+ */
+class EventTailer implements Runnable, EventTail {
+   private static final Ordering<Event> BY_DATE = new Ordering<Event>() {
+      @Override
+      public int compare(final Event left, final Event right) {
+         return ComparisonChain.start()
+               .compare(left.getTimestamp(), right.getTimestamp(), Ordering.natural().nullsFirst())
+               .compare(left.getId(), right.getId(), Ordering.natural().nullsFirst()).result();
+      }
+   };
+
+   private final EventService eventService;
+
+   private final EventOptions options;
+
+   private final EventBatchListener listener;
+
+   private final BlockingQueue<? super Event> queue;
+
+   private final Logger logger;
+
+   /** The keys of the delivered events performed at the cursor. Guarded by this. */
+   private final Set<List<Object>> deliveredAtCursor = Sets.newHashSet();
+
+   private volatile Date cursor;
+
+   private volatile Integer lastEventId;
+
+   private volatile ScheduledFuture<?> future;
+
+   EventTailer(final EventService eventService, final EventOptions options, final Date since,
+         final EventBatchListener listener, final Logger logger) {
+      this.eventService = checkNotNull(eventService, "eventService");
+      this.options = checkNotNull(options, "options");
+      this.cursor = checkNotNull(since, "since");
+      this.listener = checkNotNull(listener, "listener");
+      this.queue = null;
+      this.logger = checkNotNull(logger, "logger");
+   }
+
+   EventTailer(final EventService eventService, final EventOptions options, final Date since,
+         final BlockingQueue<? super Event> queue, final Logger logger) {
+      this.eventService = checkNotNull(eventService, "eventService");
+      this.options = checkNotNull(options, "options");
+      this.cursor = checkNotNull(since, "since");
+      this.listener = null;
+      this.queue = checkNotNull(queue, "queue");
+      this.logger = checkNotNull(logger, "logger");
+   }
+
+   void start(final ScheduledExecutorService scheduler, final long interval) {
+      future = scheduler.scheduleWithFixedDelay(this, 0, interval, TimeUnit.MILLISECONDS);
+   }
+
+   @Override
+   public void run() {
+      try {
+         poll();
+      } catch (RuntimeException ex) {
+         // Keep the poller scheduled and retry from the same cursor
+         logger.warn(ex, "could not fetch the events since %s", cursor);
+      }
+   }
+
+   @VisibleForTesting
+   synchronized List<Event> poll() {
+      List<Event> batch = Lists.newArrayList();
+      Set<List<Object>> keys = Sets.newHashSet();
+      for (Event event : eventService.listEvents(options.since(cursor))) {
+         // Events without a timestamp can not be placed before or after the
+         // cursor, so they are deduplicated as if they were performed at it
+         Date timestamp = event.getTimestamp();
+         if (timestamp != null && timestamp.before(cursor)) {
+            continue;
+         }
+         boolean atCursor = timestamp == null || timestamp.equals(cursor);
+         List<Object> key = key(event);
+         if ((!atCursor || !deliveredAtCursor.contains(key)) && keys.add(key)) {
+            batch.add(event);
+         }
+      }
+
+      if (batch.isEmpty()) {
+         return batch;
+      }
+
+      List<Event> delivered = deliver(BY_DATE.sortedCopy(batch));
+      if (delivered.isEmpty()) {
+         return delivered;
+      }
+
+      // Only move the cursor past the events that have been handed off, so
+      // the ones that could not be delivered are fetched again
+      Event last = delivered.get(delivered.size() - 1);
+      if (last.getTimestamp() != null && last.getTimestamp().after(cursor)) {
+         // Move the high-water mark, and only remember the events at it
+         cursor = last.getTimestamp();
+         deliveredAtCursor.clear();
+      }
+      for (Event event : delivered) {
+         if (event.getTimestamp() == null || event.getTimestamp().equals(cursor)) {
+            deliveredAtCursor.add(key(event));
+         }
+      }
+      lastEventId = last.getId();
+
+      return delivered;
+   }
+
+   /**
+    * Hands the given batch off and returns the events that were handed off.
+    * <p>
+    * Listener failures are logged and the whole batch is considered handed
+    * off. If the tailer is interrupted while waiting for space in the queue,
+    * only the events already put in the queue are.
+    */
+   private List<Event> deliver(final List<Event> batch) {
+      if (queue == null) {
+         try {
+            listener.onEvents(Collections.unmodifiableList(batch));
+         } catch (RuntimeException ex) {
+            logger.warn(ex, "event listener failed to process %s events", batch.size());
+         }
+         return batch;
+      }
+
+      for (int i = 0; i < batch.size(); i++) {
+         try {
+            queue.put(batch.get(i));
+         } catch (InterruptedException ex) {
+            // The tail has been closed while waiting for space in the queue
+            Thread.currentThread().interrupt();
+            return batch.subList(0, i);
+         }
+      }
+      return batch;
+   }
+
+   /**
+    * Returns the key used to deduplicate the given event. Events without an
+    * id are keyed by all their fields.
+    */
+   private static List<Object> key(final Event event) {
+      return event.getId() != null ? Arrays.<Object> asList(event.getTimestamp(), event.getId()) : Arrays
+            .<Object> asList(event.getTimestamp(), event.toString());
+   }
+
+   @Override
+   public Date getCursor() {
+      return cursor;
+   }
+
+   @Override
+   public Integer getLastEventId() {
+      return lastEventId;
+   }
+
+   @Override
+   public void close() {
+      if (future != null) {
+         future.cancel(true);
+      }
+   }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.config.AbiquoProperties;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.enterprise.Enterprise;
+import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Caches the virtual machine templates available in the datacenter
+ * repositories, indexed by datacenter and template id.
+ * <p>
+ * Cache misses load all the templates in the repository of the datacenter at
+ * once, so creating several nodes from the same template, or from templates
+ * in the same datacenter, only hits the API once per
+ * {@link AbiquoProperties#TEMPLATE_CACHE_TTL}.
+ * <p>
+ * Template ids are unique across datacenters, so the key of each cached
+ * template is also indexed by its id, and lookups and invalidations by id do
+ * not have to scan the cache.
+ */
+@Singleton
+public class VirtualMachineTemplateCache {
+   @VisibleForTesting
+   final Cache<Key, VirtualMachineTemplate> templates;
+
+   /** The key of each cached template, indexed by template id. */
+   @VisibleForTesting
+   final ConcurrentMap<Integer, Key> keys = Maps.newConcurrentMap();
+
+   @Inject
+   public VirtualMachineTemplateCache(@Named(AbiquoProperties.TEMPLATE_CACHE_TTL) final Long ttl,
+         @Named(AbiquoProperties.TEMPLATE_CACHE_MAX_SIZE) final Long maxSize) {
+      this.templates = CacheBuilder.newBuilder().expireAfterWrite(checkNotNull(ttl, "ttl"), TimeUnit.MILLISECONDS)
+            .maximumSize(checkNotNull(maxSize, "maxSize")).removalListener(new RemovalListener<Key, Object>() {
+               @Override
+               public void onRemoval(final RemovalNotification<Key, Object> notification) {
+                  // Replaced entries keep the same key
+                  if (notification.getCause() != RemovalCause.REPLACED) {
+                     keys.remove(notification.getKey().templateId, notification.getKey());
+                  }
+               }
+            }).build();
+   }
+
+   /**
+    * Get the given template from the repository of the given datacenter.
+    * <p>
+    * If the template is not cached, all the templates in the repository are
+    * loaded.
+    * 
+    * @return The template or <code>null</code> if it does not exist.
+    */
+   public VirtualMachineTemplate get(final Enterprise enterprise, final Datacenter datacenter,
+         final Integer templateId) {
+      checkNotNull(enterprise, "enterprise");
+      checkNotNull(datacenter, "datacenter");
+      checkNotNull(templateId, "templateId");
+      final Key key = new Key(datacenter.getId(), templateId);
+
+      try {
+         VirtualMachineTemplate template = templates.get(key, new Callable<VirtualMachineTemplate>() {
+            @Override
+            public VirtualMachineTemplate call() throws Exception {
+               VirtualMachineTemplate found = null;
+               for (VirtualMachineTemplate template : enterprise.listTemplatesInRepository(datacenter)) {
+                  if (template.getId().equals(templateId)) {
+                     found = template;
+                  } else {
+                     put(new Key(datacenter.getId(), template.getId()), template);
+                  }
+               }
+               // The template may not be listed if it has just been created
+               return found != null ? found : enterprise.getTemplateInRepository(datacenter, templateId);
+            }
+         });
+         keys.put(templateId, key);
+         return template;
+      } catch (InvalidCacheLoadException ex) {
+         // The template does not exist
+         return null;
+      } catch (ExecutionException ex) {
+         throw new UncheckedExecutionException(ex.getCause());
+      }
+   }
+
+   /**
+    * Get the template with the given id if it is cached.
+    * 
+    * @return The template or <code>null</code> if it is not cached.
+    */
+   public VirtualMachineTemplate getIfPresent(final Integer templateId) {
+      checkNotNull(templateId, "templateId");
+      Key key = keys.get(templateId);
+      return key == null ? null : templates.getIfPresent(key);
+   }
+
+   /**
+    * Caches the given templates.
+    */
+   public void putAll(final Iterable<VirtualMachineTemplate> templates) {
+      for (VirtualMachineTemplate template : templates) {
+         put(template);
+      }
+   }
+
+   /**
+    * Caches the given template.
+    */
+   public void put(final VirtualMachineTemplate template) {
+      Integer datacenterId = template.unwrap().getIdFromLink(ParentLinkName.DATACENTER);
+      if (datacenterId != null) {
+         put(new Key(datacenterId, template.getId()), template);
+      }
+   }
+
+   private void put(final Key key, final VirtualMachineTemplate template) {
+      keys.put(key.templateId, key);
+      templates.put(key, template);
+   }
+
+   /**
+    * Discards the given template.
+    */
+   public void invalidate(final Integer templateId) {
+      checkNotNull(templateId, "templateId");
+      Key key = keys.remove(templateId);
+      if (key != null) {
+         templates.invalidate(key);
+      }
+   }
+
+   /**
+    * Discards all the cached templates.
+    */
+   public void invalidateAll() {
+      templates.invalidateAll();
+      keys.clear();
+   }
+
+   @VisibleForTesting
+   static final class Key {
+      private final Integer datacenterId;
+
+      private final Integer templateId;
+
+      Key(final Integer datacenterId, final Integer templateId) {
+         this.datacenterId = checkNotNull(datacenterId, "datacenterId");
+         this.templateId = checkNotNull(templateId, "templateId");
+      }
+
+      @Override
+      public boolean equals(final Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (!(obj instanceof Key)) {
+            return false;
+         }
+         Key other = (Key) obj;
+         return datacenterId.equals(other.datacenterId) && templateId.equals(other.templateId);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(datacenterId, templateId);
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).add("datacenterId", datacenterId).add("templateId", templateId)
+               .toString();
+      }
+   }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.monitor.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.filter;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.jclouds.rest.ApiContext;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.abiquo.server.core.cloud.VirtualMachineWithNodeExtendedDto;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
+
+/**
+ * Refreshes a group of {@link VirtualMachine} objects with a single listing
+ * call per virtual appliance, instead of getting the state of each virtual
+ * machine on its own.
+ * <p>
+ * The returned virtual machines return the listed state without making any
+ * call to the target API, so the monitor functions can be evaluated against
+ * them. Virtual machines that are alone in their virtual appliance, or that
+ * are not found in its listing, are not refreshed so they are checked
+ * individually.
+ * <p>
+ * Instances of this class cache the virtual appliances, so a new one should
+ * be used for each monitoring job.
+ * 
+ * @see MonitoringService
+ */
+public class RefreshVirtualMachinesByVirtualAppliance implements
+      Function<Iterable<VirtualMachine>, Map<VirtualMachine, VirtualMachine>> {
+   private final ApiContext<AbiquoApi> context;
+
+   /** The virtual appliances of the monitored virtual machines. */
+   private final Map<String, VirtualAppliance> virtualAppliances = Maps.newHashMap();
+
+   public RefreshVirtualMachinesByVirtualAppliance(final ApiContext<AbiquoApi> context) {
+      this.context = checkNotNull(context, "context");
+   }
+
+   @Override
+   public Map<VirtualMachine, VirtualMachine> apply(final Iterable<VirtualMachine> vms) {
+      ListMultimap<String, VirtualMachine> vmsByVirtualAppliance = Multimaps.index(
+            filter(vms, hasVirtualApplianceLink()), new Function<VirtualMachine, String>() {
+               @Override
+               public String apply(final VirtualMachine input) {
+                  return input.unwrap().searchLink(ParentLinkName.VIRTUAL_APPLIANCE).getHref();
+               }
+            });
+
+      Map<VirtualMachine, VirtualMachine> refreshed = Maps.newIdentityHashMap();
+
+      for (Map.Entry<String, Collection<VirtualMachine>> group : vmsByVirtualAppliance.asMap().entrySet()) {
+         Collection<VirtualMachine> pending = group.getValue();
+         if (pending.size() < 2) {
+            // Listing the virtual appliance is not cheaper than getting the
+            // state of a single virtual machine
+            continue;
+         }
+
+         VirtualAppliance virtualAppliance = virtualAppliances.get(group.getKey());
+         if (virtualAppliance == null) {
+            virtualAppliance = pending.iterator().next().getVirtualAppliance();
+            virtualAppliances.put(group.getKey(), virtualAppliance);
+         }
+
+         Map<Integer, VirtualMachineWithNodeExtendedDto> listed = Maps.newHashMap();
+         for (VirtualMachine vm : virtualAppliance.listVirtualMachines()) {
+            listed.put(vm.getId(), vm.unwrap());
+         }
+
+         for (VirtualMachine vm : pending) {
+            VirtualMachineWithNodeExtendedDto dto = listed.get(vm.getId());
+            if (dto != null && dto.getState() != null) {
+               // Keep the state of the monitored object up to date, as the
+               // VirtualMachine#getState method does
+               vm.unwrap().setState(dto.getState());
+               vm.unwrap().setIdState(dto.getState().id());
+               refreshed.put(vm, new ListedVirtualMachine(context, dto));
+            }
+         }
+      }
+
+      return refreshed;
+   }
+
+   private static Predicate<VirtualMachine> hasVirtualApplianceLink() {
+      return new Predicate<VirtualMachine>() {
+         @Override
+         public boolean apply(final VirtualMachine input) {
+            RESTLink link = input.unwrap().searchLink(ParentLinkName.VIRTUAL_APPLIANCE);
+            return link != null && link.getHref() != null;
+         }
+      };
+   }
+
+   /**
+    * A virtual machine that returns the state it had when it was listed.
+    */
+   private static class ListedVirtualMachine extends VirtualMachine {
+      public ListedVirtualMachine(final ApiContext<AbiquoApi> context, final VirtualMachineWithNodeExtendedDto target) {
+         super(context, target);
+      }
+
+      @Override
+      public VirtualMachineState getState() {
+         return target.getState();
+      }
+   }
+}
@@ -31,6 +31,7 @@ import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.internal.BaseMonitoringService;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
+import org.jclouds.abiquo.monitor.functions.RefreshVirtualMachinesByVirtualAppliance;
 import org.jclouds.abiquo.monitor.functions.VirtualMachineDeployMonitor;
 import org.jclouds.abiquo.monitor.functions.VirtualMachineStateMonitor;
 import org.jclouds.abiquo.monitor.functions.VirtualMachineUndeployMonitor;
@@ -63,63 +64,71 @@ public class BaseVirtualMachineMonitor extends BaseMonitoringService implements
 
    @Override
    public void awaitCompletionDeploy(final VirtualMachine... vms) {
-      awaitCompletion(deployMonitor, vms);
+      awaitCompletion(null, null, deployMonitor, refresher(), vms);
    }
 
    @Override
    public void monitorDeploy(final VirtualMachine... vms) {
-      monitor(deployMonitor, vms);
+      monitor(null, null, deployMonitor, refresher(), vms);
    }
 
    @Override
    public void awaitCompletionDeploy(final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms) {
-      awaitCompletion(maxWait, timeUnit, deployMonitor, vms);
+      awaitCompletion(maxWait, timeUnit, deployMonitor, refresher(), vms);
    }
 
    @Override
    public void monitorDeploy(final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms) {
-      monitor(maxWait, timeUnit, deployMonitor, vms);
+      monitor(maxWait, timeUnit, deployMonitor, refresher(), vms);
    }
 
    @Override
    public void awaitCompletionUndeploy(final VirtualMachine... vms) {
-      awaitCompletion(undeployMonitor, vms);
+      awaitCompletion(null, null, undeployMonitor, refresher(), vms);
    }
 
    @Override
    public void monitorUndeploy(final VirtualMachine... vms) {
-      monitor(undeployMonitor, vms);
+      monitor(null, null, undeployMonitor, refresher(), vms);
    }
 
    @Override
    public void awaitCompletionUndeploy(final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms) {
-      awaitCompletion(maxWait, timeUnit, undeployMonitor, vms);
+      awaitCompletion(maxWait, timeUnit, undeployMonitor, refresher(), vms);
    }
 
    @Override
    public void monitorUndeploy(final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms) {
-      monitor(maxWait, timeUnit, undeployMonitor, vms);
+      monitor(maxWait, timeUnit, undeployMonitor, refresher(), vms);
    }
 
    @Override
    public void awaitState(final VirtualMachineState state, final VirtualMachine... vms) {
-      awaitCompletion(new VirtualMachineStateMonitor(state), vms);
+      awaitCompletion(null, null, new VirtualMachineStateMonitor(state), refresher(), vms);
    }
 
    @Override
    public void monitorState(final VirtualMachineState state, final VirtualMachine... vms) {
-      monitor(new VirtualMachineStateMonitor(state), vms);
+      monitor(null, null, new VirtualMachineStateMonitor(state), refresher(), vms);
    }
 
    @Override
    public void awaitState(final Long maxWait, final TimeUnit timeUnit, final VirtualMachineState state,
          final VirtualMachine... vms) {
-      awaitCompletion(maxWait, timeUnit, new VirtualMachineStateMonitor(state), vms);
+      awaitCompletion(maxWait, timeUnit, new VirtualMachineStateMonitor(state), refresher(), vms);
    }
 
    @Override
    public void monitorState(final Long maxWait, final TimeUnit timeUnit, final VirtualMachineState state,
          final VirtualMachine... vms) {
-      monitor(maxWait, timeUnit, new VirtualMachineStateMonitor(state), vms);
+      monitor(maxWait, timeUnit, new VirtualMachineStateMonitor(state), refresher(), vms);
+   }
+
+   /**
+    * Refreshes the virtual machines in the same virtual appliance with a
+    * single call in each check.
+    */
+   private RefreshVirtualMachinesByVirtualAppliance refresher() {
+      return new RefreshVirtualMachinesByVirtualAppliance(context);
    }
 }
@@ -17,7 +17,8 @@
 package org.jclouds.abiquo.predicates;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.isEmpty;
+import static com.google.common.collect.Iterables.any;
+import static com.google.common.collect.Iterables.filter;
 
 import org.jclouds.abiquo.domain.cloud.Conversion;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
@@ -29,6 +30,9 @@ import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import com.abiquo.model.enumerator.ConversionState;
 import com.abiquo.model.enumerator.HypervisorType;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Container for {@link VirtualDatacenter} filters.
@@ -55,6 +59,10 @@ public class VirtualDatacenterPredicates {
    /**
     * Check if the given template type is compatible with the given virtual
     * datacenter type taking into account the conversions of the template.
+    * <p>
+    * The conversions of the template are only fetched the first time they are
+    * needed, and are reused for all the virtual datacenters evaluated with
+    * the returned predicate.
     * 
     * @param template
     *           The template to check.
@@ -62,14 +70,30 @@ public class VirtualDatacenterPredicates {
     *         compatibles with the given virtual datacenter.
     */
    public static Predicate<VirtualDatacenter> compatibleWithTemplateOrConversions(final VirtualMachineTemplate template) {
+      final Supplier<Iterable<Conversion>> finishedConversions = Suppliers.memoize(new Supplier<Iterable<Conversion>>() {
+         @Override
+         public Iterable<Conversion> get() {
+            return ImmutableList.copyOf(filter(template.listConversions(), new Predicate<Conversion>() {
+               @Override
+               public boolean apply(final Conversion conversion) {
+                  return ConversionState.FINISHED == conversion.getState();
+               }
+            }));
+         }
+      });
+
       return new Predicate<VirtualDatacenter>() {
          @Override
          public boolean apply(final VirtualDatacenter vdc) {
-            HypervisorType type = vdc.getHypervisorType();
+            final HypervisorType type = vdc.getHypervisorType();
             boolean compatible = type.isCompatible(template.getDiskFormatType());
             if (!compatible) {
-               Iterable<Conversion> compatibleConversions = template.listConversions(type, ConversionState.FINISHED);
-               compatible = compatibleConversions != null && !isEmpty(compatibleConversions);
+               compatible = any(finishedConversions.get(), new Predicate<Conversion>() {
+                  @Override
+                  public boolean apply(final Conversion conversion) {
+                     return type.isCompatible(conversion.getTargetFormat());
+                  }
+               });
             }
             return compatible;
          }
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+
+import org.jclouds.Constants;
+import org.jclouds.abiquo.config.AbiquoProperties;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Runs a request for each one of a set of parent entities concurrently and
+ * returns the results as each request completes.
+ * <p>
+ * The number of requests in flight is bounded by
+ * {@link AbiquoProperties#FAN_OUT_MAX_CONCURRENCY} and the rate at which they
+ * are issued by {@link AbiquoProperties#FAN_OUT_MAX_RATE}. Parents whose
+ * request fails or does not complete within
+ * {@link AbiquoProperties#FAN_OUT_TIMEOUT} are logged and skipped, so a single
+ * unavailable parent does not prevent the rest of the results from being
+ * returned.
+ * <p>
+ * The results are returned in the order in which the requests complete, not
+ * in the order of the parents.
+ */
+@Singleton
+public class FanOut {
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final ScheduledExecutorService scheduler;
+
+   private final int maxConcurrency;
+
+   private final long timeout;
+
+   private final Optional<RateLimiter> rateLimiter;
+
+   @Inject
+   public FanOut(@Named(Constants.PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
+         @Named(AbiquoProperties.FAN_OUT_MAX_CONCURRENCY) final Integer maxConcurrency,
+         @Named(AbiquoProperties.FAN_OUT_MAX_RATE) final Double maxRate,
+         @Named(AbiquoProperties.FAN_OUT_TIMEOUT) final Long timeout) {
+      checkArgument(checkNotNull(maxConcurrency, "maxConcurrency") > 0, "maxConcurrency must be greater than zero");
+      checkArgument(checkNotNull(maxRate, "maxRate") >= 0, "maxRate must not be negative");
+      checkArgument(checkNotNull(timeout, "timeout") >= 0, "timeout must not be negative");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.maxConcurrency = maxConcurrency;
+      this.timeout = timeout;
+      this.rateLimiter = maxRate > 0 ? Optional.of(RateLimiter.create(maxRate)) : Optional.<RateLimiter> absent();
+   }
+
+   /**
+    * Applies the given request to each parent using the given executor.
+    * <p>
+    * The requests are issued when the returned iterable is first iterated,
+    * and each result is returned as soon as its request completes, in
+    * completion order. The parents are also read as they are needed, so they
+    * can be the results of another fan-out. Iterating the returned iterable
+    * again returns the same results without issuing the requests again.
+    * <p>
+    * Requests returning <code>null</code> do not produce any result, and
+    * parents whose request fails or times out are logged and skipped.
+    * 
+    * @param executor The executor used to run the requests.
+    * @param parents The parents to apply the request to.
+    * @param request The request to run for each parent.
+    * @return The results of the requests that completed successfully.
+    */
+   public <P, R> FluentIterable<R> execute(final ListeningExecutorService executor, final Iterable<P> parents,
+         final Function<? super P, R> request) {
+      final Run<P, R> run = new Run<P, R>(executor, parents, request, false);
+      return new FluentIterable<R>() {
+         @Override
+         public Iterator<R> iterator() {
+            return run.iterator();
+         }
+      };
+   }
+
+   /**
+    * Applies the given request to each parent using the given executor, and
+    * fails if any of the requests fails.
+    * <p>
+    * This is meant for the listings where a missing result would be a wrong
+    * result, so all the requests are completed before returning. The requests
+    * that have not been issued yet are not issued once one of them fails, and
+    * the ones in flight are cancelled.
+    * 
+    * @param executor The executor used to run the requests.
+    * @param parents The parents to apply the request to.
+    * @param request The request to run for each parent.
+    * @return The results of all the requests, in completion order.
+    * @throws RuntimeException The failure of the first request that failed.
+    */
+   public <P, R> ImmutableList<R> executeAll(final ListeningExecutorService executor, final Iterable<P> parents,
+         final Function<? super P, R> request) {
+      return ImmutableList.copyOf(new Run<P, R>(executor, parents, request, true).iterator());
+   }
+
+   /**
+    * The requests of a single fan-out.
+    * <p>
+    * The requests are only submitted by the thread that is iterating the
+    * results, so a listener running in the thread that completes a request
+    * never recurses into the submission of the next one, even with a direct
+    * executor. The results are kept so all the iterators return the same
+    * ones.
+    */
+   private class Run<P, R> {
+      private final ListeningExecutorService executor;
+
+      private final Iterable<P> parents;
+
+      private final Function<? super P, R> request;
+
+      private final boolean failOnError;
+
+      private final BlockingQueue<Outcome<P, R>> completed = new LinkedBlockingQueue<Outcome<P, R>>();
+
+      // Guarded by this
+      private final List<ListenableFuture<R>> inFlight = Lists.newArrayList();
+
+      private final List<R> results = Lists.newArrayList();
+
+      private Iterator<P> remaining;
+
+      private RuntimeException failure;
+
+      private Run(final ListeningExecutorService executor, final Iterable<P> parents,
+            final Function<? super P, R> request, final boolean failOnError) {
+         this.executor = checkNotNull(executor, "executor");
+         this.parents = checkNotNull(parents, "parents");
+         this.request = checkNotNull(request, "request");
+         this.failOnError = failOnError;
+      }
+
+      private Iterator<R> iterator() {
+         return new AbstractIterator<R>() {
+            private int next;
+
+            @Override
+            protected R computeNext() {
+               synchronized (Run.this) {
+                  while (next >= results.size()) {
+                     if (!advance()) {
+                        return endOfData();
+                     }
+                  }
+                  return results.get(next++);
+               }
+            }
+         };
+      }
+
+      /**
+       * Waits for the next request to complete, issuing the pending ones as
+       * long as there is room for them.
+       * 
+       * @return <code>false</code> if all the requests have completed.
+       */
+      private boolean advance() {
+         if (failure != null) {
+            throw failure;
+         }
+         if (remaining == null) {
+            remaining = parents.iterator();
+         }
+
+         Outcome<P, R> outcome = completed.poll();
+         while (outcome == null && inFlight.size() < maxConcurrency && remaining.hasNext()) {
+            inFlight.add(submit(executor, remaining.next(), request, completed));
+            outcome = completed.poll();
+         }
+         if (outcome == null) {
+            if (inFlight.isEmpty()) {
+               return false;
+            }
+            outcome = Uninterruptibles.takeUninterruptibly(completed);
+         }
+         inFlight.remove(outcome.future);
+
+         if (outcome.error != null) {
+            if (failOnError) {
+               for (ListenableFuture<R> future : inFlight) {
+                  future.cancel(true);
+               }
+               inFlight.clear();
+               failure = Throwables.propagate(outcome.error);
+               throw failure;
+            }
+            logger.warn(outcome.error, "skipping results for %s", outcome.parent);
+         } else if (outcome.result != null) {
+            results.add(outcome.result);
+         }
+         return true;
+      }
+   }
+
+   private <P, R> ListenableFuture<R> submit(final ListeningExecutorService executor, final P parent,
+         final Function<? super P, R> request, final BlockingQueue<Outcome<P, R>> completed) {
+      final ListenableFuture<R> future = executor.submit(new Callable<R>() {
+         @Override
+         public R call() throws Exception {
+            if (rateLimiter.isPresent()) {
+               rateLimiter.get().acquire();
+            }
+            return request.apply(parent);
+         }
+      });
+
+      final Optional<ScheduledFuture<?>> timeoutTask = timeout > 0 ? Optional.<ScheduledFuture<?>> of(scheduler
+            .schedule(new Runnable() {
+               @Override
+               public void run() {
+                  future.cancel(true);
+               }
+            }, timeout, TimeUnit.MILLISECONDS)) : Optional.<ScheduledFuture<?>> absent();
+
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (timeoutTask.isPresent()) {
+               timeoutTask.get().cancel(false);
+            }
+            completed.add(outcome(parent, future));
+         }
+      }, MoreExecutors.directExecutor());
+
+      return future;
+   }
+
+   private <P, R> Outcome<P, R> outcome(final P parent, final ListenableFuture<R> future) {
+      try {
+         return new Outcome<P, R>(parent, future, Uninterruptibles.getUninterruptibly(future), null);
+      } catch (CancellationException ex) {
+         return new Outcome<P, R>(parent, future, null, new CancellationException("timed out after " + timeout
+               + " ms"));
+      } catch (ExecutionException ex) {
+         return new Outcome<P, R>(parent, future, null, ex.getCause());
+      }
+   }
+
+   /**
+    * The outcome of the request of a single parent.
+    */
+   private static class Outcome<P, R> {
+      private final P parent;
+
+      private final ListenableFuture<R> future;
+
+      private final R result;
+
+      private final Throwable error;
+
+      private Outcome(final P parent, final ListenableFuture<R> future, final R result, final Throwable error) {
+         this.parent = parent;
+         this.future = future;
+         this.result = result;
+         this.error = error;
+      }
+   }
+}
@@ -17,9 +17,11 @@
 package org.jclouds.abiquo.strategy.cloud;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.transform;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
+import javax.inject.Named;
+
+import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.network.ExternalIp;
@@ -28,6 +30,7 @@ import org.jclouds.abiquo.domain.network.PrivateIp;
 import org.jclouds.abiquo.domain.network.PublicIp;
 import org.jclouds.abiquo.domain.network.UnmanagedIp;
 import org.jclouds.abiquo.domain.util.LinkUtils;
+import org.jclouds.abiquo.strategy.FanOut;
 import org.jclouds.abiquo.strategy.ListEntities;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.ParseXMLWithJAXB;
@@ -39,6 +42,8 @@ import com.abiquo.server.core.infrastructure.network.PrivateIpDto;
 import com.abiquo.server.core.infrastructure.network.PublicIpDto;
 import com.abiquo.server.core.infrastructure.network.UnmanagedIpDto;
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
@@ -48,22 +53,45 @@ import com.google.inject.TypeLiteral;
  */
 @Singleton
 public class ListAttachedNics implements ListEntities<Ip<?, ?>, VirtualMachine> {
+   private static final ImmutableSet<String> NIC_MEDIA_TYPES = ImmutableSet.of(PrivateIpDto.BASE_MEDIA_TYPE,
+         PublicIpDto.BASE_MEDIA_TYPE, ExternalIpDto.BASE_MEDIA_TYPE, UnmanagedIpDto.BASE_MEDIA_TYPE);
+
    protected final ApiContext<AbiquoApi> context;
 
+   protected final ListeningExecutorService userExecutor;
+
+   protected final FanOut fanOut;
+
    @Inject
-   public ListAttachedNics(final ApiContext<AbiquoApi> context) {
+   public ListAttachedNics(final ApiContext<AbiquoApi> context,
+         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor, final FanOut fanOut) {
       this.context = checkNotNull(context, "context");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.fanOut = checkNotNull(fanOut, "fanOut");
    }
 
    @Override
    public Iterable<Ip<?, ?>> execute(final VirtualMachine parent) {
+      return execute(userExecutor, parent);
+   }
+
+   public Iterable<Ip<?, ?>> execute(final ListeningExecutorService executor, final VirtualMachine parent) {
       parent.refresh();
       Iterable<RESTLink> nicLinks = LinkUtils.filterNicLinks(parent.unwrap().getLinks());
-      return listIps(nicLinks);
+      return listIps(executor, nicLinks);
    }
 
-   private Iterable<Ip<?, ?>> listIps(final Iterable<RESTLink> nicLinks) {
-      return transform(nicLinks, new Function<RESTLink, Ip<?, ?>>() {
+   private Iterable<Ip<?, ?>> listIps(final ListeningExecutorService executor, final Iterable<RESTLink> nicLinks) {
+      // Fail fast on unsupported links, before issuing any request
+      for (RESTLink link : nicLinks) {
+         if (!NIC_MEDIA_TYPES.contains(link.getType())) {
+            throw new IllegalArgumentException("Unsupported media type: " + link.getType());
+         }
+      }
+
+      // A missing NIC would be a wrong result, so fail if any of them can not
+      // be retrieved
+      return fanOut.executeAll(executor, nicLinks, new Function<RESTLink, Ip<?, ?>>() {
          @Override
          public Ip<?, ?> apply(final RESTLink input) {
             HttpResponse response = context.getApi().get(input);
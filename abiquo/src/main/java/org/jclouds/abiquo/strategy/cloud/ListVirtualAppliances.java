@@ -18,14 +18,8 @@ package org.jclouds.abiquo.strategy.cloud;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
-import java.util.List;
-import java.util.concurrent.Callable;
-
 import javax.annotation.Resource;
 import javax.inject.Named;
 
@@ -34,6 +28,7 @@ import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.strategy.FanOut;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.ApiContext;
@@ -42,7 +37,6 @@ import com.abiquo.server.core.cloud.VirtualApplianceDto;
 import com.abiquo.server.core.cloud.VirtualAppliancesDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -58,16 +52,19 @@ public class ListVirtualAppliances implements ListRootEntities<VirtualAppliance>
 
    protected final ListeningExecutorService userExecutor;
 
+   protected final FanOut fanOut;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
    @Inject
    ListVirtualAppliances(final ApiContext<AbiquoApi> context,
          @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor,
-         final ListVirtualDatacenters listVirtualDatacenters) {
+         final ListVirtualDatacenters listVirtualDatacenters, final FanOut fanOut) {
       this.context = checkNotNull(context, "context");
       this.listVirtualDatacenters = checkNotNull(listVirtualDatacenters, "listVirtualDatacenters");
       this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.fanOut = checkNotNull(fanOut, "fanOut");
    }
 
    @Override
@@ -77,21 +74,14 @@ public class ListVirtualAppliances implements ListRootEntities<VirtualAppliance>
 
    private Iterable<VirtualApplianceDto> listConcurrentVirtualAppliances(final ListeningExecutorService executor,
          final Iterable<VirtualDatacenter> vdcs) {
-      ListenableFuture<List<VirtualAppliancesDto>> futures = allAsList(transform(vdcs,
-            new Function<VirtualDatacenter, ListenableFuture<VirtualAppliancesDto>>() {
+      logger.trace("getting virtual appliances");
+      return DomainWrapper.join(fanOut.execute(executor, vdcs,
+            new Function<VirtualDatacenter, VirtualAppliancesDto>() {
                @Override
-               public ListenableFuture<VirtualAppliancesDto> apply(final VirtualDatacenter input) {
-                  return executor.submit(new Callable<VirtualAppliancesDto>() {
-                     @Override
-                     public VirtualAppliancesDto call() throws Exception {
-                        return context.getApi().getCloudApi().listVirtualAppliances(input.unwrap());
-                     }
-                  });
+               public VirtualAppliancesDto apply(final VirtualDatacenter input) {
+                  return context.getApi().getCloudApi().listVirtualAppliances(input.unwrap());
                }
             }));
-
-      logger.trace("getting virtual appliances");
-      return DomainWrapper.join(getUnchecked(futures));
    }
 
    public Iterable<VirtualAppliance> execute(ListeningExecutorService executor) {
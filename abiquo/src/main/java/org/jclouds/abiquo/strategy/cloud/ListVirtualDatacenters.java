@@ -18,14 +18,9 @@ package org.jclouds.abiquo.strategy.cloud;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
 import java.util.List;
-import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -34,6 +29,7 @@ import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.options.VirtualDatacenterOptions;
+import org.jclouds.abiquo.strategy.FanOut;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.ApiContext;
@@ -42,7 +38,6 @@ import com.abiquo.server.core.cloud.VirtualDatacenterDto;
 import com.abiquo.server.core.cloud.VirtualDatacentersDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -56,14 +51,17 @@ public class ListVirtualDatacenters implements ListRootEntities<VirtualDatacente
 
    protected final ListeningExecutorService userExecutor;
 
+   protected final FanOut fanOut;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
    @Inject
    ListVirtualDatacenters(final ApiContext<AbiquoApi> context,
-         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor) {
+         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor, final FanOut fanOut) {
       this.context = checkNotNull(context, "context");
       this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.fanOut = checkNotNull(fanOut, "fanOut");
    }
 
    @Override
@@ -92,22 +90,14 @@ public class ListVirtualDatacenters implements ListRootEntities<VirtualDatacente
 
    private Iterable<VirtualDatacenter> listConcurrentVirtualDatacenters(final ListeningExecutorService executor,
          final List<Integer> ids) {
-      ListenableFuture<List<VirtualDatacenterDto>> futures = allAsList(transform(ids,
-            new Function<Integer, ListenableFuture<VirtualDatacenterDto>>() {
+      logger.trace("getting virtual datacenters");
+      return wrap(context, VirtualDatacenter.class, fanOut.execute(executor, ids,
+            new Function<Integer, VirtualDatacenterDto>() {
                @Override
-               public ListenableFuture<VirtualDatacenterDto> apply(final Integer input) {
-                  return executor.submit(new Callable<VirtualDatacenterDto>() {
-                     @Override
-                     public VirtualDatacenterDto call() throws Exception {
-                        return context.getApi().getCloudApi().getVirtualDatacenter(input);
-                     }
-                  });
-
+               public VirtualDatacenterDto apply(final Integer input) {
+                  return context.getApi().getCloudApi().getVirtualDatacenter(input);
                }
             }));
-
-      logger.trace("getting virtual datacenters");
-      return wrap(context, VirtualDatacenter.class, newArrayList(getUnchecked(futures)));
    }
 
    public Iterable<VirtualDatacenter> execute(ListeningExecutorService executor) {
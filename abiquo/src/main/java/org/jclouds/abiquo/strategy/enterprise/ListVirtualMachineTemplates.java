@@ -19,14 +19,8 @@ package org.jclouds.abiquo.strategy.enterprise;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
-import java.util.List;
-import java.util.concurrent.Callable;
-
 import javax.annotation.Resource;
 import javax.inject.Named;
 
@@ -35,6 +29,7 @@ import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.strategy.FanOut;
 import org.jclouds.abiquo.strategy.ListEntities;
 import org.jclouds.collect.PagedIterable;
 import org.jclouds.logging.Logger;
@@ -43,7 +38,6 @@ import org.jclouds.rest.ApiContext;
 import com.abiquo.server.core.appslibrary.VirtualMachineTemplateDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -57,15 +51,18 @@ public class ListVirtualMachineTemplates implements ListEntities<VirtualMachineT
 
    protected final ListeningExecutorService userExecutor;
 
+   protected final FanOut fanOut;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
    @Inject
    ListVirtualMachineTemplates(final ApiContext<AbiquoApi> context,
-         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor) {
+         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor, final FanOut fanOut) {
       super();
       this.context = checkNotNull(context, "context");
       this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.fanOut = checkNotNull(fanOut, "fanOut");
    }
 
    @Override
@@ -88,23 +85,16 @@ public class ListVirtualMachineTemplates implements ListEntities<VirtualMachineT
 
    private Iterable<VirtualMachineTemplateDto> listConcurrentTemplates(final ListeningExecutorService executor,
          final Enterprise parent, final Iterable<Datacenter> dcs) {
-      ListenableFuture<List<Iterable<VirtualMachineTemplateDto>>> futures = allAsList(transform(dcs,
-            new Function<Datacenter, ListenableFuture<Iterable<VirtualMachineTemplateDto>>>() {
-               @Override
-               public ListenableFuture<Iterable<VirtualMachineTemplateDto>> apply(final Datacenter input) {
-                  return executor.submit(new Callable<Iterable<VirtualMachineTemplateDto>>() {
-                     @Override
-                     public Iterable<VirtualMachineTemplateDto> call() throws Exception {
-                        PagedIterable<VirtualMachineTemplateDto> templates = context.getApi()
-                              .getVirtualMachineTemplateApi()
-                              .listVirtualMachineTemplates(parent.getId(), input.getId());
-                        return templates.concat();
-                     }
-                  });
-               }
-            }));
-
       logger.trace("getting virtual machine templates");
-      return concat(getUnchecked(futures));
+      return concat(fanOut.execute(executor, dcs, new Function<Datacenter, Iterable<VirtualMachineTemplateDto>>() {
+         @Override
+         public Iterable<VirtualMachineTemplateDto> apply(final Datacenter input) {
+            PagedIterable<VirtualMachineTemplateDto> templates = context.getApi().getVirtualMachineTemplateApi()
+                  .listVirtualMachineTemplates(parent.getId(), input.getId());
+            // Fetch all pages in the worker so the datacenter is completed
+            // once its templates are available
+            return templates.concat().toList();
+         }
+      }));
    }
 }
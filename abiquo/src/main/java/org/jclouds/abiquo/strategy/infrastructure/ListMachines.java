@@ -18,14 +18,8 @@ package org.jclouds.abiquo.strategy.infrastructure;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
 
-import java.util.List;
-import java.util.concurrent.Callable;
-
 import javax.annotation.Resource;
 import javax.inject.Named;
 
@@ -34,6 +28,7 @@ import org.jclouds.abiquo.AbiquoApi;
 import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
 import org.jclouds.abiquo.domain.infrastructure.Machine;
+import org.jclouds.abiquo.strategy.FanOut;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.ApiContext;
@@ -45,7 +40,6 @@ import com.abiquo.server.core.infrastructure.RackDto;
 import com.abiquo.server.core.infrastructure.RacksDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -59,15 +53,18 @@ public class ListMachines implements ListRootEntities<Machine> {
 
    protected final ListeningExecutorService userExecutor;
 
+   protected final FanOut fanOut;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
    @Inject
    ListMachines(final ApiContext<AbiquoApi> context,
-         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor) {
+         @Named(Constants.PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor, final FanOut fanOut) {
       super();
       this.context = checkNotNull(context, "context");
       this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.fanOut = checkNotNull(fanOut, "fanOut");
    }
 
    @Override
@@ -76,7 +73,8 @@ public class ListMachines implements ListRootEntities<Machine> {
    }
 
    public Iterable<Machine> execute(ListeningExecutorService executor) {
-      // Find machines in concurrent requests
+      // Find machines in concurrent requests, streaming them as each rack
+      // completes
       DatacentersDto result = context.getApi().getInfrastructureApi().listDatacenters();
       Iterable<Datacenter> datacenters = wrap(context, Datacenter.class, result.getCollection());
       Iterable<RackDto> racks = listConcurrentRacks(executor, datacenters);
@@ -91,39 +89,23 @@ public class ListMachines implements ListRootEntities<Machine> {
 
    private Iterable<RackDto> listConcurrentRacks(final ListeningExecutorService executor,
          final Iterable<Datacenter> datacenters) {
-      ListenableFuture<List<RacksDto>> futures = allAsList(transform(datacenters,
-            new Function<Datacenter, ListenableFuture<RacksDto>>() {
-               @Override
-               public ListenableFuture<RacksDto> apply(final Datacenter input) {
-                  return executor.submit(new Callable<RacksDto>() {
-                     @Override
-                     public RacksDto call() throws Exception {
-                        return context.getApi().getInfrastructureApi().listRacks(input.unwrap());
-                     }
-                  });
-               }
-            }));
-
       logger.trace("getting racks");
-      return DomainWrapper.join(getUnchecked(futures));
+      return DomainWrapper.join(fanOut.execute(executor, datacenters, new Function<Datacenter, RacksDto>() {
+         @Override
+         public RacksDto apply(final Datacenter input) {
+            return context.getApi().getInfrastructureApi().listRacks(input.unwrap());
+         }
+      }));
    }
 
    private Iterable<MachineDto> listConcurrentMachines(final ListeningExecutorService executor,
          final Iterable<RackDto> racks) {
-      ListenableFuture<List<MachinesDto>> futures = allAsList(transform(racks,
-            new Function<RackDto, ListenableFuture<MachinesDto>>() {
-               @Override
-               public ListenableFuture<MachinesDto> apply(final RackDto input) {
-                  return executor.submit(new Callable<MachinesDto>() {
-                     @Override
-                     public MachinesDto call() throws Exception {
-                        return context.getApi().getInfrastructureApi().listMachines(input);
-                     }
-                  });
-               }
-            }));
-
       logger.trace("getting machines");
-      return DomainWrapper.join(getUnchecked(futures));
+      return DomainWrapper.join(fanOut.execute(executor, racks, new Function<RackDto, MachinesDto>() {
+         @Override
+         public MachinesDto apply(final RackDto input) {
+            return context.getApi().getInfrastructureApi().listMachines(input);
+         }
+      }));
    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.config;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.jclouds.rest.ApiContext;
+import org.jclouds.rest.AuthorizationException;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualDatacenterDto;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+
+/**
+ * Unit tests for the {@link AbiquoComputeServiceContextModule} class.
+ */
+@Test(groups = "unit", testName = "AbiquoComputeServiceContextModuleTest")
+public class AbiquoComputeServiceContextModuleTest {
+
+   public void testIndexByDatacenterId() {
+      VirtualDatacenter vdc1 = virtualDatacenter(1, 10);
+      VirtualDatacenter vdc2 = virtualDatacenter(2, 10);
+      VirtualDatacenter vdc3 = virtualDatacenter(3, 20);
+
+      Multimap<Integer, VirtualDatacenter> index = AbiquoComputeServiceContextModule.indexByDatacenterId(ImmutableList
+            .of(vdc1, vdc2, vdc3));
+
+      assertEquals(index.keySet().size(), 2);
+      assertEquals(ImmutableList.copyOf(index.get(10)), ImmutableList.of(vdc1, vdc2));
+      assertEquals(ImmutableList.copyOf(index.get(20)), ImmutableList.of(vdc3));
+   }
+
+   public void testIndexSkipsVirtualDatacentersWithoutDatacenterLink() {
+      VirtualDatacenter vdc = virtualDatacenter(1, 10);
+      VirtualDatacenter orphan = virtualDatacenter(2, null);
+
+      Multimap<Integer, VirtualDatacenter> index = AbiquoComputeServiceContextModule.indexByDatacenterId(ImmutableList
+            .of(vdc, orphan));
+
+      assertEquals(index.size(), 1);
+      assertEquals(ImmutableList.copyOf(index.get(10)), ImmutableList.of(vdc));
+      assertTrue(!index.containsValue(orphan));
+   }
+
+   public void testIndexIsMemoized() {
+      VirtualDatacenter vdc = virtualDatacenter(1, 10);
+      CloudService cloudService = createMock(CloudService.class);
+      expect(cloudService.listVirtualDatacenters()).andReturn(ImmutableList.of(vdc)).once();
+      replay(cloudService);
+
+      Supplier<Multimap<Integer, VirtualDatacenter>> supplier = new AbiquoComputeServiceContextModule()
+            .getVirtualDatacentersIndexedByDatacenterId(new AtomicReference<AuthorizationException>(), 60,
+                  cloudService);
+
+      Multimap<Integer, VirtualDatacenter> first = supplier.get();
+      Multimap<Integer, VirtualDatacenter> second = supplier.get();
+
+      verify(cloudService);
+      assertSame(first, second);
+      assertEquals(ImmutableList.copyOf(first.get(10)), ImmutableList.of(vdc));
+   }
+
+   @SuppressWarnings("unchecked")
+   private static VirtualDatacenter virtualDatacenter(final int id, final Integer datacenterId) {
+      ApiContext<AbiquoApi> context = createMock(ApiContext.class);
+      VirtualDatacenterDto dto = new VirtualDatacenterDto();
+      dto.setId(id);
+      if (datacenterId != null) {
+         dto.addLink(new RESTLink(ParentLinkName.DATACENTER, "http://localhost/api/admin/datacenters/" + datacenterId));
+      }
+      return wrap(context, VirtualDatacenter.class, dto);
+   }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.same;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.task.VirtualMachineTask;
+import org.jclouds.abiquo.monitor.VirtualApplianceMonitor;
+import org.jclouds.logging.Logger;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.cloud.VirtualApplianceState;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Unit tests for the {@link VirtualApplianceBatchDeploy} class.
+ */
+@Test(groups = "unit", testName = "VirtualApplianceBatchDeployTest")
+public class VirtualApplianceBatchDeployTest {
+
+   public void testDeploysOnceWhenAllNodesAreSaved() throws Exception {
+      VirtualAppliance vapp = virtualAppliance();
+      VirtualApplianceMonitor monitor = createMock(VirtualApplianceMonitor.class);
+      expect(vapp.deploy()).andReturn(new VirtualMachineTask[0]).once();
+      monitor.awaitCompletionDeploy(anyLong(), eq(TimeUnit.MILLISECONDS), same(vapp));
+      expect(vapp.getState()).andReturn(VirtualApplianceState.DEPLOYED);
+      replay(vapp, monitor);
+
+      SettableFuture<String> node1 = SettableFuture.create();
+      SettableFuture<String> node2 = SettableFuture.create();
+      Map<String, ListenableFuture<String>> gated = deployWhenSaved(vapp, monitor, node1, node2, deadlineInAMinute());
+
+      node1.set("node1");
+      assertFalse(gated.get("node1").isDone(), "nodes must not be handed over before the group is deployed");
+      node2.set("node2");
+
+      assertEquals(gated.get("node1").get(), "node1");
+      assertEquals(gated.get("node2").get(), "node2");
+      verify(vapp, monitor);
+   }
+
+   public void testPartialSaveFailureDeploysTheSavedNodes() throws Exception {
+      VirtualAppliance vapp = virtualAppliance();
+      VirtualApplianceMonitor monitor = createMock(VirtualApplianceMonitor.class);
+      expect(vapp.deploy()).andReturn(new VirtualMachineTask[0]).once();
+      monitor.awaitCompletionDeploy(anyLong(), eq(TimeUnit.MILLISECONDS), same(vapp));
+      expect(vapp.getState()).andReturn(VirtualApplianceState.DEPLOYED);
+      replay(vapp, monitor);
+
+      SettableFuture<String> node1 = SettableFuture.create();
+      SettableFuture<String> node2 = SettableFuture.create();
+      Map<String, ListenableFuture<String>> gated = deployWhenSaved(vapp, monitor, node1, node2, deadlineInAMinute());
+
+      RuntimeException saveFailure = new RuntimeException("no free IP addresses");
+      node1.set("node1");
+      node2.setException(saveFailure);
+
+      assertEquals(gated.get("node1").get(), "node1");
+      assertSame(failure(gated.get("node2")), saveFailure);
+      verify(vapp, monitor);
+   }
+
+   public void testDoesNotDeployWhenNoNodeIsSaved() throws Exception {
+      VirtualAppliance vapp = virtualAppliance();
+      VirtualApplianceMonitor monitor = createMock(VirtualApplianceMonitor.class);
+      replay(vapp, monitor);
+
+      SettableFuture<String> node1 = SettableFuture.create();
+      SettableFuture<String> node2 = SettableFuture.create();
+      Map<String, ListenableFuture<String>> gated = deployWhenSaved(vapp, monitor, node1, node2, deadlineInAMinute());
+
+      RuntimeException saveFailure = new RuntimeException("save failed");
+      node1.setException(saveFailure);
+      node2.setException(saveFailure);
+
+      assertSame(failure(gated.get("node1")), saveFailure);
+      assertSame(failure(gated.get("node2")), saveFailure);
+      verify(vapp, monitor);
+   }
+
+   public void testDeployTimeoutFailsAllNodes() throws Exception {
+      VirtualAppliance vapp = virtualAppliance();
+      VirtualApplianceMonitor monitor = createMock(VirtualApplianceMonitor.class);
+      expect(vapp.deploy()).andReturn(new VirtualMachineTask[0]).once();
+      monitor.awaitCompletionDeploy(anyLong(), eq(TimeUnit.MILLISECONDS), same(vapp));
+      expect(vapp.getState()).andReturn(VirtualApplianceState.LOCKED);
+      replay(vapp, monitor);
+
+      SettableFuture<String> node1 = SettableFuture.create();
+      SettableFuture<String> node2 = SettableFuture.create();
+      Map<String, ListenableFuture<String>> gated = deployWhenSaved(vapp, monitor, node1, node2, deadlineInAMinute());
+
+      node1.set("node1");
+      node2.set("node2");
+
+      assertTimedOut(failure(gated.get("node1")));
+      assertTimedOut(failure(gated.get("node2")));
+      verify(vapp, monitor);
+   }
+
+   public void testExpiredDeadlineFailsAllNodesWithoutDeploying() throws Exception {
+      VirtualAppliance vapp = virtualAppliance();
+      VirtualApplianceMonitor monitor = createMock(VirtualApplianceMonitor.class);
+      replay(vapp, monitor);
+
+      SettableFuture<String> node1 = SettableFuture.create();
+      SettableFuture<String> node2 = SettableFuture.create();
+      Map<String, ListenableFuture<String>> gated = deployWhenSaved(vapp, monitor, node1, node2,
+            System.currentTimeMillis() - 1);
+
+      node1.set("node1");
+      node2.set("node2");
+
+      assertTimedOut(failure(gated.get("node1")));
+      assertTimedOut(failure(gated.get("node2")));
+      verify(vapp, monitor);
+   }
+
+   public void testFailedDeployFailsAllNodes() throws Exception {
+      VirtualAppliance vapp = virtualAppliance();
+      VirtualApplianceMonitor monitor = createMock(VirtualApplianceMonitor.class);
+      expect(vapp.deploy()).andReturn(new VirtualMachineTask[0]).once();
+      monitor.awaitCompletionDeploy(anyLong(), eq(TimeUnit.MILLISECONDS), same(vapp));
+      expect(vapp.getState()).andReturn(VirtualApplianceState.NOT_DEPLOYED);
+      replay(vapp, monitor);
+
+      SettableFuture<String> node1 = SettableFuture.create();
+      SettableFuture<String> node2 = SettableFuture.create();
+      Map<String, ListenableFuture<String>> gated = deployWhenSaved(vapp, monitor, node1, node2, deadlineInAMinute());
+
+      node1.set("node1");
+      node2.set("node2");
+
+      Throwable deployFailure = failure(gated.get("node1"));
+      assertTrue(deployFailure instanceof IllegalStateException);
+      assertTrue(deployFailure.getMessage().contains("NOT_DEPLOYED"), deployFailure.getMessage());
+      assertSame(failure(gated.get("node2")), deployFailure);
+      verify(vapp, monitor);
+   }
+
+   private static VirtualAppliance virtualAppliance() {
+      VirtualAppliance vapp = createMock(VirtualAppliance.class);
+      expect(vapp.getName()).andReturn("group").anyTimes();
+      return vapp;
+   }
+
+   private static Map<String, ListenableFuture<String>> deployWhenSaved(VirtualAppliance vapp,
+         VirtualApplianceMonitor monitor, ListenableFuture<String> node1, ListenableFuture<String> node2,
+         long deadline) {
+      VirtualApplianceBatchDeploy batch = new VirtualApplianceBatchDeploy(vapp, createMock(VirtualDatacenter.class),
+            monitor, Logger.NULL);
+      return batch.deployWhenSaved(ImmutableMap.of("node1", node1, "node2", node2),
+            MoreExecutors.newDirectExecutorService(), deadline);
+   }
+
+   private static long deadlineInAMinute() {
+      return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+   }
+
+   private static Throwable failure(ListenableFuture<?> future) throws InterruptedException {
+      try {
+         future.get();
+         fail("the future should have failed");
+         return null;
+      } catch (ExecutionException ex) {
+         return ex.getCause();
+      }
+   }
+
+   private static void assertTimedOut(Throwable failure) {
+      assertTrue(failure instanceof IllegalStateException);
+      assertTrue(failure.getMessage().contains("Timed out"), failure.getMessage());
+   }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.domain;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.PaginatedCollection.PrefetchingIterator;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.xml.internal.JAXBParser;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.event.EventDto;
+import com.abiquo.server.core.event.EventsDto;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Unit tests for the prefetching of the {@link PaginatedCollection} pages.
+ */
+@Test(groups = "unit", testName = "PaginatedCollectionTest")
+public class PaginatedCollectionTest {
+   private final ParseXMLWithJAXB<EventsDto> parser = new ParseXMLWithJAXB<EventsDto>(new JAXBParser("false"),
+         TypeLiteral.get(EventsDto.class));
+
+   public void testPrefetchIteratesAllPages() {
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(anyObject(RESTLink.class))).andReturn(response("/payloads/events-lastpage.xml"));
+      replay(api);
+
+      List<EventDto> events = firstPage(api).prefetch(MoreExecutors.newDirectExecutorService(), 2).toList();
+
+      assertEquals(events.size(), 4);
+      assertEquals(events.get(0).getId().intValue(), 109);
+      assertEquals(events.get(1).getId().intValue(), 108);
+      assertEquals(events.get(2).getId().intValue(), 110);
+      assertEquals(events.get(3).getId().intValue(), 111);
+
+      verify(api);
+   }
+
+   public void testCloseCancelsPagesBeingFetched() throws InterruptedException {
+      final AtomicInteger requests = new AtomicInteger();
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(anyObject(RESTLink.class))).andAnswer(new IAnswer<HttpResponse>() {
+         @Override
+         public HttpResponse answer() {
+            requests.incrementAndGet();
+            return response("/payloads/events-lastpage.xml");
+         }
+      }).anyTimes();
+      replay(api);
+
+      // Keep the executor busy so the next page is not fetched until the
+      // iterator has been closed
+      final CountDownLatch busy = new CountDownLatch(1);
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      executor.submit(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               busy.await();
+            } catch (InterruptedException ex) {
+               Thread.currentThread().interrupt();
+            }
+         }
+      });
+
+      PrefetchingIterator<EventDto, EventsDto> iterator = firstPage(api).prefetchingIterator(executor, 1);
+      assertEquals(iterator.next().getId().intValue(), 109);
+      iterator.close();
+
+      busy.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+      // The elements of the current page are still returned
+      assertEquals(requests.get(), 0);
+      assertEquals(iterator.next().getId().intValue(), 108);
+      assertFalse(iterator.hasNext());
+   }
+
+   public void testFetchFailureStopsIteration() {
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(anyObject(RESTLink.class))).andThrow(new IllegalStateException("boom"));
+      replay(api);
+
+      PrefetchingIterator<EventDto, EventsDto> iterator = firstPage(api).prefetchingIterator(
+            MoreExecutors.newDirectExecutorService(), 1);
+      assertEquals(ImmutableList.of(iterator.next().getId(), iterator.next().getId()), ImmutableList.of(109, 108));
+
+      try {
+         iterator.hasNext();
+         throw new AssertionError("The failure fetching the next page should have been propagated");
+      } catch (RuntimeException expected) {
+         // Expected
+      }
+
+      verify(api);
+   }
+
+   private PaginatedCollection<EventDto, EventsDto> firstPage(final AbiquoApi api) {
+      return new PaginatedCollection<EventDto, EventsDto>(api, parser.apply(response("/payloads/events-page.xml")),
+            parser);
+   }
+
+   private static HttpResponse response(final String resource) {
+      Payload payload = Payloads.newInputStreamPayload(PaginatedCollectionTest.class.getResourceAsStream(resource));
+      payload.getContentMetadata().setContentType(EventsDto.MEDIA_TYPE);
+      return HttpResponse.builder().statusCode(200).payload(payload).build();
+   }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.domain.cloud;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.features.VirtualMachineTemplateApi;
+import org.jclouds.abiquo.internal.VirtualMachineTemplateCache;
+import org.jclouds.rest.ApiContext;
+import org.jclouds.rest.Utils;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.appslibrary.VirtualMachineTemplateDto;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+
+/**
+ * Unit tests for the {@link VirtualMachineTemplate} class.
+ */
+@Test(groups = "unit", testName = "VirtualMachineTemplateTest")
+public class VirtualMachineTemplateTest {
+
+   public void testDeleteInvalidatesTheCache() {
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      VirtualMachineTemplateApi templateApi = EasyMock.createMock(VirtualMachineTemplateApi.class);
+      ApiContext<AbiquoApi> context = context(templateApi, cache);
+
+      VirtualMachineTemplateDto dto = dto(1);
+      cache.putAll(ImmutableList.of(wrap(context, VirtualMachineTemplate.class, dto),
+            wrap(context, VirtualMachineTemplate.class, dto(2))));
+      templateApi.deleteVirtualMachineTemplate(dto);
+      expectLastCall();
+      replay(templateApi);
+
+      wrap(context, VirtualMachineTemplate.class, dto).delete();
+
+      verify(templateApi);
+      assertNull(cache.getIfPresent(1));
+      assertEquals(cache.getIfPresent(2).getId(), Integer.valueOf(2));
+   }
+
+   public void testUpdateInvalidatesTheCache() {
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      VirtualMachineTemplateApi templateApi = EasyMock.createMock(VirtualMachineTemplateApi.class);
+      ApiContext<AbiquoApi> context = context(templateApi, cache);
+
+      VirtualMachineTemplateDto dto = dto(1);
+      cache.putAll(ImmutableList.of(wrap(context, VirtualMachineTemplate.class, dto)));
+      expect(templateApi.updateVirtualMachineTemplate(dto)).andReturn(dto);
+      replay(templateApi);
+
+      wrap(context, VirtualMachineTemplate.class, dto).update();
+
+      verify(templateApi);
+      assertNull(cache.getIfPresent(1));
+   }
+
+   @SuppressWarnings("unchecked")
+   private static ApiContext<AbiquoApi> context(final VirtualMachineTemplateApi templateApi,
+         final VirtualMachineTemplateCache cache) {
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.getVirtualMachineTemplateApi()).andReturn(templateApi).anyTimes();
+      Injector injector = EasyMock.createMock(Injector.class);
+      expect(injector.getInstance(VirtualMachineTemplateCache.class)).andReturn(cache).anyTimes();
+      Utils utils = EasyMock.createMock(Utils.class);
+      expect(utils.injector()).andReturn(injector).anyTimes();
+      ApiContext<AbiquoApi> context = EasyMock.createMock(ApiContext.class);
+      expect(context.getApi()).andReturn(api).anyTimes();
+      expect(context.utils()).andReturn(utils).anyTimes();
+      replay(api, injector, utils, context);
+      return context;
+   }
+
+   private static VirtualMachineTemplateDto dto(final int id) {
+      VirtualMachineTemplateDto dto = new VirtualMachineTemplateDto();
+      dto.setId(id);
+      dto.addLink(new RESTLink("datacenter", "http://foo/bar/4"));
+      return dto;
+   }
+}
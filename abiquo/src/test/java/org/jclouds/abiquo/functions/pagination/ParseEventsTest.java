@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.functions.pagination;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.PaginatedCollection;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.xml.internal.JAXBParser;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.event.EventDto;
+import com.abiquo.server.core.event.EventsDto;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Unit tests for the streaming mode of the {@link BasePaginationParser}.
+ */
+@Test(groups = "unit", testName = "ParseEventsTest")
+public class ParseEventsTest {
+
+   public void testStreamSinglePage() {
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      replay(api);
+
+      ParseEvents parser = parser(api);
+      List<EventDto> events = parser.stream(parser.apply(response("/payloads/events-lastpage.xml")),
+            MoreExecutors.newDirectExecutorService(), 2).toList();
+
+      assertEquals(events.size(), 2);
+      assertEquals(events.get(0).getId().intValue(), 110);
+      assertEquals(events.get(1).getId().intValue(), 111);
+
+      verify(api);
+   }
+
+   public void testStreamFollowsNextLinks() {
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(anyObject(RESTLink.class))).andReturn(response("/payloads/events-lastpage.xml"));
+      replay(api);
+
+      ParseEvents parser = parser(api);
+      List<EventDto> events = parser.stream(parser.apply(response("/payloads/events-page.xml")),
+            MoreExecutors.newDirectExecutorService(), 2).toList();
+
+      assertEquals(events.size(), 4);
+      assertEquals(events.get(0).getId().intValue(), 109);
+      assertEquals(events.get(1).getId().intValue(), 108);
+      assertEquals(events.get(2).getId().intValue(), 110);
+      assertEquals(events.get(3).getId().intValue(), 111);
+
+      verify(api);
+   }
+
+   public void testCloseClosesThePagesReadAhead() throws IOException {
+      final AtomicBoolean closed = new AtomicBoolean();
+      InputStream lastPage = new FilterInputStream(getClass().getResourceAsStream("/payloads/events-lastpage.xml")) {
+         @Override
+         public void close() throws IOException {
+            closed.set(true);
+            super.close();
+         }
+      };
+
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(anyObject(RESTLink.class))).andReturn(response(lastPage));
+      replay(api);
+
+      ParseEvents parser = parser(api);
+      BasePaginationParser<EventDto, EventsDto>.StreamingIterator iterator = parser.streamingIterator(
+            parser.apply(response("/payloads/events-page.xml")), MoreExecutors.newDirectExecutorService(), 1);
+      assertEquals(iterator.next().getId().intValue(), 109);
+      assertFalse(closed.get());
+
+      iterator.close();
+
+      // The elements of the current page are still returned
+      assertTrue(closed.get());
+      assertEquals(iterator.next().getId().intValue(), 108);
+      assertFalse(iterator.hasNext());
+      verify(api);
+   }
+
+   public void testExternalEntitiesAreNotResolved() throws IOException {
+      File secret = File.createTempFile("secret", ".txt");
+      secret.deleteOnExit();
+      Files.write("top-secret", secret, Charsets.UTF_8);
+
+      String page = "<?xml version=\"1.0\"?><!DOCTYPE events [<!ENTITY secret SYSTEM \"" + secret.toURI() + "\">]>"
+            + "<events><event><id>1</id><stacktrace>&secret;</stacktrace></event></events>";
+
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(anyObject(RESTLink.class))).andReturn(
+            response(new ByteArrayInputStream(page.getBytes(Charsets.UTF_8))));
+      replay(api);
+
+      ParseEvents parser = parser(api);
+      PaginatedCollection<EventDto, EventsDto> first = parser.apply(response("/payloads/events-page.xml"));
+      try {
+         for (EventDto event : parser.stream(first, MoreExecutors.newDirectExecutorService(), 1)) {
+            assertFalse(String.valueOf(event.getStacktrace()).contains("top-secret"));
+         }
+      } catch (RuntimeException expected) {
+         // Rejecting the undeclared entity is also fine
+      }
+   }
+
+   private static ParseEvents parser(final AbiquoApi api) {
+      return new ParseEvents(api, new ParseXMLWithJAXB<EventsDto>(new JAXBParser("false"),
+            TypeLiteral.get(EventsDto.class)));
+   }
+
+   private static HttpResponse response(final String resource) {
+      return response(ParseEventsTest.class.getResourceAsStream(resource));
+   }
+
+   private static HttpResponse response(final InputStream stream) {
+      Payload payload = Payloads.newInputStreamPayload(stream);
+      payload.getContentMetadata().setContentType(EventsDto.MEDIA_TYPE);
+      return HttpResponse.builder().statusCode(200).payload(payload).build();
+   }
+}
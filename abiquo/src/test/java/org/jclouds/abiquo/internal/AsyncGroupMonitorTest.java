@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.internal;
+
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.internal.AsyncMonitorTest.CoutingEventHandler;
+import org.jclouds.abiquo.internal.BaseMonitoringService.AsyncGroupMonitor;
+import org.jclouds.abiquo.monitor.MonitorStatus;
+import org.jclouds.rest.ApiContext;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.eventbus.EventBus;
+
+/**
+ * Unit tests for the {@link AsyncGroupMonitor} class.
+ */
+@Test(groups = "unit", testName = "AsyncGroupMonitorTest")
+public class AsyncGroupMonitorTest {
+   private static final long POLLING_DELAY = 100L;
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public void testStartMonitoringSchedulesOneJob() {
+      ScheduledFuture mockFuture = EasyMock.createMock(ScheduledFuture.class);
+      ScheduledExecutorService schedulerMock = EasyMock.createMock(ScheduledExecutorService.class);
+      expect(schedulerMock.schedule(anyObject(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS))).andReturn(
+            mockFuture);
+
+      replay(mockFuture);
+      replay(schedulerMock);
+
+      AsyncGroupMonitor<Object> monitor = mockMonitor(schedulerMock, mockFunction(MonitorStatus.DONE), noRefresh(),
+            new EventBus(), new Object(), new Object(), new Object());
+
+      monitor.startMonitoring(null, TimeUnit.MILLISECONDS);
+
+      assertNotNull(monitor.getFuture());
+      assertEquals(monitor.getPending().size(), 3);
+
+      verify(mockFuture);
+      verify(schedulerMock);
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public void testMonitorAndDone() {
+      ScheduledFuture mockFuture = EasyMock.createMock(ScheduledFuture.class);
+      ScheduledExecutorService schedulerMock = EasyMock.createMock(ScheduledExecutorService.class);
+      expect(schedulerMock.schedule(anyObject(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS))).andReturn(
+            mockFuture);
+
+      replay(mockFuture);
+      replay(schedulerMock);
+
+      CoutingEventHandler handler = new CoutingEventHandler();
+      EventBus eventBus = new EventBus();
+      eventBus.register(handler);
+
+      AsyncGroupMonitor<Object> monitor = mockMonitor(schedulerMock, mockFunction(MonitorStatus.DONE), noRefresh(),
+            eventBus, new Object(), new Object());
+
+      monitor.startMonitoring(null, TimeUnit.MILLISECONDS);
+      monitor.run();
+
+      assertEquals(handler.numCompletes, 2);
+      assertEquals(handler.numFailures, 0);
+      assertEquals(handler.numTimeouts, 0);
+      assertTrue(monitor.getPending().isEmpty());
+
+      verify(mockFuture);
+      verify(schedulerMock);
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public void testMonitorAndContinueBacksOff() {
+      ScheduledFuture mockFuture = EasyMock.createMock(ScheduledFuture.class);
+      ScheduledExecutorService schedulerMock = EasyMock.createMock(ScheduledExecutorService.class);
+      expect(schedulerMock.schedule(anyObject(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).andReturn(
+            mockFuture).times(5);
+
+      replay(mockFuture);
+      replay(schedulerMock);
+
+      AsyncGroupMonitor<Object> monitor = mockMonitor(schedulerMock, mockFunction(MonitorStatus.CONTINUE),
+            noRefresh(), new EventBus(), new Object(), new Object());
+
+      monitor.startMonitoring(null, TimeUnit.MILLISECONDS);
+      assertEquals(monitor.getDelay(), POLLING_DELAY);
+
+      monitor.run();
+      assertEquals(monitor.getDelay(), POLLING_DELAY * 2);
+      monitor.run();
+      assertEquals(monitor.getDelay(), POLLING_DELAY * 4);
+      monitor.run();
+      monitor.run();
+      assertEquals(monitor.getDelay(), POLLING_DELAY * BaseMonitoringService.MAX_BACKOFF_FACTOR);
+      assertEquals(monitor.getPending().size(), 2);
+
+      verify(mockFuture);
+      verify(schedulerMock);
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public void testMonitorEvaluatesRefreshedObjects() {
+      ScheduledFuture mockFuture = EasyMock.createMock(ScheduledFuture.class);
+      ScheduledExecutorService schedulerMock = EasyMock.createMock(ScheduledExecutorService.class);
+      expect(schedulerMock.schedule(anyObject(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS))).andReturn(
+            mockFuture);
+      expect(schedulerMock.schedule(anyObject(Runnable.class), eq(POLLING_DELAY), eq(TimeUnit.MILLISECONDS)))
+            .andReturn(mockFuture);
+
+      final Object original = new Object();
+      final Object refreshed = new Object();
+      Object other = new Object();
+
+      Function<Iterable<Object>, Map<Object, Object>> refresher = EasyMock.createMock(Function.class);
+      expect(refresher.apply(anyObject(Iterable.class))).andReturn(ImmutableMap.of(original, refreshed));
+
+      replay(mockFuture);
+      replay(schedulerMock);
+      replay(refresher);
+
+      CoutingEventHandler handler = new CoutingEventHandler();
+      EventBus eventBus = new EventBus();
+      eventBus.register(handler);
+
+      Function<Object, MonitorStatus> doneIfRefreshed = new Function<Object, MonitorStatus>() {
+         @Override
+         public MonitorStatus apply(final Object input) {
+            return input == refreshed ? MonitorStatus.DONE : MonitorStatus.CONTINUE;
+         }
+      };
+
+      AsyncGroupMonitor<Object> monitor = mockMonitor(schedulerMock, doneIfRefreshed, refresher, eventBus, original,
+            other);
+
+      monitor.startMonitoring(null, TimeUnit.MILLISECONDS);
+      monitor.run();
+
+      assertEquals(handler.numCompletes, 1);
+      assertEquals(monitor.getPending().size(), 1);
+      assertTrue(monitor.getPending().get(0).getMonitoredObject() == other);
+
+      verify(mockFuture);
+      verify(schedulerMock);
+      verify(refresher);
+   }
+
+   @SuppressWarnings("unchecked")
+   private AsyncGroupMonitor<Object> mockMonitor(final ScheduledExecutorService scheduler,
+         final Function<Object, MonitorStatus> function, final Function<Iterable<Object>, Map<Object, Object>> refresher,
+         final EventBus eventBus, final Object... objects) {
+      BaseMonitoringService monitorService = new BaseMonitoringService(EasyMock.createMock(ApiContext.class),
+            scheduler, POLLING_DELAY, eventBus);
+
+      return monitorService.new AsyncGroupMonitor<Object>(function, refresher, objects);
+   }
+
+   private Function<Object, MonitorStatus> mockFunction(final MonitorStatus status) {
+      return new Function<Object, MonitorStatus>() {
+         @Override
+         public MonitorStatus apply(final Object input) {
+            return status;
+         }
+      };
+   }
+
+   private Function<Iterable<Object>, Map<Object, Object>> noRefresh() {
+      return new Function<Iterable<Object>, Map<Object, Object>>() {
+         @Override
+         public Map<Object, Object> apply(final Iterable<Object> input) {
+            return ImmutableMap.of();
+         }
+      };
+   }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.Properties;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.features.BaseAbiquoApiExpectTest;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.cloud.VirtualMachineWithNodeExtendedDto;
+import com.abiquo.server.core.cloud.VirtualMachinesWithNodeExtendedDto;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.inject.Module;
+
+/**
+ * Expect tests for the virtual machine lookups of the {@link BaseCloudService}
+ * class.
+ */
+@Test(groups = "unit", testName = "BaseCloudServiceExpectTest")
+public class BaseCloudServiceExpectTest extends BaseAbiquoApiExpectTest<CloudService> {
+
+   private final HttpRequest listFirstPage = HttpRequest.builder() //
+         .method("GET") //
+         .endpoint(URI.create("http://localhost/api/cloud/virtualmachines")) //
+         .addHeader("Cookie", tokenAuth) //
+         .addHeader("Accept", normalize(VirtualMachinesWithNodeExtendedDto.MEDIA_TYPE)) //
+         .build();
+
+   private final HttpResponse firstPage = HttpResponse.builder() //
+         .statusCode(200) //
+         .payload(payloadFromResourceWithContentType("/payloads/all-vms.xml", //
+               normalize(VirtualMachinesWithNodeExtendedDto.MEDIA_TYPE))) //
+         .build();
+
+   private final HttpRequest listLastPage = listFirstPage.toBuilder().addQueryParam("startwith", "2").build();
+
+   private final HttpResponse lastPage = HttpResponse.builder() //
+         .statusCode(200) //
+         .payload(payloadFromResourceWithContentType("/payloads/all-vms-lastpage.xml", //
+               normalize(VirtualMachinesWithNodeExtendedDto.MEDIA_TYPE))) //
+         .build();
+
+   private final HttpRequest getByEditLink = HttpRequest.builder() //
+         .method("GET") //
+         .endpoint(URI.create("http://localhost/api/cloud/virtualdatacenters/1/virtualappliances/1/virtualmachines/1")) //
+         .addHeader("Cookie", tokenAuth) //
+         .addHeader("Accept", normalize(VirtualMachineWithNodeExtendedDto.BASE_MEDIA_TYPE)) //
+         .build();
+
+   public void testGetVirtualMachineScansTheListingOnMiss() {
+      BaseCloudService service = (BaseCloudService) requestsSendResponses(listFirstPage, firstPage, listLastPage,
+            lastPage);
+      assertTrue(service.virtualMachineLinks.isEmpty());
+
+      VirtualMachine vm = service.getVirtualMachine(1);
+
+      assertEquals(vm.getName(), "VM");
+      assertEquals(service.virtualMachineLinks.get(1).getType(), VirtualMachineWithNodeExtendedDto.BASE_MEDIA_TYPE);
+   }
+
+   public void testGetVirtualMachineUsesTheIndexedEditLinkOnHit() {
+      BaseCloudService service = (BaseCloudService) requestsSendResponses(listFirstPage, firstPage, listLastPage,
+            lastPage, getByEditLink, HttpResponse.builder() //
+                  .statusCode(200) //
+                  .payload(payloadFromResourceWithContentType("/payloads/vm.xml", //
+                        normalize(VirtualMachineWithNodeExtendedDto.BASE_MEDIA_TYPE))) //
+                  .build());
+
+      assertEquals(service.getVirtualMachine(1).getName(), "VM");
+      // The second lookup goes to the edit link, which returns a different name
+      assertEquals(service.getVirtualMachine(1).getName(), "VM-direct");
+      assertEquals(Iterables.getOnlyElement(service.getVirtualMachines(ImmutableList.of(1))).getName(), "VM-direct");
+   }
+
+   public void testStaleLinkIsRemovedAfterDelete() {
+      BaseCloudService service = (BaseCloudService) requestsSendResponses(listFirstPage, firstPage, listLastPage,
+            lastPage, getByEditLink, HttpResponse.builder().statusCode(404).build());
+
+      assertEquals(service.getVirtualMachine(1).getName(), "VM");
+      assertTrue(service.virtualMachineLinks.containsKey(1));
+
+      // The virtual machine has been deleted, so its link returns 404
+      assertNull(service.getVirtualMachine(1));
+      assertFalse(service.virtualMachineLinks.containsKey(1));
+   }
+
+   public void testIndexIsBounded() {
+      Properties props = new Properties();
+      props.setProperty("abiquo.virtual-machine-index.max-size", "1");
+      BaseCloudService service = (BaseCloudService) requestsSendResponses(
+            ImmutableMap.of(listFirstPage, firstPage, listLastPage, lastPage), createModule(), props);
+
+      assertEquals(Iterables.size(service.listVirtualMachines()), 2);
+      assertEquals(service.virtualMachineLinks.size(), 1);
+   }
+
+   @Override
+   public CloudService createClient(final Function<HttpRequest, HttpResponse> fn, final Module module,
+         final Properties props) {
+      return createInjector(fn, module, props).getInstance(CloudService.class);
+   }
+
+   @Override
+   protected CloudService clientFrom(final AbiquoApi api) {
+      throw new UnsupportedOperationException("The cloud service is created from the injector");
+   }
+}
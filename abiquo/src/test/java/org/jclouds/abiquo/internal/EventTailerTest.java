@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.event.Event;
+import org.jclouds.abiquo.domain.event.options.EventOptions;
+import org.jclouds.abiquo.features.services.EventService;
+import org.jclouds.abiquo.features.services.EventService.EventBatchListener;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.ApiContext;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.event.EventDto;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for the {@link EventTailer} class.
+ */
+@Test(groups = "unit", testName = "EventTailerTest")
+public class EventTailerTest {
+
+   @SuppressWarnings("unchecked")
+   private final ApiContext<AbiquoApi> context = EasyMock.createMock(ApiContext.class);
+
+   public void testPollDeliversEventsSortedByDate() {
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(2, 2000L), event(1, 1000L)));
+      replay(service);
+
+      CollectingListener listener = new CollectingListener();
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0), listener,
+            Logger.NULL);
+      tailer.poll();
+
+      assertEquals(listener.ids, ImmutableList.of(1, 2));
+      assertEquals(tailer.getCursor(), new Date(2000L));
+      assertEquals(tailer.getLastEventId(), Integer.valueOf(2));
+      verify(service);
+   }
+
+   public void testPollSkipsDeliveredEvents() {
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(1, 1000L), event(2, 2000L)));
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(2, 2000L), event(3, 2000L), event(4, 3000L)));
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(ImmutableList.of(event(4, 3000L)));
+      replay(service);
+
+      CollectingListener listener = new CollectingListener();
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0), listener,
+            Logger.NULL);
+      tailer.poll();
+      tailer.poll();
+      assertTrue(tailer.poll().isEmpty());
+
+      assertEquals(listener.ids, ImmutableList.of(1, 2, 3, 4));
+      assertEquals(listener.batches, 2);
+      assertEquals(tailer.getCursor(), new Date(3000L));
+      verify(service);
+   }
+
+   public void testPollWithoutEventsKeepsCursor() {
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(ImmutableList.<Event> of());
+      replay(service);
+
+      CollectingListener listener = new CollectingListener();
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(500L), listener,
+            Logger.NULL);
+      tailer.poll();
+
+      assertEquals(listener.batches, 0);
+      assertEquals(tailer.getCursor(), new Date(500L));
+      assertNull(tailer.getLastEventId());
+      verify(service);
+   }
+
+   public void testRunSurvivesListenerFailures() {
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(ImmutableList.of(event(1, 1000L)));
+      replay(service);
+
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0),
+            new EventBatchListener() {
+               @Override
+               public void onEvents(List<Event> events) {
+                  throw new IllegalStateException("listener failure");
+               }
+            }, Logger.NULL);
+      tailer.run();
+
+      assertEquals(tailer.getLastEventId(), Integer.valueOf(1));
+      verify(service);
+   }
+
+   public void testPollDoesNotRedeliverEventsAfterABurst() {
+      ImmutableList.Builder<Event> burst = ImmutableList.builder();
+      for (int i = 0; i < 2000; i++) {
+         burst.add(event(i, 1000L));
+      }
+
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(burst.build());
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(burst.build());
+      replay(service);
+
+      CollectingListener listener = new CollectingListener();
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0), listener,
+            Logger.NULL);
+      assertEquals(tailer.poll().size(), 2000);
+      assertTrue(tailer.poll().isEmpty());
+
+      assertEquals(listener.batches, 1);
+      verify(service);
+   }
+
+   public void testPollSkipsEventsBeforeTheCursor() {
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(ImmutableList.of(event(1, 2000L)));
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(1, 2000L), event(7, 1000L), event(2, 3000L)));
+      replay(service);
+
+      CollectingListener listener = new CollectingListener();
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0), listener,
+            Logger.NULL);
+      tailer.poll();
+      tailer.poll();
+
+      assertEquals(listener.ids, ImmutableList.of(1, 2));
+      assertEquals(tailer.getCursor(), new Date(3000L));
+      verify(service);
+   }
+
+   public void testPollDeduplicatesEventsWithoutId() {
+      Event first = event(null, 1000L, "CREATE");
+      Event second = event(null, 1000L, "DELETE");
+
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(ImmutableList.of(first));
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(null, 1000L, "CREATE"), second));
+      replay(service);
+
+      CollectingListener listener = new CollectingListener();
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0), listener,
+            Logger.NULL);
+      assertEquals(tailer.poll().size(), 1);
+      List<Event> batch = tailer.poll();
+
+      assertEquals(batch.size(), 1);
+      assertEquals(batch.get(0).getActionPerformed(), "DELETE");
+      assertEquals(listener.batches, 2);
+      verify(service);
+   }
+
+   public void testPollOnlyMovesTheCursorPastEventsPutInTheQueue() {
+      EventService service = EasyMock.createMock(EventService.class);
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(1, 1000L), event(2, 2000L), event(3, 3000L)));
+      expect(service.listEvents(anyObject(EventOptions.class))).andReturn(
+            ImmutableList.of(event(2, 2000L), event(3, 3000L)));
+      replay(service);
+
+      // The tail is closed while the poller waits for space for the third event
+      BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(2) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         public void put(Event event) throws InterruptedException {
+            if (remainingCapacity() == 0) {
+               throw new InterruptedException();
+            }
+            super.put(event);
+         }
+      };
+      EventTailer tailer = new EventTailer(service, EventOptions.builder().build(), new Date(0), queue,
+            Logger.NULL);
+
+      List<Event> delivered;
+      try {
+         delivered = tailer.poll();
+         assertTrue(Thread.currentThread().isInterrupted());
+      } finally {
+         Thread.interrupted();
+      }
+
+      assertEquals(delivered.size(), 2);
+      assertEquals(tailer.getCursor(), new Date(2000L));
+      assertEquals(tailer.getLastEventId(), Integer.valueOf(2));
+
+      queue.clear();
+      List<Event> next = tailer.poll();
+      assertEquals(next.size(), 1);
+      assertEquals(next.get(0).getId(), Integer.valueOf(3));
+      assertEquals(tailer.getCursor(), new Date(3000L));
+      verify(service);
+   }
+
+   public void testSinceReplacesDateFrom() {
+      EventOptions options = EventOptions.builder().dateFrom(new Date(1000L)).build();
+      EventOptions since = options.since(new Date(2000L));
+
+      assertEquals(ImmutableList.copyOf(since.buildQueryParameters().get("datefrom")), ImmutableList.of("2000"));
+      assertEquals(ImmutableList.copyOf(options.buildQueryParameters().get("datefrom")), ImmutableList.of("1000"));
+   }
+
+   private Event event(final Integer id, final long timestamp) {
+      return event(id, timestamp, null);
+   }
+
+   private Event event(final Integer id, final long timestamp, final String action) {
+      EventDto dto = new EventDto();
+      dto.setId(id);
+      dto.setTimestamp(new Date(timestamp));
+      dto.setActionPerformed(action);
+      return wrap(context, Event.class, dto);
+   }
+
+   private static class CollectingListener implements EventBatchListener {
+      private final List<Integer> ids = Lists.newArrayList();
+
+      private int batches = 0;
+
+      @Override
+      public void onEvents(List<Event> events) {
+         batches++;
+         ids.addAll(Lists.transform(events, new Function<Event, Integer>() {
+            @Override
+            public Integer apply(Event input) {
+               return input.getId();
+            }
+         }));
+      }
+   }
+}
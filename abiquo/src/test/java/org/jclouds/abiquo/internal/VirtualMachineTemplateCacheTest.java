@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.internal;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.enterprise.Enterprise;
+import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.rest.ApiContext;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.appslibrary.VirtualMachineTemplateDto;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link VirtualMachineTemplateCache} class.
+ */
+@Test(groups = "unit", testName = "VirtualMachineTemplateCacheTest")
+public class VirtualMachineTemplateCacheTest {
+
+   @SuppressWarnings("unchecked")
+   private final ApiContext<AbiquoApi> context = EasyMock.createMock(ApiContext.class);
+
+   public void testGetLoadsTheWholeRepository() {
+      VirtualMachineTemplate first = template(1, 4);
+      VirtualMachineTemplate second = template(2, 4);
+
+      Datacenter datacenter = EasyMock.createMock(Datacenter.class);
+      expect(datacenter.getId()).andReturn(4).anyTimes();
+      Enterprise enterprise = EasyMock.createMock(Enterprise.class);
+      expect(enterprise.listTemplatesInRepository(datacenter)).andReturn(ImmutableList.of(first, second));
+      replay(datacenter, enterprise);
+
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      assertEquals(cache.get(enterprise, datacenter, 1), first);
+      assertEquals(cache.get(enterprise, datacenter, 2), second);
+      assertEquals(cache.get(enterprise, datacenter, 1), first);
+
+      verify(datacenter, enterprise);
+   }
+
+   public void testGetFallsBackToSingleTemplate() {
+      VirtualMachineTemplate template = template(3, 4);
+
+      Datacenter datacenter = EasyMock.createMock(Datacenter.class);
+      expect(datacenter.getId()).andReturn(4).anyTimes();
+      Enterprise enterprise = EasyMock.createMock(Enterprise.class);
+      expect(enterprise.listTemplatesInRepository(datacenter)).andReturn(ImmutableList.<VirtualMachineTemplate> of());
+      expect(enterprise.getTemplateInRepository(datacenter, 3)).andReturn(template);
+      expect(enterprise.listTemplatesInRepository(datacenter)).andReturn(ImmutableList.<VirtualMachineTemplate> of());
+      expect(enterprise.getTemplateInRepository(datacenter, 5)).andReturn(null);
+      replay(datacenter, enterprise);
+
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      assertEquals(cache.get(enterprise, datacenter, 3), template);
+      assertNull(cache.get(enterprise, datacenter, 5));
+
+      verify(datacenter, enterprise);
+   }
+
+   public void testGetIfPresent() {
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      cache.putAll(ImmutableList.of(template(1, 4), template(2, 5)));
+
+      assertEquals(cache.getIfPresent(1).getId(), Integer.valueOf(1));
+      assertEquals(cache.getIfPresent(2).getId(), Integer.valueOf(2));
+      assertNull(cache.getIfPresent(3));
+   }
+
+   public void testGetIndexesLoadedTemplates() {
+      VirtualMachineTemplate first = template(1, 4);
+      VirtualMachineTemplate second = template(2, 4);
+
+      Datacenter datacenter = EasyMock.createMock(Datacenter.class);
+      expect(datacenter.getId()).andReturn(4).anyTimes();
+      Enterprise enterprise = EasyMock.createMock(Enterprise.class);
+      expect(enterprise.listTemplatesInRepository(datacenter)).andReturn(ImmutableList.of(first, second));
+      replay(datacenter, enterprise);
+
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      cache.get(enterprise, datacenter, 1);
+
+      assertEquals(cache.getIfPresent(1), first);
+      assertEquals(cache.getIfPresent(2), second);
+      verify(datacenter, enterprise);
+   }
+
+   public void testInvalidate() {
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      cache.putAll(ImmutableList.of(template(1, 4), template(2, 4)));
+      assertEquals(cache.templates.size(), 2);
+
+      cache.invalidate(1);
+      cache.invalidate(3);
+
+      assertNull(cache.getIfPresent(1));
+      assertEquals(cache.getIfPresent(2).getId(), Integer.valueOf(2));
+      assertEquals(cache.templates.size(), 1);
+      assertEquals(cache.keys.keySet(), ImmutableSet.of(2));
+   }
+
+   public void testInvalidateAll() {
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1000L);
+      cache.putAll(ImmutableList.of(template(1, 4), template(2, 4)));
+
+      cache.invalidateAll();
+
+      assertNull(cache.getIfPresent(1));
+      assertTrue(cache.keys.isEmpty());
+   }
+
+   public void testMaximumSize() {
+      VirtualMachineTemplateCache cache = new VirtualMachineTemplateCache(300000L, 1L);
+      cache.putAll(ImmutableList.of(template(1, 4), template(2, 4)));
+
+      // Evicted templates are removed from the id index too
+      assertEquals(cache.templates.size(), 1);
+      assertEquals(cache.keys.size(), 1);
+   }
+
+   private VirtualMachineTemplate template(final int id, final int datacenterId) {
+      VirtualMachineTemplateDto dto = new VirtualMachineTemplateDto();
+      dto.setId(id);
+      dto.addLink(new RESTLink("datacenter", "http://foo/bar/" + datacenterId));
+      return wrap(context, VirtualMachineTemplate.class, dto);
+   }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.predicates;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.Conversion;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.rest.ApiContext;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.enumerator.ConversionState;
+import com.abiquo.model.enumerator.DiskFormatType;
+import com.abiquo.model.enumerator.HypervisorType;
+import com.abiquo.server.core.cloud.VirtualDatacenterDto;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for the {@link VirtualDatacenterPredicates} class.
+ */
+@Test(groups = "unit", testName = "VirtualDatacenterPredicatesTest")
+public class VirtualDatacenterPredicatesTest {
+
+   public void testCompatibleTemplateDoesNotListConversions() {
+      VirtualMachineTemplate template = createMock(VirtualMachineTemplate.class);
+      expect(template.getDiskFormatType()).andReturn(compatibleFormat(HypervisorType.KVM)).anyTimes();
+      replay(template);
+
+      Predicate<VirtualDatacenter> predicate = VirtualDatacenterPredicates.compatibleWithTemplateOrConversions(template);
+
+      assertTrue(predicate.apply(virtualDatacenter(1, HypervisorType.KVM)));
+      assertTrue(predicate.apply(virtualDatacenter(2, HypervisorType.KVM)));
+
+      // listConversions has not been expected, so verify fails if it was called
+      verify(template);
+   }
+
+   public void testConversionsAreListedOnceForAllVirtualDatacenters() {
+      DiskFormatType incompatible = incompatibleFormat(HypervisorType.KVM);
+
+      Conversion finished = conversion(ConversionState.FINISHED, compatibleFormat(HypervisorType.KVM));
+      Conversion failed = conversion(ConversionState.FAILED, compatibleFormat(HypervisorType.KVM));
+
+      VirtualMachineTemplate template = createMock(VirtualMachineTemplate.class);
+      expect(template.getDiskFormatType()).andReturn(incompatible).anyTimes();
+      expect(template.listConversions()).andReturn(ImmutableList.of(failed, finished)).once();
+      replay(template);
+
+      Predicate<VirtualDatacenter> predicate = VirtualDatacenterPredicates.compatibleWithTemplateOrConversions(template);
+
+      assertTrue(predicate.apply(virtualDatacenter(1, HypervisorType.KVM)));
+      assertTrue(predicate.apply(virtualDatacenter(2, HypervisorType.KVM)));
+      assertTrue(predicate.apply(virtualDatacenter(3, HypervisorType.KVM)));
+
+      verify(template);
+   }
+
+   public void testUnfinishedConversionsAreIgnored() {
+      Conversion enqueued = conversion(ConversionState.ENQUEUED, compatibleFormat(HypervisorType.KVM));
+
+      VirtualMachineTemplate template = createMock(VirtualMachineTemplate.class);
+      expect(template.getDiskFormatType()).andReturn(incompatibleFormat(HypervisorType.KVM)).anyTimes();
+      expect(template.listConversions()).andReturn(ImmutableList.of(enqueued)).once();
+      replay(template);
+
+      Predicate<VirtualDatacenter> predicate = VirtualDatacenterPredicates.compatibleWithTemplateOrConversions(template);
+
+      assertFalse(predicate.apply(virtualDatacenter(1, HypervisorType.KVM)));
+      assertFalse(predicate.apply(virtualDatacenter(2, HypervisorType.KVM)));
+
+      verify(template);
+   }
+
+   private static DiskFormatType compatibleFormat(final HypervisorType type) {
+      for (DiskFormatType format : DiskFormatType.values()) {
+         if (type.isCompatible(format)) {
+            return format;
+         }
+      }
+      throw new IllegalStateException("No disk format compatible with " + type);
+   }
+
+   private static DiskFormatType incompatibleFormat(final HypervisorType type) {
+      for (DiskFormatType format : DiskFormatType.values()) {
+         if (!type.isCompatible(format)) {
+            return format;
+         }
+      }
+      throw new IllegalStateException("All disk formats are compatible with " + type);
+   }
+
+   private static Conversion conversion(final ConversionState state, final DiskFormatType targetFormat) {
+      Conversion conversion = createMock(Conversion.class);
+      expect(conversion.getState()).andReturn(state).anyTimes();
+      expect(conversion.getTargetFormat()).andReturn(targetFormat).anyTimes();
+      replay(conversion);
+      return conversion;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static VirtualDatacenter virtualDatacenter(final int id, final HypervisorType type) {
+      ApiContext<AbiquoApi> context = createMock(ApiContext.class);
+      VirtualDatacenterDto dto = new VirtualDatacenterDto();
+      dto.setId(id);
+      dto.setHypervisorType(type);
+      return wrap(context, VirtualDatacenter.class, dto);
+   }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Unit tests for the {@link FanOut} class.
+ */
+@Test(groups = "unit", testName = "FanOutTest")
+public class FanOutTest {
+   private ListeningExecutorService executor;
+
+   private ScheduledExecutorService scheduler;
+
+   @BeforeClass
+   public void setup() {
+      executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+      scheduler.shutdownNow();
+   }
+
+   public void testExecuteReturnsAllResults() {
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3, 4, 5),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  return input * 10;
+               }
+            });
+
+      assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(10, 20, 30, 40, 50));
+   }
+
+   public void testExecuteWithoutParents() {
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.<Integer> of(),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  return input;
+               }
+            });
+
+      assertTrue(ImmutableList.copyOf(results).isEmpty());
+   }
+
+   public void testExecuteSkipsFailedAndNullResults() {
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3, 4),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  if (input == 2) {
+                     throw new IllegalStateException("unavailable");
+                  }
+                  return input == 3 ? null : input;
+               }
+            });
+
+      assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(1, 4));
+   }
+
+   public void testExecuteSkipsTimedOutParents() {
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 100L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  if (input == 2) {
+                     Uninterruptibles.sleepUninterruptibly(1, TimeUnit.SECONDS);
+                  }
+                  return input;
+               }
+            });
+
+      assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(1, 3));
+   }
+
+   public void testExecuteBoundsConcurrentRequests() {
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+
+      FanOut fanOut = new FanOut(scheduler, 3, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  int current = inFlight.incrementAndGet();
+                  synchronized (maxInFlight) {
+                     maxInFlight.set(Math.max(maxInFlight.get(), current));
+                  }
+                  Uninterruptibles.sleepUninterruptibly(20, TimeUnit.MILLISECONDS);
+                  inFlight.decrementAndGet();
+                  return input;
+               }
+            });
+
+      assertEquals(ImmutableList.copyOf(results).size(), 10);
+      assertTrue(maxInFlight.get() <= 3, "more than 3 concurrent requests: " + maxInFlight.get());
+   }
+
+   public void testExecuteIssuesEachRequestOnce() {
+      final AtomicInteger requests = new AtomicInteger();
+
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  requests.incrementAndGet();
+                  return input;
+               }
+            });
+
+      assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(1, 2, 3));
+      assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(1, 2, 3));
+      assertEquals(requests.get(), 3);
+   }
+
+   public void testExecuteWithDirectExecutorDoesNotRecurse() {
+      ImmutableList.Builder<Integer> parents = ImmutableList.builder();
+      for (int i = 0; i < 10000; i++) {
+         parents.add(i);
+      }
+
+      FanOut fanOut = new FanOut(scheduler, 1, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(MoreExecutors.newDirectExecutorService(), parents.build(),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  return input;
+               }
+            });
+
+      assertEquals(ImmutableList.copyOf(results), parents.build());
+   }
+
+   public void testExecuteCancelsTimeoutTasks() {
+      ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1);
+      timeouts.setRemoveOnCancelPolicy(true);
+      try {
+         FanOut fanOut = new FanOut(timeouts, 2, 0D, 60000L);
+         Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3),
+               new Function<Integer, Integer>() {
+                  @Override
+                  public Integer apply(Integer input) {
+                     return input;
+                  }
+               });
+
+         assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(1, 2, 3));
+         assertTrue(timeouts.getQueue().isEmpty(), "pending timeout tasks: " + timeouts.getQueue().size());
+      } finally {
+         timeouts.shutdownNow();
+      }
+   }
+
+   public void testExecuteReturnsResultsAsTheyComplete() {
+      final CountDownLatch slowRequest = new CountDownLatch(1);
+
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      Iterator<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  if (input == 1) {
+                     Uninterruptibles.awaitUninterruptibly(slowRequest);
+                  }
+                  return input;
+               }
+            }).iterator();
+
+      try {
+         assertEquals(results.next(), Integer.valueOf(2));
+      } finally {
+         slowRequest.countDown();
+      }
+      assertEquals(results.next(), Integer.valueOf(1));
+      assertFalse(results.hasNext());
+   }
+
+   public void testExecuteDoesNotIssueRequestsUntilIterated() {
+      final AtomicInteger requests = new AtomicInteger();
+
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      Iterable<Integer> results = fanOut.execute(executor, ImmutableList.of(1, 2, 3),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer input) {
+                  requests.incrementAndGet();
+                  return input;
+               }
+            });
+
+      assertEquals(requests.get(), 0);
+      assertEquals(ImmutableSet.copyOf(results), ImmutableSet.of(1, 2, 3));
+      assertEquals(requests.get(), 3);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "unavailable")
+   public void testExecuteAllPropagatesFailures() {
+      FanOut fanOut = new FanOut(scheduler, 2, 0D, 0L);
+      fanOut.executeAll(executor, ImmutableList.of(1, 2, 3), new Function<Integer, Integer>() {
+         @Override
+         public Integer apply(Integer input) {
+            if (input == 2) {
+               throw new IllegalStateException("unavailable");
+            }
+            return input;
+         }
+      });
+   }
+
+   public void testExecuteAllDoesNotIssueRequestsAfterAFailure() {
+      final AtomicInteger requests = new AtomicInteger();
+
+      FanOut fanOut = new FanOut(scheduler, 1, 0D, 0L);
+      try {
+         fanOut.executeAll(MoreExecutors.newDirectExecutorService(), ImmutableList.of(1, 2, 3),
+               new Function<Integer, Integer>() {
+                  @Override
+                  public Integer apply(Integer input) {
+                     requests.incrementAndGet();
+                     throw new IllegalStateException("unavailable");
+                  }
+               });
+         fail("the failure should have been propagated");
+      } catch (IllegalStateException expected) {
+         assertEquals(requests.get(), 1);
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testInvalidMaxConcurrency() {
+      new FanOut(scheduler, 0, 0D, 0L);
+   }
+}
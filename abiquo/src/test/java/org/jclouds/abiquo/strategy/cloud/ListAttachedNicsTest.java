@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.strategy.cloud;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.strategy.FanOut;
+import org.jclouds.rest.ApiContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineWithNodeExtendedDto;
+import com.abiquo.server.core.infrastructure.network.NicDto;
+import com.abiquo.server.core.infrastructure.network.PrivateIpDto;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link ListAttachedNics} strategy.
+ */
+@Test(groups = "unit", testName = "ListAttachedNicsTest")
+public class ListAttachedNicsTest {
+   private ScheduledExecutorService scheduler;
+
+   @BeforeClass
+   public void setup() {
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testFailsWhenANicCanNotBeRetrieved() {
+      RESTLink nic0 = new RESTLink(NicDto.REL_PREFIX + "0", "http://localhost/api/admin/ips/1");
+      nic0.setType(PrivateIpDto.BASE_MEDIA_TYPE);
+      RESTLink nic1 = new RESTLink(NicDto.REL_PREFIX + "1", "http://localhost/api/admin/ips/2");
+      nic1.setType(PrivateIpDto.BASE_MEDIA_TYPE);
+
+      VirtualMachineWithNodeExtendedDto dto = new VirtualMachineWithNodeExtendedDto();
+      dto.addLink(nic0);
+      dto.addLink(nic1);
+
+      VirtualMachine vm = EasyMock.createMock(VirtualMachine.class);
+      vm.refresh();
+      expectLastCall();
+      expect(vm.unwrap()).andReturn(dto);
+
+      AbiquoApi api = EasyMock.createMock(AbiquoApi.class);
+      expect(api.get(nic0)).andThrow(new IllegalStateException("unavailable"));
+
+      ApiContext<AbiquoApi> context = EasyMock.createMock(ApiContext.class);
+      expect(context.getApi()).andReturn(api).anyTimes();
+
+      replay(vm, api, context);
+
+      // Run the requests one by one in the calling thread, so the second NIC
+      // would only be requested after the first one has completed
+      ListAttachedNics strategy = new ListAttachedNics(context, MoreExecutors.newDirectExecutorService(),
+            new FanOut(scheduler, 1, 0D, 0L));
+
+      try {
+         strategy.execute(vm);
+         fail("the NIC that could not be retrieved should not be skipped");
+      } catch (IllegalStateException expected) {
+         assertEquals(expected.getMessage(), "unavailable");
+      }
+
+      verify(vm, api, context);
+   }
+}
@@ -25,6 +25,8 @@ import org.jclouds.azurecompute.compute.config.AzureComputeServiceContextModule;
 import org.jclouds.azurecompute.config.AzureComputeHttpApiModule;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 
+import static org.jclouds.azurecompute.config.AzureComputeProperties.DEPLOYMENT_CACHE_TTL;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.STORAGE_ACCOUNT;
 import static org.jclouds.azurecompute.config.AzureComputeProperties.SUBSCRIPTION_ID;
 
 /**
@@ -47,6 +49,8 @@ public class AzureManagementApiMetadata extends BaseHttpApiMetadata<AzureCompute
 
    public static Properties defaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
+      properties.setProperty(STORAGE_ACCOUNT, "");
+      properties.setProperty(DEPLOYMENT_CACHE_TTL, "5000");
       return properties;
    }
 
@@ -16,88 +16,225 @@
  */
 package org.jclouds.azurecompute.compute;
 
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import org.jclouds.azurecompute.AzureComputeApi;
 import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.DeploymentParams;
 import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.InputEndpoint;
+import org.jclouds.azurecompute.domain.Location;
+import org.jclouds.azurecompute.domain.OSType;
+import org.jclouds.azurecompute.domain.Protocol;
 import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.azurecompute.features.VirtualMachineApi;
 import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.domain.OsFamily;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.STORAGE_ACCOUNT;
 
 /**
  * defines the connection between the {@link AzureComputeApi} implementation and the
  * jclouds {@link org.jclouds.compute.ComputeService}
+ * <p>
+ * Each node is a virtual machine deployment inside a hosted service, and the hosted service, the deployment and its
+ * role all share the node name, which is also the node id. The asynchronous requests are awaited through the shared
+ * {@link OperationTracker}, so the nodes of a group, which the compute service creates concurrently, are all polled
+ * together.
  */
 @Singleton
 public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Deployment, RoleSize, Image, String> {
 
+   public static final String DEFAULT_LOGIN_USER = "jclouds";
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final AzureComputeApi api;
+   private final OperationTracker operations;
+   private final DeploymentCache deployments;
+   private final Timeouts timeouts;
+   private final String storageAccount;
+
+   @Inject
+   AzureComputeServiceAdapter(AzureComputeApi api, OperationTracker operations, DeploymentCache deployments,
+         Timeouts timeouts, @Named(STORAGE_ACCOUNT) String storageAccount) {
+      this.api = checkNotNull(api, "api");
+      this.operations = checkNotNull(operations, "operations");
+      this.deployments = checkNotNull(deployments, "deployments");
+      this.timeouts = checkNotNull(timeouts, "timeouts");
+      this.storageAccount = checkNotNull(storageAccount, "storageAccount");
+   }
+
    @Override
    public NodeAndInitialCredentials<Deployment> createNodeWithGroupEncodedIntoName(
          String group, String name, Template template) {
-      // TODO Auto-generated method stub
-      return null;
+      checkState(!isNullOrEmpty(storageAccount), "the %s property is required to create nodes", STORAGE_ACCOUNT);
+      RoleSize size = RoleSize.fromValue(template.getHardware().getProviderId());
+      checkArgument(size != null, "unknown role size %s", template.getHardware().getProviderId());
+
+      TemplateOptions options = template.getOptions();
+      OSType osType = template.getImage().getOperatingSystem().getFamily() == OsFamily.WINDOWS ? OSType.WINDOWS
+            : OSType.LINUX;
+      String username = options.getLoginUser() != null ? options.getLoginUser() : DEFAULT_LOGIN_USER;
+      String password = options.getLoginPassword() != null ? options.getLoginPassword() : generatePassword();
+
+      DeploymentParams.Builder params = DeploymentParams.builder().name(name)
+            .sourceImageName(template.getImage().getProviderId()).username(username).password(password)
+            .storageAccount(storageAccount).size(size).osType(osType);
+      for (int port : inboundPorts(options, osType)) {
+         params.endpoint(InputEndpoint.builder().name("tcp" + port).localPort(port).externalPort(port)
+               .protocol(Protocol.TCP).build());
+      }
+
+      logger.debug(">> creating hosted service %s in %s", name, template.getLocation().getId());
+      awaitOrFail(api.getHostedServiceApi().createServiceWithLabelInLocation(name, name,
+            template.getLocation().getId()), timeouts.nodeRunning);
+      deployments.invalidateServiceNames();
+
+      try {
+         logger.debug(">> creating deployment %s", name);
+         awaitOrFail(api.getDeploymentApiForService(name).create(params.build()), timeouts.nodeRunning);
+      } catch (RuntimeException ex) {
+         logger.warn(ex, "<< could not create deployment %s, deleting its hosted service", name);
+         deleteHostedService(name);
+         throw ex;
+      }
+
+      deployments.invalidate(name);
+      Deployment deployment = deployments.get(name);
+      checkState(deployment != null, "deployment %s was created but could not be found", name);
+
+      return new NodeAndInitialCredentials<Deployment>(deployment, name,
+            LoginCredentials.builder().user(username).password(password).build());
    }
 
    @Override
    public Iterable<RoleSize> listHardwareProfiles() {
-      // TODO Auto-generated method stub
-      return null;
+      return ImmutableList.copyOf(RoleSize.values());
    }
 
    @Override
    public Iterable<Image> listImages() {
-      // TODO Auto-generated method stub
-      return null;
+      return api.getImageApi().list();
    }
 
    @Override
-   public Image getImage(String id) {
-      // TODO Auto-generated method stub
-      return null;
+   public Image getImage(final String id) {
+      return Iterables.find(listImages(), new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            return id.equals(input.getName());
+         }
+      }, null);
    }
 
    @Override
    public Iterable<String> listLocations() {
-      // TODO Auto-generated method stub
-      return null;
+      ImmutableList.Builder<String> locations = ImmutableList.builder();
+      for (Location location : api.getLocationApi().list()) {
+         locations.add(location.getName());
+      }
+      return locations.build();
    }
 
    @Override
    public Deployment getNode(String id) {
-      // TODO Auto-generated method stub
-      return null;
+      return deployments.get(id);
    }
 
    @Override
    public void destroyNode(String id) {
-      // TODO Auto-generated method stub
-
+      String requestId = api.getDeploymentApiForService(id).delete(id);
+      if (requestId != null) {
+         awaitOrFail(requestId, timeouts.nodeTerminated);
+      }
+      deployments.invalidate(id);
+      deleteHostedService(id);
    }
 
    @Override
    public void rebootNode(String id) {
-      // TODO Auto-generated method stub
+      awaitOrFail(virtualMachineApi(id).restart(id), timeouts.nodeRunning);
+      deployments.invalidate(id);
    }
 
    @Override
    public void resumeNode(String id) {
-      // TODO Auto-generated method stub
+      awaitOrFail(virtualMachineApi(id).start(id), timeouts.nodeRunning);
+      deployments.invalidate(id);
    }
 
    @Override
    public void suspendNode(String id) {
-      // TODO Auto-generated method stub
-
+      awaitOrFail(virtualMachineApi(id).shutdown(id), timeouts.nodeSuspended);
+      deployments.invalidate(id);
    }
 
    @Override
    public Iterable<Deployment> listNodes() {
-      // TODO Auto-generated method stub
-      return null;
+      return deployments.list();
+   }
+
+   @Override
+   public Iterable<Deployment> listNodesByIds(Iterable<String> ids) {
+      ImmutableList.Builder<Deployment> nodes = ImmutableList.builder();
+      for (String id : ids) {
+         Deployment deployment = deployments.get(id);
+         if (deployment != null) {
+            nodes.add(deployment);
+         }
+      }
+      return nodes.build();
+   }
+
+   private VirtualMachineApi virtualMachineApi(String id) {
+      return api.getVirtualMachineApiForDeploymentInService(id, id);
+   }
+
+   private void deleteHostedService(String name) {
+      String requestId = api.getHostedServiceApi().delete(name);
+      if (requestId != null) {
+         awaitOrFail(requestId, timeouts.nodeTerminated);
+      }
+      deployments.invalidateServiceNames();
+   }
+
+   private void awaitOrFail(String requestId, long timeoutMillis) {
+      if (!operations.await(requestId, timeoutMillis)) {
+         throw new IllegalStateException("Request " + requestId + " did not complete after " + timeoutMillis + "ms");
+      }
+   }
+
+   private static List<Integer> inboundPorts(TemplateOptions options, OSType osType) {
+      ImmutableList.Builder<Integer> ports = ImmutableList.builder();
+      for (int port : options.getInboundPorts()) {
+         ports.add(port);
+      }
+      List<Integer> result = ports.build();
+      return result.isEmpty() ? ImmutableList.of(osType == OSType.WINDOWS ? 3389 : 22) : result;
    }
 
-   @Override public Iterable<Deployment> listNodesByIds(Iterable<String> ids) {
-      // TODO Auto-generated method stub
-      return null;
+   private static String generatePassword() {
+      // Azure requires upper and lower case letters, digits and symbols in the password
+      return "Jc1!" + UUID.randomUUID().toString().replace("-", "").substring(0, 12) + "X";
    }
 }
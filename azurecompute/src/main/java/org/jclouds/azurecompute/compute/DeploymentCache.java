@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.jclouds.Constants;
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.HostedServiceWithDetailedProperties;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.azurecompute.config.AzureComputeProperties.DEPLOYMENT_CACHE_TTL;
+
+/**
+ * Keeps the hosted service names and their deployments for a short time, so listing and looking up nodes does not
+ * fetch every hosted service and its deployment on each call.
+ * <p>
+ * The compute service names the hosted service and its deployment after the node, so each hosted service has at most
+ * one deployment with the same name. Entries expire after the {@code DEPLOYMENT_CACHE_TTL} property and are
+ * invalidated as soon as an operation on them completes.
+ */
+@Singleton
+public class DeploymentCache {
+
+   private final AzureComputeApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long ttl;
+   private final LoadingCache<String, Optional<Deployment>> deployments;
+
+   // Guarded by this
+   private List<String> serviceNames;
+   private long serviceNamesExpiration;
+
+   @Inject
+   DeploymentCache(AzureComputeApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(DEPLOYMENT_CACHE_TTL) long ttl) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.ttl = ttl;
+      this.deployments = CacheBuilder.newBuilder().expireAfterWrite(ttl, MILLISECONDS)
+            .build(new CacheLoader<String, Optional<Deployment>>() {
+               @Override
+               public Optional<Deployment> load(String serviceName) {
+                  return Optional.fromNullable(api.getDeploymentApiForService(serviceName).get(serviceName));
+               }
+            });
+   }
+
+   /**
+    * Returns the deployment of the given hosted service, or <code>null</code> if it does not exist.
+    */
+   public Deployment get(String serviceName) {
+      try {
+         return deployments.getUnchecked(serviceName).orNull();
+      } catch (UncheckedExecutionException ex) {
+         throw Throwables.propagate(ex.getCause());
+      }
+   }
+
+   /**
+    * Returns the deployments of all the hosted services. The deployments that are not cached are fetched concurrently.
+    */
+   public List<Deployment> list() {
+      List<ListenableFuture<Optional<Deployment>>> futures = Lists.newArrayList();
+      for (final String serviceName : serviceNames()) {
+         Optional<Deployment> cached = deployments.getIfPresent(serviceName);
+         futures.add(cached != null ? Futures.immediateFuture(cached)
+               : userExecutor.submit(new Callable<Optional<Deployment>>() {
+                  @Override
+                  public Optional<Deployment> call() {
+                     return deployments.getUnchecked(serviceName);
+                  }
+               }));
+      }
+
+      ImmutableList.Builder<Deployment> result = ImmutableList.builder();
+      for (Optional<Deployment> deployment : Futures.getUnchecked(Futures.allAsList(futures))) {
+         result.addAll(deployment.asSet());
+      }
+      return result.build();
+   }
+
+   /**
+    * Forgets the deployment of the given hosted service after it has been created, modified or deleted.
+    */
+   public void invalidate(String serviceName) {
+      deployments.invalidate(serviceName);
+   }
+
+   /**
+    * Forgets the hosted service names after a hosted service has been created or deleted.
+    */
+   public synchronized void invalidateServiceNames() {
+      serviceNames = null;
+   }
+
+   @VisibleForTesting
+   synchronized List<String> serviceNames() {
+      long now = System.currentTimeMillis();
+      if (serviceNames == null || now >= serviceNamesExpiration) {
+         ImmutableList.Builder<String> names = ImmutableList.builder();
+         for (HostedServiceWithDetailedProperties service : api.getHostedServiceApi().list()) {
+            names.add(service.getName());
+         }
+         serviceNames = names.build();
+         serviceNamesExpiration = now + ttl;
+      }
+      return serviceNames;
+   }
+}
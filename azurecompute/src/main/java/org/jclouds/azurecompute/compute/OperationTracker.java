@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.Operation;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+
+/**
+ * Waits for the asynchronous requests identified by the <code>x-ms-request-id</code> header.
+ * <p>
+ * The requests of the nodes the compute service creates concurrently are all polled by one task in the scheduler.
+ * Azure operations take from seconds to minutes, so the task runs every max {@link PollPeriod} while there are
+ * requests to wait for.
+ */
+@Singleton
+public class OperationTracker implements Closeable {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final AzureComputeApi api;
+   private final ScheduledExecutorService scheduler;
+   private final long period;
+
+   // Guarded by this
+   @VisibleForTesting
+   final Map<String, PendingOperation> pending = Maps.newHashMap();
+   private ScheduledFuture<?> pollTask;
+   private boolean closed;
+
+   @Inject
+   OperationTracker(AzureComputeApi api, @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         PollPeriod pollPeriod, Closer closer) {
+      this.api = checkNotNull(api, "api");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.period = pollPeriod.pollMaxPeriod;
+      closer.addToClose(this);
+   }
+
+   /**
+    * Blocks until the given request completes.
+    *
+    * @return <code>true</code> if the operation succeeded or <code>false</code> if it was still in progress after the
+    *         given timeout.
+    * @throws IllegalStateException if the operation failed.
+    */
+   public boolean await(String requestId, long timeoutMillis) {
+      try {
+         Uninterruptibles.getUninterruptibly(track(requestId, timeoutMillis));
+         return true;
+      } catch (ExecutionException ex) {
+         if (ex.getCause() instanceof TimeoutException) {
+            logger.warn("<< request %s did not complete after %sms", requestId, timeoutMillis);
+            return false;
+         }
+         throw Throwables.propagate(ex.getCause());
+      }
+   }
+
+   @VisibleForTesting
+   synchronized ListenableFuture<Operation> track(String requestId, long timeoutMillis) {
+      checkNotNull(requestId, "requestId");
+      checkArgument(timeoutMillis >= 0, "timeoutMillis must not be negative");
+      PendingOperation operation = new PendingOperation(System.currentTimeMillis() + timeoutMillis);
+      if (closed) {
+         operation.future.setException(new IllegalStateException("The operation tracker has been closed"));
+         return operation.future;
+      }
+      logger.trace(">> tracking request %s", requestId);
+      pending.put(requestId, operation);
+      if (pollTask == null) {
+         pollTask = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+               poll();
+            }
+         }, period, period, MILLISECONDS);
+      }
+      return operation.future;
+   }
+
+   /**
+    * Polls all the in-flight requests and stops polling once there are no requests left to wait for.
+    */
+   @VisibleForTesting
+   void poll() {
+      Map<String, PendingOperation> snapshot;
+      synchronized (this) {
+         snapshot = Maps.newHashMap(pending);
+      }
+      for (Map.Entry<String, PendingOperation> entry : snapshot.entrySet()) {
+         String requestId = entry.getKey();
+         PendingOperation operation = entry.getValue();
+         try {
+            update(requestId, operation, api.getOperationApi().get(requestId));
+         } catch (RuntimeException ex) {
+            logger.warn(ex, "<< could not get request %s", requestId);
+            failIfExpired(requestId, operation);
+         }
+      }
+      synchronized (this) {
+         for (Map.Entry<String, PendingOperation> entry : snapshot.entrySet()) {
+            if (entry.getValue().future.isDone()) {
+               pending.remove(entry.getKey());
+            }
+         }
+         if (pending.isEmpty() && pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+         }
+      }
+   }
+
+   private void update(String requestId, PendingOperation operation, Operation current) {
+      if (current == null) {
+         operation.future.setException(new IllegalStateException("Request " + requestId + " does not exist"));
+         return;
+      }
+      switch (current.getStatus()) {
+         case SUCCEEDED:
+            logger.trace("<< request %s succeeded", requestId);
+            operation.future.set(current);
+            break;
+         case FAILED:
+            operation.future.setException(new IllegalStateException("Request " + requestId + " failed: "
+                  + (current.getError().isPresent() ? current.getError().get().getMessage() : current.getRawStatus())));
+            break;
+         case IN_PROGRESS:
+         default:
+            failIfExpired(requestId, operation);
+      }
+   }
+
+   private void failIfExpired(String requestId, PendingOperation operation) {
+      if (System.currentTimeMillis() > operation.deadline) {
+         operation.future.setException(new TimeoutException("Request " + requestId + " is still in progress"));
+      }
+   }
+
+   /**
+    * Stops polling and fails the requests that are still in progress.
+    */
+   @Override
+   public synchronized void close() {
+      closed = true;
+      if (pollTask != null) {
+         pollTask.cancel(false);
+         pollTask = null;
+      }
+      for (PendingOperation operation : pending.values()) {
+         operation.future.setException(new IllegalStateException("The operation tracker has been closed"));
+      }
+      pending.clear();
+   }
+
+   @VisibleForTesting
+   static class PendingOperation {
+      private final long deadline;
+      private final SettableFuture<Operation> future = SettableFuture.create();
+
+      PendingOperation(long deadline) {
+         this.deadline = deadline;
+      }
+   }
+}
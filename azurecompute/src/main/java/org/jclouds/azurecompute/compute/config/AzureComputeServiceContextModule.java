@@ -21,6 +21,7 @@ import com.google.inject.TypeLiteral;
 import org.jclouds.azurecompute.compute.AzureComputeServiceAdapter;
 import org.jclouds.azurecompute.compute.functions.AzureImageToImage;
 import org.jclouds.azurecompute.compute.functions.DeploymentToNodeMetadata;
+import org.jclouds.azurecompute.compute.functions.LocationNameToLocation;
 import org.jclouds.azurecompute.compute.functions.RoleSizeToHardware;
 import org.jclouds.azurecompute.domain.Deployment;
 import org.jclouds.azurecompute.domain.Image;
@@ -29,6 +30,7 @@ import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.config.ComputeServiceAdapterContextModule;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.domain.Location;
 
 public class AzureComputeServiceContextModule
       extends ComputeServiceAdapterContextModule<Deployment, RoleSize, Image, String> {
@@ -44,5 +46,7 @@ public class AzureComputeServiceContextModule
       }).to(RoleSizeToHardware.class);
       bind(new TypeLiteral<Function<Deployment, NodeMetadata>>() {
       }).to(DeploymentToNodeMetadata.class);
+      bind(new TypeLiteral<Function<String, Location>>() {
+      }).to(LocationNameToLocation.class);
    }
 }
@@ -17,13 +17,51 @@
 package org.jclouds.azurecompute.compute.functions;
 
 import com.google.common.base.Function;
+import javax.inject.Singleton;
+import org.jclouds.azurecompute.compute.AzureComputeServiceAdapter;
 import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.OSType;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.LoginCredentials;
 
+/**
+ * Transforms an {@link Image} to the jclouds portable model.
+ */
+@Singleton
 public class AzureImageToImage implements Function<Image, org.jclouds.compute.domain.Image> {
 
    @Override
    public org.jclouds.compute.domain.Image apply(Image input) {
-      return null;
+      String description = input.getDescription().or(input.getLabel());
+      ImageBuilder builder = new ImageBuilder();
+      builder.ids(input.getName());
+      builder.name(input.getLabel());
+      builder.description(description);
+      builder.status(org.jclouds.compute.domain.Image.Status.AVAILABLE);
+      builder.operatingSystem(OperatingSystem.builder()
+            .family(osFamily(input))
+            .description(description)
+            .is64Bit(true)
+            .build());
+      builder.defaultCredentials(LoginCredentials.builder().user(AzureComputeServiceAdapter.DEFAULT_LOGIN_USER)
+            .build());
+      return builder.build();
    }
 
+   private static OsFamily osFamily(Image input) {
+      if (input.getOS() == OSType.WINDOWS) {
+         return OsFamily.WINDOWS;
+      }
+      // The image only says it is a Linux one, so look for the distribution in its label
+      String label = input.getLabel().toLowerCase();
+      for (OsFamily family : OsFamily.values()) {
+         if (family != OsFamily.UNRECOGNIZED && family != OsFamily.LINUX && family != OsFamily.WINDOWS
+               && label.contains(family.value())) {
+            return family;
+         }
+      }
+      return input.getOS() == OSType.LINUX ? OsFamily.LINUX : OsFamily.UNRECOGNIZED;
+   }
 }
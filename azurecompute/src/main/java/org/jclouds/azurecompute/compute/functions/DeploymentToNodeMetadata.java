@@ -17,14 +17,110 @@
 package org.jclouds.azurecompute.compute.functions;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Singleton;
 import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.InstanceStatus;
+import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Transforms a {@link Deployment} to the jclouds portable model.
+ * <p>
+ * The deployment does not say which image it was created from nor in which location its hosted service lives, so
+ * the node has neither an image nor a location.
+ */
+@Singleton
 public class DeploymentToNodeMetadata implements Function<Deployment, NodeMetadata> {
 
-	@Override
-	public NodeMetadata apply(Deployment input) {
-		return null;
-	}
+   private final Supplier<Map<String, ? extends Hardware>> hardwares;
+   private final GroupNamingConvention groupNamingConvention;
+   private final Map<String, Credentials> credentialStore;
+
+   @Inject
+   DeploymentToNodeMetadata(Supplier<Map<String, ? extends Hardware>> hardwares,
+         GroupNamingConvention.Factory groupNamingConvention, Map<String, Credentials> credentialStore) {
+      this.hardwares = checkNotNull(hardwares, "hardwares cannot be null");
+      this.groupNamingConvention = checkNotNull(groupNamingConvention, "groupNamingConvention cannot be null")
+            .createWithoutPrefix();
+      this.credentialStore = checkNotNull(credentialStore, "credentialStore cannot be null");
+   }
+
+   @Override
+   public NodeMetadata apply(Deployment input) {
+      NodeMetadataBuilder builder = new NodeMetadataBuilder();
+      builder.ids(input.getDeploymentName());
+      builder.name(input.getDeploymentName());
+      builder.hostname(input.getInstanceName());
+      builder.group(groupNamingConvention.extractGroup(input.getDeploymentName()));
+
+      if (input.getInstanceSize() != null) {
+         Optional<? extends Hardware> hardware = findHardware(input.getInstanceSize().value());
+         if (hardware.isPresent()) {
+            builder.hardware(hardware.get());
+         }
+      }
+
+      builder.status(toPortableStatus(input.getInstanceStatus()));
+      if (input.getInstanceStatus() != null) {
+         builder.backendStatus(input.getInstanceStatus().name());
+      }
+
+      if (input.getPublicIpAddress() != null) {
+         builder.publicAddresses(ImmutableSet.of(input.getPublicIpAddress()));
+      }
+      if (input.getPrivateIpAddress() != null) {
+         builder.privateAddresses(ImmutableSet.of(input.getPrivateIpAddress()));
+      }
+
+      // Azure does not return the credentials, so return the ones the node was created with
+      Credentials credentials = credentialStore.get("node#" + input.getDeploymentName());
+      if (credentials instanceof LoginCredentials) {
+         builder.credentials(LoginCredentials.class.cast(credentials));
+      }
+
+      return builder.build();
+   }
+
+   private Optional<? extends Hardware> findHardware(final String providerId) {
+      return Iterables.tryFind(hardwares.get().values(), new Predicate<Hardware>() {
+         @Override
+         public boolean apply(Hardware input) {
+            return providerId.equals(input.getProviderId());
+         }
+      });
+   }
 
+   static Status toPortableStatus(InstanceStatus status) {
+      if (status == null) {
+         return Status.UNRECOGNIZED;
+      }
+      switch (status) {
+         case READY_ROLE:
+            return Status.RUNNING;
+         case STOPPED_V_M:
+            return Status.SUSPENDED;
+         case FAILED_STARTING_ROLE:
+         case FAILED_STARTING_V_M:
+         case UNRESPONSIVE_ROLE:
+            return Status.ERROR;
+         case ROLE_STATE_UNKNOWN:
+            return Status.UNRECOGNIZED;
+         default:
+            return Status.PENDING;
+      }
+   }
 }
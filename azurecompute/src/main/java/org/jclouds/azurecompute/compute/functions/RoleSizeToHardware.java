@@ -17,14 +17,46 @@
 package org.jclouds.azurecompute.compute.functions;
 
 import com.google.common.base.Function;
+import javax.inject.Singleton;
 import org.jclouds.azurecompute.domain.RoleSize;
 import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
 
+/**
+ * Transforms a {@link RoleSize} to the jclouds portable model.
+ * <p>
+ * The API does not describe the role sizes, so the cores and memory are the ones Azure documents for each size.
+ */
+@Singleton
 public class RoleSizeToHardware implements Function<RoleSize, Hardware> {
 
-	@Override
-	public Hardware apply(RoleSize input) {
-		return null;
-	}
-
+   @Override
+   public Hardware apply(RoleSize input) {
+      HardwareBuilder builder = new HardwareBuilder();
+      builder.ids(input.value());
+      builder.name(input.value());
+      builder.hypervisor("Hyper-V");
+      switch (input) {
+         case EXTRA_SMALL:
+            // The extra small size shares its core with other virtual machines
+            builder.processor(new Processor(1, 0.5)).ram(768);
+            break;
+         case SMALL:
+            builder.processor(new Processor(1, 1)).ram(1792);
+            break;
+         case MEDIUM:
+            builder.processor(new Processor(2, 1)).ram(3584);
+            break;
+         case LARGE:
+            builder.processor(new Processor(4, 1)).ram(7168);
+            break;
+         case EXTRA_LARGE:
+            builder.processor(new Processor(8, 1)).ram(14336);
+            break;
+         default:
+            throw new IllegalArgumentException("unknown role size " + input);
+      }
+      return builder.build();
+   }
 }
@@ -33,4 +33,17 @@ public class AzureComputeProperties {
 	 * @see <a href="http://msdn.microsoft.com/en-us/library/ee460786">docs</a>
 	 */
 	public static final String SUBSCRIPTION_ID = "jclouds.azurecompute.subscription-id";
+
+	/**
+	 * The storage account that holds the OS disks of the virtual machines
+	 * created by the compute service.
+	 */
+	public static final String STORAGE_ACCOUNT = "jclouds.azurecompute.storage-account";
+
+	/**
+	 * How long, in milliseconds, the compute service reuses the hosted service
+	 * listing and the deployments it has already fetched before asking the
+	 * management API again.
+	 */
+	public static final String DEPLOYMENT_CACHE_TTL = "jclouds.azurecompute.deployment-cache-ttl";
 }
@@ -16,6 +16,7 @@
  */
 package org.jclouds.azurecompute.suppliers;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
 import com.google.common.io.ByteSource;
@@ -47,6 +48,9 @@ import static com.google.common.base.Throwables.propagate;
 /**
  * TODO this code needs to be completely refactored. It needs to stop using KeyStore of at all possible and definitely
  * the local filesystem. Please look at oauth for examples on how to do this via PEMs.
+ * <p>
+ * The key store is built once and reused until the credentials change or, when the identity is the path to a PKCS12
+ * file, until the file is modified.
  */
 @Deprecated
 @Singleton
@@ -54,6 +58,8 @@ public class KeyStoreSupplier implements Supplier<KeyStore> {
    private final Crypto crypto;
    private final Supplier<Credentials> creds;
 
+   private volatile CachedKeyStore cached;
+
    @Inject
    KeyStoreSupplier(Crypto crypto, @Provider Supplier<Credentials> creds) {
       this.crypto = crypto;
@@ -66,10 +72,36 @@ public class KeyStoreSupplier implements Supplier<KeyStore> {
       String cert = checkNotNull(currentCreds.identity, "credential supplier returned null identity (should be cert)");
       String keyStorePassword = checkNotNull(currentCreds.credential,
             "credential supplier returned null credential (should be keyStorePassword)");
+      File certFile = new File(cert);
+      long lastModified = certFile.isFile() ? certFile.lastModified() : 0;
+
+      CachedKeyStore current = cached;
+      if (current != null && current.matches(cert, keyStorePassword, lastModified)) {
+         return current.keyStore;
+      }
+      synchronized (this) {
+         current = cached;
+         if (current == null || !current.matches(cert, keyStorePassword, lastModified)) {
+            current = new CachedKeyStore(cert, keyStorePassword, lastModified,
+                  load(cert, certFile, keyStorePassword));
+            cached = current;
+         }
+         return current.keyStore;
+      }
+   }
+
+   /**
+    * Forgets the cached key store, so the next call to {@link #get()} loads it again.
+    */
+   public void invalidate() {
+      cached = null;
+   }
+
+   @VisibleForTesting
+   KeyStore load(String cert, File certFile, String keyStorePassword) {
       try {
          KeyStore keyStore = KeyStore.getInstance("PKCS12");
 
-         File certFile = new File(checkNotNull(cert));
          if (certFile.isFile()) { // cert is path to pkcs12 file
             FileInputStream stream = new FileInputStream(certFile);
             try {
@@ -126,4 +158,23 @@ public class KeyStoreSupplier implements Supplier<KeyStore> {
          throw propagate(e);
       }
    }
+
+   private static class CachedKeyStore {
+      private final String cert;
+      private final String keyStorePassword;
+      private final long lastModified;
+      private final KeyStore keyStore;
+
+      CachedKeyStore(String cert, String keyStorePassword, long lastModified, KeyStore keyStore) {
+         this.cert = cert;
+         this.keyStorePassword = keyStorePassword;
+         this.lastModified = lastModified;
+         this.keyStore = keyStore;
+      }
+
+      boolean matches(String cert, String keyStorePassword, long lastModified) {
+         return this.cert.equals(cert) && this.keyStorePassword.equals(keyStorePassword)
+               && this.lastModified == lastModified;
+      }
+   }
 }
@@ -16,6 +16,7 @@
  */
 package org.jclouds.azurecompute.suppliers;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
@@ -39,6 +40,11 @@ import static com.google.common.base.Throwables.propagate;
 /**
  * TODO this code needs to be completely refactored. It needs to stop using KeyStore of at all possible and definitely
  * the local filesystem. Please look at oauth for examples on how to do this via PEMs.
+ * <p>
+ * The HTTP executor asks for the context on every connection and takes its socket factory, so the context is built
+ * once for each key store and password and reused. Reusing it also reuses its client session cache, which lets new
+ * connections resume the TLS session instead of doing a full handshake. A new context is built when the credentials
+ * rotate, as the {@link KeyStoreSupplier} then returns a different key store.
  */
 @Deprecated
 @Singleton
@@ -47,6 +53,8 @@ public class SSLContextWithKeysSupplier implements Supplier<SSLContext> {
    private final TrustManager[] trustManager;
    private final Supplier<Credentials> creds;
 
+   private volatile CachedContext cached;
+
    @Inject
    SSLContextWithKeysSupplier(Supplier<KeyStore> keyStore, @Provider Supplier<Credentials> creds, HttpUtils utils,
          TrustAllCerts trustAllCerts) {
@@ -60,10 +68,35 @@ public class SSLContextWithKeysSupplier implements Supplier<SSLContext> {
       Credentials currentCreds = checkNotNull(creds.get(), "credential supplier returned null");
       String keyStorePassword = checkNotNull(currentCreds.credential,
             "credential supplier returned null credential (should be keyStorePassword)");
+      KeyStore currentKeyStore = keyStore.get();
+
+      CachedContext current = cached;
+      if (current != null && current.matches(currentKeyStore, keyStorePassword)) {
+         return current.context;
+      }
+      synchronized (this) {
+         current = cached;
+         if (current == null || !current.matches(currentKeyStore, keyStorePassword)) {
+            current = new CachedContext(currentKeyStore, keyStorePassword, create(currentKeyStore, keyStorePassword));
+            cached = current;
+         }
+         return current.context;
+      }
+   }
+
+   /**
+    * Forgets the cached context, so the next call to {@link #get()} builds a new one.
+    */
+   public void invalidate() {
+      cached = null;
+   }
+
+   @VisibleForTesting
+   SSLContext create(KeyStore keyStore, String keyStorePassword) {
       KeyManagerFactory kmf;
       try {
          kmf = KeyManagerFactory.getInstance("SunX509");
-         kmf.init(keyStore.get(), keyStorePassword.toCharArray());
+         kmf.init(keyStore, keyStorePassword.toCharArray());
          SSLContext sc = SSLContext.getInstance("TLS");
          sc.init(kmf.getKeyManagers(), trustManager, new SecureRandom());
          return sc;
@@ -77,4 +110,20 @@ public class SSLContextWithKeysSupplier implements Supplier<SSLContext> {
          throw propagate(e);
       }
    }
+
+   private static class CachedContext {
+      private final KeyStore keyStore;
+      private final String keyStorePassword;
+      private final SSLContext context;
+
+      CachedContext(KeyStore keyStore, String keyStorePassword, SSLContext context) {
+         this.keyStore = keyStore;
+         this.keyStorePassword = keyStorePassword;
+         this.context = context;
+      }
+
+      boolean matches(KeyStore keyStore, String keyStorePassword) {
+         return this.keyStore == keyStore && this.keyStorePassword.equals(keyStorePassword);
+      }
+   }
 }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.net.URI;
+import org.easymock.Capture;
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.compute.functions.AzureImageToImage;
+import org.jclouds.azurecompute.compute.functions.RoleSizeToHardware;
+import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.DeploymentParams;
+import org.jclouds.azurecompute.domain.OSType;
+import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.azurecompute.features.DeploymentApi;
+import org.jclouds.azurecompute.features.HostedServiceApi;
+import org.jclouds.azurecompute.parse.GetDeploymentTest;
+import org.jclouds.azurecompute.parse.ListImagesTest;
+import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.domain.internal.TemplateImpl;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.location.suppliers.all.JustProvider;
+import org.testng.annotations.Test;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+@Test(groups = "unit", testName = "AzureComputeServiceAdapterTest")
+public class AzureComputeServiceAdapterTest {
+
+   private static final String NAME = "neotysss";
+
+   private final Timeouts timeouts = new Timeouts();
+
+   public void testCreateNode() {
+      Deployment deployment = GetDeploymentTest.expected();
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      HostedServiceApi hostedServiceApi = createMock(HostedServiceApi.class);
+      DeploymentApi deploymentApi = createMock(DeploymentApi.class);
+      OperationTracker operations = createMock(OperationTracker.class);
+      DeploymentCache deployments = createMock(DeploymentCache.class);
+      Capture<DeploymentParams> params = new Capture<DeploymentParams>();
+
+      expect(api.getHostedServiceApi()).andReturn(hostedServiceApi);
+      expect(api.getDeploymentApiForService(NAME)).andReturn(deploymentApi);
+      expect(hostedServiceApi.createServiceWithLabelInLocation(NAME, NAME, "West Europe")).andReturn("service");
+      expect(operations.await("service", timeouts.nodeRunning)).andReturn(true);
+      deployments.invalidateServiceNames();
+      expect(deploymentApi.create(capture(params))).andReturn("deployment");
+      expect(operations.await("deployment", timeouts.nodeRunning)).andReturn(true);
+      deployments.invalidate(NAME);
+      expect(deployments.get(NAME)).andReturn(deployment);
+      replay(api, hostedServiceApi, deploymentApi, operations, deployments);
+
+      NodeAndInitialCredentials<Deployment> node = adapter(api, operations, deployments)
+            .createNodeWithGroupEncodedIntoName("neotys", NAME, template());
+
+      assertThat(node.getNode()).isEqualTo(deployment);
+      assertThat(node.getNodeId()).isEqualTo(NAME);
+      assertThat(node.getCredentials().getUser()).isEqualTo(AzureComputeServiceAdapter.DEFAULT_LOGIN_USER);
+      assertThat(params.getValue().getName()).isEqualTo(NAME);
+      assertThat(params.getValue().getSourceImageName()).isEqualTo(ListImagesTest.expected().get(0).getName());
+      assertThat(params.getValue().getSize()).isEqualTo(RoleSize.MEDIUM);
+      assertThat(params.getValue().getOsType()).isEqualTo(OSType.LINUX);
+      assertThat(params.getValue().getStorageAccount()).isEqualTo("storage");
+      assertThat(params.getValue().getPassword()).isEqualTo(node.getCredentials().getOptionalPassword().get());
+      verify(api, hostedServiceApi, deploymentApi, operations, deployments);
+   }
+
+   public void testCreateNodeDeletesTheHostedServiceIfTheDeploymentFails() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      HostedServiceApi hostedServiceApi = createMock(HostedServiceApi.class);
+      DeploymentApi deploymentApi = createMock(DeploymentApi.class);
+      OperationTracker operations = createMock(OperationTracker.class);
+      DeploymentCache deployments = createMock(DeploymentCache.class);
+
+      expect(api.getHostedServiceApi()).andReturn(hostedServiceApi).times(2);
+      expect(api.getDeploymentApiForService(NAME)).andReturn(deploymentApi);
+      expect(hostedServiceApi.createServiceWithLabelInLocation(NAME, NAME, "West Europe")).andReturn("service");
+      expect(operations.await("service", timeouts.nodeRunning)).andReturn(true);
+      deployments.invalidateServiceNames();
+      expect(deploymentApi.create(anyObject(DeploymentParams.class))).andReturn("deployment");
+      expect(operations.await("deployment", timeouts.nodeRunning))
+            .andThrow(new IllegalStateException("Request deployment failed"));
+      expect(hostedServiceApi.delete(NAME)).andReturn("delete");
+      expect(operations.await("delete", timeouts.nodeTerminated)).andReturn(true);
+      deployments.invalidateServiceNames();
+      replay(api, hostedServiceApi, deploymentApi, operations, deployments);
+
+      try {
+         adapter(api, operations, deployments).createNodeWithGroupEncodedIntoName("neotys", NAME, template());
+         fail("The deployment should have failed");
+      } catch (IllegalStateException expected) {
+         assertThat(expected).hasMessage("Request deployment failed");
+      }
+      verify(api, hostedServiceApi, deploymentApi, operations, deployments);
+   }
+
+   public void testListNodes() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      OperationTracker operations = createMock(OperationTracker.class);
+      DeploymentCache deployments = createMock(DeploymentCache.class);
+
+      expect(deployments.list()).andReturn(ImmutableList.of(GetDeploymentTest.expected()));
+      expect(deployments.get(NAME)).andReturn(GetDeploymentTest.expected());
+      expect(deployments.get("missing")).andReturn(null);
+      replay(api, operations, deployments);
+
+      AzureComputeServiceAdapter adapter = adapter(api, operations, deployments);
+
+      assertThat(adapter.listNodes()).containsExactly(GetDeploymentTest.expected());
+      assertThat(adapter.listNodesByIds(ImmutableList.of(NAME, "missing")))
+            .containsExactly(GetDeploymentTest.expected());
+      verify(api, operations, deployments);
+   }
+
+   public void testDestroyNode() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      HostedServiceApi hostedServiceApi = createMock(HostedServiceApi.class);
+      DeploymentApi deploymentApi = createMock(DeploymentApi.class);
+      OperationTracker operations = createMock(OperationTracker.class);
+      DeploymentCache deployments = createMock(DeploymentCache.class);
+
+      expect(api.getDeploymentApiForService(NAME)).andReturn(deploymentApi);
+      expect(api.getHostedServiceApi()).andReturn(hostedServiceApi);
+      expect(deploymentApi.delete(NAME)).andReturn("deployment");
+      expect(operations.await("deployment", timeouts.nodeTerminated)).andReturn(true);
+      deployments.invalidate(NAME);
+      expect(hostedServiceApi.delete(NAME)).andReturn("service");
+      expect(operations.await("service", timeouts.nodeTerminated)).andReturn(true);
+      deployments.invalidateServiceNames();
+      replay(api, hostedServiceApi, deploymentApi, operations, deployments);
+
+      adapter(api, operations, deployments).destroyNode(NAME);
+
+      verify(api, hostedServiceApi, deploymentApi, operations, deployments);
+   }
+
+   private AzureComputeServiceAdapter adapter(AzureComputeApi api, OperationTracker operations,
+         DeploymentCache deployments) {
+      return new AzureComputeServiceAdapter(api, operations, deployments, timeouts, "storage");
+   }
+
+   private static Template template() {
+      JustProvider justProvider = new JustProvider("azurecompute",
+            Suppliers.ofInstance(URI.create("https://management.core.windows.net")), ImmutableSet.<String>of());
+      Location location = new LocationBuilder().id("West Europe").description("West Europe")
+            .scope(LocationScope.REGION).parent(getOnlyElement(justProvider.get())).build();
+      return new TemplateImpl(new AzureImageToImage().apply(ListImagesTest.expected().get(0)),
+            new RoleSizeToHardware().apply(RoleSize.MEDIUM), location, new TemplateOptions());
+   }
+}
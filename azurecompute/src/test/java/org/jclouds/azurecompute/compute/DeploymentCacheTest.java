@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute;
+
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.features.DeploymentApi;
+import org.jclouds.azurecompute.features.HostedServiceApi;
+import org.jclouds.azurecompute.parse.GetDeploymentTest;
+import org.jclouds.azurecompute.parse.ListHostedServicesTest;
+import org.testng.annotations.Test;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+@Test(groups = "unit", testName = "DeploymentCacheTest")
+public class DeploymentCacheTest {
+
+   public void listFetchesEachServiceOnce() {
+      Deployment deployment = GetDeploymentTest.expected();
+      HostedServiceApi hostedServiceApi = createMock(HostedServiceApi.class);
+      DeploymentApi neotys = createMock(DeploymentApi.class);
+      DeploymentApi neotys3 = createMock(DeploymentApi.class);
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+
+      expect(hostedServiceApi.list()).andReturn(ListHostedServicesTest.expected());
+      expect(neotys.get("neotys")).andReturn(deployment);
+      expect(neotys3.get("neotys3")).andReturn(null);
+      expect(api.getHostedServiceApi()).andReturn(hostedServiceApi);
+      expect(api.getDeploymentApiForService("neotys")).andReturn(neotys);
+      expect(api.getDeploymentApiForService("neotys3")).andReturn(neotys3);
+      replay(hostedServiceApi, neotys, neotys3, api);
+
+      DeploymentCache cache = new DeploymentCache(api, newDirectExecutorService(), 60000);
+
+      assertThat(cache.list()).containsExactly(deployment);
+      assertThat(cache.list()).containsExactly(deployment);
+      assertThat(cache.get("neotys")).isEqualTo(deployment);
+      assertThat(cache.get("neotys3")).isNull();
+      verify(hostedServiceApi, neotys, neotys3, api);
+   }
+
+   public void invalidateFetchesAgain() {
+      Deployment deployment = GetDeploymentTest.expected();
+      HostedServiceApi hostedServiceApi = createMock(HostedServiceApi.class);
+      DeploymentApi deploymentApi = createMock(DeploymentApi.class);
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+
+      expect(hostedServiceApi.list()).andReturn(ListHostedServicesTest.expected()).times(2);
+      expect(deploymentApi.get("neotys")).andReturn(null);
+      expect(deploymentApi.get("neotys")).andReturn(deployment);
+      expect(api.getHostedServiceApi()).andReturn(hostedServiceApi).times(2);
+      expect(api.getDeploymentApiForService("neotys")).andReturn(deploymentApi).times(2);
+      replay(hostedServiceApi, deploymentApi, api);
+
+      DeploymentCache cache = new DeploymentCache(api, newDirectExecutorService(), 60000);
+
+      assertThat(cache.serviceNames()).containsExactly("neotys", "neotys3");
+      assertThat(cache.get("neotys")).isNull();
+      cache.invalidate("neotys");
+      cache.invalidateServiceNames();
+      assertThat(cache.get("neotys")).isEqualTo(deployment);
+      assertThat(cache.serviceNames()).containsExactly("neotys", "neotys3");
+      verify(hostedServiceApi, deploymentApi, api);
+   }
+}
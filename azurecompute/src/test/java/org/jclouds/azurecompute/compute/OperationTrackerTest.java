@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jclouds.azurecompute.AzureComputeApi;
+import org.jclouds.azurecompute.domain.Error;
+import org.jclouds.azurecompute.domain.Operation;
+import org.jclouds.azurecompute.domain.Operation.Status;
+import org.jclouds.azurecompute.features.OperationApi;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+@Test(groups = "unit", testName = "OperationTrackerTest")
+public class OperationTrackerTest {
+
+   public void pollCompletesSucceededOperations() throws Exception {
+      OperationApi operationApi = createMock(OperationApi.class);
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+
+      expect(operationApi.get("request-1")).andReturn(operation("request-1", Status.SUCCEEDED));
+      expect(operationApi.get("request-2")).andReturn(operation("request-2", Status.IN_PROGRESS));
+      expect(api.getOperationApi()).andReturn(operationApi).times(2);
+      replay(operationApi, api);
+
+      OperationTracker tracker = tracker(api);
+      ListenableFuture<Operation> succeeded = tracker.track("request-1", 60000);
+      ListenableFuture<Operation> inProgress = tracker.track("request-2", 60000);
+      tracker.poll();
+
+      assertThat(succeeded.get().getId()).isEqualTo("request-1");
+      assertThat(inProgress.isDone()).isFalse();
+      assertThat(tracker.pending.keySet()).containsOnly("request-2");
+      verify(operationApi, api);
+   }
+
+   public void pollFailsFailedOperations() throws InterruptedException {
+      OperationApi operationApi = createMock(OperationApi.class);
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+
+      expect(operationApi.get("request-1")).andReturn(operation("request-1", Status.FAILED).toBuilder()
+            .error(Error.builder().code(Error.Code.RESOURCE_NOT_FOUND).rawCode("ResourceNotFound")
+                  .message("The hosted service does not exist").build()).build());
+      expect(api.getOperationApi()).andReturn(operationApi);
+      replay(operationApi, api);
+
+      OperationTracker tracker = tracker(api);
+      ListenableFuture<Operation> future = tracker.track("request-1", 60000);
+      tracker.poll();
+
+      try {
+         future.get();
+         fail("The operation should have failed");
+      } catch (ExecutionException ex) {
+         assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class)
+               .hasMessage("Request request-1 failed: The hosted service does not exist");
+      }
+      assertThat(tracker.pending).isEmpty();
+   }
+
+   public void pollFailsExpiredOperations() throws InterruptedException {
+      OperationApi operationApi = createMock(OperationApi.class);
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+
+      expect(operationApi.get("request-1")).andReturn(operation("request-1", Status.IN_PROGRESS));
+      expect(api.getOperationApi()).andReturn(operationApi);
+      replay(operationApi, api);
+
+      OperationTracker tracker = tracker(api);
+      ListenableFuture<Operation> future = tracker.track("request-1", 0);
+      Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+      tracker.poll();
+
+      try {
+         future.get();
+         fail("The operation should have timed out");
+      } catch (ExecutionException ex) {
+         assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+      }
+      assertThat(tracker.pending).isEmpty();
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   public void pollStopsWhenNothingIsPending() {
+      OperationApi operationApi = createMock(OperationApi.class);
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      ScheduledExecutorService scheduler = createMock(ScheduledExecutorService.class);
+      ScheduledFuture pollTask = createMock(ScheduledFuture.class);
+
+      expect(operationApi.get("request-1")).andReturn(operation("request-1", Status.SUCCEEDED));
+      expect(api.getOperationApi()).andReturn(operationApi);
+      expect(scheduler.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(), eq(MILLISECONDS)))
+            .andReturn(pollTask);
+      expect(pollTask.cancel(false)).andReturn(true);
+      replay(operationApi, api, scheduler, pollTask);
+
+      OperationTracker tracker = new OperationTracker(api, scheduler, new PollPeriod(), new Closer());
+      tracker.track("request-1", 60000);
+      tracker.poll();
+
+      assertThat(tracker.pending).isEmpty();
+      verify(operationApi, api, scheduler, pollTask);
+   }
+
+   public void closeFailsPendingOperations() {
+      AzureComputeApi api = createMock(AzureComputeApi.class);
+      replay(api);
+
+      OperationTracker tracker = tracker(api);
+      ListenableFuture<Operation> pending = tracker.track("request-1", 60000);
+      tracker.close();
+      ListenableFuture<Operation> afterClose = tracker.track("request-2", 60000);
+
+      assertThat(pending.isDone()).isTrue();
+      assertThat(afterClose.isDone()).isTrue();
+      assertThat(tracker.pending).isEmpty();
+   }
+
+   private static OperationTracker tracker(AzureComputeApi api) {
+      ScheduledExecutorService scheduler = createNiceMock(ScheduledExecutorService.class);
+      replay(scheduler);
+      return new OperationTracker(api, scheduler, new PollPeriod(), new Closer());
+   }
+
+   private static Operation operation(String id, Status status) {
+      return Operation.builder().id(id).rawStatus(status.value()).status(status).build();
+   }
+}
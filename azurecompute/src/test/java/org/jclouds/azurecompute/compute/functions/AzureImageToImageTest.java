@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute.functions;
+
+import java.util.List;
+import org.jclouds.azurecompute.compute.AzureComputeServiceAdapter;
+import org.jclouds.azurecompute.domain.Image;
+import org.jclouds.azurecompute.domain.OSType;
+import org.jclouds.azurecompute.parse.ListImagesTest;
+import org.jclouds.compute.domain.OsFamily;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = "unit", testName = "AzureImageToImageTest")
+public class AzureImageToImageTest {
+
+   private final AzureImageToImage function = new AzureImageToImage();
+
+   public void testConvertLinuxImage() {
+      List<Image> images = ListImagesTest.expected();
+      org.jclouds.compute.domain.Image image = function.apply(images.get(0));
+
+      assertThat(image.getId()).isEqualTo("CANONICAL__Canonical-Ubuntu-12-04-amd64-server-20120528.1.3-en-us-30GB.vhd");
+      assertThat(image.getProviderId()).isEqualTo(image.getId());
+      assertThat(image.getName()).isEqualTo("Ubuntu Server 12.04 LTS");
+      assertThat(image.getDescription()).isEqualTo("Ubuntu Server 12.04 LTS amd64 20120528 Cloud Image");
+      assertThat(image.getStatus()).isEqualTo(org.jclouds.compute.domain.Image.Status.AVAILABLE);
+      assertThat(image.getOperatingSystem().getFamily()).isEqualTo(OsFamily.UBUNTU);
+      assertThat(image.getDefaultCredentials().getUser()).isEqualTo(AzureComputeServiceAdapter.DEFAULT_LOGIN_USER);
+   }
+
+   public void testConvertWindowsImage() {
+      org.jclouds.compute.domain.Image image = function.apply(ListImagesTest.expected().get(1));
+
+      assertThat(image.getOperatingSystem().getFamily()).isEqualTo(OsFamily.WINDOWS);
+   }
+
+   public void testUnknownDistributionIsLinux() {
+      Image input = Image.builder().name("custom.vhd").label("My image").os(OSType.LINUX).build();
+
+      org.jclouds.compute.domain.Image image = function.apply(input);
+
+      assertThat(image.getOperatingSystem().getFamily()).isEqualTo(OsFamily.LINUX);
+      assertThat(image.getDescription()).isEqualTo("My image");
+   }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute.functions;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+import java.net.URI;
+import java.util.Map;
+import org.jclouds.azurecompute.AzureManagementApiMetadata;
+import org.jclouds.azurecompute.domain.Deployment;
+import org.jclouds.azurecompute.domain.DeploymentSlot;
+import org.jclouds.azurecompute.domain.DeploymentStatus;
+import org.jclouds.azurecompute.domain.InstanceStatus;
+import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = "unit", testName = "DeploymentToNodeMetadataTest")
+public class DeploymentToNodeMetadataTest {
+
+   private final Hardware medium = new RoleSizeToHardware().apply(RoleSize.MEDIUM);
+
+   private final LoginCredentials credentials = LoginCredentials.builder().user("jclouds").password("Secret1!").build();
+
+   public void testConvertDeployment() {
+      Deployment deployment = deployment("web-1a2");
+
+      NodeMetadata node = createNodeParser().apply(deployment);
+
+      assertThat(node.getId()).isEqualTo("web-1a2");
+      assertThat(node.getProviderId()).isEqualTo("web-1a2");
+      assertThat(node.getName()).isEqualTo("web-1a2");
+      assertThat(node.getHostname()).isEqualTo("neotysss");
+      assertThat(node.getGroup()).isEqualTo("web");
+      assertThat(node.getHardware()).isEqualTo(medium);
+      assertThat(node.getStatus()).isEqualTo(Status.RUNNING);
+      assertThat(node.getBackendStatus()).isEqualTo("READY_ROLE");
+      assertThat(node.getPublicAddresses()).containsExactly("168.63.27.148");
+      assertThat(node.getPrivateAddresses()).containsExactly("10.59.244.162");
+      assertThat(node.getCredentials()).isEqualTo(credentials);
+   }
+
+   public void testConvertStatus() {
+      assertThat(DeploymentToNodeMetadata.toPortableStatus(InstanceStatus.READY_ROLE)).isEqualTo(Status.RUNNING);
+      assertThat(DeploymentToNodeMetadata.toPortableStatus(InstanceStatus.STOPPED_V_M)).isEqualTo(Status.SUSPENDED);
+      assertThat(DeploymentToNodeMetadata.toPortableStatus(InstanceStatus.FAILED_STARTING_V_M))
+            .isEqualTo(Status.ERROR);
+      assertThat(DeploymentToNodeMetadata.toPortableStatus(InstanceStatus.PROVISIONING)).isEqualTo(Status.PENDING);
+      assertThat(DeploymentToNodeMetadata.toPortableStatus(InstanceStatus.ROLE_STATE_UNKNOWN))
+            .isEqualTo(Status.UNRECOGNIZED);
+      assertThat(DeploymentToNodeMetadata.toPortableStatus(null)).isEqualTo(Status.UNRECOGNIZED);
+   }
+
+   static Deployment deployment(String name) {
+      return Deployment.builder()
+         .deploymentName(name)
+         .deploymentSlot(DeploymentSlot.PRODUCTION)
+         .deploymentStatus(DeploymentStatus.RUNNING)
+         .deploymentLabel(name)
+         .deploymentURL(URI.create("http://" + name + ".cloudapp.net/"))
+         .roleName(name)
+         .instanceName("neotysss")
+         .instanceStatus(InstanceStatus.READY_ROLE)
+         .instanceSize(RoleSize.MEDIUM)
+         .privateIpAddress("10.59.244.162")
+         .publicIpAddress("168.63.27.148")
+         .build();
+   }
+
+   private DeploymentToNodeMetadata createNodeParser() {
+      Supplier<Map<String, ? extends Hardware>> hardwares = Suppliers.<Map<String, ? extends Hardware>>ofInstance(
+            ImmutableMap.of(medium.getId(), medium));
+
+      GroupNamingConvention.Factory namingConvention = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), new AzureManagementApiMetadata().getDefaultProperties());
+         }
+      }).getInstance(GroupNamingConvention.Factory.class);
+
+      return new DeploymentToNodeMetadata(hardwares, namingConvention,
+            ImmutableMap.<String, Credentials>of("node#web-1a2", credentials));
+   }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute.functions;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import java.net.URI;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.location.suppliers.all.JustProvider;
+import org.testng.annotations.Test;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Test(groups = "unit", testName = "LocationNameToLocationTest")
+public class LocationNameToLocationTest {
+
+   public void testConvertLocationName() {
+      JustProvider justProvider = new JustProvider("azurecompute",
+            Suppliers.ofInstance(URI.create("https://management.core.windows.net")), ImmutableSet.<String>of());
+
+      Location location = new LocationNameToLocation(justProvider).apply("West Europe");
+
+      assertThat(location.getId()).isEqualTo("West Europe");
+      assertThat(location.getDescription()).isEqualTo("West Europe");
+      assertThat(location.getScope()).isEqualTo(LocationScope.REGION);
+      assertThat(location.getParent()).isEqualTo(getOnlyElement(justProvider.get()));
+   }
+}
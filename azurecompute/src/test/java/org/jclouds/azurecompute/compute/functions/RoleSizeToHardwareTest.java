@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.compute.functions;
+
+import org.jclouds.azurecompute.domain.RoleSize;
+import org.jclouds.compute.domain.Hardware;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jclouds.compute.util.ComputeServiceUtils.getCores;
+
+@Test(groups = "unit", testName = "RoleSizeToHardwareTest")
+public class RoleSizeToHardwareTest {
+
+   public void testConvertRoleSize() {
+      Hardware hardware = new RoleSizeToHardware().apply(RoleSize.MEDIUM);
+
+      assertThat(hardware.getId()).isEqualTo("Medium");
+      assertThat(hardware.getProviderId()).isEqualTo("Medium");
+      assertThat(RoleSize.fromValue(hardware.getProviderId())).isEqualTo(RoleSize.MEDIUM);
+      assertThat(getCores(hardware)).isEqualTo(2.0);
+      assertThat(hardware.getRam()).isEqualTo(3584);
+   }
+
+   public void testConvertsEveryRoleSize() {
+      for (RoleSize size : RoleSize.values()) {
+         assertThat(new RoleSizeToHardware().apply(size).getRam()).isGreaterThan(0);
+      }
+   }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.suppliers;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import org.jclouds.domain.Credentials;
+import org.jclouds.encryption.internal.JCECrypto;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.config.SSLModule.TrustAllCerts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+
+/**
+ * Measures the cost of setting up a management API connection when the key store and the SSL context are rebuilt for
+ * each connection, as they used to be, and when the cached ones are reused.
+ * <p>
+ * The handshake benchmarks connect to a local server that requires a client certificate, like the management API
+ * does, so they also show the effect of resuming the TLS session from the shared context. Run it with the
+ * {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionSetupBenchmark {
+
+   private KeyStoreSupplier keyStore;
+   private SSLContextWithKeysSupplier sslContext;
+   private SSLServerSocket server;
+   private Thread acceptor;
+
+   @Setup
+   public void setup() throws Exception {
+      Supplier<Credentials> creds = Suppliers.ofInstance(new Credentials(getClass().getResource("/azure-test.p12")
+            .getFile(), "azurepass"));
+      HttpUtils utils = createNiceMock(HttpUtils.class);
+      expect(utils.trustAllCerts()).andReturn(true).anyTimes();
+      replay(utils);
+
+      TrustAllCerts trustAllCerts = new TrustAllCerts();
+      keyStore = new KeyStoreSupplier(new JCECrypto(), creds);
+      sslContext = new SSLContextWithKeysSupplier(keyStore, creds, utils, trustAllCerts);
+
+      server = (SSLServerSocket) serverContext(keyStore.get(), "azurepass", trustAllCerts).getServerSocketFactory()
+            .createServerSocket(0);
+      server.setNeedClientAuth(true);
+      acceptor = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            accept();
+         }
+      }, "benchmark-tls-server");
+      acceptor.setDaemon(true);
+      acceptor.start();
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      server.close();
+      acceptor.join();
+   }
+
+   @Benchmark
+   public SSLContext rebuildContext() {
+      keyStore.invalidate();
+      sslContext.invalidate();
+      return sslContext.get();
+   }
+
+   @Benchmark
+   public SSLContext cachedContext() {
+      return sslContext.get();
+   }
+
+   @Benchmark
+   public SSLSession rebuildContextAndHandshake() throws IOException {
+      keyStore.invalidate();
+      sslContext.invalidate();
+      return handshake(sslContext.get());
+   }
+
+   @Benchmark
+   public SSLSession cachedContextAndHandshake() throws IOException {
+      return handshake(sslContext.get());
+   }
+
+   private SSLSession handshake(SSLContext context) throws IOException {
+      SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", server.getLocalPort());
+      try {
+         socket.startHandshake();
+         // Reading the byte sent by the server also processes the session ticket of the handshake
+         socket.getInputStream().read();
+         return socket.getSession();
+      } finally {
+         socket.close();
+      }
+   }
+
+   private void accept() {
+      while (!server.isClosed()) {
+         try {
+            SSLSocket socket = (SSLSocket) server.accept();
+            try {
+               socket.startHandshake();
+               socket.getOutputStream().write(1);
+               socket.getOutputStream().flush();
+            } finally {
+               socket.close();
+            }
+         } catch (IOException ex) {
+            // Either the server socket has been closed or the handshake failed, which only affects that connection
+         }
+      }
+   }
+
+   private static SSLContext serverContext(KeyStore keyStore, String password, TrustAllCerts trustAllCerts)
+         throws GeneralSecurityException {
+      KeyManagerFactory kmf = KeyManagerFactory.getInstance("SunX509");
+      kmf.init(keyStore, password.toCharArray());
+      SSLContext context = SSLContext.getInstance("TLS");
+      context.init(kmf.getKeyManagers(), new TrustManager[] { trustAllCerts }, null);
+      return context;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder()
+            .include(ConnectionSetupBenchmark.class.getSimpleName())
+            .build()).run();
+   }
+}
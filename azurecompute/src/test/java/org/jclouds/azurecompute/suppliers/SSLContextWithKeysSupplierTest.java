@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.suppliers;
+
+import com.google.common.base.Supplier;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.security.KeyStore;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.SSLContext;
+import org.jclouds.domain.Credentials;
+import org.jclouds.encryption.internal.JCECrypto;
+import org.jclouds.http.HttpUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+
+@Test(groups = "unit", testName = "SSLContextWithKeysSupplierTest")
+public class SSLContextWithKeysSupplierTest {
+
+   private final AtomicReference<Credentials> credentials = new AtomicReference<Credentials>();
+   private KeyStoreSupplier keyStore;
+   private SSLContextWithKeysSupplier sslContext;
+
+   @BeforeMethod
+   public void setup() throws Exception {
+      credentials.set(new Credentials(getClass().getResource("/azure-test.p12").getFile(), "azurepass"));
+      Supplier<Credentials> creds = new Supplier<Credentials>() {
+         @Override
+         public Credentials get() {
+            return credentials.get();
+         }
+      };
+      HttpUtils utils = createMock(HttpUtils.class);
+      expect(utils.trustAllCerts()).andReturn(false);
+      replay(utils);
+
+      keyStore = new KeyStoreSupplier(new JCECrypto(), creds);
+      sslContext = new SSLContextWithKeysSupplier(keyStore, creds, utils, null);
+   }
+
+   public void reusesKeyStoreAndContext() {
+      KeyStore store = keyStore.get();
+      SSLContext context = sslContext.get();
+
+      assertThat(keyStore.get()).isSameAs(store);
+      assertThat(sslContext.get()).isSameAs(context);
+   }
+
+   public void rebuildsWhenCredentialsRotate() throws IOException {
+      KeyStore store = keyStore.get();
+      SSLContext context = sslContext.get();
+
+      File rotated = File.createTempFile("azure-rotated", ".p12");
+      rotated.deleteOnExit();
+      Files.copy(new File(credentials.get().identity), rotated);
+      credentials.set(new Credentials(rotated.getAbsolutePath(), "azurepass"));
+
+      assertThat(keyStore.get()).isNotSameAs(store);
+      assertThat(sslContext.get()).isNotSameAs(context);
+   }
+
+   public void rebuildsAfterInvalidate() {
+      KeyStore store = keyStore.get();
+      SSLContext context = sslContext.get();
+
+      keyStore.invalidate();
+      sslContext.invalidate();
+
+      assertThat(keyStore.get()).isNotSameAs(store);
+      assertThat(sslContext.get()).isNotSameAs(context);
+   }
+}
@@ -17,14 +17,18 @@
 package org.jclouds.cloudsigma2;
 
 import static org.jclouds.compute.config.ComputeServiceProperties.TEMPLATE;
+import static org.jclouds.reflect.Reflection2.typeToken;
 
+import java.io.File;
 import java.net.URI;
 import java.util.Properties;
 
 import org.jclouds.apis.ApiMetadata;
+import org.jclouds.cloudsigma2.compute.config.CloudSigma2ComputeServiceContextModule;
 import org.jclouds.cloudsigma2.config.CloudSigma2HttpApiModule;
 import org.jclouds.cloudsigma2.config.CloudSigma2ParserModule;
 import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
+import org.jclouds.compute.ComputeServiceContext;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 
 import com.google.common.collect.ImmutableSet;
@@ -51,6 +55,12 @@ public class CloudSigma2ApiMetadata extends BaseHttpApiMetadata<CloudSigma2Api>
    public static Properties defaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(CloudSigma2Properties.PROPERTY_VNC_PASSWORD, "IL9vs34d");
+      properties.setProperty(CloudSigma2Properties.PROPERTY_PAGE_MAX_CONCURRENCY, "4");
+      properties.setProperty(CloudSigma2Properties.PROPERTY_CREATE_MAX_CONCURRENCY, "10");
+      properties.setProperty(CloudSigma2Properties.PROPERTY_METRICS_INTERVAL, "60000");
+      properties.setProperty(CloudSigma2Properties.PROPERTY_METRICS_CAPACITY, "60");
+      properties.setProperty(CloudSigma2Properties.PROPERTY_LEDGER_DIRECTORY,
+            new File(System.getProperty("user.home"), ".jclouds/cloudsigma2-ledger").getPath());
       // passwords are set post-boot, so auth failures are possible
       // from a race condition applying the password set script
       properties.setProperty("jclouds.ssh.max-retries", "7");
@@ -73,11 +83,11 @@ public class CloudSigma2ApiMetadata extends BaseHttpApiMetadata<CloudSigma2Api>
                .version("2.0")
                .defaultEndpoint("https://zrh.cloudsigma.com/api/2.0")
                .defaultProperties(CloudSigma2ApiMetadata.defaultProperties())
-               // Uncomment once the ComputeService is implemented 
-               //.view(typeToken(ComputeServiceContext.class))
+               .view(typeToken(ComputeServiceContext.class))
                .defaultModules(ImmutableSet.<Class<? extends Module>>of(
                      CloudSigma2HttpApiModule.class,
-                     CloudSigma2ParserModule.class));
+                     CloudSigma2ParserModule.class,
+                     CloudSigma2ComputeServiceContextModule.class));
       }
 
       @Override
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.billing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.domain.Credentials;
+import org.jclouds.json.Json;
+import org.jclouds.location.Provider;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.FileWriteMode;
+import com.google.common.io.Files;
+import com.google.common.io.LineProcessor;
+
+/**
+ * Keeps the transactions in an append-only file, one JSON object per line.
+ * <p>
+ * Each account gets its own file in the {@link CloudSigma2Properties#PROPERTY_LEDGER_DIRECTORY}, named after a hash
+ * of the endpoint and the identity of the context, so contexts of different accounts never share a ledger.
+ * <p>
+ * A process killed while appending may leave the last line without its line separator. That line is incomplete,
+ * even if it can be parsed: it is ignored when reading the transactions, so it is fetched again by the next sync, and
+ * it is removed before appending new lines.
+ */
+@Singleton
+public class FileLedgerStore implements LedgerStore {
+
+   private final File file;
+   private final Json json;
+
+   @Inject
+   FileLedgerStore(@Named(CloudSigma2Properties.PROPERTY_LEDGER_DIRECTORY) String directory,
+         @Provider Supplier<URI> endpoint, @Provider Supplier<Credentials> creds, Json json) {
+      this(new File(checkNotNull(directory, "directory"), fileName(endpoint.get(), creds.get().identity)), json);
+   }
+
+   @VisibleForTesting
+   FileLedgerStore(File file, Json json) {
+      this.file = checkNotNull(file, "file");
+      this.json = checkNotNull(json, "json");
+   }
+
+   @VisibleForTesting
+   static String fileName(URI endpoint, String identity) {
+      return Hashing.sha256().hashString(endpoint + "\n" + identity, Charsets.UTF_8) + ".log";
+   }
+
+   @Override
+   public synchronized Iterable<Transaction> transactions() {
+      if (!file.exists()) {
+         return ImmutableList.of();
+      }
+      try {
+         // Only the lines that have been fully written are read
+         return Files.asByteSource(file).slice(0, completeLength()).asCharSource(Charsets.UTF_8)
+               .readLines(new LineProcessor<List<Transaction>>() {
+                  private final ImmutableList.Builder<Transaction> transactions = ImmutableList.builder();
+
+                  @Override
+                  public boolean processLine(String line) {
+                     if (!line.isEmpty()) {
+                        transactions.add(json.fromJson(line, Transaction.class));
+                     }
+                     return true;
+                  }
+
+                  @Override
+                  public List<Transaction> getResult() {
+                     return transactions.build();
+                  }
+               });
+      } catch (IOException ex) {
+         throw Throwables.propagate(ex);
+      }
+   }
+
+   @Override
+   public synchronized void append(List<Transaction> transactions) {
+      if (transactions.isEmpty()) {
+         return;
+      }
+      List<String> lines = Lists.newArrayListWithCapacity(transactions.size());
+      for (Transaction transaction : transactions) {
+         lines.add(json.toJson(transaction));
+      }
+      try {
+         removeIncompleteLine();
+         Files.createParentDirs(file);
+         Files.asCharSink(file, Charsets.UTF_8, FileWriteMode.APPEND).writeLines(lines);
+      } catch (IOException ex) {
+         throw Throwables.propagate(ex);
+      }
+   }
+
+   /**
+    * Removes the last line of the file if it was left incomplete by an interrupted append.
+    */
+   private void removeIncompleteLine() throws IOException {
+      if (!file.exists()) {
+         return;
+      }
+      long length = completeLength();
+      if (length < file.length()) {
+         RandomAccessFile raf = new RandomAccessFile(file, "rw");
+         try {
+            raf.setLength(length);
+         } finally {
+            raf.close();
+         }
+      }
+   }
+
+   /**
+    * Returns the length of the file up to the end of its last complete line. A line is only complete once its line
+    * separator has been written, even if its contents can be parsed.
+    */
+   private long completeLength() throws IOException {
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try {
+         long end = raf.length();
+         while (end > 0) {
+            raf.seek(end - 1);
+            if (raf.read() == '\n') {
+               break;
+            }
+            end--;
+         }
+         return end;
+      } finally {
+         raf.close();
+      }
+   }
+}
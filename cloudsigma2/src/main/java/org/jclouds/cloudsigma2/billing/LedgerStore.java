@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.billing;
+
+import java.util.List;
+
+import org.jclouds.cloudsigma2.domain.Transaction;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Local copy of the transactions of the ledger, kept by the {@link LedgerSync}.
+ */
+@ImplementedBy(FileLedgerStore.class)
+public interface LedgerStore {
+
+   /**
+    * @return the stored transactions, from the oldest to the newest.
+    */
+   Iterable<Transaction> transactions();
+
+   /**
+    * Stores the given transactions after the ones already stored.
+    *
+    * @param transactions the new transactions, from the oldest to the newest.
+    */
+   void append(List<Transaction> transactions);
+}
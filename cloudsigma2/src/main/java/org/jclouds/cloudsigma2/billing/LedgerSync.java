@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.billing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.domain.Subscription;
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Longs;
+
+/**
+ * Keeps a local copy of the ledger up to date and the spend per resource computed from it.
+ * <p>
+ * The ledger is listed from the newest transaction, so each {@link #sync()} only fetches pages until it reaches the
+ * newest transaction already stored, and appends the new ones to the {@link LedgerStore}. The spend of the
+ * transactions is added up per resource as they are stored, so reports do not need to read the ledger again. The
+ * subscriptions are few and change over time, so they are listed again on each sync.
+ */
+@Singleton
+public class LedgerSync {
+
+   /**
+    * The number of transactions fetched with each request.
+    */
+   @VisibleForTesting
+   static final int PAGE_SIZE = 100;
+
+   private static final Pattern BURST = Pattern.compile("^Burst: \\S+ of (\\S+) ");
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final LedgerStore store;
+
+   // Guarded by this
+   private boolean loaded;
+   private String lastTransactionId;
+   private final Map<String, Double> transactionSpend = Maps.newHashMap();
+   private Map<String, Double> subscriptionSpend = ImmutableMap.of();
+
+   @Inject
+   LedgerSync(CloudSigma2Api api, LedgerStore store) {
+      this.api = checkNotNull(api, "api");
+      this.store = checkNotNull(store, "store");
+   }
+
+   /**
+    * Fetches the transactions newer than the stored ones and the current subscriptions.
+    *
+    * @return the new transactions, from the oldest to the newest.
+    */
+   public synchronized List<Transaction> sync() {
+      load();
+      List<Transaction> newer = fetchNewer();
+      store.append(newer);
+      for (Transaction transaction : newer) {
+         add(transaction);
+      }
+      subscriptionSpend = subscriptionSpend();
+      logger.debug("<< synced %s new transactions, newest is %s", newer.size(), lastTransactionId);
+      return newer;
+   }
+
+   /**
+    * @return the amount charged by the stored transactions, by resource or, for the charges not related to a
+    *         resource, by reason.
+    */
+   public synchronized Map<String, Double> getTransactionSpend() {
+      load();
+      return ImmutableMap.copyOf(transactionSpend);
+   }
+
+   /**
+    * @return the price of the subscriptions seen in the last sync, by resource.
+    */
+   public synchronized Map<String, Double> getSubscriptionSpend() {
+      return subscriptionSpend;
+   }
+
+   /**
+    * @return the id of the newest transaction stored, or <code>null</code> if none is stored yet.
+    */
+   public synchronized String getLastTransactionId() {
+      load();
+      return lastTransactionId;
+   }
+
+   /**
+    * Reads the stored transactions once, to find the newest one and compute their spend.
+    */
+   private void load() {
+      if (!loaded) {
+         for (Transaction transaction : store.transactions()) {
+            add(transaction);
+         }
+         loaded = true;
+      }
+   }
+
+   private void add(Transaction transaction) {
+      String key = spendKey(transaction.getReason());
+      Double spend = transactionSpend.get(key);
+      transactionSpend.put(key, (spend == null ? 0 : spend) + transaction.getAmount());
+      lastTransactionId = transaction.getId();
+   }
+
+   /**
+    * Lists the ledger from the newest transaction until the last stored one.
+    */
+   private List<Transaction> fetchNewer() {
+      List<Transaction> newer = Lists.newArrayList();
+      Set<String> seen = Sets.newHashSet();
+      int offset = 0;
+      while (true) {
+         PaginatedCollection<Transaction> page = api.listTransactions(new PaginationOptions.Builder()
+               .limit(PAGE_SIZE).offset(offset).build());
+         for (Transaction transaction : page) {
+            if (!isNewer(transaction.getId())) {
+               Collections.reverse(newer);
+               return newer;
+            }
+            // New transactions shift the pages, so the same one can be listed twice
+            if (seen.add(transaction.getId())) {
+               newer.add(transaction);
+            }
+         }
+         if (!page.nextMarker().isPresent()) {
+            Collections.reverse(newer);
+            return newer;
+         }
+         offset += PAGE_SIZE;
+      }
+   }
+
+   private boolean isNewer(String id) {
+      if (lastTransactionId == null) {
+         return true;
+      }
+      Long number = Longs.tryParse(id);
+      Long last = Longs.tryParse(lastTransactionId);
+      if (number != null && last != null) {
+         return number > last;
+      }
+      return !id.equals(lastTransactionId);
+   }
+
+   private Map<String, Double> subscriptionSpend() {
+      Map<String, Double> spend = Maps.newHashMap();
+      for (Subscription subscription : api.listSubscriptions().concat()) {
+         if (subscription.getResource() == null) {
+            continue;
+         }
+         String key = subscription.getResource().value();
+         Double total = spend.get(key);
+         spend.put(key, (total == null ? 0 : total) + subscription.getPrice());
+      }
+      return ImmutableMap.copyOf(spend);
+   }
+
+   /**
+    * Returns the resource charged by a transaction, or its reason up to the first colon when it is not a burst.
+    */
+   @VisibleForTesting
+   static String spendKey(String reason) {
+      if (reason == null) {
+         return "";
+      }
+      Matcher burst = BURST.matcher(reason);
+      if (burst.find()) {
+         return burst.group(1);
+      }
+      int colon = reason.indexOf(':');
+      return (colon < 0 ? reason : reason.substring(0, colon)).trim();
+   }
+}
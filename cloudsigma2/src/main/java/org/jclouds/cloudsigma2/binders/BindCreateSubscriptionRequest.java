@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.CreateSubscriptionRequest;
 import org.jclouds.cloudsigma2.functions.CreateSubscriptionRequestToJson;
 import org.jclouds.http.HttpRequest;
@@ -24,7 +23,6 @@ import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.ws.rs.core.MediaType;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -43,10 +41,6 @@ public class BindCreateSubscriptionRequest implements Binder {
       checkArgument(input instanceof CreateSubscriptionRequest,
             "this binder is only valid for CreateSubscriptionRequest!");
       CreateSubscriptionRequest create = CreateSubscriptionRequest.class.cast(input);
-      JsonObject subscriptionObject = subscriptionRequestJsonObjectFunction.apply(create);
-
-      request.setPayload(subscriptionObject.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObject(request, subscriptionRequestJsonObjectFunction, create);
    }
 }
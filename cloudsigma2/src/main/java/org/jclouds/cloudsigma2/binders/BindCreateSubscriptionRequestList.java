@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.CreateSubscriptionRequest;
 import org.jclouds.cloudsigma2.functions.CreateSubscriptionRequestToJson;
 import org.jclouds.http.HttpRequest;
@@ -25,7 +23,6 @@ import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.ws.rs.core.MediaType;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -49,18 +46,6 @@ public class BindCreateSubscriptionRequestList implements Binder {
                "this binder is only valid for List<CreateSubscriptionRequest>!");
       }
       List<CreateSubscriptionRequest> createSubscriptionRequests = (List<CreateSubscriptionRequest>) input;
-      JsonArray subscriptionsJsonArray = new JsonArray();
-
-      for (CreateSubscriptionRequest createSubscriptionRequest : createSubscriptionRequests) {
-         JsonObject sunbscriptionRequestObject = subscriptionRequestJsonObjectFunction.apply(createSubscriptionRequest);
-         subscriptionsJsonArray.add(sunbscriptionRequestObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", subscriptionsJsonArray);
-
-      request.setPayload(json.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObjects(request, subscriptionRequestJsonObjectFunction, createSubscriptionRequests);
    }
 }
@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.DriveInfo;
 import org.jclouds.cloudsigma2.functions.DriveToJson;
 import org.jclouds.http.HttpRequest;
@@ -24,7 +23,6 @@ import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.ws.rs.core.MediaType;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -42,10 +40,6 @@ public class BindDriveToJson implements Binder {
    public <R extends HttpRequest> R bindToRequest(R request, Object payload) {
       checkArgument(payload instanceof DriveInfo, "this binder is only valid for DriveInfo!");
       DriveInfo create = DriveInfo.class.cast(payload);
-      JsonObject driveJson = createDriveRequestToJson.apply(create);
-
-      request.setPayload(driveJson.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObject(request, createDriveRequestToJson, create);
    }
 }
@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.DriveInfo;
 import org.jclouds.cloudsigma2.functions.DriveToJson;
 import org.jclouds.http.HttpRequest;
@@ -25,7 +23,6 @@ import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.ws.rs.core.MediaType;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -47,18 +44,6 @@ public class BindDrivesToJson implements Binder {
          checkArgument(o instanceof DriveInfo, "this binder is only valid for List<DriveInfo>!");
       }
       List<DriveInfo> drivesList = (List<DriveInfo>) payload;
-      JsonArray drivesJsonArray = new JsonArray();
-
-      for (DriveInfo drive : drivesList) {
-         JsonObject driveObject = createDriveRequestJson.apply(drive);
-         drivesJsonArray.add(driveObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", drivesJsonArray);
-
-      request.setPayload(json.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObjects(request, createDriveRequestJson, drivesList);
    }
 }
@@ -16,15 +16,12 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.FirewallPolicy;
 import org.jclouds.cloudsigma2.functions.FirewallPolicyToJson;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
-import javax.ws.rs.core.MediaType;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -46,18 +43,6 @@ public class BindFirewallPoliciesListToJsonRequest implements Binder {
          checkArgument(o instanceof FirewallPolicy, "this binder is only valid for List<FirewallPolicy>!");
       }
       List<FirewallPolicy> firewallPolicies = (List<FirewallPolicy>) input;
-      JsonArray firewalsJsonArray = new JsonArray();
-
-      for (FirewallPolicy firewallPolicy : firewallPolicies) {
-         JsonObject firewallObject = policyJsonObjectFunction.apply(firewallPolicy);
-         firewalsJsonArray.add(firewallObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", firewalsJsonArray);
-
-      request.setPayload(json.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObjects(request, policyJsonObjectFunction, firewallPolicies);
    }
 }
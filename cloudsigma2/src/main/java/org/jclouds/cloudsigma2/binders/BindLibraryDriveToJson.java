@@ -16,7 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonObject;
 import com.google.inject.Singleton;
 import org.jclouds.cloudsigma2.domain.LibraryDrive;
 import org.jclouds.cloudsigma2.functions.LibraryDriveToJson;
@@ -24,7 +23,6 @@ import org.jclouds.http.HttpRequest;
 import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
-import javax.ws.rs.core.MediaType;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -42,9 +40,6 @@ public class BindLibraryDriveToJson implements Binder {
    public <R extends HttpRequest> R bindToRequest(R request, Object input) {
       checkArgument(input instanceof LibraryDrive, "this binder is only valid for LibraryDrive!");
       LibraryDrive create = LibraryDrive.class.cast(input);
-      JsonObject profileInfoJsonObject = createDriveJsonObjectFunction.apply(create);
-      request.setPayload(profileInfoJsonObject.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObject(request, createDriveJsonObjectFunction, create);
    }
 }
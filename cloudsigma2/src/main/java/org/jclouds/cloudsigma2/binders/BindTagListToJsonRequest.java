@@ -16,8 +16,6 @@
  */
 package org.jclouds.cloudsigma2.binders;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.jclouds.cloudsigma2.domain.Tag;
 import org.jclouds.cloudsigma2.functions.TagToJson;
 import org.jclouds.http.HttpRequest;
@@ -25,7 +23,6 @@ import org.jclouds.rest.Binder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.ws.rs.core.MediaType;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -47,18 +44,6 @@ public class BindTagListToJsonRequest implements Binder {
          checkArgument(o instanceof Tag, "this binder is only valid for List<Tag>!");
       }
       Iterable<Tag> tags = (Iterable<Tag>) payload;
-      JsonArray tagJsonArray = new JsonArray();
-
-      for (Tag tag : tags) {
-         JsonObject driveObject = tagJsonObjectFunction.apply(tag);
-         tagJsonArray.add(driveObject);
-      }
-
-      JsonObject json = new JsonObject();
-      json.add("objects", tagJsonArray);
-
-      request.setPayload(json.toString());
-      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
-      return request;
+      return JsonPayloads.bindObjects(request, tagJsonObjectFunction, tags);
    }
 }
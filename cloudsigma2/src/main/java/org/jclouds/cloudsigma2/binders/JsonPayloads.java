@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.binders;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+import com.google.gson.stream.JsonWriter;
+import org.jclouds.cloudsigma2.functions.BaseToJson;
+import org.jclouds.http.HttpRequest;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+
+/**
+ * Writes the objects of the binders straight to the request payload.
+ */
+final class JsonPayloads {
+
+   private JsonPayloads() {
+   }
+
+   /**
+    * Sets the given object as the payload of the request.
+    */
+   static <R extends HttpRequest, T> R bindObject(R request, BaseToJson<T> toJson, T input) {
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      try {
+         JsonWriter writer = writer(payload);
+         toJson.write(writer, input);
+         writer.close();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      return setPayload(request, payload);
+   }
+
+   /**
+    * Sets the given objects as the payload of the request, in the <code>objects</code> array the bulk operations
+    * expect.
+    */
+   static <R extends HttpRequest, T> R bindObjects(R request, BaseToJson<T> toJson, Iterable<T> inputs) {
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      try {
+         JsonWriter writer = writer(payload);
+         writer.beginObject().name("objects").beginArray();
+         for (T input : inputs) {
+            toJson.write(writer, input);
+         }
+         writer.endArray().endObject();
+         writer.close();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      return setPayload(request, payload);
+   }
+
+   private static JsonWriter writer(ByteArrayOutputStream payload) {
+      return new JsonWriter(new OutputStreamWriter(payload, Charsets.UTF_8));
+   }
+
+   private static <R extends HttpRequest> R setPayload(R request, ByteArrayOutputStream payload) {
+      request.setPayload(payload.toByteArray());
+      request.getPayload().getContentMetadata().setContentType(MediaType.APPLICATION_JSON);
+      return request;
+   }
+}
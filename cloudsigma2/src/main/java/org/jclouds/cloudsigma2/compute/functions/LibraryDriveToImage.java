@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.util.ComputeServiceUtils.parseOsFamilyOrUnrecognized;
+
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.domain.LoginCredentials;
+
+import com.google.common.base.Function;
+
+/**
+ * Transforms a {@link LibraryDrive} to the jclouds portable model.
+ */
+@Singleton
+public class LibraryDriveToImage implements Function<LibraryDrive, Image> {
+
+   /**
+    * The user the preinstalled library images can be accessed with.
+    */
+   public static final String DEFAULT_LOGIN_USER = "cloudsigma";
+
+   @Override
+   public Image apply(LibraryDrive input) {
+      checkNotNull(input, "input");
+      String description = input.getDescription() != null ? input.getDescription() : input.getName();
+      OperatingSystem os = OperatingSystem.builder()
+            .family(parseOsFamilyOrUnrecognized(input.getName()))
+            .description(description)
+            .arch(input.getArch())
+            .is64Bit("64".equals(input.getArch()))
+            .build();
+
+      return new ImageBuilder()
+            .ids(input.getUuid())
+            .name(input.getName())
+            .description(description)
+            .operatingSystem(os)
+            .defaultCredentials(LoginCredentials.builder().user(DEFAULT_LOGIN_USER).build())
+            .status(toStatus(input.getStatus()))
+            .build();
+   }
+
+   private static Image.Status toStatus(DriveStatus status) {
+      if (status == null) {
+         return Image.Status.UNRECOGNIZED;
+      }
+      switch (status) {
+         case MOUNTED:
+         case UNMOUNTED:
+            return Image.Status.AVAILABLE;
+         case COPYING:
+            return Image.Status.PENDING;
+         default:
+            return Image.Status.ERROR;
+      }
+   }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.compute.strategy.CloudSigma2ComputeServiceAdapter;
+import org.jclouds.cloudsigma2.domain.NICStats;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.collect.Memoized;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Location;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * Transforms a {@link ServerInfo} to the jclouds portable model.
+ */
+@Singleton
+public class ServerInfoToNodeMetadata implements Function<ServerInfo, NodeMetadata> {
+
+   private static final BigInteger MEGABYTE = BigInteger.valueOf(1024 * 1024);
+
+   private final Function<ServerStatus, NodeMetadata.Status> toPortableStatus;
+   private final GroupNamingConvention nodeNamingConvention;
+   private final Supplier<Map<String, ? extends Image>> images;
+   private final Supplier<Set<? extends Location>> locations;
+
+   @Inject
+   ServerInfoToNodeMetadata(Function<ServerStatus, NodeMetadata.Status> toPortableStatus,
+         GroupNamingConvention.Factory namingConvention, Supplier<Map<String, ? extends Image>> images,
+         @Memoized Supplier<Set<? extends Location>> locations) {
+      this.toPortableStatus = checkNotNull(toPortableStatus, "toPortableStatus");
+      this.nodeNamingConvention = checkNotNull(namingConvention, "namingConvention").createWithoutPrefix();
+      this.images = checkNotNull(images, "images");
+      this.locations = checkNotNull(locations, "locations");
+   }
+
+   @Override
+   public NodeMetadata apply(ServerInfo input) {
+      NodeMetadataBuilder builder = new NodeMetadataBuilder()
+            .ids(input.getUuid())
+            .name(input.getName())
+            .hostname(input.getName())
+            .group(nodeNamingConvention.extractGroup(input.getName()))
+            .status(toPortableStatus.apply(input.getStatus()))
+            .hardware(toHardware(input))
+            .loginPort(22)
+            .publicAddresses(publicAddresses(input))
+            .privateAddresses(ImmutableList.<String> of())
+            .location(Iterables.getOnlyElement(locations.get()));
+
+      if (input.getMeta() != null) {
+         builder.userMetadata(input.getMeta());
+         String imageId = input.getMeta().get(CloudSigma2ComputeServiceAdapter.IMAGE_METADATA);
+         if (imageId != null) {
+            builder.imageId(imageId);
+            Image image = images.get().get(imageId);
+            if (image != null) {
+               builder.operatingSystem(image.getOperatingSystem());
+            }
+         }
+      }
+      return builder.build();
+   }
+
+   private static Hardware toHardware(ServerInfo input) {
+      int cores = input.getSmp() > 0 ? input.getSmp() : 1;
+      int ram = input.getMemory() == null ? 0 : input.getMemory().divide(MEGABYTE).intValue();
+      return new HardwareBuilder()
+            .ids(input.getCpu() + "-" + ram)
+            .ram(ram)
+            .processor(new Processor(cores, input.getCpu() / (cores * 1000.0)))
+            .build();
+   }
+
+   private static Iterable<String> publicAddresses(ServerInfo input) {
+      if (input.getRuntime() == null || input.getRuntime().getNicStats() == null) {
+         return ImmutableList.of();
+      }
+      ImmutableList.Builder<String> addresses = ImmutableList.builder();
+      for (NICStats nic : input.getRuntime().getNicStats()) {
+         if (nic.getIpV4() != null && nic.getIpV4().getUuid() != null) {
+            addresses.add(nic.getIpV4().getUuid());
+         }
+      }
+      return addresses.build();
+   }
+}
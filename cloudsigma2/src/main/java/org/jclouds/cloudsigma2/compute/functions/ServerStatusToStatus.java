@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+
+import com.google.common.base.Function;
+
+/**
+ * Transforms a {@link ServerStatus} to the jclouds portable model.
+ */
+@Singleton
+public class ServerStatusToStatus implements Function<ServerStatus, Status> {
+
+   @Override
+   public Status apply(ServerStatus status) {
+      if (status == null) {
+         return Status.UNRECOGNIZED;
+      }
+      switch (status) {
+         case RUNNING:
+            return Status.RUNNING;
+         case STARTING:
+         case STOPPING:
+            return Status.PENDING;
+         case STOPPED:
+         case PAUSED:
+            return Status.SUSPENDED;
+         case UNAVAILABLE:
+            return Status.ERROR;
+         default:
+            return Status.UNRECOGNIZED;
+      }
+   }
+}
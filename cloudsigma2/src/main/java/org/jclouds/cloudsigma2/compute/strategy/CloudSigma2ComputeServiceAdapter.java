@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.math.BigInteger;
+import java.util.Set;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.compute.functions.LibraryDriveToImage;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
+import org.jclouds.cloudsigma2.domain.DeviceEmulationType;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.IP;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.cloudsigma2.domain.MediaType;
+import org.jclouds.cloudsigma2.domain.Model;
+import org.jclouds.cloudsigma2.domain.ServerDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+
+/**
+ * Defines the connection between the {@link CloudSigma2Api} implementation and the jclouds
+ * {@link org.jclouds.compute.ComputeService}.
+ * <p>
+ * Each node is a server booting from a clone of the library drive of the image.
+ */
+@Singleton
+public class CloudSigma2ComputeServiceAdapter implements
+      ComputeServiceAdapter<ServerInfo, Hardware, LibraryDrive, Location> {
+
+   /**
+    * The server metadata key holding the id of the library drive the server was created from.
+    */
+   public static final String IMAGE_METADATA = "jclouds-image";
+
+   private static final BigInteger MEGABYTE = BigInteger.valueOf(1024 * 1024);
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final StatusPoller poller;
+   private final Timeouts timeouts;
+   private final String vncPassword;
+
+   @Inject
+   CloudSigma2ComputeServiceAdapter(CloudSigma2Api api, StatusPoller poller, Timeouts timeouts,
+         @Named(CloudSigma2Properties.PROPERTY_VNC_PASSWORD) String vncPassword) {
+      this.api = checkNotNull(api, "api");
+      this.poller = checkNotNull(poller, "poller");
+      this.timeouts = checkNotNull(timeouts, "timeouts");
+      this.vncPassword = checkNotNull(vncPassword, "vncPassword");
+   }
+
+   @Override
+   public NodeAndInitialCredentials<ServerInfo> createNodeWithGroupEncodedIntoName(String group, String name,
+         Template template) {
+      if (template instanceof ServerGroupTemplate) {
+         // Already created and started with the rest of the group
+         ServerInfo server = ServerGroupTemplate.class.cast(template).getServer(name);
+         return new NodeAndInitialCredentials<ServerInfo>(server, server.getUuid(), credentials(template));
+      }
+
+      // The clone and the start share the timeout of the node
+      long deadline = System.currentTimeMillis() + timeouts.nodeRunning;
+      String driveUuid = cloneDrive(template.getImage().getId(), name);
+      if (poller.awaitDrives(ImmutableSet.of(driveUuid), DriveStatus.UNMOUNTED, deadline).isEmpty()) {
+         api.deleteDrive(driveUuid);
+         throw new IllegalStateException(String.format("Drive %s of node %s was not cloned in time", driveUuid,
+               name));
+      }
+
+      logger.debug(">> creating server %s", name);
+      ServerInfo server;
+      try {
+         server = api.createServer(serverInfo(name, driveUuid, template));
+      } catch (RuntimeException e) {
+         try {
+            api.deleteDrive(driveUuid);
+         } catch (RuntimeException ex) {
+            logger.warn(ex, "<< could not delete drive %s", driveUuid);
+         }
+         throw e;
+      }
+      try {
+         api.startServer(server.getUuid());
+      } catch (RuntimeException e) {
+         // Deletes the drive with the server
+         try {
+            destroyNodes(ImmutableSet.of(server.getUuid()));
+         } catch (RuntimeException ex) {
+            logger.warn(ex, "<< could not destroy server %s", server.getUuid());
+         }
+         throw e;
+      }
+      ServerInfo running = poller.awaitServers(ImmutableSet.of(server.getUuid()), ServerStatus.RUNNING, deadline)
+            .get(server.getUuid());
+      if (running == null) {
+         destroyNodes(ImmutableSet.of(server.getUuid()));
+         throw new IllegalStateException(String.format("Server %s has not started correctly", server.getUuid()));
+      }
+      logger.trace("<< server(%s) %s started", running.getUuid(), name);
+      return new NodeAndInitialCredentials<ServerInfo>(running, running.getUuid(), credentials(template));
+   }
+
+   /**
+    * Clones the library drive of an image into a new drive with the given name.
+    *
+    * @return the uuid of the new drive.
+    */
+   String cloneDrive(String libraryDriveUuid, String name) {
+      logger.debug(">> cloning library drive %s for node %s", libraryDriveUuid, name);
+      LibraryDrive clone = api.cloneLibraryDrive(libraryDriveUuid, new LibraryDrive.Builder().name(name).build());
+      if (clone == null) {
+         throw new IllegalStateException(String.format("Library drive %s does not exist", libraryDriveUuid));
+      }
+      return clone.getUuid();
+   }
+
+   /**
+    * Builds the server to create for a node, booting from the given drive.
+    */
+   ServerInfo serverInfo(String name, String driveUuid, Template template) {
+      Hardware hardware = template.getHardware();
+      int cores = 0;
+      double mhz = 0;
+      for (Processor processor : hardware.getProcessors()) {
+         cores += (int) processor.getCores();
+         mhz += processor.getCores() * processor.getSpeed() * 1000;
+      }
+      return new ServerInfo.Builder()
+            .name(name)
+            .cpu((int) mhz)
+            .smp(Math.max(cores, 1))
+            .memory(BigInteger.valueOf(hardware.getRam()).multiply(MEGABYTE))
+            .vncPassword(vncPassword)
+            .drives(ImmutableList.of(new ServerDrive(1, "0:0", DeviceEmulationType.VIRTIO, driveUuid)))
+            .nics(ImmutableList.of(IP.createDHCPIPv4ConfNIC(Model.VIRTIO)))
+            .meta(ImmutableMap.of(IMAGE_METADATA, template.getImage().getId()))
+            .build();
+   }
+
+   /**
+    * Returns the credentials to access the nodes created with the given template.
+    */
+   LoginCredentials credentials(Template template) {
+      String user = template.getImage().getDefaultCredentials() != null
+            ? template.getImage().getDefaultCredentials().getUser() : LibraryDriveToImage.DEFAULT_LOGIN_USER;
+      return LoginCredentials.builder().user(user).password(vncPassword).authenticateSudo(true).build();
+   }
+
+   @Override
+   public Iterable<Hardware> listHardwareProfiles() {
+      // CPU and memory can be freely combined, so these are only some usual combinations
+      return ImmutableSet.of(
+            hardware("micro", 1, 1.0, 512),
+            hardware("small", 1, 2.0, 1024),
+            hardware("medium", 2, 2.0, 2048),
+            hardware("large", 4, 2.0, 4096));
+   }
+
+   private static Hardware hardware(String id, int cores, double speed, int ram) {
+      return new HardwareBuilder().ids(id).name(id).processor(new Processor(cores, speed)).ram(ram).build();
+   }
+
+   @Override
+   public Iterable<LibraryDrive> listImages() {
+      return api.listLibraryDrives().concat().filter(new Predicate<LibraryDrive>() {
+         @Override
+         public boolean apply(LibraryDrive input) {
+            return input.getMedia() != MediaType.CDROM;
+         }
+      });
+   }
+
+   @Override
+   public LibraryDrive getImage(String id) {
+      return api.getLibraryDrive(id);
+   }
+
+   @Override
+   public Iterable<Location> listLocations() {
+      return ImmutableSet.of();
+   }
+
+   @Override
+   public ServerInfo getNode(String id) {
+      return api.getServerInfo(id);
+   }
+
+   @Override
+   public Iterable<ServerInfo> listNodes() {
+      return api.listServersInfo().concat();
+   }
+
+   @Override
+   public Iterable<ServerInfo> listNodesByIds(Iterable<String> ids) {
+      final Set<String> wanted = ImmutableSet.copyOf(ids);
+      // A single listing is cheaper than getting each server
+      return ImmutableList.copyOf(Iterables.filter(listNodes(), new Predicate<ServerInfo>() {
+         @Override
+         public boolean apply(ServerInfo input) {
+            return wanted.contains(input.getUuid());
+         }
+      }));
+   }
+
+   @Override
+   public void destroyNode(String id) {
+      destroyNodes(ImmutableSet.of(id));
+   }
+
+   /**
+    * Destroys the given servers and their drives, stopping the running ones first. The servers and the drives are
+    * deleted with one call each.
+    */
+   public void destroyNodes(Set<String> ids) {
+      if (ids.isEmpty()) {
+         return;
+      }
+      Set<String> running = Sets.newHashSet();
+      Set<String> drives = Sets.newHashSet();
+      for (ServerInfo server : listNodesByIds(ids)) {
+         if (server.getStatus() != ServerStatus.STOPPED) {
+            running.add(server.getUuid());
+         }
+         if (server.getDrives() != null) {
+            for (ServerDrive drive : server.getDrives()) {
+               if (drive.getDriveUuid() != null) {
+                  drives.add(drive.getDriveUuid());
+               } else if (drive.getDrive() != null) {
+                  drives.add(drive.getDrive().getUuid());
+               }
+            }
+         }
+      }
+      if (!running.isEmpty()) {
+         logger.debug(">> stopping servers %s", running);
+         for (String id : running) {
+            api.stopServer(id);
+         }
+         poller.awaitServers(running, ServerStatus.STOPPED, System.currentTimeMillis() + timeouts.nodeTerminated);
+      }
+      logger.debug(">> deleting servers %s", ids);
+      api.deleteServers(ids);
+      if (!drives.isEmpty()) {
+         logger.debug(">> deleting drives %s", drives);
+         api.deleteDrives(drives);
+      }
+   }
+
+   @Override
+   public void rebootNode(String id) {
+      api.stopServer(id);
+      poller.awaitServers(ImmutableSet.of(id), ServerStatus.STOPPED,
+            System.currentTimeMillis() + timeouts.nodeSuspended);
+      api.startServer(id);
+   }
+
+   @Override
+   public void resumeNode(String id) {
+      api.startServer(id);
+   }
+
+   @Override
+   public void suspendNode(String id) {
+      api.stopServer(id);
+   }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.config.CustomizationResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Creates all the servers of a group at once before handing them to the node creations.
+ * <p>
+ * The library drive of the image is cloned for each node concurrently, with at most
+ * {@link CloudSigma2Properties#PROPERTY_CREATE_MAX_CONCURRENCY} clones at the same time, and all the servers are
+ * created with a single call. The API has no bulk start, so the servers are started concurrently in the same way.
+ * The clones and the servers are waited for with a single listing of the drives or servers on each poll, instead of
+ * polling each one of them.
+ */
+@Singleton
+public class CreateServersInGroup extends CreateNodesWithGroupEncodedIntoNameThenAddToSet {
+
+   protected final CloudSigma2Api api;
+
+   protected final CloudSigma2ComputeServiceAdapter adapter;
+
+   protected final StatusPoller poller;
+
+   protected final Timeouts timeouts;
+
+   protected final int maxConcurrency;
+
+   @Inject
+   protected CreateServersInGroup(
+         CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
+         ListNodesStrategy listNodesStrategy,
+         GroupNamingConvention.Factory namingConvention,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
+         CloudSigma2Api api, CloudSigma2ComputeServiceAdapter adapter, StatusPoller poller, Timeouts timeouts,
+         @Named(CloudSigma2Properties.PROPERTY_CREATE_MAX_CONCURRENCY) int maxConcurrency) {
+      super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, userExecutor,
+            customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
+      checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than zero");
+      this.api = checkNotNull(api, "api must not be null");
+      this.adapter = checkNotNull(adapter, "adapter must not be null");
+      this.poller = checkNotNull(poller, "poller must not be null");
+      this.timeouts = checkNotNull(timeouts, "timeouts must not be null");
+      this.maxConcurrency = maxConcurrency;
+   }
+
+   @Override
+   public Map<?, ListenableFuture<Void>> execute(String group, int count, Template template,
+         Set<NodeMetadata> goodNodes, Map<NodeMetadata, Exception> badNodes,
+         Multimap<NodeMetadata, CustomizationResponse> customizationResponses) {
+      if (count < 2) {
+         return super.execute(group, count, template, goodNodes, badNodes, customizationResponses);
+      }
+
+      Set<String> names = getNextNames(group, template, count);
+      ServerGroupTemplate groupTemplate = createServers(template, names);
+      Map<String, ListenableFuture<Void>> responses = Maps.newLinkedHashMap();
+      for (String name : names) {
+         responses.put(name, Futures.transform(createNodeInGroupWithNameAndTemplate(group, name, groupTemplate),
+               customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
+                     badNodes, customizationResponses)));
+      }
+      return responses;
+   }
+
+   /**
+    * Creates and starts a server for each name. The clones and the starts share a single deadline of
+    * {@link Timeouts#nodeRunning}.
+    *
+    * @return the template with the running server of each name, or the reason why it could not be created.
+    */
+   @VisibleForTesting
+   ServerGroupTemplate createServers(final Template template, Set<String> names) {
+      long deadline = System.currentTimeMillis() + timeouts.nodeRunning;
+      Map<String, RuntimeException> failures = Maps.newHashMap();
+      final String imageId = template.getImage().getId();
+      logger.debug(">> cloning library drive %s for %s nodes", imageId, names.size());
+      Map<String, String> drives = runConcurrently(names, new Function<String, String>() {
+         @Override
+         public String apply(String name) {
+            return adapter.cloneDrive(imageId, name);
+         }
+      }, failures);
+
+      Set<String> orphanDrives = Sets.newHashSet();
+      Map<String, DriveInfo> cloned = poller.awaitDrives(ImmutableSet.copyOf(drives.values()), DriveStatus.UNMOUNTED,
+            deadline);
+      List<ServerInfo> toCreate = Lists.newArrayList();
+      for (Map.Entry<String, String> drive : drives.entrySet()) {
+         if (cloned.containsKey(drive.getValue())) {
+            toCreate.add(adapter.serverInfo(drive.getKey(), drive.getValue(), template));
+         } else {
+            orphanDrives.add(drive.getValue());
+            failures.put(drive.getKey(), new IllegalStateException(String.format(
+                  "Drive %s of node %s was not cloned in time", drive.getValue(), drive.getKey())));
+         }
+      }
+
+      final Map<String, String> created = Maps.newHashMap();
+      if (!toCreate.isEmpty()) {
+         logger.debug(">> creating %s servers", toCreate.size());
+         try {
+            for (ServerInfo server : api.createServers(toCreate)) {
+               created.put(server.getName(), server.getUuid());
+            }
+         } catch (RuntimeException ex) {
+            logger.warn(ex, "<< could not create servers");
+            for (ServerInfo server : toCreate) {
+               failures.put(server.getName(), ex);
+            }
+         }
+         for (ServerInfo server : toCreate) {
+            if (!created.containsKey(server.getName())) {
+               orphanDrives.add(drives.get(server.getName()));
+               if (!failures.containsKey(server.getName())) {
+                  failures.put(server.getName(), new IllegalStateException(String.format(
+                        "No server was created for node %s", server.getName())));
+               }
+            }
+         }
+      }
+
+      Map<String, String> started = runConcurrently(created.keySet(), new Function<String, String>() {
+         @Override
+         public String apply(String name) {
+            api.startServer(created.get(name));
+            return created.get(name);
+         }
+      }, failures);
+
+      Set<String> notRunning = Sets.newHashSet(created.values());
+      Map<String, ServerInfo> running = poller.awaitServers(ImmutableSet.copyOf(started.values()),
+            ServerStatus.RUNNING, deadline);
+      Map<String, ServerInfo> servers = Maps.newHashMap();
+      for (Map.Entry<String, String> server : started.entrySet()) {
+         ServerInfo info = running.get(server.getValue());
+         if (info != null) {
+            servers.put(server.getKey(), info);
+            notRunning.remove(server.getValue());
+         } else {
+            failures.put(server.getKey(), new IllegalStateException(String.format(
+                  "Server %s has not started correctly", server.getValue())));
+         }
+      }
+
+      cleanUp(notRunning, orphanDrives);
+      logger.debug("<< created %s servers", servers.size());
+      return new ServerGroupTemplate(template, servers, failures);
+   }
+
+   /**
+    * Runs the given task for each name, keeping at most {@link #maxConcurrency} of them in flight.
+    *
+    * @return the result of the tasks that succeeded, by name.
+    */
+   private <T> Map<String, T> runConcurrently(Iterable<String> names, final Function<String, T> task,
+         Map<String, RuntimeException> failures) {
+      final Semaphore permits = new Semaphore(maxConcurrency);
+      Map<String, ListenableFuture<T>> futures = Maps.newLinkedHashMap();
+      for (final String name : names) {
+         permits.acquireUninterruptibly();
+         futures.put(name, userExecutor.submit(new Callable<T>() {
+            @Override
+            public T call() {
+               try {
+                  return task.apply(name);
+               } finally {
+                  permits.release();
+               }
+            }
+         }));
+      }
+
+      Map<String, T> results = Maps.newLinkedHashMap();
+      for (Map.Entry<String, ListenableFuture<T>> entry : futures.entrySet()) {
+         try {
+            results.put(entry.getKey(), Uninterruptibles.getUninterruptibly(entry.getValue()));
+         } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            failures.put(entry.getKey(), cause instanceof RuntimeException ? (RuntimeException) cause
+                  : new IllegalStateException("Could not create node " + entry.getKey(), cause));
+         }
+      }
+      return results;
+   }
+
+   /**
+    * Deletes the servers that did not start and the drives left without a server.
+    */
+   private void cleanUp(Set<String> servers, Set<String> drives) {
+      try {
+         adapter.destroyNodes(servers);
+      } catch (RuntimeException ex) {
+         logger.warn(ex, "<< could not destroy servers %s", servers);
+      }
+      if (!drives.isEmpty()) {
+         try {
+            api.deleteDrives(drives);
+         } catch (RuntimeException ex) {
+            logger.warn(ex, "<< could not delete drives %s", drives);
+         }
+      }
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.domain.Location;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * A {@link Template} implementation that carries the servers already created and started for each node of a group,
+ * so the node creations do not have to call the API again.
+ * <p>
+ * This class is not public as it is intended to be used internally.
+ *
+ * @see CreateServersInGroup
+ * @see CloudSigma2ComputeServiceAdapter
+ */
+class ServerGroupTemplate implements Template {
+
+   private final Template delegate;
+   private final Map<String, ServerInfo> servers;
+   private final Map<String, RuntimeException> failures;
+
+   ServerGroupTemplate(Template delegate, Map<String, ServerInfo> servers, Map<String, RuntimeException> failures) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.servers = ImmutableMap.copyOf(checkNotNull(servers, "servers"));
+      this.failures = ImmutableMap.copyOf(checkNotNull(failures, "failures"));
+   }
+
+   /**
+    * Returns the running server of the node with the given name.
+    *
+    * @throws RuntimeException the reason why the server of the node could not be started.
+    */
+   public ServerInfo getServer(String name) {
+      RuntimeException failure = failures.get(name);
+      if (failure != null) {
+         throw failure;
+      }
+      ServerInfo server = servers.get(name);
+      if (server == null) {
+         throw new IllegalStateException(String.format("No server was created for node %s", name));
+      }
+      return server;
+   }
+
+   // Delegate methods
+
+   @Override
+   public Image getImage() {
+      return delegate.getImage();
+   }
+
+   @Override
+   public Hardware getHardware() {
+      return delegate.getHardware();
+   }
+
+   @Override
+   public Location getLocation() {
+      return delegate.getLocation();
+   }
+
+   @Override
+   public TemplateOptions getOptions() {
+      return delegate.getOptions();
+   }
+
+   @Override
+   public ServerGroupTemplate clone() {
+      return new ServerGroupTemplate(delegate.clone(), servers, failures);
+   }
+
+   @Override
+   public String toString() {
+      return delegate.toString();
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+         return false;
+      }
+      ServerGroupTemplate that = ServerGroupTemplate.class.cast(o);
+      return delegate.equals(that.delegate) && servers.equals(that.servers);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(delegate, servers);
+   }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.Item;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Waits for drives and servers to reach a status.
+ * <p>
+ * All the resources being waited for are checked with a single listing of the drives or servers on each poll, instead
+ * of getting each one of them. The listing is paginated and its pages are fetched lazily, so each poll stops fetching
+ * pages as soon as all the pending resources have been seen; the whole account is only listed when some of them are
+ * missing, for example because they were deleted. The polling period starts at the initial {@link PollPeriod} and
+ * doubles up to the max {@link PollPeriod}.
+ * <p>
+ * The waits take an absolute deadline, so several waits of the same operation can share a single timeout.
+ */
+@Singleton
+public class StatusPoller {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final long initialPeriod;
+   private final long maxPeriod;
+
+   @Inject
+   StatusPoller(CloudSigma2Api api, PollPeriod pollPeriod) {
+      this.api = checkNotNull(api, "api");
+      this.initialPeriod = pollPeriod.pollInitialPeriod;
+      this.maxPeriod = Math.max(pollPeriod.pollInitialPeriod, pollPeriod.pollMaxPeriod);
+   }
+
+   /**
+    * Waits for the given drives to reach the given status.
+    *
+    * @param deadline the time, in milliseconds since the epoch, after which the drives are no longer waited for.
+    * @return the drives that reached the status before the deadline, by uuid.
+    */
+   public Map<String, DriveInfo> awaitDrives(Set<String> uuids, final DriveStatus status, long deadline) {
+      return await("drives", uuids, new Supplier<Iterable<DriveInfo>>() {
+         @Override
+         public Iterable<DriveInfo> get() {
+            return api.listDrivesInfo().concat();
+         }
+      }, new Predicate<DriveInfo>() {
+         @Override
+         public boolean apply(DriveInfo input) {
+            return input.getStatus() == status;
+         }
+      }, deadline);
+   }
+
+   /**
+    * Waits for the given servers to reach the given status.
+    *
+    * @param deadline the time, in milliseconds since the epoch, after which the servers are no longer waited for.
+    * @return the servers that reached the status before the deadline, by uuid.
+    */
+   public Map<String, ServerInfo> awaitServers(Set<String> uuids, final ServerStatus status, long deadline) {
+      return await("servers", uuids, new Supplier<Iterable<ServerInfo>>() {
+         @Override
+         public Iterable<ServerInfo> get() {
+            return api.listServersInfo().concat();
+         }
+      }, new Predicate<ServerInfo>() {
+         @Override
+         public boolean apply(ServerInfo input) {
+            return input.getStatus() == status;
+         }
+      }, deadline);
+   }
+
+   private <T extends Item> Map<String, T> await(String type, Set<String> uuids, Supplier<Iterable<T>> list,
+         Predicate<T> reached, long deadline) {
+      Map<String, T> done = Maps.newHashMap();
+      Set<String> pending = Sets.newHashSet(uuids);
+      long period = initialPeriod;
+      while (!pending.isEmpty()) {
+         int before = pending.size();
+         Set<String> unseen = Sets.newHashSet(pending);
+         for (T item : list.get()) {
+            if (unseen.remove(item.getUuid())) {
+               if (reached.apply(item)) {
+                  done.put(item.getUuid(), item);
+                  pending.remove(item.getUuid());
+               }
+               if (unseen.isEmpty()) {
+                  // Do not fetch the rest of the pages
+                  break;
+               }
+            }
+         }
+         logger.trace("<< %s of %s %s done", done.size(), uuids.size(), type);
+         if (pending.isEmpty()) {
+            break;
+         }
+         long remaining = deadline - System.currentTimeMillis();
+         if (remaining <= 0) {
+            logger.warn("<< %s %s still pending at the deadline", type, pending);
+            break;
+         }
+         if (pending.size() < before) {
+            period = initialPeriod;
+         }
+         Uninterruptibles.sleepUninterruptibly(Math.min(period, remaining), TimeUnit.MILLISECONDS);
+         period = Math.min(period * 2, maxPeriod);
+      }
+      return ImmutableMap.copyOf(done);
+   }
+}
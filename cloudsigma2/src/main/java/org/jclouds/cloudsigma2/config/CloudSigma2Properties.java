@@ -23,4 +23,30 @@ public class CloudSigma2Properties {
     */
    public static final String PROPERTY_VNC_PASSWORD = "jclouds.cloudsigma.vnc-password";
 
+   /**
+    * maximum number of pages of a listing fetched at the same time
+    */
+   public static final String PROPERTY_PAGE_MAX_CONCURRENCY = "jclouds.cloudsigma.page-max-concurrency";
+
+   /**
+    * maximum number of drives cloned, and servers started, at the same time when creating the nodes of a group
+    */
+   public static final String PROPERTY_CREATE_MAX_CONCURRENCY = "jclouds.cloudsigma.create-max-concurrency";
+
+   /**
+    * time in milliseconds between two samples of the server runtime counters
+    */
+   public static final String PROPERTY_METRICS_INTERVAL = "jclouds.cloudsigma.metrics.interval";
+
+   /**
+    * number of samples kept for each server
+    */
+   public static final String PROPERTY_METRICS_CAPACITY = "jclouds.cloudsigma.metrics.capacity";
+
+   /**
+    * directory of the files the transactions of the ledger are appended to by the default ledger store, one file per
+    * endpoint and identity
+    */
+   public static final String PROPERTY_LEDGER_DIRECTORY = "jclouds.cloudsigma.ledger.directory";
+
 }
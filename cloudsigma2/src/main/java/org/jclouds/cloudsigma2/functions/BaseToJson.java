@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import org.jclouds.javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Base class for the functions that encode the CloudSigma objects sent in the requests.
+ * <p>
+ * The objects are written field by field to a {@link JsonWriter}, so the binders can write them straight to the
+ * request payload without building a tree of JSON elements first.
+ */
+public abstract class BaseToJson<T> implements Function<T, JsonObject> {
+
+   /**
+    * Writes the fields of the given object, without the enclosing braces.
+    */
+   protected abstract void writeFields(JsonWriter writer, T input) throws IOException;
+
+   /**
+    * Writes the given object.
+    */
+   public void write(JsonWriter writer, T input) throws IOException {
+      writer.beginObject();
+      writeFields(writer, input);
+      writer.endObject();
+   }
+
+   @Override
+   public JsonObject apply(@Nullable T input) {
+      if (input == null) {
+         return null;
+      }
+      StringWriter json = new StringWriter();
+      try {
+         write(new JsonWriter(json), input);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      return new JsonParser().parse(json.toString()).getAsJsonObject();
+   }
+
+   protected static void writeStrings(JsonWriter writer, String name, Iterable<String> values) throws IOException {
+      writer.name(name).beginArray();
+      for (String value : values) {
+         writer.value(value);
+      }
+      writer.endArray();
+   }
+
+   protected static void writeMap(JsonWriter writer, String name, Map<String, String> values) throws IOException {
+      writer.name(name).beginObject();
+      for (Map.Entry<String, String> entry : values.entrySet()) {
+         if (entry.getValue() != null) {
+            writer.name(entry.getKey()).value(entry.getValue());
+         }
+      }
+      writer.endObject();
+   }
+}
@@ -16,35 +16,26 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.CreateSubscriptionRequest;
-import org.jclouds.javax.annotation.Nullable;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class CreateSubscriptionRequestToJson implements Function<CreateSubscriptionRequest, JsonObject> {
+public class CreateSubscriptionRequestToJson extends BaseToJson<CreateSubscriptionRequest> {
    @Override
-   public JsonObject apply(@Nullable CreateSubscriptionRequest input) {
-      if (input == null) {
-         return null;
-      }
-
-      JsonObject createSubscriptionObject = new JsonObject();
-
+   protected void writeFields(JsonWriter writer, CreateSubscriptionRequest input) throws IOException {
       if (input.getAmount() != null) {
-         createSubscriptionObject.addProperty("amount", input.getAmount());
+         writer.name("amount").value(input.getAmount());
       }
 
       if (input.getPeriod() != null) {
-         createSubscriptionObject.addProperty("period", input.getPeriod());
+         writer.name("period").value(input.getPeriod());
       }
 
       if (input.getResource() != null) {
-         createSubscriptionObject.addProperty("resource", input.getResource().value());
+         writer.name("resource").value(input.getResource().value());
       }
-
-      return createSubscriptionObject;
    }
 }
@@ -16,127 +16,123 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.IPConfiguration;
 import org.jclouds.cloudsigma2.domain.NIC;
 import org.jclouds.cloudsigma2.domain.ServerDrive;
 import org.jclouds.cloudsigma2.domain.ServerInfo;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 
 @Singleton
-public class ServerInfoToJson implements Function<ServerInfo, JsonObject> {
+public class ServerInfoToJson extends BaseToJson<ServerInfo> {
    @Override
-   public JsonObject apply(ServerInfo input) {
-      JsonObject serverObject = new JsonObject();
-
+   protected void writeFields(JsonWriter writer, ServerInfo input) throws IOException {
       if (input.getName() != null) {
-         serverObject.addProperty("name", input.getName());
+         writer.name("name").value(input.getName());
       }
 
       if (input.getCpu() > 0) {
-         serverObject.addProperty("cpu", input.getCpu());
+         writer.name("cpu").value(input.getCpu());
       }
 
       if (input.getMemory() != null) {
-         serverObject.addProperty("mem", input.getMemory().toString());
+         writer.name("mem").value(input.getMemory().toString());
       }
 
       if (input.getMeta() != null) {
-         serverObject.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeMap(writer, "meta", input.getMeta());
       }
 
       if (input.getRequirements() != null) {
-         serverObject.add("requirements", new JsonParser().parse(new Gson().toJson(input.getRequirements())));
+         writeStrings(writer, "requirements", input.getRequirements());
       }
 
       if (input.getTags() != null) {
-         serverObject.add("tags", new JsonParser().parse(new Gson().toJson(input.getTags())));
+         writeStrings(writer, "tags", input.getTags());
       }
 
       if (input.getVncPassword() != null) {
-         serverObject.addProperty("vnc_password", input.getVncPassword());
+         writer.name("vnc_password").value(input.getVncPassword());
       }
 
       if (input.getNics() != null) {
-         JsonArray nics = new JsonArray();
+         writer.name("nics").beginArray();
 
          for (NIC nic : input.getNics()) {
-            JsonObject nicObject = new JsonObject();
+            writer.beginObject();
 
             if (nic.getFirewallPolicy() != null) {
-               nicObject.addProperty("firewall_policy", nic.getFirewallPolicy().getUuid());
+               writer.name("firewall_policy").value(nic.getFirewallPolicy().getUuid());
             }
 
             if (nic.getVlan() != null) {
-               nicObject.addProperty("vlan", nic.getVlan().getUuid());
+               writer.name("vlan").value(nic.getVlan().getUuid());
             } else if (nic.getIpV4Configuration() != null) {
-               nicObject.add("ip_v4_conf", ipConfigurationToJsonObject(nic.getIpV4Configuration()));
+               writer.name("ip_v4_conf");
+               writeIpConfiguration(writer, nic.getIpV4Configuration());
 
                if (nic.getModel() != null) {
-                  nicObject.addProperty("model", nic.getModel().value());
+                  writer.name("model").value(nic.getModel().value());
                }
                if (nic.getMac() != null) {
-                  nicObject.addProperty("mac", nic.getMac());
+                  writer.name("mac").value(nic.getMac());
                }
             } else if (nic.getIpV6Configuration() != null) {
-               nicObject.add("ip_v6_conf", ipConfigurationToJsonObject(nic.getIpV6Configuration()));
+               writer.name("ip_v6_conf");
+               writeIpConfiguration(writer, nic.getIpV6Configuration());
 
                if (nic.getModel() != null) {
-                  nicObject.addProperty("model", nic.getModel().value());
+                  writer.name("model").value(nic.getModel().value());
                }
                if (nic.getMac() != null) {
-                  nicObject.addProperty("mac", nic.getMac());
+                  writer.name("mac").value(nic.getMac());
                }
             }
 
-            nics.add(nicObject);
+            writer.endObject();
          }
 
-         serverObject.add("nics", nics);
+         writer.endArray();
       }
 
       if (input.getDrives() != null) {
-         JsonArray serverDrives = new JsonArray();
+         writer.name("drives").beginArray();
 
          for (ServerDrive serverDrive : input.getDrives()) {
-            JsonObject driveObject = new JsonObject();
-            driveObject.addProperty("boot_order", serverDrive.getBootOrder());
+            writer.beginObject();
+            writer.name("boot_order").value(serverDrive.getBootOrder());
 
             if (serverDrive.getDeviceChannel() != null) {
-               driveObject.addProperty("dev_channel", serverDrive.getDeviceChannel());
+               writer.name("dev_channel").value(serverDrive.getDeviceChannel());
             }
 
             if (serverDrive.getDeviceEmulationType() != null) {
-               driveObject.addProperty("device", serverDrive.getDeviceEmulationType().value());
+               writer.name("device").value(serverDrive.getDeviceEmulationType().value());
             }
 
             if (serverDrive.getDriveUuid() != null) {
-               driveObject.addProperty("drive", serverDrive.getDriveUuid());
+               writer.name("drive").value(serverDrive.getDriveUuid());
             } else if (serverDrive.getDrive() != null) {
-               driveObject.addProperty("drive", serverDrive.getDrive().getUuid());
+               writer.name("drive").value(serverDrive.getDrive().getUuid());
             }
 
-            serverDrives.add(driveObject);
+            writer.endObject();
          }
-         serverObject.add("drives", serverDrives);
-      }
 
-      return serverObject;
+         writer.endArray();
+      }
    }
 
-   private JsonObject ipConfigurationToJsonObject(IPConfiguration ipConfiguration) {
-      JsonObject ipConfObject = new JsonObject();
+   private void writeIpConfiguration(JsonWriter writer, IPConfiguration ipConfiguration) throws IOException {
+      writer.beginObject();
       if (ipConfiguration.getConfigurationType() != null) {
-         ipConfObject.addProperty("conf", ipConfiguration.getConfigurationType().value());
+         writer.name("conf").value(ipConfiguration.getConfigurationType().value());
       }
       if (ipConfiguration.getIp() != null) {
-         ipConfObject.addProperty("ip", ipConfiguration.getIp().getUuid());
+         writer.name("ip").value(ipConfiguration.getIp().getUuid());
       }
-      return ipConfObject;
+      writer.endObject();
    }
 }
@@ -16,29 +16,18 @@
  */
 package org.jclouds.cloudsigma2.functions;
 
-import com.google.common.base.Function;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.inject.Singleton;
+import com.google.gson.stream.JsonWriter;
 import org.jclouds.cloudsigma2.domain.VLANInfo;
-import org.jclouds.javax.annotation.Nullable;
 
-@Singleton
-public class VLANInfoToJson implements Function<VLANInfo, JsonObject> {
+import javax.inject.Singleton;
+import java.io.IOException;
 
+@Singleton
+public class VLANInfoToJson extends BaseToJson<VLANInfo> {
    @Override
-   public JsonObject apply(@Nullable VLANInfo input) {
-      if (input == null) {
-         return null;
-      }
-
-      JsonObject vlanObject = new JsonObject();
-
+   protected void writeFields(JsonWriter writer, VLANInfo input) throws IOException {
       if (input.getMeta() != null) {
-         vlanObject.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+         writeMap(writer, "meta", input.getMeta());
       }
-
-      return vlanObject;
    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions.internal;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.internal.ArgsToPagedIterable;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Pages through a listing using the total count returned with the first page.
+ * <p>
+ * As the offsets of all the remaining pages are known once the first page has been read, they are fetched
+ * concurrently, keeping at most <code>maxConcurrency</code> requests in flight ahead of the consumer. Pages are
+ * still returned in offset order.
+ */
+public abstract class ArgsToParallelPagedIterable<T, I extends ArgsToParallelPagedIterable<T, I>>
+      extends ArgsToPagedIterable<T, I> {
+
+   private final ListeningExecutorService userExecutor;
+   private final int maxConcurrency;
+   private GeneratedHttpRequest request;
+
+   protected ArgsToParallelPagedIterable(ListeningExecutorService userExecutor, int maxConcurrency) {
+      checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than zero");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.maxConcurrency = maxConcurrency;
+   }
+
+   @Override
+   public PagedIterable<T> apply(IterableWithMarker<T> input) {
+      if (!(input instanceof PaginatedCollection) || !input.nextMarker().isPresent()) {
+         return super.apply(input);
+      }
+      final IterableWithMarker<T> first = input;
+      final List<PaginationOptions> remaining = remainingPages(
+            PaginatedCollection.class.cast(input).getPaginationOptions());
+      final Function<Object, IterableWithMarker<T>> markerToNext = markerToNextForArgs(getArgs(request));
+      return new PagedIterable<T>() {
+         @Override
+         public Iterator<IterableWithMarker<T>> iterator() {
+            return new PageIterator(first, remaining.iterator(), markerToNext);
+         }
+      };
+   }
+
+   @Override
+   public I setContext(HttpRequest request) {
+      this.request = GeneratedHttpRequest.class.cast(request);
+      return super.setContext(request);
+   }
+
+   /**
+    * Returns the options to fetch each page after the given one, up to the total count.
+    */
+   static List<PaginationOptions> remainingPages(PaginationOptions first) {
+      ImmutableList.Builder<PaginationOptions> pages = ImmutableList.builder();
+      for (int offset = first.getOffset() + first.getLimit(); offset < first.getTotalCount();
+           offset += first.getLimit()) {
+         pages.add(new PaginationOptions.Builder().limit(first.getLimit()).offset(offset).build());
+      }
+      return pages.build();
+   }
+
+   private class PageIterator extends AbstractIterator<IterableWithMarker<T>> {
+      private final Iterator<PaginationOptions> remaining;
+      private final Function<Object, IterableWithMarker<T>> markerToNext;
+      private final Deque<ListenableFuture<IterableWithMarker<T>>> inFlight = Lists.newLinkedList();
+      private IterableWithMarker<T> first;
+
+      PageIterator(IterableWithMarker<T> first, Iterator<PaginationOptions> remaining,
+            Function<Object, IterableWithMarker<T>> markerToNext) {
+         this.first = first;
+         this.remaining = remaining;
+         this.markerToNext = markerToNext;
+      }
+
+      @Override
+      protected IterableWithMarker<T> computeNext() {
+         fill();
+         if (first != null) {
+            IterableWithMarker<T> page = first;
+            first = null;
+            return page;
+         }
+         if (inFlight.isEmpty()) {
+            return endOfData();
+         }
+         ListenableFuture<IterableWithMarker<T>> next = inFlight.poll();
+         // Request the page that takes its place before waiting for it, so maxConcurrency requests stay ahead
+         fill();
+         try {
+            return Uninterruptibles.getUninterruptibly(next);
+         } catch (ExecutionException e) {
+            for (ListenableFuture<IterableWithMarker<T>> future : inFlight) {
+               future.cancel(true);
+            }
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+
+      /**
+       * Keeps the window of requests full.
+       */
+      private void fill() {
+         while (inFlight.size() < maxConcurrency && remaining.hasNext()) {
+            final PaginationOptions page = remaining.next();
+            inFlight.add(userExecutor.submit(new Callable<IterableWithMarker<T>>() {
+               @Override
+               public IterableWithMarker<T> call() {
+                  return markerToNext.apply(page);
+               }
+            }));
+         }
+      }
+   }
+}
@@ -17,17 +17,20 @@
 package org.jclouds.cloudsigma2.functions.internal;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.TypeLiteral;
+import org.jclouds.Constants;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
 import org.jclouds.cloudsigma2.domain.DriveInfo;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
 import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
 import java.util.List;
@@ -48,12 +51,15 @@ public class ParseDriveInfos extends ParseJson<ParseDriveInfos.DriveInfos> {
       super(json, TypeLiteral.get(DriveInfos.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<DriveInfo, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToParallelPagedIterable<DriveInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(CloudSigma2Properties.PROPERTY_PAGE_MAX_CONCURRENCY) int maxConcurrency) {
+         super(userExecutor, maxConcurrency);
          this.api = api;
       }
 
@@ -17,17 +17,20 @@
 package org.jclouds.cloudsigma2.functions.internal;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.TypeLiteral;
+import org.jclouds.Constants;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
 import org.jclouds.cloudsigma2.domain.FirewallPolicy;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
 import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.beans.ConstructorProperties;
 import java.util.List;
@@ -47,12 +50,15 @@ public class ParseFirewallPolicies extends ParseJson<ParseFirewallPolicies.Firew
       super(json, TypeLiteral.get(FirewallPolicies.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<FirewallPolicy, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToParallelPagedIterable<FirewallPolicy, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(CloudSigma2Properties.PROPERTY_PAGE_MAX_CONCURRENCY) int maxConcurrency) {
+         super(userExecutor, maxConcurrency);
          this.api = api;
       }
 
@@ -68,12 +74,15 @@ public class ParseFirewallPolicies extends ParseJson<ParseFirewallPolicies.Firew
       }
    }
 
-   public static class ToPagedIterableInfo extends ArgsToPagedIterable<FirewallPolicy, ToPagedIterable> {
+   public static class ToPagedIterableInfo extends ArgsToParallelPagedIterable<FirewallPolicy, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterableInfo(CloudSigma2Api api) {
+      public ToPagedIterableInfo(CloudSigma2Api api,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(CloudSigma2Properties.PROPERTY_PAGE_MAX_CONCURRENCY) int maxConcurrency) {
+         super(userExecutor, maxConcurrency);
          this.api = api;
       }
 
@@ -17,15 +17,18 @@
 package org.jclouds.cloudsigma2.functions.internal;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Named;
+import org.jclouds.Constants;
 import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
 import org.jclouds.cloudsigma2.domain.IPInfo;
 import org.jclouds.cloudsigma2.domain.PaginatedCollection;
 import org.jclouds.cloudsigma2.options.PaginationOptions;
 import org.jclouds.collect.IterableWithMarker;
-import org.jclouds.collect.internal.ArgsToPagedIterable;
 import org.jclouds.http.functions.ParseJson;
 import org.jclouds.json.Json;
 
@@ -47,12 +50,15 @@ public class ParseIPInfos extends ParseJson<ParseIPInfos.IPInfos> {
       super(json, TypeLiteral.get(IPInfos.class));
    }
 
-   public static class ToPagedIterable extends ArgsToPagedIterable<IPInfo, ToPagedIterable> {
+   public static class ToPagedIterable extends ArgsToParallelPagedIterable<IPInfo, ToPagedIterable> {
 
       private CloudSigma2Api api;
 
       @Inject
-      public ToPagedIterable(CloudSigma2Api api) {
+      public ToPagedIterable(CloudSigma2Api api,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(CloudSigma2Properties.PROPERTY_PAGE_MAX_CONCURRENCY) int maxConcurrency) {
+         super(userExecutor, maxConcurrency);
          this.api = api;
       }
 
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Keeps the last rates computed from the counters of a server in fixed-size primitive arrays, overwriting the oldest
+ * sample once full.
+ * <p>
+ * This class is not public as it is intended to be used internally.
+ */
+final class RateRingBuffer {
+
+   private static final int COUNTERS = NetworkCounter.values().length;
+
+   private final long[] timestamps;
+   private final double[][] rates;
+   private final long[] lastCounters = new long[COUNTERS];
+   private long lastTimestamp = -1;
+   private int next;
+   private int size;
+
+   RateRingBuffer(int capacity) {
+      checkArgument(capacity > 0, "capacity must be greater than zero");
+      this.timestamps = new long[capacity];
+      this.rates = new double[COUNTERS][capacity];
+   }
+
+   /**
+    * Records the counters read at the given time. A rate sample is added from the difference with the previous
+    * counters, so the first call only sets the baseline.
+    *
+    * @param counters the value of each {@link NetworkCounter}, negative if it was not reported.
+    */
+   synchronized void record(long timestamp, long[] counters) {
+      checkArgument(counters.length == COUNTERS, "expected %s counters", COUNTERS);
+      if (lastTimestamp >= 0 && timestamp > lastTimestamp) {
+         double seconds = (timestamp - lastTimestamp) / 1000.0;
+         timestamps[next] = timestamp;
+         for (int i = 0; i < COUNTERS; i++) {
+            long delta = counters[i] - lastCounters[i];
+            rates[i][next] = counters[i] < 0 || lastCounters[i] < 0 || delta < 0 ? Double.NaN : delta / seconds;
+         }
+         next = (next + 1) % timestamps.length;
+         size = Math.min(size + 1, timestamps.length);
+      }
+      lastTimestamp = timestamp;
+      System.arraycopy(counters, 0, lastCounters, 0, COUNTERS);
+   }
+
+   /**
+    * Copies the samples in chronological order.
+    */
+   synchronized RateSeries snapshot() {
+      int first = (next - size + timestamps.length) % timestamps.length;
+      long[] timestampsCopy = new long[size];
+      double[][] ratesCopy = new double[COUNTERS][size];
+      for (int i = 0; i < size; i++) {
+         int slot = (first + i) % timestamps.length;
+         timestampsCopy[i] = timestamps[slot];
+         for (int c = 0; c < COUNTERS; c++) {
+            ratesCopy[c][i] = rates[c][slot];
+         }
+      }
+      return new RateSeries(timestampsCopy, ratesCopy);
+   }
+}
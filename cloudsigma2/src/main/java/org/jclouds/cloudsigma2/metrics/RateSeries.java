@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.metrics;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An immutable snapshot of the rates sampled for a server, from the oldest to the newest sample.
+ * <p>
+ * Rates are expressed per second and are {@link Double#NaN} when the counter was not reported or went backwards, as
+ * happens when the server is restarted.
+ */
+public final class RateSeries {
+
+   private final long[] timestamps;
+   private final double[][] rates;
+
+   RateSeries(long[] timestamps, double[][] rates) {
+      this.timestamps = checkNotNull(timestamps, "timestamps");
+      this.rates = checkNotNull(rates, "rates");
+   }
+
+   /**
+    * @return the number of samples in the series.
+    */
+   public int size() {
+      return timestamps.length;
+   }
+
+   /**
+    * @return the time in milliseconds the given sample was taken at.
+    */
+   public long getTimestamp(int index) {
+      checkElementIndex(index, timestamps.length);
+      return timestamps[index];
+   }
+
+   /**
+    * @return the rate of the given counter in the given sample.
+    */
+   public double getRate(NetworkCounter counter, int index) {
+      checkElementIndex(index, timestamps.length);
+      return rates[counter.ordinal()][index];
+   }
+
+   /**
+    * @return the rate of the given counter in the newest sample, or {@link Double#NaN} if there are no samples.
+    */
+   public double getLatestRate(NetworkCounter counter) {
+      return timestamps.length == 0 ? Double.NaN : rates[counter.ordinal()][timestamps.length - 1];
+   }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.config.CloudSigma2Properties;
+import org.jclouds.cloudsigma2.domain.NICStats;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Samples the NIC counters of all the servers and keeps the rates computed from them.
+ * <p>
+ * Each sweep reads the runtime of every server with a single paginated listing of the servers, and only the last
+ * {@link CloudSigma2Properties#PROPERTY_METRICS_CAPACITY} rates of each server are kept, in primitive arrays, instead
+ * of the server details. Sampling starts with {@link #start()}, which also registers the sampler in the platform
+ * MBean server.
+ */
+@Singleton
+public class ServerMetricsSampler implements ServerMetricsSamplerMXBean, Closeable {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CloudSigma2Api api;
+   private final ScheduledExecutorService scheduler;
+   private final long intervalMillis;
+   private final int capacity;
+   private final ObjectName objectName;
+
+   @VisibleForTesting
+   final ConcurrentMap<String, RateRingBuffer> buffers = Maps.newConcurrentMap();
+
+   private volatile long lastSampleTime = -1;
+
+   // Guarded by this
+   private ScheduledFuture<?> sampling;
+
+   @Inject
+   ServerMetricsSampler(CloudSigma2Api api, @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(CloudSigma2Properties.PROPERTY_METRICS_INTERVAL) long intervalMillis,
+         @Named(CloudSigma2Properties.PROPERTY_METRICS_CAPACITY) int capacity,
+         @Provider Supplier<URI> endpoint, Closer closer) {
+      checkArgument(intervalMillis > 0, "intervalMillis must be greater than zero");
+      checkArgument(capacity > 0, "capacity must be greater than zero");
+      this.api = checkNotNull(api, "api");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.intervalMillis = intervalMillis;
+      this.capacity = capacity;
+      this.objectName = objectName(endpoint.get());
+      closer.addToClose(this);
+   }
+
+   /**
+    * Starts sampling the servers periodically, if not started yet.
+    */
+   public synchronized void start() {
+      if (sampling != null) {
+         return;
+      }
+      sampling = scheduler.scheduleAtFixedRate(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               sample();
+            } catch (RuntimeException ex) {
+               // Do not let the failure cancel the next sweeps
+               logger.warn(ex, "<< could not sample the server metrics");
+            }
+         }
+      }, 0, intervalMillis, MILLISECONDS);
+      register();
+   }
+
+   /**
+    * Stops sampling the servers. The samples already taken are kept.
+    */
+   @Override
+   public synchronized void close() {
+      if (sampling != null) {
+         sampling.cancel(false);
+         sampling = null;
+         unregister();
+      }
+   }
+
+   /**
+    * Reads the counters of all the servers and records them, forgetting the servers that no longer exist.
+    */
+   @VisibleForTesting
+   void sample() {
+      Set<String> listed = Sets.newHashSet();
+      for (ServerInfo server : api.listServersInfo().concat()) {
+         listed.add(server.getUuid());
+         if (server.getRuntime() == null || server.getRuntime().getNicStats() == null) {
+            continue;
+         }
+         RateRingBuffer buffer = buffers.get(server.getUuid());
+         if (buffer == null) {
+            RateRingBuffer created = new RateRingBuffer(capacity);
+            buffer = buffers.putIfAbsent(server.getUuid(), created);
+            if (buffer == null) {
+               buffer = created;
+            }
+         }
+         buffer.record(System.currentTimeMillis(), counters(server.getRuntime().getNicStats()));
+      }
+      buffers.keySet().retainAll(listed);
+      lastSampleTime = System.currentTimeMillis();
+      logger.trace("<< sampled the metrics of %s servers", buffers.size());
+   }
+
+   /**
+    * Adds up the counters of all the NICs of a server.
+    */
+   @VisibleForTesting
+   static long[] counters(Iterable<NICStats> nics) {
+      long[] counters = new long[NetworkCounter.values().length];
+      Arrays.fill(counters, -1);
+      for (NICStats nic : nics) {
+         if (nic.getIoStats() == null) {
+            continue;
+         }
+         add(counters, NetworkCounter.BYTES_RECEIVED, nic.getIoStats().getBytesReceived());
+         add(counters, NetworkCounter.BYTES_SENT, nic.getIoStats().getBytesSent());
+         add(counters, NetworkCounter.PACKETS_RECEIVED, nic.getIoStats().getPacketsReceived());
+         add(counters, NetworkCounter.PACKETS_SENT, nic.getIoStats().getPacketsSent());
+      }
+      return counters;
+   }
+
+   private static void add(long[] counters, NetworkCounter counter, String value) {
+      if (value == null) {
+         return;
+      }
+      try {
+         long parsed = Long.parseLong(value);
+         int i = counter.ordinal();
+         counters[i] = counters[i] < 0 ? parsed : counters[i] + parsed;
+      } catch (NumberFormatException ex) {
+         // Leave the counter as not reported
+      }
+   }
+
+   /**
+    * @return the rates sampled for the given server, or <code>null</code> if it has not been sampled.
+    */
+   public RateSeries getRates(String serverUuid) {
+      RateRingBuffer buffer = buffers.get(serverUuid);
+      return buffer == null ? null : buffer.snapshot();
+   }
+
+   @Override
+   public String[] getServerUuids() {
+      return ImmutableSet.copyOf(buffers.keySet()).toArray(new String[0]);
+   }
+
+   @Override
+   public long getLastSampleTime() {
+      return lastSampleTime;
+   }
+
+   @Override
+   public long getIntervalMillis() {
+      return intervalMillis;
+   }
+
+   @Override
+   public double[] getLatestRates(String serverUuid) {
+      RateSeries rates = getRates(serverUuid);
+      if (rates == null || rates.size() == 0) {
+         return new double[0];
+      }
+      double[] latest = new double[NetworkCounter.values().length];
+      for (NetworkCounter counter : NetworkCounter.values()) {
+         latest[counter.ordinal()] = rates.getLatestRate(counter);
+      }
+      return latest;
+   }
+
+   private static ObjectName objectName(URI endpoint) {
+      try {
+         return new ObjectName("org.jclouds:type=cloudsigma2-metrics,name=" + ObjectName.quote(endpoint.toString()));
+      } catch (JMException ex) {
+         throw new IllegalArgumentException("Invalid endpoint " + endpoint, ex);
+      }
+   }
+
+   private void register() {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      try {
+         if (!server.isRegistered(objectName)) {
+            server.registerMBean(this, objectName);
+         }
+      } catch (JMException ex) {
+         logger.warn(ex, "<< could not register %s", objectName);
+      }
+   }
+
+   private void unregister() {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      try {
+         if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+         }
+      } catch (JMException ex) {
+         logger.warn(ex, "<< could not unregister %s", objectName);
+      }
+   }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.metrics;
+
+/**
+ * Exposes the rates sampled by the {@link ServerMetricsSampler} through JMX.
+ */
+public interface ServerMetricsSamplerMXBean {
+
+   /**
+    * @return the uuids of the servers with samples.
+    */
+   String[] getServerUuids();
+
+   /**
+    * @return the time in milliseconds of the last sweep, or -1 if none completed yet.
+    */
+   long getLastSampleTime();
+
+   /**
+    * @return the time in milliseconds between two sweeps.
+    */
+   long getIntervalMillis();
+
+   /**
+    * @return the newest rate of each {@link NetworkCounter} of the given server, in declaration order, or an empty
+    *         array if the server has no samples.
+    */
+   double[] getLatestRates(String serverUuid);
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.billing;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+
+import org.jclouds.cloudsigma2.config.CloudSigma2ParserModule;
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+import com.google.inject.Guice;
+
+/**
+ * Unit tests for the {@link FileLedgerStore} class.
+ */
+@Test(groups = "unit", testName = "FileLedgerStoreTest", singleThreaded = true)
+public class FileLedgerStoreTest {
+
+   private static final Json JSON = Guice.createInjector(new GsonModule(), new CloudSigma2ParserModule())
+         .getInstance(Json.class);
+
+   private File directory;
+
+   @BeforeMethod
+   public void setUp() {
+      directory = Files.createTempDir();
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      for (File file : Files.fileTreeTraverser().postOrderTraversal(directory)) {
+         file.delete();
+      }
+   }
+
+   public void testMissingFileIsEmpty() {
+      FileLedgerStore store = new FileLedgerStore(new File(directory, "ledger.log"), JSON);
+
+      assertTrue(Iterables.isEmpty(store.transactions()));
+   }
+
+   public void testAppendedTransactionsAreReadBackInOrder() {
+      File path = new File(directory, "nested/ledger.log");
+      Transaction first = new Transaction.Builder().id("1").amount(0.5).billingCycle(68844).initial(10).end(9.5)
+            .reason("Burst: 10 of dssd for 300 seconds").time(new Date(1373356194000L)).build();
+      Transaction second = new Transaction.Builder().id("2").amount(1.5).reason("Subscription: cpu").build();
+
+      new FileLedgerStore(path, JSON).append(ImmutableList.of(first));
+      new FileLedgerStore(path, JSON).append(ImmutableList.of(second));
+      List<Transaction> read = ImmutableList.copyOf(new FileLedgerStore(path, JSON).transactions());
+
+      assertEquals(read.size(), 2);
+      assertEquals(read.get(0).getId(), "1");
+      assertEquals(read.get(0).getAmount(), 0.5);
+      assertEquals(read.get(0).getBillingCycle(), 68844);
+      assertEquals(read.get(0).getReason(), first.getReason());
+      assertEquals(read.get(0).getTime(), first.getTime());
+      assertEquals(read.get(1).getId(), "2");
+   }
+
+   public void testTruncatedLastLineIsIgnoredAndRemovedOnAppend() throws Exception {
+      File path = new File(directory, "ledger.log");
+      Transaction first = new Transaction.Builder().id("1").amount(0.5).reason("Subscription: cpu").build();
+      Transaction second = new Transaction.Builder().id("2").amount(1.5).reason("Subscription: mem").build();
+      new FileLedgerStore(path, JSON).append(ImmutableList.of(first));
+      // An append interrupted in the middle of a line
+      Files.append("{\"id\":\"2\",\"amo", path, Charsets.UTF_8);
+
+      List<Transaction> read = ImmutableList.copyOf(new FileLedgerStore(path, JSON).transactions());
+      assertEquals(read.size(), 1);
+      assertEquals(read.get(0).getId(), "1");
+
+      new FileLedgerStore(path, JSON).append(ImmutableList.of(second));
+      read = ImmutableList.copyOf(new FileLedgerStore(path, JSON).transactions());
+      assertEquals(read.size(), 2);
+      assertEquals(read.get(0).getId(), "1");
+      assertEquals(read.get(1).getId(), "2");
+   }
+
+   public void testLastLineWithoutSeparatorIsIncompleteEvenIfItParses() throws Exception {
+      File path = new File(directory, "ledger.log");
+      Transaction first = new Transaction.Builder().id("1").amount(0.5).reason("Subscription: cpu").build();
+      Transaction second = new Transaction.Builder().id("2").amount(1.5).reason("Subscription: mem").build();
+      new FileLedgerStore(path, JSON).append(ImmutableList.of(first));
+      // An append interrupted right before the line separator
+      Files.append(JSON.toJson(second), path, Charsets.UTF_8);
+
+      // Not read, so the next sync fetches it again instead of moving past it
+      List<Transaction> read = ImmutableList.copyOf(new FileLedgerStore(path, JSON).transactions());
+      assertEquals(read.size(), 1);
+      assertEquals(read.get(0).getId(), "1");
+
+      new FileLedgerStore(path, JSON).append(ImmutableList.of(second));
+      read = ImmutableList.copyOf(new FileLedgerStore(path, JSON).transactions());
+      assertEquals(read.size(), 2);
+      assertEquals(read.get(0).getId(), "1");
+      assertEquals(read.get(1).getId(), "2");
+   }
+
+   public void testFileNameIsKeyedByEndpointAndIdentity() {
+      URI endpoint = URI.create("https://zrh.cloudsigma.com/api/2.0");
+      String name = FileLedgerStore.fileName(endpoint, "user@example.com");
+
+      assertEquals(FileLedgerStore.fileName(endpoint, "user@example.com"), name);
+      assertNotEquals(FileLedgerStore.fileName(endpoint, "other@example.com"), name);
+      assertNotEquals(FileLedgerStore.fileName(URI.create("https://lvs.cloudsigma.com/api/2.0"),
+            "user@example.com"), name);
+   }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.billing;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.domain.Subscription;
+import org.jclouds.cloudsigma2.domain.Transaction;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterables;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for the {@link LedgerSync} class.
+ */
+@Test(groups = "unit", testName = "LedgerSyncTest")
+public class LedgerSyncTest {
+
+   private static class InMemoryLedgerStore implements LedgerStore {
+      private final List<Transaction> transactions = Lists.newArrayList();
+
+      @Override
+      public Iterable<Transaction> transactions() {
+         return ImmutableList.copyOf(transactions);
+      }
+
+      @Override
+      public void append(List<Transaction> transactions) {
+         this.transactions.addAll(transactions);
+      }
+   }
+
+   public void testFirstSyncFetchesTheWholeLedger() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      int total = LedgerSync.PAGE_SIZE + 1;
+      expect(api.listTransactions(page(0))).andReturn(ledger(0, total,
+            transaction("3", 1.0, "Burst: 10 of dssd for 300 seconds"),
+            transaction("2", 2.0, "Burst: 10 of cpu for 300 seconds")));
+      expect(api.listTransactions(page(LedgerSync.PAGE_SIZE))).andReturn(ledger(LedgerSync.PAGE_SIZE, total,
+            transaction("1", 4.0, "Burst: 10 of dssd for 300 seconds")));
+      expect(api.listSubscriptions()).andReturn(PagedIterables.onlyPage(
+            IterableWithMarkers.from(ImmutableList.<Subscription> of())));
+      replay(api);
+
+      InMemoryLedgerStore store = new InMemoryLedgerStore();
+      LedgerSync sync = new LedgerSync(api, store);
+      List<Transaction> synced = sync.sync();
+
+      assertEquals(ids(synced), ImmutableList.of("1", "2", "3"));
+      assertEquals(ids(store.transactions), ImmutableList.of("1", "2", "3"));
+      assertEquals(sync.getLastTransactionId(), "3");
+      assertEquals(sync.getTransactionSpend(), ImmutableMap.of("dssd", 5.0, "cpu", 2.0));
+      verify(api);
+   }
+
+   public void testSyncStopsAtTheLastStoredTransaction() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listTransactions(page(0))).andReturn(ledger(0, 300, transaction("4", 1.0, "Subscription: 1 cpu"),
+            transaction("3", 1.0, "Subscription: 1 cpu"), transaction("2", 1.0, "Subscription: 1 cpu")));
+      expect(api.listSubscriptions()).andReturn(PagedIterables.onlyPage(
+            IterableWithMarkers.from(ImmutableList.<Subscription> of())));
+      replay(api);
+
+      InMemoryLedgerStore store = new InMemoryLedgerStore();
+      store.append(ImmutableList.of(transaction("1", 1.0, "Subscription: 1 cpu"),
+            transaction("2", 1.0, "Subscription: 1 cpu")));
+      LedgerSync sync = new LedgerSync(api, store);
+
+      assertEquals(ids(sync.sync()), ImmutableList.of("3", "4"));
+      assertEquals(ids(store.transactions), ImmutableList.of("1", "2", "3", "4"));
+      assertEquals(sync.getTransactionSpend(), ImmutableMap.of("Subscription", 4.0));
+      verify(api);
+   }
+
+   public void testSpendKey() {
+      assertEquals(LedgerSync.spendKey("Burst: 57783091200 of dssd for 299 seconds at 2013-07-09 07:49:06+00:00"),
+            "dssd");
+      assertEquals(LedgerSync.spendKey("Subscription: 1 GHz of cpu"), "Subscription");
+      assertEquals(LedgerSync.spendKey("Refund"), "Refund");
+      assertEquals(LedgerSync.spendKey(null), "");
+   }
+
+   private static PaginationOptions page(int offset) {
+      return new PaginationOptions.Builder().limit(LedgerSync.PAGE_SIZE).offset(offset).build();
+   }
+
+   private static PaginatedCollection<Transaction> ledger(int offset, int total, Transaction... transactions) {
+      return new PaginatedCollection<Transaction>(ImmutableList.copyOf(transactions),
+            new PaginationOptions(LedgerSync.PAGE_SIZE, offset, total));
+   }
+
+   private static Transaction transaction(String id, double amount, String reason) {
+      return new Transaction.Builder().id(id).amount(amount).reason(reason).build();
+   }
+
+   private static List<String> ids(List<Transaction> transactions) {
+      List<String> ids = Lists.newArrayList();
+      for (Transaction transaction : transactions) {
+         ids.add(transaction.getId());
+      }
+      return ids;
+   }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.binders;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jclouds.cloudsigma2.domain.DeviceEmulationType;
+import org.jclouds.cloudsigma2.domain.Drive;
+import org.jclouds.cloudsigma2.domain.Model;
+import org.jclouds.cloudsigma2.domain.NIC;
+import org.jclouds.cloudsigma2.domain.ServerDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.VLANInfo;
+import org.jclouds.cloudsigma2.functions.ServerInfoToJson;
+import org.jclouds.http.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of binding <code>createServers</code> requests with the JSON tree that was built for each
+ * server, and with the servers written straight to the payload by {@link BindServerInfoListToJsonRequest}.
+ * <p>
+ * Run it with the {@link #main(String[])} method, which also reports the allocation rate of each path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateServersBindingBenchmark {
+
+   @Param({ "1", "1000" })
+   public int servers;
+
+   private List<ServerInfo> serverInfos;
+   private BindServerInfoListToJsonRequest binder;
+
+   @Setup
+   public void setup() {
+      binder = new BindServerInfoListToJsonRequest(new ServerInfoToJson());
+
+      ImmutableList.Builder<ServerInfo> builder = ImmutableList.builder();
+      for (int i = 0; i < servers; i++) {
+         builder.add(new ServerInfo.Builder()
+               .cpu(1000)
+               .memory(new BigInteger("268435456"))
+               .meta(ImmutableMap.of("description", "server " + i, "ssh_public_key", "ssh-rsa AAAAB3NzaC1yc2E"))
+               .requirements(ImmutableList.<String> of())
+               .tags(ImmutableList.of("benchmark", "group-" + i % 10))
+               .vncPassword("tester")
+               .nics(ImmutableList.of(new NIC.Builder()
+                     .model(Model.VIRTIO)
+                     .vlan(new VLANInfo.Builder().uuid("5bc05e7e-6555-4f40-add8-3b8e91447702").build())
+                     .build()))
+               .drives(ImmutableList.of(new ServerDrive.Builder()
+                     .bootOrder(1)
+                     .deviceChannel("0:0")
+                     .deviceEmulationType(DeviceEmulationType.VIRTIO)
+                     .drive(new Drive.Builder().uuid("ae78e68c-9daa-4471-8878-0bb87fa80260").build())
+                     .build()))
+               .name("server-" + i)
+               .build());
+      }
+      serverInfos = builder.build();
+   }
+
+   @Benchmark
+   public HttpRequest bindWithTree() {
+      JsonArray serversJsonArray = new JsonArray();
+      for (ServerInfo serverInfo : serverInfos) {
+         serversJsonArray.add(treeServerInfoToJson(serverInfo));
+      }
+      JsonObject json = new JsonObject();
+      json.add("objects", serversJsonArray);
+
+      HttpRequest request = createServersRequest();
+      request.setPayload(json.toString());
+      return request;
+   }
+
+   @Benchmark
+   public HttpRequest bindWithWriter() {
+      return binder.bindToRequest(createServersRequest(), serverInfos);
+   }
+
+   private static HttpRequest createServersRequest() {
+      return HttpRequest.builder().method("POST").endpoint("https://zrh.cloudsigma.com/api/2.0/servers/").build();
+   }
+
+   /**
+    * The fields written by the tree based function, as it was before it was replaced by the streaming one.
+    */
+   private static JsonObject treeServerInfoToJson(ServerInfo input) {
+      JsonObject serverObject = new JsonObject();
+      serverObject.addProperty("name", input.getName());
+      serverObject.addProperty("cpu", input.getCpu());
+      serverObject.addProperty("mem", input.getMemory().toString());
+      serverObject.add("meta", new JsonParser().parse(new Gson().toJson(input.getMeta())));
+      serverObject.add("requirements", new JsonParser().parse(new Gson().toJson(input.getRequirements())));
+      serverObject.add("tags", new JsonParser().parse(new Gson().toJson(input.getTags())));
+      serverObject.addProperty("vnc_password", input.getVncPassword());
+
+      JsonArray nics = new JsonArray();
+      for (NIC nic : input.getNics()) {
+         JsonObject nicObject = new JsonObject();
+         nicObject.addProperty("vlan", nic.getVlan().getUuid());
+         nics.add(nicObject);
+      }
+      serverObject.add("nics", nics);
+
+      JsonArray serverDrives = new JsonArray();
+      for (ServerDrive serverDrive : input.getDrives()) {
+         JsonObject driveObject = new JsonObject();
+         driveObject.addProperty("boot_order", serverDrive.getBootOrder());
+         driveObject.addProperty("dev_channel", serverDrive.getDeviceChannel());
+         driveObject.addProperty("device", serverDrive.getDeviceEmulationType().value());
+         driveObject.addProperty("drive", serverDrive.getDrive().getUuid());
+         serverDrives.add(driveObject);
+      }
+      serverObject.add("drives", serverDrives);
+      return serverObject;
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder()
+            .include(CreateServersBindingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+   }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link ServerStatusToStatus} class.
+ */
+@Test(groups = "unit", testName = "ServerStatusToStatusTest")
+public class ServerStatusToStatusTest {
+
+   private final ServerStatusToStatus function = new ServerStatusToStatus();
+
+   public void testAllStatusesAreMapped() {
+      for (ServerStatus status : ServerStatus.values()) {
+         function.apply(status);
+      }
+   }
+
+   public void testStatuses() {
+      assertEquals(function.apply(ServerStatus.RUNNING), Status.RUNNING);
+      assertEquals(function.apply(ServerStatus.STARTING), Status.PENDING);
+      assertEquals(function.apply(ServerStatus.STOPPED), Status.SUSPENDED);
+      assertEquals(function.apply(ServerStatus.UNAVAILABLE), Status.ERROR);
+      assertEquals(function.apply(ServerStatus.UNRECOGNIZED), Status.UNRECOGNIZED);
+      assertEquals(function.apply(null), Status.UNRECOGNIZED);
+   }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.DeviceEmulationType;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.cloudsigma2.domain.ServerDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link CloudSigma2ComputeServiceAdapter} class.
+ */
+@Test(groups = "unit", testName = "CloudSigma2ComputeServiceAdapterTest")
+public class CloudSigma2ComputeServiceAdapterTest {
+
+   public void testDestroyNodesStopsTheRunningServersAndDeletesEverythingAtOnce() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(page(server("s1", "d1", ServerStatus.RUNNING),
+            server("s2", "d2", ServerStatus.STOPPED), server("s3", "d3", ServerStatus.RUNNING)));
+      api.stopServer("s1");
+      expect(api.listServersInfo()).andReturn(page(server("s1", "d1", ServerStatus.STOPPED)));
+      api.deleteServers(ImmutableSet.of("s1", "s2"));
+      api.deleteDrives(ImmutableSet.of("d1", "d2"));
+      replay(api);
+
+      adapter(api).destroyNodes(ImmutableSet.of("s1", "s2"));
+
+      verify(api);
+   }
+
+   public void testDestroyNothingDoesNotCallTheApi() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      replay(api);
+
+      adapter(api).destroyNodes(ImmutableSet.<String> of());
+
+      verify(api);
+   }
+
+   public void testFailedServerCreationDeletesTheClonedDrive() {
+      IllegalStateException failure = new IllegalStateException("quota exceeded");
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d1"));
+      expect(api.listDrivesInfo()).andReturn(page(drive("d1", DriveStatus.UNMOUNTED)));
+      expect(api.createServer(anyObject(ServerInfo.class))).andThrow(failure);
+      api.deleteDrive("d1");
+      replay(api);
+
+      try {
+         adapter(api).createNodeWithGroupEncodedIntoName("group", "group-1", template());
+         fail("the server creation should have failed");
+      } catch (IllegalStateException ex) {
+         assertSame(ex, failure);
+      }
+      verify(api);
+   }
+
+   public void testFailedServerStartDestroysTheServerAndItsDrive() {
+      IllegalStateException failure = new IllegalStateException("not enough resources");
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d1"));
+      expect(api.listDrivesInfo()).andReturn(page(drive("d1", DriveStatus.UNMOUNTED)));
+      expect(api.createServer(anyObject(ServerInfo.class))).andReturn(server("s1", "d1", ServerStatus.STOPPED));
+      api.startServer("s1");
+      expectLastCall().andThrow(failure);
+      expect(api.listServersInfo()).andReturn(page(server("s1", "d1", ServerStatus.STOPPED)));
+      api.deleteServers(ImmutableSet.of("s1"));
+      api.deleteDrives(ImmutableSet.of("d1"));
+      replay(api);
+
+      try {
+         adapter(api).createNodeWithGroupEncodedIntoName("group", "group-1", template());
+         fail("the server start should have failed");
+      } catch (IllegalStateException ex) {
+         assertSame(ex, failure);
+      }
+      verify(api);
+   }
+
+   private static CloudSigma2ComputeServiceAdapter adapter(CloudSigma2Api api) {
+      PollPeriod pollPeriod = new PollPeriod();
+      pollPeriod.pollInitialPeriod = 1;
+      pollPeriod.pollMaxPeriod = 2;
+      return new CloudSigma2ComputeServiceAdapter(api, new StatusPoller(api, pollPeriod), new Timeouts(),
+            "vncpassword");
+   }
+
+   private static Template template() {
+      Image image = new ImageBuilder().ids("library").operatingSystem(OperatingSystem.builder()
+            .description("ubuntu").build()).status(Image.Status.AVAILABLE).build();
+      Hardware hardware = new HardwareBuilder().ids("micro").processor(new Processor(1, 1.0)).ram(512).build();
+      Template template = createMock(Template.class);
+      expect(template.getImage()).andStubReturn(image);
+      expect(template.getHardware()).andStubReturn(hardware);
+      replay(template);
+      return template;
+   }
+
+   private static LibraryDrive libraryDrive(String uuid) {
+      return new LibraryDrive.Builder().uuid(uuid).name(uuid).build();
+   }
+
+   private static DriveInfo drive(String uuid, DriveStatus status) {
+      return new DriveInfo.Builder().uuid(uuid).name(uuid).status(status).build();
+   }
+
+   private static <T> PagedIterable<T> page(T... items) {
+      return PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.copyOf(items)));
+   }
+
+   private static ServerInfo server(String uuid, String driveUuid, ServerStatus status) {
+      return new ServerInfo.Builder().uuid(uuid).name(uuid).status(status)
+            .drives(ImmutableList.of(new ServerDrive(1, "0:0", DeviceEmulationType.VIRTIO, driveUuid))).build();
+   }
+}
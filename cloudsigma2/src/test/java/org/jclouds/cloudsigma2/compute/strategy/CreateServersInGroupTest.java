@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.LibraryDrive;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link CreateServersInGroup} class.
+ */
+@Test(groups = "unit", testName = "CreateServersInGroupTest")
+public class CreateServersInGroupTest {
+
+   public void testPartialCloneFailure() {
+      IllegalStateException cloneFailure = new IllegalStateException("clone failed");
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d1"));
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andThrow(cloneFailure);
+      expect(api.listDrivesInfo()).andReturn(page(drive("d1", DriveStatus.UNMOUNTED)));
+      expect(api.createServers(anyObject(List.class))).andReturn(ImmutableList.of(server("s1", "group-1",
+            ServerStatus.STOPPED)));
+      api.startServer("s1");
+      expect(api.listServersInfo()).andReturn(page(server("s1", "group-1", ServerStatus.RUNNING)));
+      replay(api);
+
+      ServerGroupTemplate template = strategy(api).createServers(template(), ImmutableSet.of("group-1", "group-2"));
+
+      assertEquals(template.getServer("group-1").getUuid(), "s1");
+      assertFails(template, "group-2", cloneFailure);
+      verify(api);
+   }
+
+   public void testFailedCreationDeletesTheClonedDrives() {
+      IllegalStateException createFailure = new IllegalStateException("create failed");
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d1"));
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d2"));
+      expect(api.listDrivesInfo()).andReturn(page(drive("d1", DriveStatus.UNMOUNTED),
+            drive("d2", DriveStatus.UNMOUNTED)));
+      expect(api.createServers(anyObject(List.class))).andThrow(createFailure);
+      api.deleteDrives(ImmutableSet.of("d1", "d2"));
+      replay(api);
+
+      ServerGroupTemplate template = strategy(api).createServers(template(), ImmutableSet.of("group-1", "group-2"));
+
+      assertFails(template, "group-1", createFailure);
+      assertFails(template, "group-2", createFailure);
+      verify(api);
+   }
+
+   public void testServerThatDoesNotStartIsDestroyed() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d1"));
+      expect(api.cloneLibraryDrive(eq("library"), anyObject(LibraryDrive.class))).andReturn(libraryDrive("d2"));
+      expect(api.listDrivesInfo()).andReturn(page(drive("d1", DriveStatus.UNMOUNTED),
+            drive("d2", DriveStatus.UNMOUNTED)));
+      expect(api.createServers(anyObject(List.class))).andReturn(ImmutableList.of(
+            server("s1", "group-1", ServerStatus.STOPPED), server("s2", "group-2", ServerStatus.STOPPED)));
+      api.startServer("s1");
+      api.startServer("s2");
+      // The deadline has already passed when the servers are polled
+      expect(api.listServersInfo()).andReturn(page(server("s1", "group-1", ServerStatus.RUNNING),
+            server("s2", "group-2", ServerStatus.STARTING)));
+      // Destroy the server that did not start
+      expect(api.listServersInfo()).andReturn(page(server("s2", "group-2", ServerStatus.STARTING)));
+      api.stopServer("s2");
+      expect(api.listServersInfo()).andReturn(page(server("s2", "group-2", ServerStatus.STOPPED)));
+      api.deleteServers(ImmutableSet.of("s2"));
+      replay(api);
+
+      Timeouts timeouts = new Timeouts();
+      timeouts.nodeRunning = 0;
+      ServerGroupTemplate template = strategy(api, timeouts).createServers(template(),
+            ImmutableSet.of("group-1", "group-2"));
+
+      assertEquals(template.getServer("group-1").getUuid(), "s1");
+      try {
+         template.getServer("group-2");
+         fail("the server of group-2 should have failed");
+      } catch (IllegalStateException expected) {
+      }
+      verify(api);
+   }
+
+   private static CreateServersInGroup strategy(CloudSigma2Api api) {
+      return strategy(api, new Timeouts());
+   }
+
+   private static CreateServersInGroup strategy(CloudSigma2Api api, Timeouts timeouts) {
+      PollPeriod pollPeriod = new PollPeriod();
+      pollPeriod.pollInitialPeriod = 1;
+      pollPeriod.pollMaxPeriod = 2;
+      StatusPoller poller = new StatusPoller(api, pollPeriod);
+      CloudSigma2ComputeServiceAdapter adapter = new CloudSigma2ComputeServiceAdapter(api, poller, timeouts,
+            "vncpassword");
+      return new CreateServersInGroup(createMock(CreateNodeWithGroupEncodedIntoName.class),
+            createMock(ListNodesStrategy.class), createMock(GroupNamingConvention.Factory.class),
+            newDirectExecutorService(), createMock(CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory.class),
+            api, adapter, poller, timeouts, 2);
+   }
+
+   private static Template template() {
+      Image image = new ImageBuilder().ids("library").operatingSystem(OperatingSystem.builder()
+            .description("ubuntu").build()).status(Image.Status.AVAILABLE).build();
+      Hardware hardware = new HardwareBuilder().ids("micro").processor(new Processor(1, 1.0)).ram(512).build();
+      Template template = createMock(Template.class);
+      expect(template.getImage()).andStubReturn(image);
+      expect(template.getHardware()).andStubReturn(hardware);
+      replay(template);
+      return template;
+   }
+
+   private static void assertFails(ServerGroupTemplate template, String name, RuntimeException failure) {
+      try {
+         template.getServer(name);
+         fail("the server of " + name + " should have failed");
+      } catch (RuntimeException ex) {
+         assertSame(ex, failure);
+      }
+   }
+
+   private static <T> PagedIterable<T> page(T... items) {
+      return PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.copyOf(items)));
+   }
+
+   private static LibraryDrive libraryDrive(String uuid) {
+      return new LibraryDrive.Builder().uuid(uuid).name(uuid).build();
+   }
+
+   private static DriveInfo drive(String uuid, DriveStatus status) {
+      return new DriveInfo.Builder().uuid(uuid).name(uuid).status(status).build();
+   }
+
+   private static ServerInfo server(String uuid, String name, ServerStatus status) {
+      return new ServerInfo.Builder().uuid(uuid).name(name).status(status).build();
+   }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.DriveInfo;
+import org.jclouds.cloudsigma2.domain.DriveStatus;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerStatus;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link StatusPoller} class.
+ */
+@Test(groups = "unit", testName = "StatusPollerTest")
+public class StatusPollerTest {
+
+   public void testAwaitServersPollsAllServersTogether() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(page(server("a", ServerStatus.STARTING),
+            server("b", ServerStatus.RUNNING), server("c", ServerStatus.STARTING)));
+      expect(api.listServersInfo()).andReturn(page(server("a", ServerStatus.RUNNING),
+            server("b", ServerStatus.RUNNING), server("c", ServerStatus.STARTING)));
+      replay(api);
+
+      Map<String, ServerInfo> running = poller(api).awaitServers(ImmutableSet.of("a", "b"), ServerStatus.RUNNING,
+            inAMinute());
+
+      assertEquals(running.keySet(), ImmutableSet.of("a", "b"));
+      assertEquals(running.get("a").getStatus(), ServerStatus.RUNNING);
+      verify(api);
+   }
+
+   public void testAwaitDrivesReturnsTheDrivesDoneBeforeTheTimeout() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listDrivesInfo()).andReturn(page(drive("a", DriveStatus.UNMOUNTED), drive("b", DriveStatus.COPYING)));
+      replay(api);
+
+      Map<String, DriveInfo> cloned = poller(api).awaitDrives(ImmutableSet.of("a", "b"), DriveStatus.UNMOUNTED,
+            System.currentTimeMillis());
+
+      assertEquals(cloned.keySet(), ImmutableSet.of("a"));
+      verify(api);
+   }
+
+   public void testAwaitNothingDoesNotList() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      replay(api);
+
+      assertTrue(poller(api).awaitServers(ImmutableSet.<String> of(), ServerStatus.RUNNING, inAMinute())
+            .isEmpty());
+      verify(api);
+   }
+
+   public void testAwaitStopsListingOnceAllPendingServersAreSeen() {
+      IterableWithMarker<ServerInfo> firstPage = IterableWithMarkers.from(
+            ImmutableList.of(server("a", ServerStatus.RUNNING), server("b", ServerStatus.RUNNING)), "next");
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(PagedIterables.advance(firstPage,
+            new Function<Object, IterableWithMarker<ServerInfo>>() {
+               @Override
+               public IterableWithMarker<ServerInfo> apply(Object marker) {
+                  throw new AssertionError("the next page should not have been fetched");
+               }
+            }));
+      replay(api);
+
+      Map<String, ServerInfo> running = poller(api).awaitServers(ImmutableSet.of("a", "b"), ServerStatus.RUNNING,
+            inAMinute());
+
+      assertEquals(running.keySet(), ImmutableSet.of("a", "b"));
+      verify(api);
+   }
+
+   private static long inAMinute() {
+      return System.currentTimeMillis() + 60000;
+   }
+
+   private static StatusPoller poller(CloudSigma2Api api) {
+      PollPeriod pollPeriod = new PollPeriod();
+      pollPeriod.pollInitialPeriod = 1;
+      pollPeriod.pollMaxPeriod = 2;
+      return new StatusPoller(api, pollPeriod);
+   }
+
+   private static <T> PagedIterable<T> page(T... items) {
+      return PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.copyOf(items)));
+   }
+
+   private static ServerInfo server(String uuid, ServerStatus status) {
+      return new ServerInfo.Builder().uuid(uuid).name(uuid).status(status).build();
+   }
+
+   private static DriveInfo drive(String uuid, DriveStatus status) {
+      return new DriveInfo.Builder().uuid(uuid).name(uuid).status(status).build();
+   }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.functions.internal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.jclouds.cloudsigma2.domain.PaginatedCollection;
+import org.jclouds.cloudsigma2.options.PaginationOptions;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+@Test(groups = "unit", testName = "ArgsToParallelPagedIterableTest")
+public class ArgsToParallelPagedIterableTest {
+
+   private static final int TOTAL_COUNT = 7;
+
+   private static class ToPagedIterable extends ArgsToParallelPagedIterable<Integer, ToPagedIterable> {
+      private final List<PaginationOptions> requested = Lists.newArrayList();
+
+      ToPagedIterable(int maxConcurrency) {
+         super(MoreExecutors.sameThreadExecutor(), maxConcurrency);
+      }
+
+      @Override
+      protected List<Object> getArgs(GeneratedHttpRequest request) {
+         return ImmutableList.of();
+      }
+
+      @Override
+      protected Function<Object, IterableWithMarker<Integer>> markerToNextForArgs(List<Object> args) {
+         return new Function<Object, IterableWithMarker<Integer>>() {
+            @Override
+            public IterableWithMarker<Integer> apply(Object input) {
+               PaginationOptions options = PaginationOptions.class.cast(input);
+               requested.add(options);
+               return page(options.getOffset(), options.getLimit());
+            }
+         };
+      }
+   }
+
+   private static PaginatedCollection<Integer> page(int offset, int limit) {
+      ImmutableList.Builder<Integer> objects = ImmutableList.builder();
+      for (int i = offset; i < Math.min(offset + limit, TOTAL_COUNT); i++) {
+         objects.add(i);
+      }
+      return new PaginatedCollection<Integer>(objects.build(), new PaginationOptions(limit, offset, TOTAL_COUNT));
+   }
+
+   public void testRemainingPages() {
+      List<PaginationOptions> pages = ArgsToParallelPagedIterable.remainingPages(
+            new PaginationOptions(2, 0, TOTAL_COUNT));
+
+      Assert.assertEquals(pages, ImmutableList.of(
+            new PaginationOptions.Builder().limit(2).offset(2).build(),
+            new PaginationOptions.Builder().limit(2).offset(4).build(),
+            new PaginationOptions.Builder().limit(2).offset(6).build()));
+   }
+
+   public void testYieldsAllElementsInOrder() {
+      ToPagedIterable function = new ToPagedIterable(2);
+
+      PagedIterable<Integer> pages = function.apply(page(0, 2));
+
+      Assert.assertEquals(pages.concat().toList(), ImmutableList.of(0, 1, 2, 3, 4, 5, 6));
+      Assert.assertEquals(function.requested.size(), 3);
+   }
+
+   public void testKeepsAtMostMaxConcurrencyPagesAhead() {
+      ToPagedIterable function = new ToPagedIterable(2);
+
+      Iterator<IterableWithMarker<Integer>> pages = function.apply(page(0, 2)).iterator();
+
+      Assert.assertEquals(ImmutableList.copyOf(pages.next()), ImmutableList.of(0, 1));
+      Assert.assertEquals(function.requested.size(), 2);
+      Assert.assertEquals(ImmutableList.copyOf(pages.next()), ImmutableList.of(2, 3));
+      Assert.assertEquals(function.requested.size(), 3);
+   }
+
+   public void testSinglePageIsNotFetchedAgain() {
+      ToPagedIterable function = new ToPagedIterable(2);
+
+      PagedIterable<Integer> pages = function.apply(page(0, 20));
+
+      Assert.assertEquals(pages.concat().toList(), ImmutableList.of(0, 1, 2, 3, 4, 5, 6));
+      Assert.assertTrue(function.requested.isEmpty());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testPropagatesPageFailure() {
+      ToPagedIterable function = new ToPagedIterable(2) {
+         @Override
+         protected Function<Object, IterableWithMarker<Integer>> markerToNextForArgs(List<Object> args) {
+            return new Function<Object, IterableWithMarker<Integer>>() {
+               @Override
+               public IterableWithMarker<Integer> apply(Object input) {
+                  throw new IllegalStateException("page failed");
+               }
+            };
+         }
+      };
+
+      function.apply(page(0, 2)).concat().toList();
+   }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link RateRingBuffer} class.
+ */
+@Test(groups = "unit", testName = "RateRingBufferTest")
+public class RateRingBufferTest {
+
+   public void testFirstRecordOnlySetsTheBaseline() {
+      RateRingBuffer buffer = new RateRingBuffer(3);
+      buffer.record(1000, new long[] { 100, 100, 10, 10 });
+
+      assertEquals(buffer.snapshot().size(), 0);
+   }
+
+   public void testRatesArePerSecond() {
+      RateRingBuffer buffer = new RateRingBuffer(3);
+      buffer.record(1000, new long[] { 100, 100, 10, 10 });
+      buffer.record(3000, new long[] { 300, 1100, 20, 30 });
+
+      RateSeries series = buffer.snapshot();
+      assertEquals(series.size(), 1);
+      assertEquals(series.getTimestamp(0), 3000);
+      assertEquals(series.getRate(NetworkCounter.BYTES_RECEIVED, 0), 100.0);
+      assertEquals(series.getRate(NetworkCounter.BYTES_SENT, 0), 500.0);
+      assertEquals(series.getRate(NetworkCounter.PACKETS_RECEIVED, 0), 5.0);
+      assertEquals(series.getLatestRate(NetworkCounter.PACKETS_SENT), 10.0);
+   }
+
+   public void testOldestSamplesAreOverwritten() {
+      RateRingBuffer buffer = new RateRingBuffer(2);
+      for (int i = 0; i <= 4; i++) {
+         buffer.record(i * 1000, new long[] { i * i, 0, 0, 0 });
+      }
+
+      RateSeries series = buffer.snapshot();
+      assertEquals(series.size(), 2);
+      assertEquals(series.getTimestamp(0), 3000);
+      assertEquals(series.getRate(NetworkCounter.BYTES_RECEIVED, 0), 5.0);
+      assertEquals(series.getTimestamp(1), 4000);
+      assertEquals(series.getRate(NetworkCounter.BYTES_RECEIVED, 1), 7.0);
+   }
+
+   public void testResetAndMissingCountersHaveNoRate() {
+      RateRingBuffer buffer = new RateRingBuffer(2);
+      buffer.record(1000, new long[] { 100, -1, 0, 0 });
+      buffer.record(2000, new long[] { 50, 10, 0, 0 });
+
+      RateSeries series = buffer.snapshot();
+      assertTrue(Double.isNaN(series.getRate(NetworkCounter.BYTES_RECEIVED, 0)));
+      assertTrue(Double.isNaN(series.getRate(NetworkCounter.BYTES_SENT, 0)));
+      assertEquals(series.getRate(NetworkCounter.PACKETS_SENT, 0), 0.0);
+   }
+}
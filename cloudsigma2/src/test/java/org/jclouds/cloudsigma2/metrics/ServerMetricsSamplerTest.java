@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudsigma2.metrics;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jclouds.cloudsigma2.CloudSigma2Api;
+import org.jclouds.cloudsigma2.domain.IOStats;
+import org.jclouds.cloudsigma2.domain.NICStats;
+import org.jclouds.cloudsigma2.domain.ServerInfo;
+import org.jclouds.cloudsigma2.domain.ServerRuntime;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for the {@link ServerMetricsSampler} class.
+ */
+@Test(groups = "unit", testName = "ServerMetricsSamplerTest")
+public class ServerMetricsSamplerTest {
+
+   public void testCountersAreAddedUpAcrossNics() {
+      long[] counters = ServerMetricsSampler.counters(ImmutableList.of(
+            nic(new IOStats("100", "200", "1", "2")),
+            nic(new IOStats("50", null, "3", "invalid")),
+            nic(null)));
+
+      assertEquals(counters[NetworkCounter.BYTES_RECEIVED.ordinal()], 150);
+      assertEquals(counters[NetworkCounter.BYTES_SENT.ordinal()], 200);
+      assertEquals(counters[NetworkCounter.PACKETS_RECEIVED.ordinal()], 4);
+      assertEquals(counters[NetworkCounter.PACKETS_SENT.ordinal()], 2);
+   }
+
+   public void testSampleKeepsOneBufferPerListedServer() {
+      CloudSigma2Api api = createMock(CloudSigma2Api.class);
+      expect(api.listServersInfo()).andReturn(page(server("a"), server("b")));
+      expect(api.listServersInfo()).andReturn(page(server("b")));
+      replay(api);
+
+      ServerMetricsSampler sampler = sampler(api);
+      sampler.sample();
+      assertEquals(sampler.buffers.keySet(), ImmutableSet.of("a", "b"));
+
+      sampler.sample();
+      assertEquals(sampler.buffers.keySet(), ImmutableSet.of("b"));
+      assertNull(sampler.getRates("a"));
+      assertNotNull(sampler.getRates("b"));
+      assertEquals(sampler.getLatestRates("a").length, 0);
+      verify(api);
+   }
+
+   private static ServerMetricsSampler sampler(CloudSigma2Api api) {
+      return new ServerMetricsSampler(api, createMock(ScheduledExecutorService.class), 60000, 10,
+            Suppliers.ofInstance(URI.create("https://zrh.cloudsigma.com/api/2.0")), new Closer());
+   }
+
+   private static PagedIterable<ServerInfo> page(ServerInfo... servers) {
+      return PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.copyOf(servers)));
+   }
+
+   private static ServerInfo server(String uuid) {
+      ServerRuntime runtime = new ServerRuntime(null, ImmutableList.of(nic(new IOStats("1", "1", "1", "1"))));
+      return new ServerInfo.Builder().uuid(uuid).name(uuid).runtime(runtime).build();
+   }
+
+   private static NICStats nic(IOStats ioStats) {
+      return new NICStats(null, ioStats, null, null, null);
+   }
+}
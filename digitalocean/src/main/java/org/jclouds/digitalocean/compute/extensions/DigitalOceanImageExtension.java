@@ -19,9 +19,8 @@ package org.jclouds.digitalocean.compute.extensions;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.util.concurrent.Futures.immediateFuture;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_IMAGE_AVAILABLE;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
+import static com.google.common.util.concurrent.Futures.transform;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 
 import java.util.NoSuchElementException;
 
@@ -36,15 +35,20 @@ import org.jclouds.compute.domain.ImageTemplate;
 import org.jclouds.compute.domain.ImageTemplateBuilder;
 import org.jclouds.compute.extensions.ImageExtension;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.compute.strategy.EventTracker;
 import org.jclouds.digitalocean.domain.Droplet;
+import org.jclouds.digitalocean.domain.Event;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * The {@link ImageExtension} implementation for the DigitalOcean provider.
@@ -57,18 +61,19 @@ public class DigitalOceanImageExtension implements ImageExtension {
    protected Logger logger = Logger.NULL;
 
    private final DigitalOceanApi api;
-   private final Predicate<Integer> imageAvailablePredicate;
-   private final Predicate<Integer> nodeStoppedPredicate;
+   private final EventTracker eventTracker;
+   private final Timeouts timeouts;
+   private final ListeningExecutorService userExecutor;
    private final Function<org.jclouds.digitalocean.domain.Image, Image> imageTransformer;
 
    @Inject
-   DigitalOceanImageExtension(DigitalOceanApi api,
-         @Named(TIMEOUT_IMAGE_AVAILABLE) Predicate<Integer> imageAvailablePredicate,
-         @Named(TIMEOUT_NODE_SUSPENDED) Predicate<Integer> nodeStoppedPredicate,
+   DigitalOceanImageExtension(DigitalOceanApi api, EventTracker eventTracker, Timeouts timeouts,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
          Function<org.jclouds.digitalocean.domain.Image, Image> imageTransformer) {
       this.api = Preconditions.checkNotNull(api, "api cannot be null");
-      this.imageAvailablePredicate = checkNotNull(imageAvailablePredicate, "imageAvailablePredicate cannot be null");
-      this.nodeStoppedPredicate = checkNotNull(nodeStoppedPredicate, "nodeStoppedPredicate cannot be null");
+      this.eventTracker = checkNotNull(eventTracker, "eventTracker cannot be null");
+      this.timeouts = checkNotNull(timeouts, "timeouts cannot be null");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor cannot be null");
       this.imageTransformer = checkNotNull(imageTransformer, "imageTransformer cannot be null");
    }
 
@@ -88,27 +93,36 @@ public class DigitalOceanImageExtension implements ImageExtension {
       checkState(template instanceof CloneImageTemplate, "DigitalOcean only supports creating images through cloning.");
       final CloneImageTemplate cloneTemplate = (CloneImageTemplate) template;
 
-      // Droplet needs to be stopped
-      int powerOffEvent = api.getDropletApi().powerOff(Integer.parseInt(cloneTemplate.getSourceNodeId()));
-      nodeStoppedPredicate.apply(powerOffEvent);
-
-      int snapshotEvent = api.getDropletApi().snapshot(Integer.parseInt(cloneTemplate.getSourceNodeId()),
-            cloneTemplate.getName());
+      final int dropletId = Integer.parseInt(cloneTemplate.getSourceNodeId());
 
-      logger.info(">> registered new Image, waiting for it to become available");
+      // Droplet needs to be stopped
+      int powerOffEvent = api.getDropletApi().powerOff(dropletId);
+      ListenableFuture<Event> stopped = eventTracker.track(powerOffEvent, timeouts.nodeSuspended);
+
+      // The events are tracked in the scheduler, so no thread is blocked while waiting for them to complete
+      ListenableFuture<Event> snapshotted = transform(stopped, new AsyncFunction<Event, Event>() {
+         @Override
+         public ListenableFuture<Event> apply(Event input) {
+            int snapshotEvent = api.getDropletApi().snapshot(dropletId, cloneTemplate.getName());
+            logger.info(">> registered new Image, waiting for it to become available");
+            return eventTracker.track(snapshotEvent, timeouts.imageAvailable);
+         }
+      }, userExecutor);
 
       // Until the process completes we don't have enough information to build an image to return
-      imageAvailablePredicate.apply(snapshotEvent);
-
-      org.jclouds.digitalocean.domain.Image snapshot = find(api.getImageApi().list(),
-            new Predicate<org.jclouds.digitalocean.domain.Image>() {
-               @Override
-               public boolean apply(org.jclouds.digitalocean.domain.Image input) {
-                  return input.getName().equals(cloneTemplate.getName());
-               }
-            });
-
-      return immediateFuture(imageTransformer.apply(snapshot));
+      return transform(snapshotted, new Function<Event, Image>() {
+         @Override
+         public Image apply(Event input) {
+            org.jclouds.digitalocean.domain.Image snapshot = find(api.getImageApi().list(),
+                  new Predicate<org.jclouds.digitalocean.domain.Image>() {
+                     @Override
+                     public boolean apply(org.jclouds.digitalocean.domain.Image input) {
+                        return input.getName().equals(cloneTemplate.getName());
+                     }
+                  });
+            return imageTransformer.apply(snapshot);
+         }
+      }, userExecutor);
    }
 
    @Override
@@ -18,7 +18,6 @@ package org.jclouds.digitalocean.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.tryFind;
 
 import java.security.PublicKey;
 import java.util.List;
@@ -40,11 +39,10 @@ import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
 import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
-import org.jclouds.digitalocean.DigitalOceanApi;
 import org.jclouds.digitalocean.compute.options.DigitalOceanTemplateOptions;
 import org.jclouds.digitalocean.domain.SshKey;
 import org.jclouds.digitalocean.predicates.SameFingerprint;
-import org.jclouds.digitalocean.strategy.ListSshKeys;
+import org.jclouds.digitalocean.strategy.SshKeyCache;
 import org.jclouds.logging.Logger;
 import org.jclouds.ssh.SshKeyPairGenerator;
 
@@ -65,9 +63,8 @@ public class CreateKeyPairsThenCreateNodes extends CreateNodesWithGroupEncodedIn
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
    protected Logger logger = Logger.NULL;
 
-   private final DigitalOceanApi api;
    private final SshKeyPairGenerator keyGenerator;
-   private final ListSshKeys listSshKeys;
+   private final SshKeyCache sshKeys;
    private final Function<String, PublicKey> sshKeyToPublicKey;
 
    @Inject
@@ -77,15 +74,12 @@ public class CreateKeyPairsThenCreateNodes extends CreateNodesWithGroupEncodedIn
          GroupNamingConvention.Factory namingConvention,
          @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
          CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
-         DigitalOceanApi api, SshKeyPairGenerator keyGenerator, ListSshKeys.Factory listSshKeysFactory,
+         SshKeyPairGenerator keyGenerator, SshKeyCache sshKeys,
          Function<String, PublicKey> sshKeyToPublicKey) {
       super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, userExecutor,
             customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
-      this.api = checkNotNull(api, "api cannot be null");
       this.keyGenerator = checkNotNull(keyGenerator, "keyGenerator cannot be null");
-      checkNotNull(listSshKeysFactory, "listSshKeysFactory cannot be null");
-      checkNotNull(userExecutor, "userExecutor cannot be null");
-      this.listSshKeys = listSshKeysFactory.create(userExecutor);
+      this.sshKeys = checkNotNull(sshKeys, "sshKeys cannot be null");
       this.sshKeyToPublicKey = checkNotNull(sshKeyToPublicKey, "sshKeyToPublicKey cannot be null");
    }
 
@@ -135,13 +129,13 @@ public class CreateKeyPairsThenCreateNodes extends CreateNodesWithGroupEncodedIn
       logger.debug(">> checking if the key pair already exists...");
 
       PublicKey userKey = sshKeyToPublicKey.apply(options.getPublicKey());
-      Optional<SshKey> key = tryFind(listSshKeys.execute(), new SameFingerprint(userKey));
+      Optional<SshKey> key = sshKeys.find(userKey);
 
       if (!key.isPresent()) {
          logger.debug(">> key pair not found. creating a new one...");
 
          String userFingerprint = SameFingerprint.computeFingerprint(userKey);
-         SshKey newKey = api.getKeyPairApi().create(userFingerprint, options.getPublicKey());
+         SshKey newKey = sshKeys.create(userFingerprint, options.getPublicKey());
 
          generatedSshKeyIds.add(newKey.getId());
          logger.debug(">> key pair created! %s", newKey);
@@ -158,7 +152,7 @@ public class CreateKeyPairsThenCreateNodes extends CreateNodesWithGroupEncodedIn
 
       PublicKey defaultPublicKey = sshKeyToPublicKey.apply(defaultKeys.get("public"));
       String fingerprint = SameFingerprint.computeFingerprint(defaultPublicKey);
-      SshKey defaultKey = api.getKeyPairApi().create(fingerprint, defaultKeys.get("public"));
+      SshKey defaultKey = sshKeys.create(fingerprint, defaultKeys.get("public"));
 
       generatedSshKeyIds.add(defaultKey.getId());
 
@@ -193,7 +187,7 @@ public class CreateKeyPairsThenCreateNodes extends CreateNodesWithGroupEncodedIn
             logger.debug(">> cleaning up auto-generated key pairs...");
             for (Integer sshKeyId : generatedSshKeyIds) {
                try {
-                  api.getKeyPairApi().delete(sshKeyId);
+                  sshKeys.delete(sshKeyId);
                } catch (Exception ex) {
                   logger.warn(">> could not delete key pair %s: %s", sshKeyId, ex.getMessage());
                }
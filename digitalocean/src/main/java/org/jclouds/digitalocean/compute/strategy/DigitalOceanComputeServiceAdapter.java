@@ -19,9 +19,6 @@ package org.jclouds.digitalocean.compute.strategy;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
-import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
 import static org.jclouds.digitalocean.compute.util.LocationNamingUtils.extractRegionId;
 
 import javax.annotation.Resource;
@@ -31,6 +28,7 @@ import javax.inject.Named;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.digitalocean.DigitalOceanApi;
 import org.jclouds.digitalocean.compute.options.DigitalOceanTemplateOptions;
 import org.jclouds.digitalocean.domain.Droplet;
@@ -55,19 +53,14 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
    protected Logger logger = Logger.NULL;
 
    private final DigitalOceanApi api;
-   private final Predicate<Integer> nodeRunningPredicate;
-   private final Predicate<Integer> nodeStoppedPredicate;
-   private final Predicate<Integer> nodeTerminatedPredicate;
+   private final EventTracker eventTracker;
+   private final Timeouts timeouts;
 
    @Inject
-   DigitalOceanComputeServiceAdapter(DigitalOceanApi api,
-         @Named(TIMEOUT_NODE_RUNNING) Predicate<Integer> nodeRunningPredicate,
-         @Named(TIMEOUT_NODE_SUSPENDED) Predicate<Integer> nodeStoppedPredicate,
-         @Named(TIMEOUT_NODE_TERMINATED) Predicate<Integer> nodeTerminatedPredicate) {
+   DigitalOceanComputeServiceAdapter(DigitalOceanApi api, EventTracker eventTracker, Timeouts timeouts) {
       this.api = checkNotNull(api, "api cannot be null");
-      this.nodeRunningPredicate = checkNotNull(nodeRunningPredicate, "nodeRunningPredicate cannot be null");
-      this.nodeStoppedPredicate = checkNotNull(nodeStoppedPredicate, "nodeStoppedPredicate cannot be null");
-      this.nodeTerminatedPredicate = checkNotNull(nodeTerminatedPredicate, "nodeTerminatedPredicate cannot be null");
+      this.eventTracker = checkNotNull(eventTracker, "eventTracker cannot be null");
+      this.timeouts = checkNotNull(timeouts, "timeouts cannot be null");
    }
 
    @Override
@@ -96,7 +89,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
 
       // We have to actively wait until the droplet has been provisioned until
       // we can build the entire Droplet object we want to return
-      nodeRunningPredicate.apply(dropletCreation.getEventId());
+      eventTracker.await(dropletCreation.getEventId(), timeouts.nodeRunning);
       Droplet droplet = api.getDropletApi().get(dropletCreation.getId());
 
       LoginCredentials defaultCredentials = LoginCredentials.builder().user("root")
@@ -153,7 +146,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().destroy(Integer.parseInt(id), true);
-      nodeTerminatedPredicate.apply(event);
+      eventTracker.await(event, timeouts.nodeTerminated);
    }
 
    @Override
@@ -161,7 +154,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().reboot(Integer.parseInt(id));
-      nodeRunningPredicate.apply(event);
+      eventTracker.await(event, timeouts.nodeRunning);
    }
 
    @Override
@@ -169,7 +162,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().powerOn(Integer.parseInt(id));
-      nodeRunningPredicate.apply(event);
+      eventTracker.await(event, timeouts.nodeRunning);
    }
 
    @Override
@@ -177,7 +170,7 @@ public class DigitalOceanComputeServiceAdapter implements ComputeServiceAdapter<
       // We have to wait here, as the api does not properly populate the state
       // but fails if there is a pending event
       int event = api.getDropletApi().powerOff(Integer.parseInt(id));
-      nodeStoppedPredicate.apply(event);
+      eventTracker.await(event, timeouts.nodeSuspended);
    }
 
 }
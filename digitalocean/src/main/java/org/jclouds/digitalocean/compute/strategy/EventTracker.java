@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.Event;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Waits for the events returned by the droplet and image operations.
+ * <p>
+ * All the pending events are polled together by a single task in the scheduler, instead of each operation polling its
+ * own event. The polling period starts at the initial {@link PollPeriod} every time a new event is tracked or an event
+ * completes, and doubles up to the max {@link PollPeriod} while nothing changes.
+ */
+@Singleton
+public class EventTracker implements Closeable {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final DigitalOceanApi api;
+   private final ScheduledExecutorService scheduler;
+   private final long initialPeriod;
+   private final long maxPeriod;
+
+   @VisibleForTesting
+   final ConcurrentMap<Integer, PendingEvent> pending = Maps.newConcurrentMap();
+
+   // Guarded by this
+   private ScheduledFuture<?> nextPoll;
+   private long period;
+   private boolean closed;
+
+   private final Runnable pollTask = new Runnable() {
+      @Override
+      public void run() {
+         poll();
+      }
+   };
+
+   @Inject
+   EventTracker(DigitalOceanApi api, @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         PollPeriod pollPeriod, Closer closer) {
+      this.api = checkNotNull(api, "api cannot be null");
+      this.scheduler = checkNotNull(scheduler, "scheduler cannot be null");
+      this.initialPeriod = pollPeriod.pollInitialPeriod;
+      this.maxPeriod = Math.max(pollPeriod.pollInitialPeriod, pollPeriod.pollMaxPeriod);
+      this.period = initialPeriod;
+      closer.addToClose(this);
+   }
+
+   /**
+    * Starts tracking the given event.
+    * 
+    * @param eventId The id of the event to track.
+    * @param timeoutMillis The time to wait for the event to complete.
+    * @return A future that completes with the event once it is done. It fails with an {@link IllegalStateException}
+    *         if the event ends in error and with a {@link TimeoutException} if the event is still pending after the
+    *         given timeout.
+    */
+   public ListenableFuture<Event> track(int eventId, long timeoutMillis) {
+      checkArgument(timeoutMillis >= 0, "timeoutMillis must not be negative");
+      PendingEvent event = new PendingEvent(System.currentTimeMillis() + timeoutMillis);
+      PendingEvent existing = pending.putIfAbsent(eventId, event);
+      if (existing != null) {
+         return existing.future;
+      }
+      logger.trace(">> tracking event %s", eventId);
+      if (!pollSoon()) {
+         pending.remove(eventId, event);
+         event.future.setException(new IllegalStateException("The event tracker has been closed"));
+      }
+      return event.future;
+   }
+
+   /**
+    * Blocks until the given event completes.
+    * 
+    * @return <code>true</code> if the event is done or <code>false</code> if it was still pending after the given
+    *         timeout.
+    * @throws IllegalStateException if the event ended in error.
+    */
+   public boolean await(int eventId, long timeoutMillis) {
+      try {
+         Uninterruptibles.getUninterruptibly(track(eventId, timeoutMillis));
+         return true;
+      } catch (ExecutionException ex) {
+         if (ex.getCause() instanceof TimeoutException) {
+            logger.warn("<< event %s did not complete after %sms", eventId, timeoutMillis);
+            return false;
+         }
+         throw Throwables.propagate(ex.getCause());
+      }
+   }
+
+   /**
+    * Polls all the pending events and schedules the next poll if there are still events to wait for.
+    */
+   @VisibleForTesting
+   void poll() {
+      boolean changed = false;
+      for (Map.Entry<Integer, PendingEvent> entry : pending.entrySet()) {
+         int eventId = entry.getKey();
+         PendingEvent event = entry.getValue();
+         if (!event.future.isDone()) {
+            try {
+               changed |= update(eventId, event, api.getEventApi().get(eventId));
+            } catch (RuntimeException ex) {
+               logger.warn(ex, "<< could not get event %s", eventId);
+               failIfExpired(eventId, event);
+            }
+         }
+         if (event.future.isDone()) {
+            pending.remove(eventId, event);
+         }
+      }
+      scheduleNextPoll(changed);
+   }
+
+   private boolean update(int eventId, PendingEvent event, Event current) {
+      if (current == null) {
+         return event.future.setException(new IllegalStateException("Event " + eventId + " does not exist"));
+      }
+      switch (current.getStatus()) {
+         case DONE:
+            logger.trace("<< event %s done", eventId);
+            return event.future.set(current);
+         case PENDING:
+            failIfExpired(eventId, event);
+            return false;
+         case ERROR:
+         default:
+            return event.future.setException(new IllegalStateException("Resource is in invalid status: "
+                  + current.getStatus().name()));
+      }
+   }
+
+   private void failIfExpired(int eventId, PendingEvent event) {
+      if (System.currentTimeMillis() > event.deadline) {
+         event.future.setException(new TimeoutException("Event " + eventId + " is still pending"));
+      }
+   }
+
+   private synchronized boolean pollSoon() {
+      if (closed) {
+         return false;
+      }
+      period = initialPeriod;
+      // A negative delay means the poll is running, and it will schedule the next one when it finishes
+      if (nextPoll == null || nextPoll.getDelay(MILLISECONDS) > initialPeriod) {
+         if (nextPoll != null) {
+            nextPoll.cancel(false);
+         }
+         nextPoll = scheduler.schedule(pollTask, initialPeriod, MILLISECONDS);
+      }
+      return true;
+   }
+
+   private synchronized void scheduleNextPoll(boolean changed) {
+      period = changed ? initialPeriod : Math.min(period * 2, maxPeriod);
+      nextPoll = closed || pending.isEmpty() ? null : scheduler.schedule(pollTask, period, MILLISECONDS);
+   }
+
+   /**
+    * Stops polling and cancels the events that are still pending.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         closed = true;
+         if (nextPoll != null) {
+            nextPoll.cancel(false);
+            nextPoll = null;
+         }
+      }
+      for (PendingEvent event : pending.values()) {
+         event.future.setException(new IllegalStateException("The event tracker has been closed"));
+      }
+      pending.clear();
+   }
+
+   @VisibleForTesting
+   static class PendingEvent {
+      private final long deadline;
+      private final SettableFuture<Event> future = SettableFuture.create();
+
+      PendingEvent(long deadline) {
+         this.deadline = deadline;
+      }
+   }
+}
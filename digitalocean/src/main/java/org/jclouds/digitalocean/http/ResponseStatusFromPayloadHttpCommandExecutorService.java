@@ -20,9 +20,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.Closeables.close;
 import static org.jclouds.io.Payloads.newInputStreamPayload;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URI;
@@ -46,9 +48,13 @@ import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.Payload;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.io.ByteStreams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Custom implementation of the HTTP driver to read the response body in order to get the real response status.
@@ -56,7 +62,9 @@ import com.google.common.io.ByteStreams;
  * The DigitalOcean API always return 200 codes even if a request failed due to some internal error, but populates an
  * <code>ERROR</code> string in the response payload.
  * <p>
- * This class will read the body of the response and populate a 500 status code if an error is found.
+ * This class will read the body of the response and populate a 500 status code if an error is found. Only the
+ * top-level fields at the beginning of the body are read to find the status, so the body is not buffered and the
+ * response parsers read it once. The whole body is only buffered and parsed if the status is not found there.
  */
 @Singleton
 public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrlHttpCommandExecutorService {
@@ -64,6 +72,12 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
    public static final String ACCESS_DENIED = "Access Denied";
    public static final String NOT_FOUND = "Not Found";
 
+   /**
+    * The number of bytes at the beginning of the body where the status is looked for.
+    */
+   @VisibleForTesting
+   static final int STATUS_WINDOW = 8192;
+
    private final ParseJson<BaseResponse> errorParser;
 
    @Inject
@@ -83,23 +97,28 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
       HttpResponse.Builder<?> response = original.toBuilder();
 
       if (hasPayload(original)) {
-         // As we need to read the response body to determine if there are errors, but we may need to process the body
-         // again later in the response parsers if everything is OK, we buffer the body into an InputStream we can reset
-         InputStream in = null;
-         InputStream originalInputStream = original.getPayload().openStream();
-
-         if (originalInputStream instanceof ByteArrayInputStream) {
-            in = originalInputStream;
-         } else {
-            try {
-               in = new ByteArrayInputStream(ByteStreams.toByteArray(originalInputStream));
-            } finally {
-               close(originalInputStream, true);
+         // The status is one of the first fields of the body, so read just the beginning of it and reset the stream to
+         // let the response parsers process the body if everything is OK
+         InputStream in = markStatusWindow(original.getPayload().openStream());
+         BaseResponse responseContent = peekStatus(in, STATUS_WINDOW);
+         in.reset();
+
+         if (responseContent == null) {
+            // The status is not at the beginning of the body, so we buffer the body into an InputStream we can reset
+            // and parse all of it
+            if (!(in instanceof ByteArrayInputStream)) {
+               InputStream originalInputStream = in;
+               try {
+                  in = new ByteArrayInputStream(ByteStreams.toByteArray(originalInputStream));
+               } finally {
+                  close(originalInputStream, true);
+               }
             }
+            responseContent = errorParser.apply(in);
+            in.reset();
          }
 
          // Process the payload and look for errors
-         BaseResponse responseContent = errorParser.apply(in);
          if (responseContent != null && responseContent.getStatus() == Status.ERROR) {
             // Yes, this is ugly, but the DigitalOcean API sometimes sets the status code to 200 for these errors and
             // the only way to know what happened is parsing the error message
@@ -114,9 +133,7 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
             response.message(responseContent.getDetails());
          }
 
-         // Reset the input stream and set the payload, so it can be read again
-         // by the response and error parsers
-         in.reset();
+         // Set the payload, so it can be read again by the response and error parsers
          Payload payload = newInputStreamPayload(in);
          contentMetadataCodec.fromHeaders(payload.getContentMetadata(), original.getHeaders());
          response.payload(payload);
@@ -125,6 +142,65 @@ public class ResponseStatusFromPayloadHttpCommandExecutorService extends JavaUrl
       return response.build();
    }
 
+   /**
+    * Marks the beginning of the given stream so it can be reset after reading the first {@link #STATUS_WINDOW} bytes.
+    * Streams that do not support marks are wrapped, and only those bytes are kept in memory.
+    */
+   @VisibleForTesting
+   static InputStream markStatusWindow(InputStream in) {
+      if (!in.markSupported()) {
+         in = new BufferedInputStream(in, STATUS_WINDOW);
+      }
+      in.mark(STATUS_WINDOW);
+      return in;
+   }
+
+   /**
+    * Looks for the top-level <code>status</code>, <code>error_message</code> and <code>message</code> fields in the
+    * first bytes of the given stream.
+    * 
+    * @return The status found in the stream, or <code>null</code> if it is not in the given number of bytes.
+    */
+   @VisibleForTesting
+   static BaseResponse peekStatus(InputStream in, int window) {
+      // The reader is not closed, as the stream has to be read again
+      JsonReader reader = new JsonReader(new InputStreamReader(ByteStreams.limit(in, window), Charsets.UTF_8));
+      try {
+         Status status = null;
+         String message = null;
+         String details = null;
+         reader.beginObject();
+         while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() != JsonToken.STRING) {
+               reader.skipValue();
+            } else if ("status".equals(name)) {
+               status = Status.fromValue(reader.nextString());
+               if (status == Status.OK) {
+                  // Nothing else to look for
+                  return new BaseResponse(status, null, null);
+               }
+            } else if ("error_message".equals(name)) {
+               message = reader.nextString();
+            } else if ("message".equals(name)) {
+               details = reader.nextString();
+            } else {
+               reader.skipValue();
+            }
+         }
+         return status == null ? null : new BaseResponse(status, message, details);
+      } catch (IOException ex) {
+         // The end of the window has been reached
+         return null;
+      } catch (IllegalStateException ex) {
+         // The body is not an object
+         return null;
+      } catch (IllegalArgumentException ex) {
+         // Unknown status
+         return null;
+      }
+   }
+
    private static boolean hasPayload(final HttpResponse response) {
       return response.getPayload() != null && response.getPayload().getRawContent() != null;
    }
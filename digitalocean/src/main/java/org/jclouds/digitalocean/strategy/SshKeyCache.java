@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.jclouds.digitalocean.predicates.SameFingerprint.computeFingerprint;
+
+import java.security.PublicKey;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.SshKey;
+import org.jclouds.digitalocean.features.KeyPairApi;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Keeps the SSH keys of the account indexed by the fingerprint of their public key.
+ * <p>
+ * The {@link KeyPairApi} only returns the public key when getting the keys one by one, so the keys are loaded the
+ * first time they are needed, and refreshing the cache only gets the keys that have not been seen before. The keys
+ * created and deleted through this class are updated in the cache without listing the keys again.
+ */
+@Singleton
+public class SshKeyCache {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final KeyPairApi keyPairApi;
+   private final ListeningExecutorService userExecutor;
+   private final Function<String, PublicKey> sshKeyToPublicKey;
+
+   @VisibleForTesting
+   final ConcurrentMap<Integer, SshKey> keys = Maps.newConcurrentMap();
+   @VisibleForTesting
+   final ConcurrentMap<String, SshKey> keysByFingerprint = Maps.newConcurrentMap();
+
+   private volatile boolean loaded;
+
+   @Inject
+   SshKeyCache(DigitalOceanApi api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         Function<String, PublicKey> sshKeyToPublicKey) {
+      checkNotNull(api, "api cannot be null");
+      this.keyPairApi = api.getKeyPairApi();
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor cannot be null");
+      this.sshKeyToPublicKey = checkNotNull(sshKeyToPublicKey, "sshKeyToPublicKey cannot be null");
+   }
+
+   /**
+    * Finds the key with the same fingerprint as the given public key.
+    * <p>
+    * The cache is refreshed if the key is not found, to take into account the keys created out of this class.
+    */
+   public Optional<SshKey> find(PublicKey publicKey) {
+      String fingerprint = computeFingerprint(checkNotNull(publicKey, "publicKey cannot be null"));
+      SshKey key = loaded ? keysByFingerprint.get(fingerprint) : null;
+      if (key == null) {
+         refresh();
+         key = keysByFingerprint.get(fingerprint);
+      }
+      return Optional.fromNullable(key);
+   }
+
+   /**
+    * Creates a new key and adds it to the cache.
+    */
+   public SshKey create(String name, String publicKey) {
+      SshKey key = keyPairApi.create(name, publicKey);
+      if (key.getPublicKey() == null) {
+         key = new SshKey(key.getId(), key.getName(), sshKeyToPublicKey.apply(publicKey));
+      }
+      add(key);
+      return key;
+   }
+
+   /**
+    * Deletes the given key and removes it from the cache.
+    */
+   public void delete(int id) {
+      keyPairApi.delete(id);
+      remove(id);
+   }
+
+   /**
+    * Lists the keys and gets the details of the ones that have not been seen before. The keys that no longer exist
+    * are removed from the cache.
+    */
+   public synchronized void refresh() {
+      List<SshKey> listed = keyPairApi.list();
+      Set<Integer> ids = Sets.newHashSet();
+      List<ListenableFuture<SshKey>> unseen = Lists.newArrayList();
+      for (final SshKey key : listed) {
+         ids.add(key.getId());
+         if (!keys.containsKey(key.getId())) {
+            unseen.add(userExecutor.submit(new Callable<SshKey>() {
+               @Override
+               public SshKey call() {
+                  return keyPairApi.get(key.getId());
+               }
+            }));
+         }
+      }
+
+      for (Integer id : Sets.difference(keys.keySet(), ids).immutableCopy()) {
+         remove(id);
+      }
+      for (SshKey key : getUnchecked(allAsList(unseen))) {
+         // The key may have been deleted after being listed
+         if (key != null) {
+            add(key);
+         }
+      }
+      loaded = true;
+      logger.trace("<< cached %s keys after getting %s new keys", keys.size(), unseen.size());
+   }
+
+   private void add(SshKey key) {
+      keys.put(key.getId(), key);
+      if (key.getPublicKey() != null) {
+         try {
+            keysByFingerprint.put(computeFingerprint(key.getPublicKey()), key);
+         } catch (IllegalArgumentException ex) {
+            logger.debug("<< not indexing key %s: %s", key.getId(), ex.getMessage());
+         }
+      }
+   }
+
+   private void remove(int id) {
+      SshKey key = keys.remove(id);
+      if (key != null) {
+         keysByFingerprint.values().remove(key);
+      }
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.Event;
+import org.jclouds.digitalocean.domain.Event.Status;
+import org.jclouds.digitalocean.features.EventApi;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Unit tests for the {@link EventTracker} class.
+ */
+@Test(groups = "unit", testName = "EventTrackerTest")
+public class EventTrackerTest {
+
+   public void testPollCompletesDoneEvents() throws Exception {
+      EventApi eventApi = createMock(EventApi.class);
+      DigitalOceanApi api = createMock(DigitalOceanApi.class);
+
+      expect(eventApi.get(1)).andReturn(event(1, Status.DONE));
+      expect(eventApi.get(2)).andReturn(event(2, Status.PENDING));
+      expect(api.getEventApi()).andReturn(eventApi).times(2);
+      replay(eventApi, api);
+
+      EventTracker tracker = tracker(api);
+      ListenableFuture<Event> done = tracker.track(1, 60000);
+      ListenableFuture<Event> pending = tracker.track(2, 60000);
+      tracker.poll();
+
+      assertEquals(done.get().getId(), 1);
+      assertFalse(pending.isDone());
+      assertEquals(tracker.pending.keySet().size(), 1);
+      assertTrue(tracker.pending.containsKey(2));
+      verify(eventApi, api);
+   }
+
+   public void testPollFailsErrorEvents() throws InterruptedException {
+      EventApi eventApi = createMock(EventApi.class);
+      DigitalOceanApi api = createMock(DigitalOceanApi.class);
+
+      expect(eventApi.get(1)).andReturn(event(1, Status.ERROR));
+      expect(api.getEventApi()).andReturn(eventApi);
+      replay(eventApi, api);
+
+      EventTracker tracker = tracker(api);
+      ListenableFuture<Event> future = tracker.track(1, 60000);
+      tracker.poll();
+
+      try {
+         future.get();
+         fail("The event should have failed");
+      } catch (ExecutionException ex) {
+         assertTrue(ex.getCause() instanceof IllegalStateException);
+         assertEquals(ex.getCause().getMessage(), "Resource is in invalid status: ERROR");
+      }
+      assertTrue(tracker.pending.isEmpty());
+   }
+
+   public void testPollFailsExpiredEvents() throws InterruptedException {
+      EventApi eventApi = createMock(EventApi.class);
+      DigitalOceanApi api = createMock(DigitalOceanApi.class);
+
+      expect(eventApi.get(1)).andReturn(event(1, Status.PENDING));
+      expect(api.getEventApi()).andReturn(eventApi);
+      replay(eventApi, api);
+
+      EventTracker tracker = tracker(api);
+      ListenableFuture<Event> future = tracker.track(1, 0);
+      Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+      tracker.poll();
+
+      try {
+         future.get();
+         fail("The event should have timed out");
+      } catch (ExecutionException ex) {
+         assertTrue(ex.getCause() instanceof TimeoutException);
+      }
+      assertTrue(tracker.pending.isEmpty());
+   }
+
+   public void testTrackSameEventTwice() {
+      DigitalOceanApi api = createMock(DigitalOceanApi.class);
+      replay(api);
+
+      EventTracker tracker = tracker(api);
+      assertSame(tracker.track(1, 60000), tracker.track(1, 60000));
+   }
+
+   public void testCloseFailsPendingEvents() {
+      DigitalOceanApi api = createMock(DigitalOceanApi.class);
+      replay(api);
+
+      EventTracker tracker = tracker(api);
+      ListenableFuture<Event> pending = tracker.track(1, 60000);
+      tracker.close();
+      ListenableFuture<Event> afterClose = tracker.track(2, 60000);
+
+      assertTrue(pending.isDone());
+      assertTrue(afterClose.isDone());
+      assertTrue(tracker.pending.isEmpty());
+   }
+
+   private static EventTracker tracker(DigitalOceanApi api) {
+      ScheduledExecutorService scheduler = createNiceMock(ScheduledExecutorService.class);
+      replay(scheduler);
+      return new EventTracker(api, scheduler, new PollPeriod(), new Closer());
+   }
+
+   private static Event event(int id, Status status) {
+      return new Event(id, status, 0, "0", 0);
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.http;
+
+import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.STATUS_WINDOW;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.digitalocean.config.DigitalOceanParserModule;
+import org.jclouds.digitalocean.domain.BaseResponse;
+import org.jclouds.digitalocean.domain.Droplet;
+import org.jclouds.http.functions.ParseFirstJsonValueNamed;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Measures the throughput of reading a large droplet list response when the whole body is buffered and parsed to look
+ * for errors before parsing the droplets, and when only the status at the beginning of the body is read.
+ * <p>
+ * Run it with the {@link #main(String[])} method, which also reports the allocation rate of each path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseStatusBenchmark {
+
+   @Param({ "10", "1000" })
+   public int droplets;
+
+   private ParseJson<BaseResponse> errorParser;
+   private ParseFirstJsonValueNamed<List<Droplet>> dropletsParser;
+   private byte[] body;
+
+   @Setup
+   public void setup() throws IOException {
+      Injector injector = Guice.createInjector(new GsonModule(), new DigitalOceanParserModule());
+      errorParser = injector.getInstance(Key.get(new TypeLiteral<ParseJson<BaseResponse>>() {
+      }));
+      dropletsParser = new ParseFirstJsonValueNamed<List<Droplet>>(injector.getInstance(GsonWrapper.class),
+            new TypeLiteral<List<Droplet>>() {
+            }, "droplets");
+
+      String listed = Resources.toString(Resources.getResource(getClass(), "/droplets.json"), Charsets.UTF_8);
+      String droplet = listed.substring(listed.indexOf('{', listed.indexOf('[')), listed.lastIndexOf(']')).trim();
+      StringBuilder payload = new StringBuilder("{\"status\":\"OK\",\"droplets\":[");
+      for (int i = 0; i < droplets; i++) {
+         payload.append(i == 0 ? "" : ",").append(droplet);
+      }
+      body = payload.append("]}").toString().getBytes(Charsets.UTF_8);
+   }
+
+   @Benchmark
+   public List<Droplet> bufferAndParseTwice() throws IOException {
+      InputStream in = new ByteArrayInputStream(ByteStreams.toByteArray(response()));
+      errorParser.apply(in);
+      in.reset();
+      return dropletsParser.apply(in);
+   }
+
+   @Benchmark
+   public List<Droplet> peekStatusAndParseOnce() throws IOException {
+      InputStream in = new BufferedInputStream(response(), STATUS_WINDOW);
+      in.mark(STATUS_WINDOW);
+      ResponseStatusFromPayloadHttpCommandExecutorService.peekStatus(in, STATUS_WINDOW);
+      in.reset();
+      return dropletsParser.apply(in);
+   }
+
+   /**
+    * Returns the body as the connection does, as a stream that does not support mark.
+    */
+   private InputStream response() {
+      return new FilterInputStream(new ByteArrayInputStream(body)) {
+         @Override
+         public boolean markSupported() {
+            return false;
+         }
+      };
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder()
+            .include(ResponseStatusBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+   }
+}
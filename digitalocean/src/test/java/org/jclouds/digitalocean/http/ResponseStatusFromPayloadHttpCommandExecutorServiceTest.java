@@ -19,13 +19,22 @@ package org.jclouds.digitalocean.http;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.ACCESS_DENIED;
 import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.NOT_FOUND;
+import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.STATUS_WINDOW;
+import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.markStatusWindow;
+import static org.jclouds.digitalocean.http.ResponseStatusFromPayloadHttpCommandExecutorService.peekStatus;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
 import java.util.Properties;
 
 import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.domain.BaseResponse;
+import org.jclouds.digitalocean.domain.BaseResponse.Status;
 import org.jclouds.digitalocean.features.ImageApi;
 import org.jclouds.digitalocean.internal.BaseDigitalOceanMockTest;
 import org.jclouds.http.HttpResponseException;
@@ -33,6 +42,10 @@ import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.ResourceNotFoundException;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 
@@ -109,4 +122,87 @@ public class ResponseStatusFromPayloadHttpCommandExecutorServiceTest extends Bas
          server.shutdown();
       }
    }
+
+   public void testLargeResponse() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setBody(droplets(500)));
+
+      DigitalOceanApi api = api(server.getUrl("/"));
+
+      try {
+         assertEquals(api.getDropletApi().list().size(), 500);
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testErrorAfterStatusWindow() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setBody("{\"padding\":\"" + Strings.repeat("x", STATUS_WINDOW)
+            + "\",\"status\":\"ERROR\",\"error_message\":\"Not Found\",\"message\":\"Not Found\"}"));
+
+      DigitalOceanApi api = api(server.getUrl("/"));
+
+      try {
+         api.getImageApi().list();
+         fail("Request should have failed");
+      } catch (Exception ex) {
+         assertTrue(ex instanceof ResourceNotFoundException, "Exception should be a ResourceNotFoundException");
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testPeekStatus() {
+      assertEquals(peekStatus(new ByteArrayInputStream(payloadFromResource("/droplets.json")), STATUS_WINDOW),
+            new BaseResponse(Status.OK, null, null));
+      assertEquals(peekStatus(new ByteArrayInputStream(payloadFromResource("/error.json")), STATUS_WINDOW),
+            new BaseResponse(Status.ERROR, "No Image Found", "No Image Found"));
+   }
+
+   public void testStatusIsReadWithoutBufferingTheBody() throws Exception {
+      byte[] body = droplets(500).getBytes(Charsets.UTF_8);
+      assertTrue(body.length > 4 * STATUS_WINDOW);
+      // A stream that does not support marks, as the ones returned by the connections
+      CountingInputStream counting = new CountingInputStream(new FilterInputStream(new ByteArrayInputStream(body)) {
+         @Override
+         public boolean markSupported() {
+            return false;
+         }
+      });
+
+      InputStream in = markStatusWindow(counting);
+      assertEquals(peekStatus(in, STATUS_WINDOW), new BaseResponse(Status.OK, null, null));
+      in.reset();
+      assertTrue(counting.getCount() <= STATUS_WINDOW, "only the status window should have been read");
+
+      // The response parsers read the whole body, and each byte is read from the connection only once
+      assertEquals(ByteStreams.toByteArray(in), body);
+      assertEquals(counting.getCount(), body.length);
+   }
+
+   public void testPeekStatusOutsideWindow() {
+      byte[] payload = ("{\"padding\":\"" + Strings.repeat("x", 100) + "\",\"status\":\"OK\"}")
+            .getBytes(Charsets.UTF_8);
+      assertNull(peekStatus(new ByteArrayInputStream(payload), 100));
+      assertEquals(peekStatus(new ByteArrayInputStream(payload), payload.length), new BaseResponse(Status.OK, null,
+            null));
+   }
+
+   public void testPeekStatusNotAnObject() {
+      assertNull(peekStatus(new ByteArrayInputStream("[]".getBytes(Charsets.UTF_8)), STATUS_WINDOW));
+   }
+
+   private String droplets(int count) {
+      String droplets = new String(payloadFromResource("/droplets.json"), Charsets.UTF_8);
+      String droplet = droplets.substring(droplets.indexOf('{', droplets.indexOf('[')), droplets.lastIndexOf(']'))
+            .trim();
+      StringBuilder body = new StringBuilder("{\"status\":\"OK\",\"droplets\":[");
+      for (int i = 0; i < count; i++) {
+         body.append(i == 0 ? "" : ",").append(droplet);
+      }
+      return body.append("]}").toString();
+   }
 }
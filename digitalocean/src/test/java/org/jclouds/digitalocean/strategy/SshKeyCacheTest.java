@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.digitalocean.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.security.PublicKey;
+
+import org.jclouds.digitalocean.DigitalOceanApi;
+import org.jclouds.digitalocean.config.DigitalOceanParserModule;
+import org.jclouds.digitalocean.domain.SshKey;
+import org.jclouds.digitalocean.features.KeyPairApi;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for the {@link SshKeyCache} class.
+ */
+@Test(groups = "unit", testName = "SshKeyCacheTest", singleThreaded = true)
+public class SshKeyCacheTest {
+
+   private final Function<String, PublicKey> sshKeyToPublicKey = new DigitalOceanParserModule().sshKeyToPublicKey();
+
+   private String rsa;
+   private String dsa;
+   private KeyPairApi keyPairApi;
+   private DigitalOceanApi api;
+
+   @BeforeMethod
+   public void setup() throws IOException {
+      rsa = Strings2.toStringAndClose(getClass().getResourceAsStream("/ssh-rsa.txt")).trim();
+      dsa = Strings2.toStringAndClose(getClass().getResourceAsStream("/ssh-dsa.txt")).trim();
+      keyPairApi = createMock(KeyPairApi.class);
+      api = createMock(DigitalOceanApi.class);
+      expect(api.getKeyPairApi()).andReturn(keyPairApi);
+   }
+
+   public void testRefreshOnlyGetsUnseenKeys() {
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", sshKeyToPublicKey.apply(rsa)));
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null), new SshKey(2, "dsa", null)));
+      expect(keyPairApi.get(2)).andReturn(new SshKey(2, "dsa", sshKeyToPublicKey.apply(dsa)));
+      replay(keyPairApi, api);
+
+      SshKeyCache cache = cache();
+      cache.refresh();
+      cache.refresh();
+
+      assertEquals(cache.keys.keySet().size(), 2);
+      assertEquals(cache.find(sshKeyToPublicKey.apply(rsa)).get().getId(), 1);
+      assertEquals(cache.find(sshKeyToPublicKey.apply(dsa)).get().getId(), 2);
+      verify(keyPairApi, api);
+   }
+
+   public void testFindLoadsTheKeysOnce() {
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", sshKeyToPublicKey.apply(rsa)));
+      replay(keyPairApi, api);
+
+      SshKeyCache cache = cache();
+      assertTrue(cache.find(sshKeyToPublicKey.apply(rsa)).isPresent());
+      assertTrue(cache.find(sshKeyToPublicKey.apply(rsa)).isPresent());
+      verify(keyPairApi, api);
+   }
+
+   public void testRefreshForgetsDeletedKeys() {
+      expect(keyPairApi.list()).andReturn(ImmutableList.of(new SshKey(1, "rsa", null)));
+      expect(keyPairApi.get(1)).andReturn(new SshKey(1, "rsa", sshKeyToPublicKey.apply(rsa)));
+      expect(keyPairApi.list()).andReturn(ImmutableList.<SshKey> of());
+      replay(keyPairApi, api);
+
+      SshKeyCache cache = cache();
+      cache.refresh();
+      cache.refresh();
+
+      assertTrue(cache.keys.isEmpty());
+      assertTrue(cache.keysByFingerprint.isEmpty());
+      verify(keyPairApi, api);
+   }
+
+   public void testCreateAndDeleteUpdateTheCache() {
+      expect(keyPairApi.create("rsa", rsa)).andReturn(new SshKey(1, "rsa", null));
+      keyPairApi.delete(1);
+      expectLastCall();
+      replay(keyPairApi, api);
+
+      SshKeyCache cache = cache();
+      SshKey created = cache.create("rsa", rsa);
+
+      assertEquals(created.getPublicKey(), sshKeyToPublicKey.apply(rsa));
+      assertEquals(cache.keysByFingerprint.values().iterator().next(), created);
+
+      cache.delete(1);
+
+      assertFalse(cache.keys.containsKey(1));
+      assertTrue(cache.keysByFingerprint.isEmpty());
+      verify(keyPairApi, api);
+   }
+
+   private SshKeyCache cache() {
+      return new SshKeyCache(api, newDirectExecutorService(), sshKeyToPublicKey);
+   }
+}
@@ -25,6 +25,7 @@ import org.jclouds.compute.config.ComputeServiceProperties;
 import org.jclouds.docker.compute.config.DockerComputeServiceContextModule;
 import org.jclouds.docker.config.DockerHttpApiModule;
 import org.jclouds.docker.config.DockerParserModule;
+import org.jclouds.docker.config.DockerProperties;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 
 import java.net.URI;
@@ -58,6 +59,10 @@ public class DockerApiMetadata extends BaseHttpApiMetadata<DockerApi> {
       properties.setProperty(Constants.PROPERTY_CONNECTION_TIMEOUT, "1200000"); // 15 minutes
       properties.setProperty(ComputeServiceProperties.IMAGE_LOGIN_USER, "root:password");
       properties.setProperty(TEMPLATE, "osFamily=UBUNTU,os64Bit=true,osVersionMatches=1[012].[01][04]");
+      properties.setProperty(DockerProperties.INSPECT_MAX_CONCURRENCY, "10");
+      properties.setProperty(DockerProperties.CREATE_MAX_CONCURRENCY, "10");
+      properties.setProperty(DockerProperties.EVENTS_ENABLED, "false");
+      properties.setProperty(DockerProperties.EVENTS_RETRY_DELAY, "5000");
       return properties;
    }
 
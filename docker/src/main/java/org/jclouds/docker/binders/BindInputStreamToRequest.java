@@ -17,12 +17,9 @@
 package org.jclouds.docker.binders;
 
 import com.google.common.base.Throwables;
-import com.google.common.io.Files;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.docker.features.internal.Archives;
 import org.jclouds.http.HttpRequest;
-import org.jclouds.io.Payload;
-import org.jclouds.io.Payloads;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.Binder;
 
@@ -30,12 +27,17 @@ import javax.annotation.Resource;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Binds a build context to the request. The input can be either a Dockerfile or a directory with the whole build
+ * context, honouring its <code>.dockerignore</code> file.
+ * <p>
+ * The tar archive is streamed to the request body while it is being generated, without writing temporary files.
+ */
 @Singleton
 public class BindInputStreamToRequest implements Binder {
 
@@ -48,19 +50,12 @@ public class BindInputStreamToRequest implements Binder {
       checkArgument(checkNotNull(input, "input") instanceof File, "this binder is only valid for File!");
       checkNotNull(request, "request");
 
-      File dockerFile = (File) input;
-      File tmpDir = Files.createTempDir();
-      final File targetFile = new File(tmpDir + File.separator + "Dockerfile");
+      File context = (File) input;
       try {
-         Files.copy(dockerFile, targetFile);
-         File archive = Archives.tar(tmpDir, File.createTempFile("archive", ".tar"));
-         FileInputStream data = new FileInputStream(archive);
-         Payload payload = Payloads.newInputStreamPayload(data);
-         payload.getContentMetadata().setContentLength(data.getChannel().size());
-         payload.getContentMetadata().setContentType("application/tar");
-         request.setPayload(payload);
+         request.setPayload(context.isDirectory() ? Archives.buildContext(context, false) : Archives
+               .dockerfileContext(context));
       } catch (IOException e) {
-         logger.error(e, "Couldn't create a tarball for %s", targetFile);
+         logger.error(e, "Couldn't create a tarball for %s", context);
          throw Throwables.propagate(e);
       }
       return request;
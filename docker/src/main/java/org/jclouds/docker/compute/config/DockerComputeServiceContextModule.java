@@ -23,10 +23,12 @@ import org.jclouds.compute.config.ComputeServiceAdapterContextModule;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
 import org.jclouds.docker.compute.functions.ContainerToNodeMetadata;
 import org.jclouds.docker.compute.functions.ImageToImage;
 import org.jclouds.docker.compute.functions.StateToStatus;
 import org.jclouds.docker.compute.options.DockerTemplateOptions;
+import org.jclouds.docker.compute.strategy.CreateContainersInGroup;
 import org.jclouds.docker.compute.strategy.DockerComputeServiceAdapter;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.Image;
@@ -54,6 +56,7 @@ public class DockerComputeServiceContextModule extends
       bind(new TypeLiteral<Function<State, NodeMetadata.Status>>() {
       }).to(StateToStatus.class);
       bind(TemplateOptions.class).to(DockerTemplateOptions.class);
+      bind(CreateNodesInGroupThenAddToSet.class).to(CreateContainersInGroup.class);
    }
 
 }
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.Closeable;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.config.DockerProperties;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.EventStream;
+import org.jclouds.docker.options.EventOptions;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Keeps the containers of the Docker daemon in memory, applying the events of the daemon instead of listing and
+ * inspecting every container each time.
+ * <p>
+ * The first read lists all the containers and starts watching the event stream. Containers that are created, started,
+ * stopped or die are marked as changed and inspected again on the next read; destroyed containers are dropped. When
+ * the event stream fails or ends, the containers are listed again before watching it again, so no change is lost. When
+ * the stream only times out because the daemon has been idle, it is watched again from the last event instead.
+ */
+@Singleton
+public class ContainerEventCache implements Closeable {
+
+   /**
+    * The events that change the state of a container.
+    */
+   private static final Set<String> CONTAINER_EVENTS = ImmutableSet.of("create", "start", "restart", "stop", "kill",
+         "die", "pause", "unpause", "destroy");
+
+   /**
+    * Seconds to go back in time when watching the stream after listing the containers, to cover the events that happen
+    * while listing and the clock skew with the daemon. Replaying an event only causes an extra inspection.
+    */
+   private static final long SINCE_MARGIN = 5;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final DockerApi api;
+   private final InspectionCache inspectionCache;
+   private final ThreadFactory threadFactory;
+   private final long retryDelay;
+
+   private final ConcurrentMap<String, Container> containers = Maps.newConcurrentMap();
+   private final Set<String> changed = Sets.newConcurrentHashSet();
+   private final AtomicBoolean started = new AtomicBoolean();
+   private volatile boolean synced;
+   private volatile long syncedSince;
+   private volatile boolean closed;
+   private volatile EventStream stream;
+
+   @Inject
+   ContainerEventCache(DockerApi api, InspectionCache inspectionCache,
+         @Named(DockerProperties.EVENTS_RETRY_DELAY) long retryDelay, Closer closer) {
+      // The stream is watched for the life of the context, so it does not take one of the user threads
+      this(api, inspectionCache, new ThreadFactoryBuilder().setNameFormat("docker-events-%d").setDaemon(true)
+            .build(), retryDelay, closer);
+   }
+
+   @VisibleForTesting
+   ContainerEventCache(DockerApi api, InspectionCache inspectionCache, ThreadFactory threadFactory, long retryDelay,
+         Closer closer) {
+      this.api = checkNotNull(api, "api");
+      this.inspectionCache = checkNotNull(inspectionCache, "inspectionCache");
+      this.threadFactory = checkNotNull(threadFactory, "threadFactory");
+      this.retryDelay = retryDelay;
+      closer.addToClose(this);
+   }
+
+   /**
+    * Returns all the containers, inspecting only the ones that changed since the last call.
+    */
+   public Set<Container> listContainers() {
+      watch();
+      if (!synced) {
+         resync();
+      }
+      refresh();
+      return ImmutableSet.copyOf(containers.values());
+   }
+
+   /**
+    * Marks the given container as changed, so it is inspected again on the next read.
+    */
+   public void invalidate(String id) {
+      changed.add(id);
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+      EventStream current = stream;
+      if (current != null) {
+         closeQuietly(current);
+      }
+   }
+
+   /**
+    * Starts watching the event stream in its own thread, if it is not being watched yet.
+    */
+   private void watch() {
+      if (closed || !started.compareAndSet(false, true)) {
+         return;
+      }
+      threadFactory.newThread(new Runnable() {
+         @Override
+         public void run() {
+            watchEvents();
+         }
+      }).start();
+   }
+
+   private void watchEvents() {
+      while (!closed) {
+         try {
+            // Reuse the listing of the read that started watching, unless the stream ended since then
+            long since = synced ? syncedSince : resync();
+            stream = api.getRemoteApi().events(EventOptions.Builder.since(since));
+            try {
+               while (!closed && stream.hasNext()) {
+                  Event event = stream.next();
+                  apply(event);
+                  syncedSince = Math.max(syncedSince, event.getTime());
+               }
+            } finally {
+               closeQuietly(stream);
+            }
+            logger.debug("<< docker event stream ended");
+         } catch (RuntimeException e) {
+            if (closed) {
+               break;
+            }
+            if (synced && isReadTimeout(e)) {
+               // An idle daemon sends nothing until the socket times out. No event has been missed, so watch the
+               // stream again from the last event without listing the containers again
+               logger.trace("<< docker event stream timed out, watching it again since %s", syncedSince);
+               continue;
+            }
+            synced = false;
+            logger.warn(e, "<< error watching the docker event stream, listing the containers again in %sms",
+                  retryDelay);
+            Uninterruptibles.sleepUninterruptibly(retryDelay, TimeUnit.MILLISECONDS);
+         }
+         synced = false;
+      }
+      logger.debug("<< stopped watching the docker event stream");
+   }
+
+   private static boolean isReadTimeout(RuntimeException e) {
+      return Iterables.any(Throwables.getCausalChain(e), Predicates.instanceOf(SocketTimeoutException.class));
+   }
+
+   @VisibleForTesting
+   void apply(Event event) {
+      if (event.getId() == null || !CONTAINER_EVENTS.contains(event.getStatus())) {
+         return;
+      }
+      logger.trace("<< container(%s) %s", event.getId(), event.getStatus());
+      if ("destroy".equals(event.getStatus())) {
+         containers.remove(event.getId());
+      }
+      // Inspecting a destroyed container on the next read makes sure it is not put back by a concurrent refresh
+      changed.add(event.getId());
+   }
+
+   /**
+    * Replaces all the containers with the ones returned by the list call.
+    *
+    * @return the time to watch the event stream from, in seconds since the epoch.
+    */
+   @VisibleForTesting
+   synchronized long resync() {
+      long since = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - SINCE_MARGIN;
+      changed.clear();
+      logger.debug(">> listing all the containers");
+      Map<String, Container> listed = Maps.newHashMap();
+      for (Container container : inspectionCache.inspectContainers(api.getRemoteApi().listContainers(
+            ListContainerOptions.Builder.all(true)))) {
+         listed.put(container.getId(), container);
+      }
+      containers.keySet().retainAll(listed.keySet());
+      containers.putAll(listed);
+      syncedSince = since;
+      synced = true;
+      return since;
+   }
+
+   /**
+    * Inspects the containers that changed since the last read.
+    */
+   private void refresh() {
+      if (changed.isEmpty()) {
+         return;
+      }
+      Set<String> ids = ImmutableSet.copyOf(changed);
+      changed.removeAll(ids);
+      Set<String> found = Sets.newHashSet();
+      for (Container container : inspectionCache.inspectContainersById(ids)) {
+         found.add(container.getId());
+         containers.put(container.getId(), container);
+      }
+      containers.keySet().removeAll(Sets.difference(ids, found));
+   }
+}
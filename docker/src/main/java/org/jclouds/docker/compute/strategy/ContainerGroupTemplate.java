@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.domain.Location;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * A {@link Template} implementation that carries the containers already created and started for each node of a
+ * group, so the node creations do not have to call the daemon again.
+ * <p>
+ * This class is not public as it is intended to be used internally.
+ *
+ * @see CreateContainersInGroup
+ * @see DockerComputeServiceAdapter
+ */
+class ContainerGroupTemplate implements Template {
+
+   private final Template delegate;
+   private final Map<String, Container> containers;
+   private final Map<String, RuntimeException> failures;
+
+   ContainerGroupTemplate(Template delegate, Map<String, Container> containers,
+         Map<String, RuntimeException> failures) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.containers = ImmutableMap.copyOf(checkNotNull(containers, "containers"));
+      this.failures = ImmutableMap.copyOf(checkNotNull(failures, "failures"));
+   }
+
+   /**
+    * Returns the running container of the node with the given name.
+    *
+    * @throws RuntimeException the reason why the container of the node could not be started.
+    */
+   public Container getContainer(String name) {
+      RuntimeException failure = failures.get(name);
+      if (failure != null) {
+         throw failure;
+      }
+      Container container = containers.get(name);
+      if (container == null) {
+         throw new IllegalStateException(String.format("No container was created for node %s", name));
+      }
+      return container;
+   }
+
+   // Delegate methods
+
+   @Override
+   public Image getImage() {
+      return delegate.getImage();
+   }
+
+   @Override
+   public Hardware getHardware() {
+      return delegate.getHardware();
+   }
+
+   @Override
+   public Location getLocation() {
+      return delegate.getLocation();
+   }
+
+   @Override
+   public TemplateOptions getOptions() {
+      return delegate.getOptions();
+   }
+
+   @Override
+   public ContainerGroupTemplate clone() {
+      return new ContainerGroupTemplate(delegate.clone(), containers, failures);
+   }
+
+   @Override
+   public String toString() {
+      return delegate.toString();
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+         return false;
+      }
+      ContainerGroupTemplate that = ContainerGroupTemplate.class.cast(o);
+      return delegate.equals(that.delegate) && containers.equals(that.containers);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(delegate, containers);
+   }
+}
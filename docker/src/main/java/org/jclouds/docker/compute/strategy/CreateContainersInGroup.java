@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.config.CustomizationResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.compute.options.DockerTemplateOptions;
+import org.jclouds.docker.config.DockerProperties;
+import org.jclouds.docker.domain.Config;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.HostConfig;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Creates all the containers of a group at once before handing them to the node creations.
+ * <p>
+ * The image is verified, and pulled if needed, only once, and the container and host configurations are built once
+ * for the whole group. The containers are created and started concurrently, with at most
+ * {@link DockerProperties#CREATE_MAX_CONCURRENCY} of them at the same time. The started containers are then
+ * inspected, with at most {@link DockerProperties#INSPECT_MAX_CONCURRENCY} calls at the same time, so the nodes are
+ * built from the same details as the containers created one by one. A container that cannot be started, or that is
+ * not running once started, is destroyed and its node is reported as failed.
+ */
+@Singleton
+public class CreateContainersInGroup extends CreateNodesWithGroupEncodedIntoNameThenAddToSet {
+
+   protected final DockerApi api;
+
+   protected final DockerComputeServiceAdapter adapter;
+
+   protected final int maxConcurrency;
+
+   @Inject
+   protected CreateContainersInGroup(
+         CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
+         ListNodesStrategy listNodesStrategy,
+         GroupNamingConvention.Factory namingConvention,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory,
+         DockerApi api, DockerComputeServiceAdapter adapter,
+         @Named(DockerProperties.CREATE_MAX_CONCURRENCY) int maxConcurrency) {
+      super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, userExecutor,
+            customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory);
+      checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than zero");
+      this.api = checkNotNull(api, "api must not be null");
+      this.adapter = checkNotNull(adapter, "adapter must not be null");
+      this.maxConcurrency = maxConcurrency;
+   }
+
+   @Override
+   public Map<?, ListenableFuture<Void>> execute(String group, int count, Template template,
+         Set<NodeMetadata> goodNodes, Map<NodeMetadata, Exception> badNodes,
+         Multimap<NodeMetadata, CustomizationResponse> customizationResponses) {
+      if (count < 2) {
+         return super.execute(group, count, template, goodNodes, badNodes, customizationResponses);
+      }
+
+      Set<String> names = getNextNames(group, template, count);
+
+      DockerTemplateOptions templateOptions = DockerTemplateOptions.class.cast(template.getOptions());
+      Config config = adapter.containerConfig(adapter.prepareImage(template), templateOptions);
+      HostConfig hostConfig = adapter.hostConfig(templateOptions);
+
+      logger.debug(">> creating %s containers in group %s with containerConfig(%s)", count, group, config);
+      ContainerGroupTemplate groupTemplate = createContainers(template, names, config, hostConfig);
+
+      Map<String, ListenableFuture<Void>> responses = Maps.newLinkedHashMap();
+      for (String name : names) {
+         responses.put(name, Futures.transform(createNodeInGroupWithNameAndTemplate(group, name, groupTemplate),
+               customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
+                     badNodes, customizationResponses)));
+      }
+      return responses;
+   }
+
+   /**
+    * Creates and starts a container for each name, and inspects the started ones to confirm they are running.
+    *
+    * @return the template with the running container of each name, or the reason why it could not be started.
+    */
+   @VisibleForTesting
+   ContainerGroupTemplate createContainers(Template template, Set<String> names, Config config,
+         HostConfig hostConfig) {
+      Map<String, String> started = Maps.newLinkedHashMap();
+      Map<String, RuntimeException> failures = Maps.newHashMap();
+      for (Map.Entry<String, ListenableFuture<String>> entry : createAndStart(names, config, hostConfig).entrySet()) {
+         try {
+            started.put(entry.getKey(), Uninterruptibles.getUninterruptibly(entry.getValue()));
+         } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            failures.put(entry.getKey(), cause instanceof RuntimeException ? (RuntimeException) cause
+                  : new IllegalStateException("Could not create container " + entry.getKey(), cause));
+         }
+      }
+
+      Map<String, Container> containers = Maps.newHashMap();
+      if (!started.isEmpty()) {
+         // Inspected with at most DockerProperties.INSPECT_MAX_CONCURRENCY
+         // calls in flight
+         Map<String, Container> inspected = Maps.newHashMap();
+         for (Container container : adapter.listNodesByIds(started.values())) {
+            inspected.put(container.getId(), container);
+         }
+         for (Map.Entry<String, String> entry : started.entrySet()) {
+            Container container = inspected.get(entry.getValue());
+            if (container != null && DockerComputeServiceAdapter.isStarted(container)) {
+               containers.put(entry.getKey(), container);
+            } else {
+               failures.put(entry.getKey(), notStarted(entry.getValue()));
+            }
+         }
+      }
+      logger.debug("<< created %s containers", containers.size());
+      return new ContainerGroupTemplate(template, containers, failures);
+   }
+
+   /**
+    * Creates and starts a container for each name, keeping at most {@link #maxConcurrency} of them in flight. The
+    * containers that are created but cannot be started are destroyed.
+    */
+   private Map<String, ListenableFuture<String>> createAndStart(Iterable<String> names, final Config config,
+         final HostConfig hostConfig) {
+      final Semaphore permits = new Semaphore(maxConcurrency);
+      Map<String, ListenableFuture<String>> futures = Maps.newLinkedHashMap();
+      for (final String name : names) {
+         permits.acquireUninterruptibly();
+         futures.put(name, userExecutor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+               try {
+                  String containerId = api.getRemoteApi().createContainer(name, config).getId();
+                  try {
+                     api.getRemoteApi().startContainer(containerId, hostConfig);
+                  } catch (RuntimeException ex) {
+                     destroyQuietly(containerId);
+                     throw ex;
+                  }
+                  logger.trace("<< container(%s) %s started", containerId, name);
+                  return containerId;
+               } finally {
+                  permits.release();
+               }
+            }
+         }));
+      }
+      return futures;
+   }
+
+   private IllegalStateException notStarted(String containerId) {
+      destroyQuietly(containerId);
+      return new IllegalStateException(String.format("Container %s has not started correctly", containerId));
+   }
+
+   private void destroyQuietly(String containerId) {
+      try {
+         adapter.destroyNode(containerId);
+      } catch (RuntimeException ex) {
+         logger.warn(ex, "<< could not destroy container(%s)", containerId);
+      }
+   }
+}
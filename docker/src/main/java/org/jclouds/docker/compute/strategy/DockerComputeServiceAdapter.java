@@ -35,15 +35,20 @@ import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.docker.DockerApi;
 import org.jclouds.docker.compute.options.DockerTemplateOptions;
+import org.jclouds.docker.config.DockerProperties;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.HostConfig;
 import org.jclouds.docker.domain.Image;
+import org.jclouds.docker.domain.ProgressMessage;
+import org.jclouds.docker.features.internal.ProgressStream;
+import org.jclouds.docker.options.CreateImageOptions;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.options.RemoveContainerOptions;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LoginCredentials;
 import org.jclouds.logging.Logger;
+import org.jclouds.rest.ResourceNotFoundException;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
@@ -64,10 +69,17 @@ public class DockerComputeServiceAdapter implements
    protected Logger logger = Logger.NULL;
 
    private final DockerApi api;
+   private final InspectionCache inspectionCache;
+   private final ContainerEventCache eventCache;
+   private final boolean eventsEnabled;
 
    @Inject
-   public DockerComputeServiceAdapter(DockerApi api) {
+   public DockerComputeServiceAdapter(DockerApi api, InspectionCache inspectionCache, ContainerEventCache eventCache,
+         @Named(DockerProperties.EVENTS_ENABLED) boolean eventsEnabled) {
       this.api = checkNotNull(api, "api");
+      this.inspectionCache = checkNotNull(inspectionCache, "inspectionCache");
+      this.eventCache = checkNotNull(eventCache, "eventCache");
+      this.eventsEnabled = eventsEnabled;
    }
 
    @Override
@@ -76,11 +88,50 @@ public class DockerComputeServiceAdapter implements
       checkNotNull(template, "template was null");
       checkNotNull(template.getOptions(), "template options was null");
 
-      String imageId = checkNotNull(template.getImage().getId(), "template image id must not be null");
       String loginUser = template.getImage().getDefaultCredentials().getUser();
       String loginUserPassword = template.getImage().getDefaultCredentials().getPassword();
+      LoginCredentials credentials = LoginCredentials.builder().user(loginUser).password(loginUserPassword).build();
+
+      if (template instanceof ContainerGroupTemplate) {
+         // Already created and started with the rest of the group
+         Container container = ContainerGroupTemplate.class.cast(template).getContainer(name);
+         return new NodeAndInitialCredentials<Container>(container, container.getId(), credentials);
+      }
 
       DockerTemplateOptions templateOptions = DockerTemplateOptions.class.cast(template.getOptions());
+      Config containerConfig = containerConfig(prepareImage(template), templateOptions);
+
+      logger.debug(">> creating new container with containerConfig(%s)", containerConfig);
+      Container container = api.getRemoteApi().createContainer(name, containerConfig);
+      logger.trace("<< container(%s)", container.getId());
+
+      api.getRemoteApi().startContainer(container.getId(), hostConfig(templateOptions));
+      container = api.getRemoteApi().inspectContainer(container.getId());
+      if (!isStarted(container)) {
+         destroyNode(container.getId());
+         throw new IllegalStateException(String.format("Container %s has not started correctly", container.getId()));
+      }
+      return new NodeAndInitialCredentials<Container>(container, container.getId(), credentials);
+   }
+
+   /**
+    * Makes sure the image of the given template is present in the daemon. Images taken from the last listing of the
+    * daemon images are used as they are, without checking them again.
+    *
+    * @return the reference to create the containers from.
+    */
+   String prepareImage(Template template) {
+      String imageId = checkNotNull(template.getImage().getId(), "template image id must not be null");
+      if (inspectionCache.isListedImage(imageId)) {
+         return imageId;
+      }
+      return pullImageIfMissing(imageId, template.getImage().getDescription());
+   }
+
+   /**
+    * Builds the configuration of the containers created with the given options.
+    */
+   Config containerConfig(String imageId, DockerTemplateOptions templateOptions) {
       int[] inboundPorts = templateOptions.getInboundPorts();
 
       Map<String, Object> exposedPorts = Maps.newHashMap();
@@ -119,12 +170,13 @@ public class DockerComputeServiceAdapter implements
          }
          containerConfigBuilder.volumes(volumes);
       }
-      Config containerConfig = containerConfigBuilder.build();
-
-      logger.debug(">> creating new container with containerConfig(%s)", containerConfig);
-      Container container = api.getRemoteApi().createContainer(name, containerConfig);
-      logger.trace("<< container(%s)", container.getId());
+      return containerConfigBuilder.build();
+   }
 
+   /**
+    * Builds the configuration to start the containers created with the given options.
+    */
+   HostConfig hostConfig(DockerTemplateOptions templateOptions) {
       HostConfig.Builder hostConfigBuilder = HostConfig.builder()
               .publishAllPorts(true)
               .privileged(true);
@@ -138,16 +190,43 @@ public class DockerComputeServiceAdapter implements
             hostConfigBuilder.binds(ImmutableList.of(entry.getKey() + ":" + entry.getValue()));
          }
       }
-      HostConfig hostConfig = hostConfigBuilder.build();
+      return hostConfigBuilder.build();
+   }
 
-      api.getRemoteApi().startContainer(container.getId(), hostConfig);
-      container = api.getRemoteApi().inspectContainer(container.getId());
-      if (container.getState().getExitCode() != 0) {
-         destroyNode(container.getId());
-         throw new IllegalStateException(String.format("Container %s has not started correctly", container.getId()));
+   /**
+    * Whether the given inspected container has started correctly, both when it is created on its own and with the rest
+    * of its group.
+    */
+   static boolean isStarted(Container container) {
+      return container.getState() != null && container.getState().isRunning();
+   }
+
+   /**
+    * Pulls the image from its repository if the daemon does not have it any more, waiting for the pull to complete so
+    * the container is not created from a missing image.
+    *
+    * @return the reference to create the container from.
+    */
+   private String pullImageIfMissing(String imageId, String repoTag) {
+      try {
+         api.getRemoteApi().inspectImage(imageId);
+         return imageId;
+      } catch (ResourceNotFoundException e) {
+         if (repoTag == null) {
+            throw e;
+         }
       }
-      return new NodeAndInitialCredentials<Container>(container, container.getId(),
-              LoginCredentials.builder().user(loginUser).password(loginUserPassword).build());
+      CreateImageOptions options = CreateImageOptions.Builder.fromImage(repoTag);
+      // The tag is separated by the last colon, unless it is the port of the registry
+      int tagSeparator = repoTag.lastIndexOf(':');
+      if (tagSeparator > repoTag.lastIndexOf('/')) {
+         options = CreateImageOptions.Builder.fromImage(repoTag.substring(0, tagSeparator))
+                 .tag(repoTag.substring(tagSeparator + 1));
+      }
+      logger.debug(">> pulling image %s", repoTag);
+      ProgressMessage last = ProgressStream.decode(api.getRemoteApi().createImage(options)).awaitCompletion();
+      logger.trace("<< pulled image %s: %s", repoTag, last);
+      return repoTag;
    }
 
    @Override
@@ -163,47 +242,44 @@ public class DockerComputeServiceAdapter implements
 
    @Override
    public Set<Image> listImages() {
-      Set<Image> images = Sets.newHashSet();
-      for (Image image : api.getRemoteApi().listImages()) {
-         // less efficient than just listImages but returns richer json that needs repoTags coming from listImages
-         Image inspected = api.getRemoteApi().inspectImage(image.getId());
-         if (inspected.getRepoTags().isEmpty()) {
-            inspected = Image.builder().fromImage(inspected).repoTags(image.getRepoTags()).build();
-         }
-         images.add(inspected);
-      }
-      return images;
+      // less efficient than just listImages but returns richer json that needs repoTags coming from listImages
+      return inspectionCache.inspectImages(api.getRemoteApi().listImages());
    }
 
    @Override
    public Image getImage(final String imageId) {
-      // less efficient than just inspectImage but listImages return repoTags
-      return find(listImages(), new Predicate<Image>() {
+      final Image inspected;
+      try {
+         inspected = api.getRemoteApi().inspectImage(imageId);
+      } catch (ResourceNotFoundException e) {
+         return null;
+      }
+      if (!inspected.getRepoTags().isEmpty()) {
+         return inspected;
+      }
+      // the inspect call does not return the repoTags, so take them from listImages
+      Image listed = find(api.getRemoteApi().listImages(), new Predicate<Image>() {
 
          @Override
          public boolean apply(Image input) {
-            return input.getId().equals(imageId);
+            return input.getId().equals(inspected.getId());
          }
       }, null);
+      return listed == null ? inspected : Image.builder().fromImage(inspected).repoTags(listed.getRepoTags()).build();
    }
 
    @Override
    public Iterable<Container> listNodes() {
-      Set<Container> containers = Sets.newHashSet();
-      for (Container container : api.getRemoteApi().listContainers(ListContainerOptions.Builder.all(true))) {
-         // less efficient than just listNodes but returns richer json
-         containers.add(api.getRemoteApi().inspectContainer(container.getId()));
+      if (eventsEnabled) {
+         return eventCache.listContainers();
       }
-      return containers;
+      // less efficient than just listNodes but returns richer json
+      return inspectionCache.inspectContainers(api.getRemoteApi().listContainers(ListContainerOptions.Builder.all(true)));
    }
 
    @Override
    public Iterable<Container> listNodesByIds(final Iterable<String> ids) {
-      Set<Container> containers = Sets.newHashSet();
-      for (String id : ids) {
-         containers.add(api.getRemoteApi().inspectContainer(id));
-      }
-      return containers;
+      return inspectionCache.inspectContainersById(ids);
    }
 
    @Override
@@ -219,6 +295,8 @@ public class DockerComputeServiceAdapter implements
    @Override
    public void destroyNode(String id) {
       api.getRemoteApi().removeContainer(id, RemoveContainerOptions.Builder.force(true));
+      inspectionCache.invalidateContainer(id);
+      eventCache.invalidate(id);
    }
 
    @Override
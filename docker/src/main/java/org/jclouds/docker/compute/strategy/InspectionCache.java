@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.config.DockerProperties;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.Image;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Inspects containers and images concurrently, keeping the result of each inspection until the container or image
+ * changes.
+ * <p>
+ * The list calls return the <code>Created</code> and <code>Status</code> of each entry, so entries whose fields did
+ * not change since the last listing are not inspected again. At most
+ * {@link DockerProperties#INSPECT_MAX_CONCURRENCY} inspections are run at the same time.
+ */
+@Singleton
+public class InspectionCache {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final DockerApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int maxConcurrency;
+
+   @VisibleForTesting
+   final ConcurrentMap<String, Inspected<Container>> containers = Maps.newConcurrentMap();
+   @VisibleForTesting
+   final ConcurrentMap<String, Inspected<Image>> images = Maps.newConcurrentMap();
+
+   @Inject
+   InspectionCache(DockerApi api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(DockerProperties.INSPECT_MAX_CONCURRENCY) int maxConcurrency) {
+      checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than zero");
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.maxConcurrency = maxConcurrency;
+   }
+
+   /**
+    * Returns the inspected version of the given listed containers, only inspecting the ones that changed.
+    */
+   public Set<Container> inspectContainers(Iterable<Container> listed) {
+      Map<String, Container> changed = Maps.newLinkedHashMap();
+      ImmutableSet.Builder<Container> result = ImmutableSet.builder();
+      Set<String> ids = Sets.newHashSet();
+      for (Container container : listed) {
+         ids.add(container.getId());
+         Inspected<Container> cached = containers.get(container.getId());
+         if (cached != null && cached.matches(container.getCreated(), container.getStatus())) {
+            result.add(cached.value);
+         } else {
+            changed.put(container.getId(), container);
+         }
+      }
+      // Forget the containers that no longer exist
+      containers.keySet().retainAll(ids);
+
+      List<Container> inspected = inspectAll(changed.keySet(), new Function<String, Container>() {
+         @Override
+         public Container apply(String id) {
+            return api.getRemoteApi().inspectContainer(id);
+         }
+      });
+      for (Container container : inspected) {
+         Container summary = changed.get(container.getId());
+         if (summary != null) {
+            containers.put(container.getId(), new Inspected<Container>(container, summary.getCreated(),
+                  summary.getStatus()));
+         }
+         result.add(container);
+      }
+      return result.build();
+   }
+
+   /**
+    * Returns the inspected version of the given listed images, only inspecting the ones that changed. The repo tags
+    * are taken from the listing, as the inspect call does not return them.
+    */
+   public Set<Image> inspectImages(Iterable<Image> listed) {
+      Map<String, Image> changed = Maps.newLinkedHashMap();
+      ImmutableSet.Builder<Image> result = ImmutableSet.builder();
+      Set<String> ids = Sets.newHashSet();
+      for (Image image : listed) {
+         ids.add(image.getId());
+         Inspected<Image> cached = images.get(image.getId());
+         if (cached != null && cached.matches(image.getCreated(), image.getRepoTags())) {
+            result.add(cached.value);
+         } else {
+            changed.put(image.getId(), image);
+         }
+      }
+      images.keySet().retainAll(ids);
+
+      List<Image> inspected = inspectAll(changed.keySet(), new Function<String, Image>() {
+         @Override
+         public Image apply(String id) {
+            return api.getRemoteApi().inspectImage(id);
+         }
+      });
+      for (Image image : inspected) {
+         Image summary = changed.get(image.getId());
+         if (summary != null) {
+            if (image.getRepoTags().isEmpty()) {
+               image = Image.builder().fromImage(image).repoTags(summary.getRepoTags()).build();
+            }
+            images.put(image.getId(), new Inspected<Image>(image, summary.getCreated(), summary.getRepoTags()));
+         }
+         result.add(image);
+      }
+      return result.build();
+   }
+
+   /**
+    * Inspects the given containers concurrently, without using the cache.
+    */
+   public Set<Container> inspectContainersById(Iterable<String> ids) {
+      return ImmutableSet.copyOf(inspectAll(ImmutableSet.copyOf(ids), new Function<String, Container>() {
+         @Override
+         public Container apply(String id) {
+            return api.getRemoteApi().inspectContainer(id);
+         }
+      }));
+   }
+
+   /**
+    * Returns whether the given image was returned by the last listing of the daemon images.
+    */
+   public boolean isListedImage(String id) {
+      return images.containsKey(id);
+   }
+
+   /**
+    * Forgets the inspection of the given container.
+    */
+   public void invalidateContainer(String id) {
+      containers.remove(id);
+   }
+
+   /**
+    * Runs the given inspection for each id, keeping at most {@link #maxConcurrency} of them in flight. Entries that
+    * disappeared before being inspected are skipped.
+    */
+   private <T> List<T> inspectAll(Iterable<String> ids, final Function<String, T> inspect) {
+      final Semaphore permits = new Semaphore(maxConcurrency);
+      List<ListenableFuture<T>> futures = Lists.newArrayList();
+      try {
+         for (final String id : ids) {
+            permits.acquire();
+            ListenableFuture<T> future = userExecutor.submit(new Callable<T>() {
+               @Override
+               public T call() {
+                  try {
+                     return inspect.apply(id);
+                  } finally {
+                     permits.release();
+                  }
+               }
+            });
+            futures.add(future);
+         }
+      } catch (InterruptedException ex) {
+         for (ListenableFuture<T> future : futures) {
+            future.cancel(true);
+         }
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while inspecting", ex);
+      }
+
+      ImmutableList.Builder<T> result = ImmutableList.builder();
+      for (T inspected : Futures.getUnchecked(Futures.allAsList(futures))) {
+         if (inspected != null) {
+            result.add(inspected);
+         }
+      }
+      return result.build();
+   }
+
+   @VisibleForTesting
+   static class Inspected<T> {
+      private final T value;
+      private final Object[] fingerprint;
+
+      Inspected(T value, Object... fingerprint) {
+         this.value = value;
+         this.fingerprint = fingerprint;
+      }
+
+      boolean matches(Object... fields) {
+         return Arrays.equals(fingerprint, fields);
+      }
+   }
+}
@@ -19,17 +19,16 @@ package org.jclouds.docker.config;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.json.config.GsonModule;
 
 import javax.inject.Singleton;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -48,14 +47,28 @@ public class DockerParserModule extends AbstractModule {
               .build();
    }
 
-   protected static class ContainerTypeAdapter implements JsonDeserializer<Container> {
+   /**
+    * Reads containers with a plain {@link Gson} instance, so the fields the Docker API sends as <code>null</code> are
+    * kept as they are instead of being replaced by the defaults of the jclouds {@link Gson} configuration.
+    * <p>
+    * The delegate adapter is created once and streams straight from the {@link JsonReader} into the
+    * {@link Container} and its nested {@link org.jclouds.docker.domain.Config},
+    * {@link org.jclouds.docker.domain.HostConfig} and {@link org.jclouds.docker.domain.NetworkSettings}, without
+    * building an intermediate {@link com.google.gson.JsonElement} tree.
+    */
+   protected static class ContainerTypeAdapter extends TypeAdapter<Container> {
+
+      private static final TypeAdapter<Container> DELEGATE = new GsonBuilder().serializeNulls().create()
+              .getAdapter(Container.class);
+
+      @Override
+      public void write(JsonWriter out, Container value) throws IOException {
+         DELEGATE.write(out, value);
+      }
 
       @Override
-      public Container deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws
-              JsonParseException {
-         Gson gson = new GsonBuilder().serializeNulls().create();
-         final JsonObject jsonObject = json.getAsJsonObject();
-         return gson.fromJson(jsonObject, Container.class);
+      public Container read(JsonReader in) throws IOException {
+         return DELEGATE.read(in);
       }
    }
 
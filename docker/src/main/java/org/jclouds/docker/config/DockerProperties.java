@@ -23,4 +23,25 @@ public class DockerProperties {
     */
    public static final String HOST_PASSWORD = "jclouds.docker.host.password";
 
+   /**
+    * maximum number of concurrent inspect calls when listing containers and images
+    */
+   public static final String INSPECT_MAX_CONCURRENCY = "jclouds.docker.inspect.max-concurrency";
+
+   /**
+    * maximum number of containers created and started at the same time when creating a group of nodes
+    */
+   public static final String CREATE_MAX_CONCURRENCY = "jclouds.docker.create.max-concurrency";
+
+   /**
+    * whether the compute service keeps the containers up to date from the event stream of the daemon instead of
+    * listing them every time
+    */
+   public static final String EVENTS_ENABLED = "jclouds.docker.events.enabled";
+
+   /**
+    * milliseconds to wait before reconnecting to the event stream after it failed
+    */
+   public static final String EVENTS_RETRY_DELAY = "jclouds.docker.events.retry-delay";
+
 }
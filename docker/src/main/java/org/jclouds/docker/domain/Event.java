@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import java.beans.ConstructorProperties;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * An event of the Docker daemon, such as the creation, start, death or destruction of a container.
+ */
+public class Event {
+   @SerializedName("status")
+   private final String status;
+   @SerializedName("id")
+   private final String id;
+   @SerializedName("from")
+   private final String from;
+   @SerializedName("time")
+   private final long time;
+
+   @ConstructorProperties({ "status", "id", "from", "time" })
+   protected Event(String status, @Nullable String id, @Nullable String from, long time) {
+      this.status = checkNotNull(status, "status");
+      this.id = id;
+      this.from = from;
+      this.time = time;
+   }
+
+   /**
+    * @return the kind of event, for example <code>create</code>, <code>start</code>, <code>die</code> or
+    *         <code>destroy</code>.
+    */
+   public String getStatus() {
+      return status;
+   }
+
+   /**
+    * @return the id of the container or image the event refers to.
+    */
+   public String getId() {
+      return id;
+   }
+
+   /**
+    * @return the image the container was created from.
+    */
+   public String getFrom() {
+      return from;
+   }
+
+   /**
+    * @return the time of the event, in seconds since the epoch.
+    */
+   public long getTime() {
+      return time;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Event that = (Event) o;
+
+      return Objects.equal(this.status, that.status) &&
+              Objects.equal(this.id, that.id) &&
+              Objects.equal(this.from, that.from) &&
+              Objects.equal(this.time, that.time);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(status, id, from, time);
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this)
+              .add("status", status)
+              .add("id", id)
+              .add("from", from)
+              .add("time", time)
+              .toString();
+   }
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromEvent(this);
+   }
+
+   public static final class Builder {
+
+      private String status;
+      private String id;
+      private String from;
+      private long time;
+
+      public Builder status(String status) {
+         this.status = status;
+         return this;
+      }
+
+      public Builder id(String id) {
+         this.id = id;
+         return this;
+      }
+
+      public Builder from(String from) {
+         this.from = from;
+         return this;
+      }
+
+      public Builder time(long time) {
+         this.time = time;
+         return this;
+      }
+
+      public Event build() {
+         return new Event(status, id, from, time);
+      }
+
+      public Builder fromEvent(Event in) {
+         return this
+                 .status(in.getStatus())
+                 .id(in.getId())
+                 .from(in.getFrom())
+                 .time(in.getTime());
+      }
+   }
+}
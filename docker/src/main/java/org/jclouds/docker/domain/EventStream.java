@@ -14,24 +14,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.jclouds.abiquo.internal;
+package org.jclouds.docker.domain;
 
-import static org.testng.Assert.assertNotNull;
-
-import org.jclouds.abiquo.features.services.CloudService;
-import org.testng.annotations.Test;
+import java.io.Closeable;
+import java.util.Iterator;
 
 /**
- * Unit tests for the {@link BaseCloudService} class.
+ * The events sent by the Docker daemon, decoded one at a time as they arrive.
+ * <p>
+ * When no <code>until</code> option is given the daemon keeps the stream open, so {@link #hasNext()} blocks until the
+ * next event arrives. The stream must be closed to release the underlying connection.
  */
-@Test(groups = "unit", testName = "BaseCloudServiceTest")
-public class BaseCloudServiceTest extends BaseInjectionTest {
-
-   public void testAllPropertiesInjected() {
-      BaseCloudService service = (BaseCloudService) injector.getInstance(CloudService.class);
+public interface EventStream extends Iterator<Event>, Closeable {
 
-      assertNotNull(service.context);
-      assertNotNull(service.listVirtualDatacenters);
-      assertNotNull(service.listVirtualAppliances);
-   }
 }
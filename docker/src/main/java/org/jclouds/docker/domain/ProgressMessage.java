@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import java.beans.ConstructorProperties;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * One of the messages the daemon sends while pulling, building or deleting an image.
+ * <p>
+ * Pull messages carry the id of the layer and how many of its bytes have been transferred, build messages carry the
+ * output of the build steps and delete messages the untagged or deleted image. Any of them may carry an error, which
+ * means the operation failed.
+ */
+public class ProgressMessage {
+   @SerializedName("id")
+   private final String id;
+   @SerializedName("status")
+   private final String status;
+   @SerializedName("progressDetail")
+   private final ProgressDetail progressDetail;
+   @SerializedName("stream")
+   private final String stream;
+   @SerializedName("error")
+   private final String error;
+   @SerializedName("Untagged")
+   private final String untagged;
+   @SerializedName("Deleted")
+   private final String deleted;
+
+   @ConstructorProperties({ "id", "status", "progressDetail", "stream", "error", "Untagged", "Deleted" })
+   protected ProgressMessage(@Nullable String id, @Nullable String status, @Nullable ProgressDetail progressDetail,
+                             @Nullable String stream, @Nullable String error, @Nullable String untagged,
+                             @Nullable String deleted) {
+      this.id = id;
+      this.status = status;
+      this.progressDetail = progressDetail;
+      this.stream = stream;
+      this.error = error;
+      this.untagged = untagged;
+      this.deleted = deleted;
+   }
+
+   /**
+    * @return the id of the layer the message refers to, when pulling an image.
+    */
+   public String getId() {
+      return id;
+   }
+
+   public String getStatus() {
+      return status;
+   }
+
+   /**
+    * @return the bytes of the layer transferred so far, or <code>0</code> if unknown.
+    */
+   public long getCurrent() {
+      return progressDetail != null ? progressDetail.current : 0;
+   }
+
+   /**
+    * @return the size of the layer in bytes, or <code>0</code> if unknown.
+    */
+   public long getTotal() {
+      return progressDetail != null ? progressDetail.total : 0;
+   }
+
+   /**
+    * @return the output of the build.
+    */
+   public String getStream() {
+      return stream;
+   }
+
+   public String getError() {
+      return error;
+   }
+
+   public boolean isError() {
+      return error != null;
+   }
+
+   public String getUntagged() {
+      return untagged;
+   }
+
+   public String getDeleted() {
+      return deleted;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      ProgressMessage that = (ProgressMessage) o;
+
+      return Objects.equal(this.id, that.id) &&
+              Objects.equal(this.status, that.status) &&
+              Objects.equal(this.getCurrent(), that.getCurrent()) &&
+              Objects.equal(this.getTotal(), that.getTotal()) &&
+              Objects.equal(this.stream, that.stream) &&
+              Objects.equal(this.error, that.error) &&
+              Objects.equal(this.untagged, that.untagged) &&
+              Objects.equal(this.deleted, that.deleted);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(id, status, getCurrent(), getTotal(), stream, error, untagged, deleted);
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).omitNullValues()
+              .add("id", id)
+              .add("status", status)
+              .add("current", getCurrent())
+              .add("total", getTotal())
+              .add("stream", stream)
+              .add("error", error)
+              .add("untagged", untagged)
+              .add("deleted", deleted)
+              .toString();
+   }
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromProgressMessage(this);
+   }
+
+   public static final class Builder {
+
+      private String id;
+      private String status;
+      private long current;
+      private long total;
+      private String stream;
+      private String error;
+      private String untagged;
+      private String deleted;
+
+      public Builder id(String id) {
+         this.id = id;
+         return this;
+      }
+
+      public Builder status(String status) {
+         this.status = status;
+         return this;
+      }
+
+      public Builder current(long current) {
+         this.current = current;
+         return this;
+      }
+
+      public Builder total(long total) {
+         this.total = total;
+         return this;
+      }
+
+      public Builder stream(String stream) {
+         this.stream = stream;
+         return this;
+      }
+
+      public Builder error(String error) {
+         this.error = error;
+         return this;
+      }
+
+      public Builder untagged(String untagged) {
+         this.untagged = untagged;
+         return this;
+      }
+
+      public Builder deleted(String deleted) {
+         this.deleted = deleted;
+         return this;
+      }
+
+      public ProgressMessage build() {
+         ProgressDetail progressDetail = current != 0 || total != 0 ? new ProgressDetail(current, total) : null;
+         return new ProgressMessage(id, status, progressDetail, stream, error, untagged, deleted);
+      }
+
+      public Builder fromProgressMessage(ProgressMessage in) {
+         return this
+                 .id(in.getId())
+                 .status(in.getStatus())
+                 .current(in.getCurrent())
+                 .total(in.getTotal())
+                 .stream(in.getStream())
+                 .error(in.getError())
+                 .untagged(in.getUntagged())
+                 .deleted(in.getDeleted());
+      }
+   }
+
+   /**
+    * The transferred and total bytes of a layer.
+    */
+   public static class ProgressDetail {
+      @SerializedName("current")
+      private final long current;
+      @SerializedName("total")
+      private final long total;
+
+      @ConstructorProperties({ "current", "total" })
+      protected ProgressDetail(long current, long total) {
+         this.current = current;
+         this.total = total;
+      }
+   }
+}
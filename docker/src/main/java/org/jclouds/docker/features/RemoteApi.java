@@ -35,13 +35,16 @@ import org.jclouds.Fallbacks;
 import org.jclouds.docker.binders.BindInputStreamToRequest;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.EventStream;
 import org.jclouds.docker.domain.HostConfig;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.Version;
+import org.jclouds.docker.functions.ParseEventStream;
 import org.jclouds.docker.options.BuildOptions;
 import org.jclouds.docker.options.CommitOptions;
 import org.jclouds.docker.options.CreateImageOptions;
 import org.jclouds.docker.options.DeleteImageOptions;
+import org.jclouds.docker.options.EventOptions;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.options.ListImageOptions;
 import org.jclouds.docker.options.RemoveContainerOptions;
@@ -49,6 +52,9 @@ import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.PayloadParam;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
 @Consumes(MediaType.APPLICATION_JSON)
@@ -64,6 +70,18 @@ public interface RemoteApi extends Closeable {
    @Path("/version")
    Version getVersion();
 
+   /**
+    * Monitor the events of the Docker daemon.
+    *
+    * @param options the options to filter the events (@see EventOptions)
+    * @return the stream of events, decoded lazily as they arrive. It must be closed once done with it.
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   @ResponseParser(ParseEventStream.class)
+   EventStream events(EventOptions options);
+
    /**
     * List all running containers
     *
@@ -163,6 +181,33 @@ public interface RemoteApi extends Closeable {
    @Path("/containers/{id}/stop")
    void stopContainer(@PathParam("id") String containerId);
 
+   /**
+    * Export the filesystem of a container.
+    *
+    * @param containerId The id of the container to export.
+    * @return the tar archive of the filesystem, streamed as it is sent by the daemon, or <code>null</code> if the
+    *         container does not exist. Use {@link org.jclouds.docker.features.internal.Archives#untar} to extract it.
+    */
+   @Named("container:export")
+   @GET
+   @Path("/containers/{id}/export")
+   @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+   InputStream exportContainer(@PathParam("id") String containerId);
+
+   /**
+    * Copy files or folders of a container.
+    *
+    * @param containerId The id of the container to copy from.
+    * @param resource the path of the file or folder in the container.
+    * @return the tar archive of the resource, streamed as it is sent by the daemon. Use
+    *         {@link org.jclouds.docker.features.internal.Archives#untar} to extract it.
+    */
+   @Named("container:copy")
+   @POST
+   @Path("/containers/{id}/copy")
+   @MapBinder(BindToJsonPayload.class)
+   InputStream copy(@PathParam("id") String containerId, @PayloadParam("Resource") String resource);
+
    /**
     * Create a new image from a container’s changes
     *
@@ -212,7 +257,8 @@ public interface RemoteApi extends Closeable {
     * Create an image, either by pull it from the registry or by importing it
     *
     * @param options the configuration to create an image (@see CreateImageOptions)
-    * @return a stream of the image creation.
+    * @return a stream of the image creation. Use
+    *         {@link org.jclouds.docker.features.internal.ProgressStream#decode} to read its progress.
     */
    @Named("image:create")
    @POST
@@ -223,7 +269,8 @@ public interface RemoteApi extends Closeable {
     * Delete an image.
     *
     * @param name the image name to be deleted
-    * @return the stream of the deletion execution.
+    * @return the stream of the deletion execution. Use
+    *         {@link org.jclouds.docker.features.internal.ProgressStream#decode} to read it.
     */
    @Named("image:delete")
    @DELETE
@@ -235,20 +282,47 @@ public interface RemoteApi extends Closeable {
     *
     * @param name the name of the image to be removed
     * @param options the image deletion's options (@see DeleteImageOptions)
-    * @return the stream of the deletion execution.
+    * @return the stream of the deletion execution. Use
+    *         {@link org.jclouds.docker.features.internal.ProgressStream#decode} to read it.
     */
    @Named("image:delete")
    @DELETE
    @Path("/images/{name}")
    InputStream deleteImage(@PathParam("name") String name, DeleteImageOptions options);
 
+   /**
+    * Get a tarball with all the images and tags of a repository, or a single image.
+    *
+    * @param name the name of the repository or the id of the image
+    * @return the tarball, streamed as it is sent by the daemon. Use
+    *         {@link org.jclouds.docker.features.internal.ImageTransfer#transfer} to copy the images to another daemon.
+    */
+   @Named("image:get")
+   @GET
+   @Path("/images/{name}/get")
+   InputStream saveImage(@PathParam("name") String name);
+
+   /**
+    * Load a tarball with a set of images and tags, as returned by {@link #saveImage(String)}.
+    *
+    * @param tarball the tarball. Payloads without a content length are streamed with chunked encoding.
+    */
+   @Named("image:load")
+   @POST
+   @Path("/images/load")
+   @Headers(keys = "Content-Type", values = "application/tar")
+   void loadImage(Payload tarball);
+
    /**
     * Build an image from Dockerfile via stdin
     *
     * @param inputStream The stream must be a tar archive compressed with one of the following algorithms: identity
-    *                    (no compression), gzip, bzip2, xz.
+    *                    (no compression), gzip, bzip2, xz. Use
+    *                    {@link org.jclouds.docker.features.internal.Archives#buildContext(File, boolean)} to stream
+    *                    a directory without writing the archive to disk.
     * @param options the image build's options (@see BuildOptions)
-    * @return a stream of the build execution
+    * @return a stream of the build execution. Use
+    *         {@link org.jclouds.docker.features.internal.ProgressStream#decode} to read its output.
     */
    @Named("image:build")
    @POST
@@ -259,9 +333,11 @@ public interface RemoteApi extends Closeable {
    /**
     * Build an image from Dockerfile via stdin
     *
-    * @param dockerFile The file to be compressed with one of the following algorithms: identity, gzip, bzip2, xz.*
+    * @param dockerFile The Dockerfile, or the directory with the whole build context. The build context is streamed
+    *                   as a tar archive, honouring the <code>.dockerignore</code> file of the directory.
     * @param options the image build's options (@see BuildOptions)
-    * @return a stream of the build execution
+    * @return a stream of the build execution. Use
+    *         {@link org.jclouds.docker.features.internal.ProgressStream#decode} to read its output.
     */
    @Named("image:build")
    @POST
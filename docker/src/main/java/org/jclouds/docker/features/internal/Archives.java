@@ -17,44 +17,325 @@
 package org.jclouds.docker.features.internal;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.collect.Iterables.getLast;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
 
-import com.google.common.base.Splitter;
-import com.google.common.io.Files;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Queues;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
 
 public class Archives {
 
+   public static final String TAR_CONTENT_TYPE = "application/tar";
+
+   private static final int CHUNK_SIZE = 64 * 1024;
+
    public static File tar(File baseDir, String archivePath) throws IOException {
       return tar(baseDir, new File(archivePath));
    }
 
    public static File tar(File baseDir, File tarFile) throws IOException {
-      // Check that the directory is a directory, and get its contents
-      checkArgument(baseDir.isDirectory(), "%s is not a directory", baseDir);
-      File[] files = baseDir.listFiles();
-      String token = getLast(Splitter.on("/").split(baseDir.getAbsolutePath()));
-      TarArchiveOutputStream tos = new TarArchiveOutputStream(new FileOutputStream(tarFile));
-      tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+      OutputStream out = new FileOutputStream(tarFile);
       try {
-         for (File file : files) {
-            TarArchiveEntry tarEntry = new TarArchiveEntry(file);
-            tarEntry.setName("/" + getLast(Splitter.on(token).split(file.toString())));
-            tos.putArchiveEntry(tarEntry);
-            if (!file.isDirectory()) {
-               Files.asByteSource(file).copyTo(tos);
-            }
-            tos.closeArchiveEntry();
-         }
+         tar(baseDir, out);
       } finally {
-         tos.close();
+         out.close();
       }
       return tarFile;
    }
 
+   /**
+    * Writes a tar archive with the whole directory tree of the given directory to the given stream. The stream is not
+    * closed.
+    */
+   public static void tar(File baseDir, OutputStream out) throws IOException {
+      checkArgument(checkNotNull(baseDir, "baseDir").isDirectory(), "%s is not a directory", baseDir);
+      ByteStreams.copy(tarStream(walk(baseDir, DockerIgnore.none()), false), out);
+   }
+
+   /**
+    * Extracts the tar archive read from the given stream into the given directory, such as the archives returned when
+    * exporting a container or copying files out of it.
+    * <p>
+    * Each entry is written to disk as it is read, so only one chunk of the archive is held in memory. The stream is
+    * not closed.
+    *
+    * @return the extracted files, in the order of the archive.
+    * @throws IOException if the archive cannot be read or an entry points outside the directory.
+    */
+   public static List<File> untar(InputStream in, File destDir) throws IOException {
+      checkNotNull(in, "in");
+      checkArgument(checkNotNull(destDir, "destDir").isDirectory(), "%s is not a directory", destDir);
+      String destPath = destDir.getCanonicalPath() + File.separator;
+      ImmutableList.Builder<File> files = ImmutableList.builder();
+      TarArchiveInputStream tis = new TarArchiveInputStream(in);
+      byte[] chunk = new byte[CHUNK_SIZE];
+      TarArchiveEntry entry;
+      while ((entry = tis.getNextTarEntry()) != null) {
+         File file = new File(destDir, entry.getName());
+         if (!(file.getCanonicalPath() + File.separator).startsWith(destPath)) {
+            throw new IOException(String.format("Entry %s is outside %s", entry.getName(), destDir));
+         }
+         if (entry.isDirectory()) {
+            file.mkdirs();
+         } else if (entry.isFile()) {
+            file.getParentFile().mkdirs();
+            OutputStream out = new FileOutputStream(file);
+            try {
+               int read;
+               while ((read = tis.read(chunk)) != -1) {
+                  out.write(chunk, 0, read);
+               }
+            } finally {
+               out.close();
+            }
+         } else {
+            // Links and devices are not extracted
+            continue;
+         }
+         files.add(file);
+      }
+      return files.build();
+   }
+
+   /**
+    * Returns the build context for the given directory, honouring its <code>.dockerignore</code> file.
+    * <p>
+    * The archive is generated while the payload is being sent, so no temporary files are written and the upload
+    * starts right away. The payload is repeatable, as the archive is generated again each time it is opened.
+    */
+   public static Payload buildContext(final File baseDir, final boolean gzip) throws IOException {
+      checkArgument(checkNotNull(baseDir, "baseDir").isDirectory(), "%s is not a directory", baseDir);
+      final DockerIgnore dockerIgnore = DockerIgnore.load(baseDir);
+      return payload(new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            return tarStream(walk(baseDir, dockerIgnore), gzip);
+         }
+      });
+   }
+
+   /**
+    * Returns a build context with the given file as its Dockerfile.
+    */
+   public static Payload dockerfileContext(final File dockerFile) {
+      checkArgument(checkNotNull(dockerFile, "dockerFile").isFile(), "%s is not a file", dockerFile);
+      return payload(new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            return tarStream(ImmutableList.of(new Entry("Dockerfile", dockerFile)).iterator(), false);
+         }
+      });
+   }
+
+   private static Payload payload(ByteSource source) {
+      Payload payload = Payloads.newByteSourcePayload(source);
+      // The length is unknown until the archive has been generated, so the
+      // payload is sent with chunked encoding
+      payload.getContentMetadata().setContentType(TAR_CONTENT_TYPE);
+      return payload;
+   }
+
+   private static InputStream tarStream(Iterator<Entry> entries, boolean gzip) throws IOException {
+      return new TarInputStream(entries, gzip);
+   }
+
+   /**
+    * Lazily walks the directory tree in depth-first order, skipping the excluded paths. Symbolic links are returned
+    * as entries but never followed, so a link to a directory does not pull the target tree into the archive.
+    */
+   private static Iterator<Entry> walk(final File baseDir, final DockerIgnore dockerIgnore) {
+      return new AbstractIterator<Entry>() {
+         private final Deque<Entry> pending = Queues.newArrayDeque();
+
+         {
+            pushChildren(baseDir, "");
+         }
+
+         @Override
+         protected Entry computeNext() {
+            while (!pending.isEmpty()) {
+               Entry next = pending.pop();
+               boolean excluded = dockerIgnore.apply(next.name);
+               if (next.file.isDirectory() && !Files.isSymbolicLink(next.file.toPath())
+                     && !(excluded && dockerIgnore.canSkipContents(next.name))) {
+                  pushChildren(next.file, next.name + "/");
+               }
+               if (!excluded) {
+                  return next;
+               }
+            }
+            return endOfData();
+         }
+
+         private void pushChildren(File dir, String prefix) {
+            String[] names = dir.list();
+            if (names != null) {
+               // Pushed in reverse order so they are walked in alphabetical order
+               Arrays.sort(names, Collections.reverseOrder());
+               for (String name : names) {
+                  pending.push(new Entry(prefix + name, new File(dir, name)));
+               }
+            }
+         }
+      };
+   }
+
+   private static class Entry {
+      private final String name;
+      private final File file;
+
+      private Entry(String name, File file) {
+         this.name = name;
+         this.file = file;
+      }
+   }
+
+   /**
+    * Generates a tar archive as it is read, keeping in memory only the chunk of the archive being read.
+    */
+   private static class TarInputStream extends InputStream {
+      private final Iterator<Entry> entries;
+      private final Buffer buffer = new Buffer();
+      private final OutputStream archive;
+      private final TarArchiveOutputStream tos;
+      private final byte[] chunk = new byte[CHUNK_SIZE];
+      private InputStream current;
+      private int position;
+      private boolean finished;
+      private boolean closed;
+
+      private TarInputStream(Iterator<Entry> entries, boolean gzip) throws IOException {
+         this.entries = entries;
+         this.archive = gzip ? new GZIPOutputStream(buffer, CHUNK_SIZE) : buffer;
+         this.tos = new TarArchiveOutputStream(archive);
+         this.tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+         this.tos.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+      }
+
+      @Override
+      public int read() throws IOException {
+         byte[] single = new byte[1];
+         int read = read(single, 0, 1);
+         return read == -1 ? -1 : single[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (closed) {
+            throw new IOException("Stream closed");
+         }
+         if (len == 0) {
+            return 0;
+         }
+         while (position == buffer.size()) {
+            buffer.reset();
+            position = 0;
+            if (!fill()) {
+               return -1;
+            }
+         }
+         int read = Math.min(len, buffer.size() - position);
+         System.arraycopy(buffer.bytes(), position, b, off, read);
+         position += read;
+         return read;
+      }
+
+      /**
+       * Writes the next piece of the archive to the buffer.
+       *
+       * @return <code>false</code> if the whole archive has already been written.
+       */
+      private boolean fill() throws IOException {
+         if (current != null) {
+            int read = current.read(chunk);
+            if (read == -1) {
+               current.close();
+               current = null;
+               tos.closeArchiveEntry();
+            } else {
+               tos.write(chunk, 0, read);
+            }
+            return true;
+         }
+         if (entries.hasNext()) {
+            Entry entry = entries.next();
+            Path path = entry.file.toPath();
+            if (Files.isSymbolicLink(path)) {
+               TarArchiveEntry link = new TarArchiveEntry(entry.name, TarConstants.LF_SYMLINK);
+               link.setLinkName(Files.readSymbolicLink(path).toString());
+               tos.putArchiveEntry(link);
+               tos.closeArchiveEntry();
+               return true;
+            }
+            tos.putArchiveEntry(new TarArchiveEntry(entry.file, entry.name));
+            if (entry.file.isFile()) {
+               current = new FileInputStream(entry.file);
+            } else {
+               tos.closeArchiveEntry();
+            }
+            return true;
+         }
+         if (!finished) {
+            finished = true;
+            tos.close();
+            return true;
+         }
+         return false;
+      }
+
+      /**
+       * Stops generating the archive: no more entries are walked or read, and the file being archived and the
+       * compressor are released.
+       */
+      @Override
+      public void close() throws IOException {
+         if (closed) {
+            return;
+         }
+         closed = true;
+         Closeables.close(current, true);
+         current = null;
+         // The archive may have unclosed entries, so the compressor is
+         // released directly instead of finishing the archive
+         Closeables.close(archive, true);
+         buffer.reset();
+         position = 0;
+      }
+   }
+
+   private static class Buffer extends ByteArrayOutputStream {
+      private Buffer() {
+         super(CHUNK_SIZE + 1024);
+      }
+
+      private byte[] bytes() {
+         return buf;
+      }
+   }
 }
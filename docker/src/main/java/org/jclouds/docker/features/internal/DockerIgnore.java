@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.features.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+/**
+ * The exclusion patterns of the <code>.dockerignore</code> file of a build context.
+ * <p>
+ * Patterns use the Docker glob syntax: <code>*</code> and <code>?</code> do not match the path separator,
+ * <code>**</code> matches any number of directories and patterns starting with <code>!</code> re-include paths
+ * excluded by a previous pattern. A pattern matching a directory excludes all its contents.
+ */
+public class DockerIgnore implements Predicate<String> {
+
+   public static final String FILE_NAME = ".dockerignore";
+
+   private static final DockerIgnore NONE = new DockerIgnore(ImmutableList.<Rule> of());
+
+   private final List<Rule> rules;
+
+   private DockerIgnore(List<Rule> rules) {
+      this.rules = rules;
+   }
+
+   /**
+    * Patterns that do not exclude anything.
+    */
+   public static DockerIgnore none() {
+      return NONE;
+   }
+
+   /**
+    * Loads the <code>.dockerignore</code> file of the given directory, if present.
+    */
+   public static DockerIgnore load(File baseDir) throws IOException {
+      File ignoreFile = new File(checkNotNull(baseDir, "baseDir"), FILE_NAME);
+      if (!ignoreFile.isFile()) {
+         return NONE;
+      }
+      return parse(Files.readLines(ignoreFile, Charsets.UTF_8));
+   }
+
+   public static DockerIgnore parse(Iterable<String> lines) {
+      ImmutableList.Builder<Rule> rules = ImmutableList.builder();
+      for (String line : lines) {
+         String pattern = line.trim();
+         if (pattern.isEmpty() || pattern.startsWith("#")) {
+            continue;
+         }
+         boolean exception = pattern.startsWith("!");
+         if (exception) {
+            pattern = pattern.substring(1).trim();
+         }
+         pattern = clean(pattern);
+         if (!pattern.isEmpty()) {
+            rules.add(new Rule(toRegex(pattern), exception));
+         }
+      }
+      return new DockerIgnore(rules.build());
+   }
+
+   /**
+    * Returns <code>true</code> if the given path, relative to the build context and using <code>/</code> as the
+    * separator, is excluded from the build context.
+    */
+   @Override
+   public boolean apply(String path) {
+      String cleanPath = clean(path);
+      // The Dockerfile and the ignore file itself are always sent to the daemon
+      if (cleanPath.equals("Dockerfile") || cleanPath.equals(FILE_NAME)) {
+         return false;
+      }
+      boolean excluded = false;
+      for (Rule rule : rules) {
+         if (rule.matches(cleanPath)) {
+            excluded = !rule.exception;
+         }
+      }
+      return excluded;
+   }
+
+   /**
+    * Returns <code>true</code> if the contents of the given excluded directory can be skipped, because no pattern
+    * re-includes paths.
+    */
+   public boolean canSkipContents(String directory) {
+      for (Rule rule : rules) {
+         if (rule.exception) {
+            return false;
+         }
+      }
+      return apply(directory);
+   }
+
+   private static String clean(String path) {
+      String clean = path.replace('\\', '/');
+      while (clean.startsWith("./") || clean.startsWith("/")) {
+         clean = clean.substring(clean.startsWith("./") ? 2 : 1);
+      }
+      while (clean.endsWith("/")) {
+         clean = clean.substring(0, clean.length() - 1);
+      }
+      return clean;
+   }
+
+   private static Pattern toRegex(String glob) {
+      StringBuilder regex = new StringBuilder();
+      int i = 0;
+      while (i < glob.length()) {
+         char c = glob.charAt(i);
+         if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+            // "**/" also matches the base directory
+            if (i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+               regex.append("(.*/)?");
+               i += 3;
+            } else {
+               regex.append(".*");
+               i += 2;
+            }
+            continue;
+         }
+         switch (c) {
+            case '*':
+               regex.append("[^/]*");
+               break;
+            case '?':
+               regex.append("[^/]");
+               break;
+            case '[':
+               int end = glob.indexOf(']', i + 1);
+               if (end > i) {
+                  String range = glob.substring(i + 1, end);
+                  regex.append('[').append(range.startsWith("^") ? "^" + range.substring(1) : range).append(']');
+                  i = end;
+               } else {
+                  regex.append("\\[");
+               }
+               break;
+            case '\\':
+               if (i + 1 < glob.length()) {
+                  regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+               }
+               break;
+            default:
+               regex.append(Pattern.quote(String.valueOf(c)));
+         }
+         i++;
+      }
+      // A matching directory excludes all its contents
+      regex.append("(/.*)?");
+      return Pattern.compile(regex.toString());
+   }
+
+   private static class Rule {
+      private final Pattern pattern;
+      private final boolean exception;
+
+      private Rule(Pattern pattern, boolean exception) {
+         this.pattern = pattern;
+         this.exception = exception;
+      }
+
+      private boolean matches(String path) {
+         return pattern.matcher(path).matches();
+      }
+   }
+}
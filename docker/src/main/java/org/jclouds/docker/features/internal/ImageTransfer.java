@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.features.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.InputStream;
+
+import org.jclouds.docker.features.RemoteApi;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+/**
+ * Copies images between Docker daemons.
+ */
+public class ImageTransfer {
+
+   /**
+    * Copies the given image, or all the images and tags of the given repository, from one daemon to another.
+    * <p>
+    * The tarball returned by the source daemon is sent to the target daemon as it is received, so only the buffers of
+    * both connections are held in memory and nothing is written to disk, whatever the size of the images.
+    *
+    * @param source the daemon to copy the images from.
+    * @param target the daemon to copy the images to.
+    * @param name the name of the repository or the id of the image.
+    */
+   public static void transfer(RemoteApi source, RemoteApi target, String name) {
+      checkNotNull(source, "source");
+      checkNotNull(target, "target");
+      InputStream tarball = checkNotNull(source.saveImage(checkNotNull(name, "name")), "image %s", name);
+      try {
+         // The size of the tarball is unknown, so it is sent with chunked encoding
+         Payload payload = Payloads.newInputStreamPayload(tarball);
+         payload.getContentMetadata().setContentType(Archives.TAR_CONTENT_TYPE);
+         target.loadImage(payload);
+      } finally {
+         closeQuietly(tarball);
+      }
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.features.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.jclouds.docker.domain.ProgressMessage;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Decodes the progress stream returned when pulling, building or deleting an image one message at a time, so only the
+ * current message is kept in memory however long the stream is.
+ * <p>
+ * Closing the stream aborts reading the rest of it and releases the connection.
+ *
+ * <pre>
+ * ProgressStream progress = ProgressStream.decode(api.getRemoteApi().createImage(fromImage(&quot;ubuntu&quot;)));
+ * while (progress.hasNext()) {
+ *    ProgressMessage message = progress.next();
+ *    ...
+ * }
+ * </pre>
+ */
+public final class ProgressStream extends AbstractIterator<ProgressMessage> implements Closeable {
+
+   private static final TypeAdapter<ProgressMessage> ADAPTER = new Gson().getAdapter(ProgressMessage.class);
+
+   private final JsonReader reader;
+   private boolean inArray;
+
+   /**
+    * Decodes the given stream of pull or build messages, or the array of delete messages.
+    */
+   public static ProgressStream decode(InputStream in) {
+      return new ProgressStream(checkNotNull(in, "in"));
+   }
+
+   private ProgressStream(InputStream in) {
+      this.reader = new JsonReader(new InputStreamReader(in, Charsets.UTF_8));
+      // Pulls and builds send the messages as consecutive top level objects
+      this.reader.setLenient(true);
+   }
+
+   @Override
+   protected ProgressMessage computeNext() {
+      try {
+         while (true) {
+            if (inArray) {
+               if (reader.hasNext()) {
+                  return ADAPTER.read(reader);
+               }
+               reader.endArray();
+               inArray = false;
+            } else {
+               if (peek() == JsonToken.END_DOCUMENT) {
+                  reader.close();
+                  return endOfData();
+               } else if (peek() == JsonToken.BEGIN_ARRAY) {
+                  reader.beginArray();
+                  inArray = true;
+               } else {
+                  return ADAPTER.read(reader);
+               }
+            }
+         }
+      } catch (IOException e) {
+         closeQuietly(reader);
+         throw propagate(e);
+      }
+   }
+
+   private JsonToken peek() throws IOException {
+      try {
+         return reader.peek();
+      } catch (EOFException e) {
+         // The reader fails instead of reporting the end of an empty document
+         return JsonToken.END_DOCUMENT;
+      }
+   }
+
+   /**
+    * Reads the rest of the stream, stopping at the first error message, and closes it.
+    *
+    * @return the last message of the stream, or <code>null</code> if it was empty.
+    * @throws IllegalStateException if the daemon reported an error.
+    */
+   public ProgressMessage awaitCompletion() {
+      ProgressMessage last = null;
+      try {
+         while (hasNext()) {
+            last = next();
+            if (last.isError()) {
+               throw new IllegalStateException(last.getError());
+            }
+         }
+      } finally {
+         closeQuietly(this);
+      }
+      return last;
+   }
+
+   @Override
+   public void close() throws IOException {
+      reader.close();
+   }
+}
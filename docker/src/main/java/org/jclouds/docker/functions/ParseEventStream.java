@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.EventStream;
+import org.jclouds.http.HttpResponse;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Decodes the stream of events sent by the Docker daemon lazily, one JSON object at a time, as they are consumed.
+ */
+@Singleton
+public class ParseEventStream implements Function<HttpResponse, EventStream> {
+
+   private final TypeAdapter<Event> adapter;
+
+   @Inject
+   ParseEventStream(Gson gson) {
+      this.adapter = checkNotNull(gson, "gson").getAdapter(Event.class);
+   }
+
+   @Override
+   public EventStream apply(HttpResponse response) {
+      checkNotNull(response.getPayload(), "payload");
+      try {
+         JsonReader reader = new JsonReader(new InputStreamReader(response.getPayload().openStream(), Charsets.UTF_8));
+         // The daemon sends the events as consecutive top level objects
+         reader.setLenient(true);
+         return new JsonEventStream(reader, adapter);
+      } catch (IOException e) {
+         throw propagate(e);
+      }
+   }
+
+   private static class JsonEventStream extends AbstractIterator<Event> implements EventStream {
+      private final JsonReader reader;
+      private final TypeAdapter<Event> adapter;
+
+      JsonEventStream(JsonReader reader, TypeAdapter<Event> adapter) {
+         this.reader = reader;
+         this.adapter = adapter;
+      }
+
+      @Override
+      protected Event computeNext() {
+         try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+               reader.close();
+               return endOfData();
+            }
+            return adapter.read(reader);
+         } catch (EOFException e) {
+            // The reader fails instead of reporting the end of a stream without events
+            closeQuietly(reader);
+            return endOfData();
+         } catch (IOException e) {
+            throw propagate(e);
+         }
+      }
+
+      @Override
+      public void close() throws IOException {
+         reader.close();
+      }
+   }
+}
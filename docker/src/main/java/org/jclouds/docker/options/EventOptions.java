@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.options;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.gson.Gson;
+
+/**
+ * Options to customize the event stream.
+ */
+public class EventOptions extends BaseHttpRequestOptions {
+
+   public static final EventOptions NONE = new EventOptions();
+
+   private static final Gson GSON = new Gson();
+
+   private final Multimap<String, String> filters = LinkedHashMultimap.create();
+
+   /**
+    * Only send the events that happened after the given time, in seconds since the epoch.
+    */
+   public EventOptions since(Long since) {
+      this.queryParameters.put("since", since.toString());
+      return this;
+   }
+
+   /**
+    * Close the stream once the events until the given time, in seconds since the epoch, have been sent.
+    */
+   public EventOptions until(Long until) {
+      this.queryParameters.put("until", until.toString());
+      return this;
+   }
+
+   /**
+    * Only send the events matching the given filter, for example <code>event</code> with <code>start</code>
+    * and <code>die</code>, or <code>container</code> with the ids of the containers to watch.
+    */
+   public EventOptions filter(String name, String... values) {
+      filters.putAll(checkNotNull(name, "name"), ImmutableList.copyOf(checkNotNull(values, "values")));
+      this.queryParameters.replaceValues("filters", ImmutableList.of(GSON.toJson(filters.asMap())));
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see EventOptions#since(Long)
+       */
+      public static EventOptions since(Long since) {
+         EventOptions options = new EventOptions();
+         return options.since(since);
+      }
+
+      /**
+       * @see EventOptions#until(Long)
+       */
+      public static EventOptions until(Long until) {
+         EventOptions options = new EventOptions();
+         return options.until(until);
+      }
+
+      /**
+       * @see EventOptions#filter(String, String...)
+       */
+      public static EventOptions filter(String name, String... values) {
+         EventOptions options = new EventOptions();
+         return options.filter(name, values);
+      }
+
+   }
+
+}
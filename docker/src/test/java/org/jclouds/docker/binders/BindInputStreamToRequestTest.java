@@ -18,11 +18,11 @@ package org.jclouds.docker.binders;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.CharStreams;
+import com.google.common.io.Files;
 import org.jclouds.http.HttpRequest;
 import org.testng.annotations.Test;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
@@ -38,18 +38,32 @@ public class BindInputStreamToRequestTest {
 
       HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://test").build();
       request = binder.bindToRequest(request, File.createTempFile("dockerfile", ""));
-      String rawContent = CharStreams.toString(new InputStreamReader((FileInputStream) request.getPayload().getRawContent(), Charsets.UTF_8));
+      String rawContent = CharStreams.toString(new InputStreamReader(request.getPayload().openStream(), Charsets.UTF_8));
       assertTrue(rawContent.startsWith("Dockerfile"));
       assertEquals(request.getPayload().getContentMetadata().getContentType(), "application/tar");
    }
 
+   @Test
+   public void testBindDirectoryToRequest() throws IOException {
+      BindInputStreamToRequest binder = new BindInputStreamToRequest();
+      File context = Files.createTempDir();
+      Files.write("FROM busybox", new File(context, "Dockerfile"), Charsets.UTF_8);
+
+      HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://test").build();
+      request = binder.bindToRequest(request, context);
+      String rawContent = CharStreams.toString(new InputStreamReader(request.getPayload().openStream(), Charsets.UTF_8));
+      assertTrue(rawContent.startsWith("Dockerfile"));
+      assertTrue(rawContent.contains("FROM busybox"));
+      assertEquals(request.getPayload().getContentMetadata().getContentType(), "application/tar");
+   }
+
    @Test(expectedExceptions = IllegalArgumentException.class)
    public void testBindInputStreamToRequestWithObjectAsInput() throws IOException {
       BindInputStreamToRequest binder = new BindInputStreamToRequest();
 
       HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://test").build();
       request = binder.bindToRequest(request, new Object());
-      String rawContent = CharStreams.toString(new InputStreamReader((FileInputStream) request.getPayload().getRawContent(), Charsets.UTF_8));
+      String rawContent = CharStreams.toString(new InputStreamReader(request.getPayload().openStream(), Charsets.UTF_8));
       assertTrue(rawContent.startsWith("Dockerfile"));
       assertEquals(request.getPayload().getContentMetadata().getContentType(), "application/tar");
    }
@@ -60,7 +74,7 @@ public class BindInputStreamToRequestTest {
 
       HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://test").build();
       request = binder.bindToRequest(request, null);
-      String rawContent = CharStreams.toString(new InputStreamReader((FileInputStream) request.getPayload().getRawContent(), Charsets.UTF_8));
+      String rawContent = CharStreams.toString(new InputStreamReader(request.getPayload().openStream(), Charsets.UTF_8));
       assertTrue(rawContent.startsWith("Dockerfile"));
       assertEquals(request.getPayload().getContentMetadata().getContentType(), "application/tar");
    }
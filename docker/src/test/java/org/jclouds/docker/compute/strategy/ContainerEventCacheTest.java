@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.easymock.IAnswer;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.EventStream;
+import org.jclouds.docker.features.RemoteApi;
+import org.jclouds.docker.options.EventOptions;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link ContainerEventCache} class.
+ */
+@Test(groups = "unit", testName = "ContainerEventCacheTest")
+public class ContainerEventCacheTest {
+
+   public void testInspectsOnlyContainersWithEvents() {
+      Container first = Container.builder().id("first").created("1").status("Up 1 second").build();
+      Container second = Container.builder().id("second").created("2").status("Up 2 seconds").build();
+      Container secondDead = Container.builder().fromContainer(second).status("Exited (0)").build();
+      Container third = Container.builder().id("third").created("3").status("Up 3 seconds").build();
+
+      DockerApi api = createMock(DockerApi.class);
+      RemoteApi remoteApi = createMock(RemoteApi.class);
+      expect(api.getRemoteApi()).andStubReturn(remoteApi);
+      expect(remoteApi.listContainers(isA(ListContainerOptions.class))).andReturn(ImmutableSet.of(first, second));
+      expect(remoteApi.inspectContainer("first")).andReturn(first);
+      expect(remoteApi.inspectContainer("second")).andReturn(second);
+      expect(remoteApi.inspectContainer("first")).andReturn(null);
+      expect(remoteApi.inspectContainer("second")).andReturn(secondDead);
+      expect(remoteApi.inspectContainer("third")).andReturn(third);
+      replay(api, remoteApi);
+
+      InspectionCache inspectionCache = new InspectionCache(api, MoreExecutors.sameThreadExecutor(), 1);
+      // The event stream is not watched in this test
+      ContainerEventCache cache = new ContainerEventCache(api, inspectionCache, new ThreadFactory() {
+         @Override
+         public Thread newThread(Runnable runnable) {
+            return new Thread();
+         }
+      }, 0, new Closer());
+
+      assertEquals(cache.listContainers(), ImmutableSet.of(first, second));
+      // Reading again without events does not call the api
+      assertEquals(cache.listContainers(), ImmutableSet.of(first, second));
+
+      cache.apply(Event.builder().status("destroy").id("first").time(4).build());
+      cache.apply(Event.builder().status("die").id("second").time(4).build());
+      cache.apply(Event.builder().status("create").id("third").time(4).build());
+      cache.apply(Event.builder().status("untag").id("image").time(4).build());
+      assertEquals(cache.listContainers(), ImmutableSet.of(secondDead, third));
+
+      verify(api, remoteApi);
+   }
+
+   public void testReadTimeoutWatchesAgainWithoutListing() {
+      final AtomicReference<ContainerEventCache> cache = new AtomicReference<ContainerEventCache>();
+      DockerApi api = createMock(DockerApi.class);
+      RemoteApi remoteApi = createMock(RemoteApi.class);
+      EventStream idle = createNiceMock(EventStream.class);
+      EventStream closing = createNiceMock(EventStream.class);
+      expect(api.getRemoteApi()).andStubReturn(remoteApi);
+      // Listed only once, when the stream is first watched
+      expect(remoteApi.listContainers(isA(ListContainerOptions.class))).andReturn(ImmutableSet.<Container> of());
+      expect(remoteApi.events(isA(EventOptions.class))).andReturn(idle);
+      expect(remoteApi.events(isA(EventOptions.class))).andReturn(closing);
+      expect(idle.hasNext()).andThrow(new RuntimeException(new SocketTimeoutException("Read timed out")));
+      expect(closing.hasNext()).andAnswer(new IAnswer<Boolean>() {
+         @Override
+         public Boolean answer() {
+            cache.get().close();
+            throw new IllegalStateException("closed");
+         }
+      });
+      replay(api, remoteApi, idle, closing);
+
+      InspectionCache inspectionCache = new InspectionCache(api, MoreExecutors.sameThreadExecutor(), 1);
+      // Watch the stream in the calling thread, until the cache is closed
+      cache.set(new ContainerEventCache(api, inspectionCache, new ThreadFactory() {
+         @Override
+         public Thread newThread(final Runnable runnable) {
+            return new Thread() {
+               @Override
+               public synchronized void start() {
+                  runnable.run();
+               }
+            };
+         }
+      }, 0, new Closer()));
+
+      assertEquals(cache.get().listContainers(), ImmutableSet.of());
+
+      verify(api, remoteApi, idle, closing);
+   }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import org.jclouds.compute.domain.Template;
+import org.jclouds.docker.compute.options.DockerTemplateOptions;
+import org.jclouds.docker.domain.Container;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Unit tests for the {@link ContainerGroupTemplate} class.
+ */
+@Test(groups = "unit", testName = "ContainerGroupTemplateTest")
+public class ContainerGroupTemplateTest {
+
+   private final Container container = Container.builder().id("id1").build();
+
+   public void testReturnsTheContainerOfTheNode() {
+      ContainerGroupTemplate template = new ContainerGroupTemplate(createMock(Template.class), ImmutableMap.of(
+            "group-1", container), ImmutableMap.<String, RuntimeException> of());
+      assertSame(template.getContainer("group-1"), container);
+   }
+
+   public void testThrowsTheFailureOfTheNode() {
+      IllegalStateException failure = new IllegalStateException("not started");
+      ContainerGroupTemplate template = new ContainerGroupTemplate(createMock(Template.class), ImmutableMap.of(
+            "group-1", container), ImmutableMap.<String, RuntimeException> of("group-2", failure));
+      try {
+         template.getContainer("group-2");
+         fail("the failure of the node should have been thrown");
+      } catch (IllegalStateException ex) {
+         assertSame(ex, failure);
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testFailsForUnknownNodes() {
+      new ContainerGroupTemplate(createMock(Template.class), ImmutableMap.of("group-1", container),
+            ImmutableMap.<String, RuntimeException> of()).getContainer("group-3");
+   }
+
+   public void testDelegatesAndClonesTheContainers() {
+      DockerTemplateOptions options = DockerTemplateOptions.Builder.memory(512);
+      Template delegate = createMock(Template.class);
+      Template cloned = createMock(Template.class);
+      expect(delegate.getOptions()).andReturn(options);
+      expect(delegate.clone()).andReturn(cloned);
+      replay(delegate, cloned);
+
+      ContainerGroupTemplate template = new ContainerGroupTemplate(delegate, ImmutableMap.of("group-1", container),
+            ImmutableMap.<String, RuntimeException> of());
+      assertSame(template.getOptions(), options);
+
+      ContainerGroupTemplate clone = template.clone();
+      assertNotSame(clone, template);
+      assertSame(clone.getContainer("group-1"), container);
+      assertEquals(clone.getClass(), ContainerGroupTemplate.class);
+      verify(delegate, cloned);
+   }
+}
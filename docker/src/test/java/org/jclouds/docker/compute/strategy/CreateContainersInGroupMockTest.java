@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Config;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.HostConfig;
+import org.jclouds.docker.internal.BaseDockerMockTest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Mock tests for the {@link CreateContainersInGroup} class.
+ */
+@Test(groups = "unit", testName = "CreateContainersInGroupMockTest")
+public class CreateContainersInGroupMockTest extends BaseDockerMockTest {
+
+   private static final String INSPECTED_ID = "be1d295c091720abc9a3105219ab75a0a7367d74156cc6048aa599fcc7d650e2";
+
+   private final Config config = Config.builder().imageId("image").build();
+   private final HostConfig hostConfig = HostConfig.builder().publishAllPorts(true).build();
+
+   public void testAllContainersStart() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(created("id1"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(created("id2"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(inspected("id1", true));
+      server.enqueue(inspected("id2", true));
+
+      DockerApi api = api(server.getUrl("/"));
+      try {
+         ContainerGroupTemplate template = strategy(api).createContainers(createMock(Template.class),
+               ImmutableSet.of("group-1", "group-2"), config, hostConfig);
+
+         assertCreatedAndStarted(server, "group-1", "id1");
+         assertCreatedAndStarted(server, "group-2", "id2");
+         assertRequestHasCommonFields(server.takeRequest(), "/containers/id1/json");
+         assertRequestHasCommonFields(server.takeRequest(), "/containers/id2/json");
+         assertEquals(server.getRequestCount(), 6);
+
+         Container container = template.getContainer("group-1");
+         assertEquals(container.getId(), "id1");
+         // The nodes are built from the inspected containers
+         assertEquals(container.getName(), "/tender_lumiere");
+         assertEquals(container.getState().getStartedAt(), "2014-06-18T08:49:25.63685385Z");
+         assertEquals(template.getContainer("group-2").getId(), "id2");
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testContainerThatCannotBeStartedIsDestroyed() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(created("id1"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(created("id2"));
+      server.enqueue(new MockResponse().setResponseCode(409).setBody("Conflict"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(inspected("id1", true));
+
+      DockerApi api = api(server.getUrl("/"));
+      try {
+         ContainerGroupTemplate template = strategy(api).createContainers(createMock(Template.class),
+               ImmutableSet.of("group-1", "group-2"), config, hostConfig);
+
+         assertCreatedAndStarted(server, "group-1", "id1");
+         assertCreatedAndStarted(server, "group-2", "id2");
+         assertRequestHasParameters(server.takeRequest(), "DELETE", "/containers/id2",
+               ImmutableMultimap.of("force", "true"));
+         assertRequestHasCommonFields(server.takeRequest(), "/containers/id1/json");
+         assertEquals(server.getRequestCount(), 6);
+
+         assertEquals(template.getContainer("group-1").getId(), "id1");
+         assertFails(template, "group-2");
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testContainerThatIsNotRunningIsDestroyed() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(created("id1"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(created("id2"));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(inspected("id1", true));
+      server.enqueue(inspected("id2", false));
+      server.enqueue(new MockResponse().setResponseCode(204));
+
+      DockerApi api = api(server.getUrl("/"));
+      try {
+         ContainerGroupTemplate template = strategy(api).createContainers(createMock(Template.class),
+               ImmutableSet.of("group-1", "group-2"), config, hostConfig);
+
+         assertCreatedAndStarted(server, "group-1", "id1");
+         assertCreatedAndStarted(server, "group-2", "id2");
+         assertRequestHasCommonFields(server.takeRequest(), "/containers/id1/json");
+         assertRequestHasCommonFields(server.takeRequest(), "/containers/id2/json");
+         assertRequestHasParameters(server.takeRequest(), "DELETE", "/containers/id2",
+               ImmutableMultimap.of("force", "true"));
+         assertEquals(server.getRequestCount(), 7);
+
+         assertEquals(template.getContainer("group-1").getId(), "id1");
+         assertFails(template, "group-2");
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   private CreateContainersInGroup strategy(DockerApi api) {
+      ContainerEventCache eventCache = createNiceMock(ContainerEventCache.class);
+      replay(eventCache);
+      DockerComputeServiceAdapter adapter = new DockerComputeServiceAdapter(api, new InspectionCache(api,
+            newDirectExecutorService(), 2), eventCache, false);
+      return new CreateContainersInGroup(createMock(CreateNodeWithGroupEncodedIntoName.class),
+            createMock(ListNodesStrategy.class), createMock(GroupNamingConvention.Factory.class),
+            newDirectExecutorService(), createMock(CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory.class),
+            api, adapter, 2);
+   }
+
+   private static MockResponse created(String id) {
+      return new MockResponse().setBody("{\"Id\":\"" + id + "\",\"Warnings\":null}");
+   }
+
+   private MockResponse inspected(String id, boolean running) {
+      String container = new String(payloadFromResource("/container.json"), Charsets.UTF_8).replace(INSPECTED_ID, id);
+      return new MockResponse().setBody(running ? container : container.replace("\"Running\": true",
+            "\"Running\": false"));
+   }
+
+   private static void assertCreatedAndStarted(MockWebServer server, String name, String id) throws Exception {
+      assertRequestHasParameters(server.takeRequest(), "POST", "/containers/create", ImmutableMultimap.of("name",
+            name));
+      assertRequestHasCommonFields(server.takeRequest(), "POST", "/containers/" + id + "/start");
+   }
+
+   private static void assertFails(ContainerGroupTemplate template, String name) {
+      try {
+         template.getContainer(name);
+         fail("the container of " + name + " should have failed");
+      } catch (IllegalStateException expected) {
+         assertTrue(expected.getMessage() != null);
+      }
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.Image;
+import org.jclouds.docker.features.RemoteApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link InspectionCache} class.
+ */
+@Test(groups = "unit", testName = "InspectionCacheTest")
+public class InspectionCacheTest {
+
+   public void testInspectsOnlyChangedContainers() {
+      Container first = Container.builder().id("first").created("1").status("Up 1 second").build();
+      Container second = Container.builder().id("second").created("2").status("Up 2 seconds").build();
+      Container secondStopped = Container.builder().id("second").created("2").status("Exited (0)").build();
+      Container firstInspected = Container.builder().fromContainer(first).name("/first").build();
+      Container secondInspected = Container.builder().fromContainer(second).name("/second").build();
+      Container secondStoppedInspected = Container.builder().fromContainer(secondStopped).name("/second").build();
+
+      DockerApi api = createMock(DockerApi.class);
+      RemoteApi remoteApi = createMock(RemoteApi.class);
+      expect(api.getRemoteApi()).andStubReturn(remoteApi);
+      expect(remoteApi.inspectContainer("first")).andReturn(firstInspected).once();
+      expect(remoteApi.inspectContainer("second")).andReturn(secondInspected).once();
+      expect(remoteApi.inspectContainer("second")).andReturn(secondStoppedInspected).once();
+      replay(api, remoteApi);
+
+      InspectionCache cache = new InspectionCache(api, MoreExecutors.sameThreadExecutor(), 2);
+
+      assertEquals(cache.inspectContainers(ImmutableList.of(first, second)),
+            ImmutableSet.of(firstInspected, secondInspected));
+      assertEquals(cache.inspectContainers(ImmutableList.of(first, secondStopped)),
+            ImmutableSet.of(firstInspected, secondStoppedInspected));
+      assertEquals(cache.inspectContainers(ImmutableList.of(first)), ImmutableSet.of(firstInspected));
+      assertEquals(cache.containers.keySet(), ImmutableSet.of("first"));
+
+      verify(api, remoteApi);
+   }
+
+   public void testSkipsContainersRemovedBeforeInspection() {
+      Container gone = Container.builder().id("gone").created("1").status("Up 1 second").build();
+
+      DockerApi api = createMock(DockerApi.class);
+      RemoteApi remoteApi = createMock(RemoteApi.class);
+      expect(api.getRemoteApi()).andStubReturn(remoteApi);
+      expect(remoteApi.inspectContainer("gone")).andReturn(null);
+      replay(api, remoteApi);
+
+      InspectionCache cache = new InspectionCache(api, MoreExecutors.sameThreadExecutor(), 1);
+
+      assertEquals(cache.inspectContainers(ImmutableList.of(gone)), ImmutableSet.of());
+      assertEquals(cache.containers.size(), 0);
+
+      verify(api, remoteApi);
+   }
+
+   public void testInspectedImagesKeepListedRepoTags() {
+      Image listed = Image.builder().id("image").created("1").repoTags(ImmutableList.of("ubuntu:14.04")).build();
+      Image inspected = Image.builder().id("image").created("1").architecture("amd64").build();
+      Image expected = Image.builder().fromImage(inspected).repoTags(ImmutableList.of("ubuntu:14.04")).build();
+
+      DockerApi api = createMock(DockerApi.class);
+      RemoteApi remoteApi = createMock(RemoteApi.class);
+      expect(api.getRemoteApi()).andStubReturn(remoteApi);
+      expect(remoteApi.inspectImage("image")).andReturn(inspected).once();
+      replay(api, remoteApi);
+
+      InspectionCache cache = new InspectionCache(api, MoreExecutors.sameThreadExecutor(), 4);
+
+      assertEquals(cache.inspectImages(ImmutableList.of(listed)), ImmutableSet.of(expected));
+      assertEquals(cache.inspectImages(ImmutableList.of(listed)), ImmutableSet.of(expected));
+
+      verify(api, remoteApi);
+   }
+
+   public void testTracksListedImages() {
+      Image listed = Image.builder().id("image").created("1").repoTags(ImmutableList.of("ubuntu:14.04")).build();
+
+      DockerApi api = createMock(DockerApi.class);
+      RemoteApi remoteApi = createMock(RemoteApi.class);
+      expect(api.getRemoteApi()).andStubReturn(remoteApi);
+      expect(remoteApi.inspectImage("image")).andReturn(listed).once();
+      replay(api, remoteApi);
+
+      InspectionCache cache = new InspectionCache(api, MoreExecutors.sameThreadExecutor(), 4);
+      assertFalse(cache.isListedImage("image"));
+
+      cache.inspectImages(ImmutableList.of(listed));
+      assertTrue(cache.isListedImage("image"));
+
+      // Removed from the daemon
+      cache.inspectImages(ImmutableList.<Image> of());
+      assertFalse(cache.isListedImage("image"));
+
+      verify(api, remoteApi);
+   }
+}
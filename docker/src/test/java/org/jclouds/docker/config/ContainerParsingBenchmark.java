@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.docker.domain.Container;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Resources;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Measures the throughput of parsing the container list and inspect responses with the tree based deserializer that
+ * created a {@link Gson} instance per container, and with the streaming {@link DockerParserModule.ContainerTypeAdapter}.
+ * <p>
+ * Run it with the {@link #main(String[])} method, which also reports the allocation rate of each path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerParsingBenchmark {
+
+   private static final Type CONTAINER_LIST = new TypeToken<List<Container>>() {
+   }.getType();
+
+   @Param({ "1", "1000" })
+   public int containers;
+
+   private Gson tree;
+   private Gson streaming;
+   private String list;
+   private String inspect;
+
+   @Setup
+   public void setup() throws IOException {
+      tree = new GsonBuilder().registerTypeAdapter(Container.class, new TreeContainerDeserializer()).create();
+      streaming = new GsonBuilder().registerTypeAdapter(Container.class, new DockerParserModule.ContainerTypeAdapter())
+            .create();
+
+      String listed = resource("/containers.json").trim();
+      String entry = listed.substring(1, listed.length() - 1);
+      list = "[" + Joiner.on(',').join(Iterables.limit(Iterables.cycle(entry), containers)) + "]";
+      inspect = resource("/container.json");
+   }
+
+   @Benchmark
+   public List<Container> listWithTree() {
+      return tree.fromJson(list, CONTAINER_LIST);
+   }
+
+   @Benchmark
+   public List<Container> listWithStreaming() {
+      return streaming.fromJson(list, CONTAINER_LIST);
+   }
+
+   @Benchmark
+   public Container inspectWithTree() {
+      return tree.fromJson(inspect, Container.class);
+   }
+
+   @Benchmark
+   public Container inspectWithStreaming() {
+      return streaming.fromJson(inspect, Container.class);
+   }
+
+   /**
+    * The container deserializer as it was before it was replaced by the streaming adapter.
+    */
+   private static class TreeContainerDeserializer implements JsonDeserializer<Container> {
+      @Override
+      public Container deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+            throws JsonParseException {
+         Gson gson = new GsonBuilder().serializeNulls().create();
+         return gson.fromJson(json.getAsJsonObject(), Container.class);
+      }
+   }
+
+   private static String resource(String name) throws IOException {
+      return Resources.toString(Resources.getResource(ContainerParsingBenchmark.class, name), Charsets.UTF_8);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder()
+            .include(ContainerParsingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+   }
+}
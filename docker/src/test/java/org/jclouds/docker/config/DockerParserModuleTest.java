@@ -16,12 +16,18 @@
  */
 package org.jclouds.docker.config;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 import org.jclouds.docker.domain.Container;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.util.List;
+
 import static org.jclouds.docker.config.DockerParserModule.ContainerTypeAdapter;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
@@ -49,4 +55,28 @@ public class DockerParserModuleTest {
       assertEquals(container.getVolumes(), null);
    }
 
+   @Test
+   public void testContainerList() throws IOException {
+      List<Container> containers = gson.fromJson(resource("/containers.json"), new TypeToken<List<Container>>() {
+      }.getType());
+      assertEquals(containers.size(), 1);
+      assertEquals(containers.get(0).getId(), "6d35806c1bd2b25cd92bba2d2c2c5169dc2156f53ab45c2b62d76e2d2fee14a9");
+      assertEquals(containers.get(0).getCreated(), "1395472605");
+      assertEquals(containers.get(0).getStatus(), "Up 55 seconds");
+      assertEquals(containers.get(0).getPorts().get(0).getPublicPort(), 49231);
+   }
+
+   @Test
+   public void testInspectedContainer() throws IOException {
+      Container container = gson.fromJson(resource("/container.json"), Container.class);
+      assertNotNull(container.getContainerConfig());
+      assertEquals(container.getContainerConfig().getHostname(), "9088c45a9592");
+      assertNotNull(container.getHostConfig());
+      assertNotNull(container.getNetworkSettings());
+   }
+
+   private static String resource(String name) throws IOException {
+      return Resources.toString(Resources.getResource(DockerParserModuleTest.class, name), Charsets.UTF_8);
+   }
+
 }
@@ -16,16 +16,23 @@
  */
 package org.jclouds.docker.features;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.io.ByteStreams;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
 import org.jclouds.docker.DockerApi;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.EventStream;
+import org.jclouds.docker.features.internal.ImageTransfer;
 import org.jclouds.docker.internal.BaseDockerMockTest;
 import org.jclouds.docker.options.BuildOptions;
 import org.jclouds.docker.options.CreateImageOptions;
+import org.jclouds.docker.options.EventOptions;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
@@ -34,6 +41,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.Set;
 
 import static org.testng.Assert.assertEquals;
@@ -64,6 +72,32 @@ public class RemoteApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   public void testEvents() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setBody(
+              "{\"status\":\"create\",\"id\":\"dfdf82bd3881\",\"from\":\"base:latest\",\"time\":1374067924}\n"
+              + "{\"status\":\"start\",\"id\":\"dfdf82bd3881\",\"from\":\"base:latest\",\"time\":1374067924}"
+              + "{\"status\":\"die\",\"id\":\"dfdf82bd3881\",\"from\":\"base:latest\",\"time\":1374067970}\n"));
+      DockerApi api = api(server.getUrl("/"));
+      RemoteApi remoteApi = api.getRemoteApi();
+      try {
+         EventStream events = remoteApi.events(EventOptions.Builder.since(1374067900l).until(1374068000l));
+         try {
+            assertRequestHasParameters(server.takeRequest(), "/events",
+                    ImmutableMultimap.of("since", "1374067900", "until", "1374068000"));
+            assertEquals(ImmutableList.copyOf(events), ImmutableList.of(
+                    Event.builder().status("create").id("dfdf82bd3881").from("base:latest").time(1374067924).build(),
+                    Event.builder().status("start").id("dfdf82bd3881").from("base:latest").time(1374067924).build(),
+                    Event.builder().status("die").id("dfdf82bd3881").from("base:latest").time(1374067970).build()));
+         } finally {
+            events.close();
+         }
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
    public void testListNonexistentContainers() throws Exception {
       MockWebServer server = mockWebServer();
       server.enqueue(new MockResponse().setResponseCode(404));
@@ -373,4 +407,60 @@ public class RemoteApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   public void testExportContainer() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setBody("tar contents"));
+      DockerApi api = api(server.getUrl("/"));
+      RemoteApi remoteApi = api.getRemoteApi();
+      try {
+         InputStream tar = remoteApi.exportContainer("1");
+         try {
+            assertEquals(new String(ByteStreams.toByteArray(tar), Charsets.UTF_8), "tar contents");
+         } finally {
+            tar.close();
+         }
+         assertRequestHasCommonFields(server.takeRequest(), "/containers/1/export");
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testCopyFromContainer() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setBody("tar contents"));
+      DockerApi api = api(server.getUrl("/"));
+      RemoteApi remoteApi = api.getRemoteApi();
+      try {
+         InputStream tar = remoteApi.copy("1", "/etc/hosts");
+         tar.close();
+         RecordedRequest request = server.takeRequest();
+         assertRequestHasCommonFields(request, "POST", "/containers/1/copy");
+         assertEquals(new String(request.getBody(), Charsets.UTF_8), "{\"Resource\":\"/etc/hosts\"}");
+      } finally {
+         api.close();
+         server.shutdown();
+      }
+   }
+
+   public void testTransferImage() throws Exception {
+      MockWebServer source = mockWebServer();
+      MockWebServer target = mockWebServer();
+      source.enqueue(new MockResponse().setBody("image tarball"));
+      target.enqueue(new MockResponse().setResponseCode(200));
+      DockerApi sourceApi = api(source.getUrl("/"));
+      DockerApi targetApi = api(target.getUrl("/"));
+      try {
+         ImageTransfer.transfer(sourceApi.getRemoteApi(), targetApi.getRemoteApi(), "busybox");
+         assertRequestHasCommonFields(source.takeRequest(), "/images/busybox/get");
+         RecordedRequest load = target.takeRequest();
+         assertRequestHasCommonFields(load, "POST", "/images/load");
+         assertEquals(new String(load.getBody(), Charsets.UTF_8), "image tarball");
+      } finally {
+         sourceApi.close();
+         targetApi.close();
+         source.shutdown();
+         target.shutdown();
+      }
+   }
 }
@@ -18,8 +18,12 @@ package org.jclouds.docker.features.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -27,6 +31,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -34,14 +40,18 @@ import javax.inject.Named;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarUtils;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.io.Payload;
 import org.jclouds.logging.Logger;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.beust.jcommander.internal.Lists;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 
@@ -72,6 +82,130 @@ public class ArchivesTest {
       assertTrue(checkSum == TarUtils.computeCheckSum(Files.asByteSource(untarredSampleFile).read()));
    }
 
+   public void testTarNestedDirectories() throws Exception {
+      File baseDir = Files.createTempDir();
+      File nested = new File(baseDir, "a" + File.separator + "b");
+      assertTrue(nested.mkdirs());
+      Files.write("nested".getBytes(), new File(nested, "file"));
+      Files.write("top".getBytes(), new File(baseDir, "top"));
+
+      File archive = Archives.tar(baseDir, new File(outputDir + File.separator + "nested.tar"));
+      assertEquals(entryNames(new FileInputStream(archive)), ImmutableList.of("a/", "a/b/", "a/b/file", "top"));
+   }
+
+   public void testBuildContextHonoursDockerIgnore() throws Exception {
+      File baseDir = Files.createTempDir();
+      File logs = new File(baseDir, "logs");
+      assertTrue(logs.mkdirs());
+      Files.write("log".getBytes(), new File(logs, "app.log"));
+      Files.write("FROM busybox".getBytes(), new File(baseDir, "Dockerfile"));
+      Files.write("tmp".getBytes(), new File(baseDir, "file.tmp"));
+      Files.write("keep".getBytes(), new File(baseDir, "keep.tmp"));
+      Files.write("logs\n*.tmp\n!keep.tmp\nDockerfile\n".getBytes(), new File(baseDir, ".dockerignore"));
+
+      Payload payload = Archives.buildContext(baseDir, false);
+      assertEquals(payload.getContentMetadata().getContentType(), "application/tar");
+      assertEquals(entryNames(payload.openStream()), ImmutableList.of(".dockerignore", "Dockerfile", "keep.tmp"));
+   }
+
+   public void testGzippedBuildContext() throws Exception {
+      File baseDir = Files.createTempDir();
+      byte[] contents = new byte[256 * 1024];
+      new Random().nextBytes(contents);
+      Files.write(contents, new File(baseDir, "large"));
+
+      Payload payload = Archives.buildContext(baseDir, true);
+      TarArchiveInputStream tar = new TarArchiveInputStream(new GZIPInputStream(payload.openStream()));
+      try {
+         TarArchiveEntry entry = tar.getNextTarEntry();
+         assertEquals(entry.getName(), "large");
+         assertEquals(ByteStreams.toByteArray(tar), contents);
+         assertNull(tar.getNextTarEntry());
+      } finally {
+         tar.close();
+      }
+   }
+
+   public void testSymbolicLinksAreArchivedAsLinks() throws Exception {
+      File baseDir = Files.createTempDir();
+      File target = Files.createTempDir();
+      Files.write("outside".getBytes(), new File(target, "secret"));
+      java.nio.file.Files.createSymbolicLink(new File(baseDir, "linked").toPath(), target.toPath());
+      Files.write("FROM busybox".getBytes(), new File(baseDir, "Dockerfile"));
+
+      TarArchiveInputStream tar = new TarArchiveInputStream(Archives.buildContext(baseDir, false).openStream());
+      try {
+         assertEquals(tar.getNextTarEntry().getName(), "Dockerfile");
+         TarArchiveEntry link = tar.getNextTarEntry();
+         assertEquals(link.getName(), "linked");
+         assertTrue(link.isSymbolicLink());
+         assertEquals(link.getLinkName(), target.getPath());
+         assertNull(tar.getNextTarEntry());
+      } finally {
+         tar.close();
+      }
+   }
+
+   public void testClosedBuildContextStopsGeneratingTheArchive() throws Exception {
+      File baseDir = Files.createTempDir();
+      Files.write(new byte[256 * 1024], new File(baseDir, "large"));
+      Files.write("FROM busybox".getBytes(), new File(baseDir, "Dockerfile"));
+
+      InputStream in = Archives.buildContext(baseDir, true).openStream();
+      assertTrue(in.read() != -1);
+      in.close();
+      in.close();
+      try {
+         in.read();
+         Assert.fail("reading a closed build context should fail");
+      } catch (IOException expected) {
+      }
+   }
+
+   public void testUntarStreamedArchive() throws Exception {
+      File baseDir = Files.createTempDir();
+      File nested = new File(baseDir, "a" + File.separator + "b");
+      assertTrue(nested.mkdirs());
+      Files.write("nested".getBytes(), new File(nested, "file"));
+      Files.write("top".getBytes(), new File(baseDir, "top"));
+      ByteArrayOutputStream archive = new ByteArrayOutputStream();
+      Archives.tar(baseDir, archive);
+
+      File destDir = Files.createTempDir();
+      List<File> files = Archives.untar(new ByteArrayInputStream(archive.toByteArray()), destDir);
+      assertEquals(files.size(), 4);
+      assertEquals(Files.toString(new File(destDir, "a/b/file"), Charsets.UTF_8), "nested");
+      assertEquals(Files.toString(new File(destDir, "top"), Charsets.UTF_8), "top");
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testUntarRejectsEntriesOutsideTheDirectory() throws Exception {
+      ByteArrayOutputStream archive = new ByteArrayOutputStream();
+      TarArchiveOutputStream tar = new TarArchiveOutputStream(archive);
+      TarArchiveEntry entry = new TarArchiveEntry("../escaped");
+      entry.setSize(1);
+      tar.putArchiveEntry(entry);
+      tar.write('x');
+      tar.closeArchiveEntry();
+      tar.close();
+
+      Archives.untar(new ByteArrayInputStream(archive.toByteArray()), Files.createTempDir());
+   }
+
+   private static List<String> entryNames(InputStream in) throws IOException {
+      TarArchiveInputStream tar = new TarArchiveInputStream(in);
+      try {
+         ImmutableList.Builder<String> names = ImmutableList.builder();
+         TarArchiveEntry entry;
+         while ((entry = tar.getNextTarEntry()) != null) {
+            names.add(entry.getName());
+         }
+         return names.build();
+      } finally {
+         tar.close();
+      }
+   }
+
    private List<File> unTar(final File inputFile, final File outputDir) throws Exception {
       final List<File> untarredFiles = Lists.newArrayList();
       final InputStream is = new FileInputStream(inputFile);
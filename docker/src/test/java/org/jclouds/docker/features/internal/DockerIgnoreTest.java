@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.features.internal;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "DockerIgnoreTest")
+public class DockerIgnoreTest {
+
+   public void testEmptyPatternsDoNotExclude() {
+      DockerIgnore ignore = DockerIgnore.parse(ImmutableList.of("", "  ", "# comment"));
+      assertFalse(ignore.apply("file"));
+      assertFalse(ignore.apply("dir/file"));
+   }
+
+   public void testSimplePatterns() {
+      DockerIgnore ignore = DockerIgnore.parse(ImmutableList.of("*.log", "/build/", "temp?"));
+      assertTrue(ignore.apply("app.log"));
+      assertFalse(ignore.apply("logs/app.log"));
+      assertTrue(ignore.apply("build"));
+      assertTrue(ignore.apply("build/classes/Foo.class"));
+      assertTrue(ignore.apply("temp1"));
+      assertFalse(ignore.apply("temp12"));
+   }
+
+   public void testDoubleStarPatterns() {
+      DockerIgnore ignore = DockerIgnore.parse(ImmutableList.of("**/*.class"));
+      assertTrue(ignore.apply("Foo.class"));
+      assertTrue(ignore.apply("a/b/Foo.class"));
+      assertFalse(ignore.apply("a/b/Foo.java"));
+   }
+
+   public void testExceptions() {
+      DockerIgnore ignore = DockerIgnore.parse(ImmutableList.of("*.md", "!README.md"));
+      assertTrue(ignore.apply("CHANGES.md"));
+      assertFalse(ignore.apply("README.md"));
+      assertFalse(ignore.canSkipContents("docs"));
+   }
+
+   public void testDockerfileIsNeverExcluded() {
+      DockerIgnore ignore = DockerIgnore.parse(ImmutableList.of("*", ".dockerignore"));
+      assertFalse(ignore.apply("Dockerfile"));
+      assertFalse(ignore.apply(".dockerignore"));
+      assertTrue(ignore.apply("src"));
+      assertTrue(ignore.canSkipContents("src"));
+   }
+}
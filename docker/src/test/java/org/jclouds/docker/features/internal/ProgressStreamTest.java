@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.features.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.docker.domain.ProgressMessage;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "ProgressStreamTest")
+public class ProgressStreamTest {
+
+   public void testPullMessages() {
+      ProgressStream progress = ProgressStream.decode(stream(
+            "{\"status\":\"Pulling repository ubuntu\"}\r\n"
+            + "{\"status\":\"Downloading\",\"progressDetail\":{\"current\":524288,\"total\":65688488},"
+            + "\"progress\":\"[>      ]\",\"id\":\"511136ea3c5a\"}"
+            + "{\"status\":\"Download complete\",\"progressDetail\":{},\"id\":\"511136ea3c5a\"}\n"));
+      assertEquals(ImmutableList.copyOf(progress), ImmutableList.of(
+            ProgressMessage.builder().status("Pulling repository ubuntu").build(),
+            ProgressMessage.builder().status("Downloading").id("511136ea3c5a").current(524288).total(65688488).build(),
+            ProgressMessage.builder().status("Download complete").id("511136ea3c5a").build()));
+   }
+
+   public void testBuildMessages() {
+      ProgressStream progress = ProgressStream.decode(stream(
+            "{\"stream\":\"Step 0 : FROM ubuntu\\n\"}\n{\"stream\":\"Successfully built 46ee8ccd0e4b\\n\"}"));
+      assertEquals(progress.awaitCompletion(),
+            ProgressMessage.builder().stream("Successfully built 46ee8ccd0e4b\n").build());
+   }
+
+   public void testDeleteMessages() {
+      ProgressStream progress = ProgressStream.decode(stream("[{\"Untagged\":\"ubuntu:latest\"},"
+            + "{\"Deleted\":\"53b4f83ac9\"}]"));
+      assertEquals(ImmutableList.copyOf(progress), ImmutableList.of(
+            ProgressMessage.builder().untagged("ubuntu:latest").build(),
+            ProgressMessage.builder().deleted("53b4f83ac9").build()));
+   }
+
+   public void testAwaitCompletionStopsAtTheFirstError() {
+      final AtomicBoolean closed = new AtomicBoolean();
+      InputStream in = new ByteArrayInputStream(("{\"status\":\"Pulling repository missing\"}"
+            + "{\"error\":\"Error: image missing not found\",\"errorDetail\":{\"message\":\"not found\"}}"
+            + "{\"status\":\"never read\"}").getBytes(Charsets.UTF_8)) {
+         @Override
+         public void close() throws IOException {
+            closed.set(true);
+            super.close();
+         }
+      };
+      try {
+         ProgressStream.decode(in).awaitCompletion();
+         fail("the error should have been reported");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "Error: image missing not found");
+      }
+      assertTrue(closed.get());
+   }
+
+   public void testEmptyStream() {
+      ProgressStream progress = ProgressStream.decode(stream(""));
+      assertFalse(progress.hasNext());
+      assertEquals(progress.awaitCompletion(), null);
+   }
+
+   private static InputStream stream(String content) {
+      return new ByteArrayInputStream(content.getBytes(Charsets.UTF_8));
+   }
+}